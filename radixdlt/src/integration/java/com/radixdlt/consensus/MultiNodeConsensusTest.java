@@ -81,7 +81,7 @@ public class MultiNodeConsensusTest {
 			when(atom.toString()).thenReturn(Long.toHexString(atomId.incrementAndGet()));
 			return Collections.singletonList(atom);
 		}).when(mempool).getAtoms(anyInt(), anySet());
-		ProposalGenerator proposalGenerator = new ProposalGenerator(vertexStore, mempool);
+		ProposalGenerator proposalGenerator = new ProposalGenerator(vertexStore, mempool, 1, Long.MAX_VALUE, atom -> 0);
 		SafetyRules safetyRules = new SafetyRules(key, vertexStore, SafetyState.initialState());
 		PacemakerImpl pacemaker = new PacemakerImpl(Executors.newSingleThreadScheduledExecutor());
 		PendingVotes pendingVotes = new PendingVotes();
@@ -114,12 +114,22 @@ public class MultiNodeConsensusTest {
 	private List<TestObserver<Vertex>> runBFT(
 		List<ECKeyPair> nodes,
 		ValidatorSet validatorSet
+	) {
+		return runBFT(nodes, validatorSet, false);
+	}
+
+	private List<TestObserver<Vertex>> runBFT(
+		List<ECKeyPair> nodes,
+		ValidatorSet validatorSet,
+		boolean pipelined
 	) {
 		return nodes.stream()
 			.map(e -> {
 				RadixEngine radixEngine = mock(RadixEngine.class);
 				when(radixEngine.staticCheck(any())).thenReturn(Optional.empty());
-				VertexStore vertexStore = new VertexStore(genesisVertex, genesisQC, radixEngine);
+				VertexStore vertexStore = pipelined
+					? new VertexStore(genesisVertex, genesisQC, radixEngine, Executors.newSingleThreadExecutor())
+					: new VertexStore(genesisVertex, genesisQC, radixEngine);
 				TestObserver<Vertex> testObserver = TestObserver.create();
 				vertexStore.lastCommittedVertex().subscribe(testObserver);
 				ChainedBFT chainedBFT = createBFTInstance(e, validatorSet, vertexStore);
@@ -150,6 +160,27 @@ public class MultiNodeConsensusTest {
 		}
 	}
 
+	@Test
+	public void given_3_correct_pipelined_bft_instances__then_all_instances_should_get_the_same_5_commits() throws Exception {
+		final List<ECKeyPair> nodes = Arrays.asList(new ECKeyPair(), new ECKeyPair(), new ECKeyPair());
+		final ValidatorSet validatorSet = ValidatorSet.from(
+			nodes.stream().map(ECKeyPair::getPublicKey).map(Validator::from).collect(Collectors.toList())
+		);
+		final List<TestObserver<Vertex>> committedListeners = runBFT(nodes, validatorSet, true);
+
+		final int commitCount = 5;
+		for (TestObserver<Vertex> committedListener : committedListeners) {
+			committedListener.awaitCount(commitCount);
+		}
+
+		for (TestObserver<Vertex> committedListener : committedListeners) {
+			for (TestObserver<Vertex> otherCommittedListener : committedListeners) {
+				assertThat(committedListener.values().subList(0, commitCount))
+					.isEqualTo(otherCommittedListener.values().subList(0, commitCount));
+			}
+		}
+	}
+
 	@Test
 	public void given_2_out_of_3_correct_bft_instances__then_all_instances_should_only_get_genesis_commit() throws Exception {
 		final List<ECKeyPair> nodes = Arrays.asList(new ECKeyPair(), new ECKeyPair(), new ECKeyPair());
@@ -162,7 +193,7 @@ public class MultiNodeConsensusTest {
 
 		for (TestObserver<Vertex> committedListener : committedListeners) {
 			committedListener.awaitCount(commitCount);
-			committedListener.assertValue(v -> v.getAtom().toString().equals(Integer.toHexString(0)));
+			committedListener.assertValue(v -> v.getAtoms().get(0).toString().equals(Integer.toHexString(0)));
 		}
 	}
 }
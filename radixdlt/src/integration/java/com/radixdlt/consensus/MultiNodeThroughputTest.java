@@ -0,0 +1,155 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.radixdlt.common.Atom;
+import com.radixdlt.consensus.liveness.PacemakerImpl;
+import com.radixdlt.consensus.liveness.ProposalGenerator;
+import com.radixdlt.consensus.safety.SafetyRules;
+import com.radixdlt.consensus.safety.SafetyState;
+import com.radixdlt.consensus.validators.Validator;
+import com.radixdlt.consensus.validators.ValidatorSet;
+import com.radixdlt.crypto.ECDSASignatures;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.engine.RadixEngine;
+import com.radixdlt.mempool.Mempool;
+import com.radixdlt.network.TestEventCoordinatorNetwork;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the atoms committed per vertex by a small in-memory BFT network for different vertex batch sizes.
+ * A round commits one vertex regardless of batch size, so atoms per committed vertex is what scales throughput.
+ */
+public class MultiNodeThroughputTest {
+	private static final int COMMIT_COUNT = 50;
+
+	private Vertex genesisVertex;
+	private QuorumCertificate genesisQC;
+
+	@Before
+	public void setup() {
+		this.genesisVertex = Vertex.createGenesis(mock(Atom.class));
+		this.genesisQC = new QuorumCertificate(
+			new VertexMetadata(View.genesis(), genesisVertex.getId(), null, null),
+			new ECDSASignatures()
+		);
+	}
+
+	private ChainedBFT createBFTInstance(
+		TestEventCoordinatorNetwork network,
+		ECKeyPair key,
+		ValidatorSet validatorSet,
+		VertexStore vertexStore,
+		int maxAtomsPerVertex
+	) {
+		Mempool mempool = mock(Mempool.class);
+		doAnswer(inv -> IntStream.range(0, inv.<Integer>getArgument(0))
+			.mapToObj(i -> mock(Atom.class))
+			.collect(Collectors.toList())
+		).when(mempool).getAtoms(anyInt(), anySet());
+		ProposalGenerator proposalGenerator = new ProposalGenerator(vertexStore, mempool, maxAtomsPerVertex, Long.MAX_VALUE, atom -> 0);
+		SafetyRules safetyRules = new SafetyRules(key, vertexStore, SafetyState.initialState());
+		PacemakerImpl pacemaker = new PacemakerImpl(Executors.newSingleThreadScheduledExecutor());
+		PendingVotes pendingVotes = new PendingVotes();
+
+		EpochRx epochRx = () -> Observable.just(validatorSet).concatWith(Observable.never());
+		EpochManager epochManager = new EpochManager(
+			proposalGenerator,
+			mempool,
+			network.getNetworkSender(key.getUID()),
+			safetyRules,
+			pacemaker,
+			vertexStore,
+			pendingVotes,
+			key
+		);
+
+		return new ChainedBFT(
+			epochRx,
+			network.getNetworkRx(key.getUID()),
+			pacemaker,
+			epochManager
+		);
+	}
+
+	/**
+	 * Runs three correct nodes until each has seen {@link #COMMIT_COUNT} commits.
+	 *
+	 * @return the atoms of each committed non-genesis vertex as observed by the first node
+	 */
+	private List<Integer> committedAtomsPerVertex(int maxAtomsPerVertex) {
+		final TestEventCoordinatorNetwork network = new TestEventCoordinatorNetwork();
+		final List<ECKeyPair> nodes = Arrays.asList(new ECKeyPair(), new ECKeyPair(), new ECKeyPair());
+		final ValidatorSet validatorSet = ValidatorSet.from(
+			nodes.stream().map(ECKeyPair::getPublicKey).map(Validator::from).collect(Collectors.toList())
+		);
+
+		final CompositeDisposable disposables = new CompositeDisposable();
+		final List<TestObserver<Vertex>> committedListeners = new ArrayList<>();
+		for (ECKeyPair node : nodes) {
+			RadixEngine radixEngine = mock(RadixEngine.class);
+			when(radixEngine.staticCheck(any())).thenReturn(Optional.empty());
+			VertexStore vertexStore = new VertexStore(genesisVertex, genesisQC, radixEngine);
+			TestObserver<Vertex> testObserver = TestObserver.create();
+			vertexStore.lastCommittedVertex().subscribe(testObserver);
+			committedListeners.add(testObserver);
+			disposables.add(createBFTInstance(network, node, validatorSet, vertexStore, maxAtomsPerVertex).processEvents().subscribe());
+		}
+
+		try {
+			for (TestObserver<Vertex> committedListener : committedListeners) {
+				assertThat(committedListener.awaitCount(COMMIT_COUNT).values()).hasSizeGreaterThanOrEqualTo(COMMIT_COUNT);
+			}
+			return committedListeners.get(0).values().subList(0, COMMIT_COUNT).stream()
+				.filter(v -> !v.isGenesis())
+				.map(v -> v.getAtoms().size())
+				.collect(Collectors.toList());
+		} finally {
+			disposables.dispose();
+		}
+	}
+
+	@Test
+	public void given_3_correct_bft_instances__when_batching_atoms__then_every_committed_vertex_carries_a_full_batch() {
+		final List<Integer> singleAtoms = committedAtomsPerVertex(1);
+		final List<Integer> batchedAtoms = committedAtomsPerVertex(16);
+
+		// the mempool never runs dry, so every proposal is filled up to the batch size
+		assertThat(singleAtoms).isNotEmpty().containsOnly(1);
+		assertThat(batchedAtoms).isNotEmpty().containsOnly(16);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.common.Atom;
+import com.radixdlt.consensus.liveness.PacemakerImpl;
+import com.radixdlt.consensus.validators.Validator;
+import com.radixdlt.consensus.validators.ValidatorSet;
+import com.radixdlt.crypto.ECDSASignature;
+import com.radixdlt.crypto.ECDSASignatures;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.engine.RadixEngine;
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.Test;
+
+/**
+ * Drives the consensus data structures through a long run of views and checks that
+ * their memory footprint stays flat once committed and stale state is pruned.
+ */
+public class VertexStoreSoakTest {
+	private static final int VIEW_COUNT = 1_000_000;
+	private static final int WARMUP_VIEW_COUNT = 100_000;
+	private static final int COMMIT_DEPTH = 3;
+	private static final int COMMITTED_WINDOW = 100;
+	private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+	@Test
+	public void when_running_one_million_views__then_heap_stays_flat() throws Exception {
+		Vertex genesisVertex = Vertex.createGenesis(mock(Atom.class));
+		QuorumCertificate genesisQC = new QuorumCertificate(
+			new VertexMetadata(View.genesis(), genesisVertex.getId(), null, null),
+			new ECDSASignatures()
+		);
+		// stub-only mocks do not record their invocations, which would otherwise grow the heap
+		RadixEngine radixEngine = mock(RadixEngine.class, withSettings().stubOnly());
+		ScheduledExecutorService executorService = mock(ScheduledExecutorService.class, withSettings().stubOnly());
+
+		VertexStore vertexStore = new VertexStore(genesisVertex, genesisQC, radixEngine, null, COMMITTED_WINDOW);
+		PendingVotes pendingVotes = new PendingVotes();
+		PacemakerImpl pacemaker = new PacemakerImpl(executorService);
+
+		ECKeyPair validatorKey = new ECKeyPair();
+		ECKeyPair outsiderKey = new ECKeyPair();
+		ValidatorSet validatorSet = ValidatorSet.from(Collections.singleton(Validator.from(validatorKey.getPublicKey())));
+		ECDSASignature signature = new ECDSASignature();
+
+		Vertex[] recent = new Vertex[COMMIT_DEPTH];
+		QuorumCertificate qc = genesisQC;
+		long warmupHeap = 0L;
+		for (int i = 1; i <= VIEW_COUNT; i++) {
+			View view = View.of(i);
+			Vertex vertex = Vertex.createVertex(qc, view, ImmutableList.of());
+			vertexStore.insertVertex(vertex);
+			VertexMetadata vertexMetadata = new VertexMetadata(view, vertex.getId(), qc.getView(), qc.getVertexMetadata().getId());
+
+			// votes and new-views which never form a quorum must not accumulate either
+			pendingVotes.insertVote(new Vote(outsiderKey.getPublicKey(), vertexMetadata, signature), validatorSet);
+			pacemaker.processNewView(new NewView(outsiderKey.getPublicKey(), view.next(), qc, signature), validatorSet);
+
+			qc = new QuorumCertificate(vertexMetadata, new ECDSASignatures());
+			pendingVotes.removeStaleVotes(view);
+			pacemaker.processQC(view);
+
+			Vertex toCommit = recent[i % COMMIT_DEPTH];
+			if (toCommit != null) {
+				vertexStore.commitVertex(toCommit.getId());
+			}
+			recent[i % COMMIT_DEPTH] = vertex;
+
+			if (i == WARMUP_VIEW_COUNT) {
+				warmupHeap = usedHeap();
+			}
+		}
+
+		assertThat(vertexStore.getVertexCount()).isLessThanOrEqualTo(COMMITTED_WINDOW + COMMIT_DEPTH);
+		assertThat(pendingVotes.size()).isZero();
+		assertThat(pacemaker.getCurrentView()).isEqualTo(View.of(VIEW_COUNT + 1L));
+		assertThat(usedHeap() - warmupHeap).isLessThan(MAX_HEAP_GROWTH_BYTES);
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
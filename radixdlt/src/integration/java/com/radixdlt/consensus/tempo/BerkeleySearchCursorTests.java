@@ -20,19 +20,57 @@ package com.radixdlt.consensus.tempo;
 import com.google.common.collect.ImmutableSet;
 import com.radixdlt.crypto.ECKeyPair;
 import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryStore;
 import com.radixdlt.store.LedgerSearchMode;
 import com.radixdlt.store.SearchCursor;
 import com.radixdlt.store.StoreIndex;
+import com.radixdlt.store.log.LogLedgerEntryStore;
+import org.junit.After;
 import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 import org.radix.integration.RadixTestWithStores;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
+@RunWith(Parameterized.class)
 public class BerkeleySearchCursorTests extends RadixTestWithStores {
 	private static final byte PREFIX = 7; // test value with no special significance
 
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> backends() {
+		return Arrays.asList(new Object[][] {{"berkeley"}, {"log"}});
+	}
+
+	@Parameter
+	public String backend;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	private LedgerEntryGenerator ledgerEntryGenerator = new LedgerEntryGenerator();
+	private LedgerEntryStore store;
+
+	@Before
+	public void setup() throws IOException {
+		this.store = "log".equals(backend) ? new LogLedgerEntryStore(folder.newFolder()) : getStore();
+	}
+
+	@After
+	public void teardown() {
+		if (this.store instanceof LogLedgerEntryStore) {
+			this.store.close();
+		}
+	}
 
 	@Test
 	public void store_single_atom__search_by_unique_aid_and_get() throws Exception {
@@ -40,9 +78,9 @@ public class BerkeleySearchCursorTests extends RadixTestWithStores {
 
 		List<LedgerEntry> ledgerEntries = ledgerEntryGenerator.createLedgerEntries(identity, 1);
 		StoreIndex uniqueIndex = new StoreIndex(PREFIX, ledgerEntries.get(0).getAID().getBytes());
-		getStore().store(ledgerEntries.get(0), ImmutableSet.of(uniqueIndex), ImmutableSet.of());
+		store.store(ledgerEntries.get(0), ImmutableSet.of(uniqueIndex), ImmutableSet.of());
 
-		SearchCursor cursor = getStore().search(
+		SearchCursor cursor = store.search(
 			StoreIndex.LedgerIndexType.UNIQUE,
 			new StoreIndex(PREFIX, ledgerEntries.get(0).getAID().getBytes()),
 			LedgerSearchMode.EXACT
@@ -56,9 +94,9 @@ public class BerkeleySearchCursorTests extends RadixTestWithStores {
 	public void create_two_atoms__store_single_atom__search_by_non_existing_unique_aid__fail() throws Exception {
 		List<LedgerEntry> ledgerEntries = ledgerEntryGenerator.createLedgerEntries(2);
 		StoreIndex uniqueIndex = new StoreIndex(PREFIX, ledgerEntries.get(0).getAID().getBytes());
-		getStore().store(ledgerEntries.get(0), ImmutableSet.of(uniqueIndex), ImmutableSet.of());
+		store.store(ledgerEntries.get(0), ImmutableSet.of(uniqueIndex), ImmutableSet.of());
 
-		SearchCursor cursor = getStore().search(
+		SearchCursor cursor = store.search(
 			StoreIndex.LedgerIndexType.UNIQUE,
 			new StoreIndex(PREFIX, ledgerEntries.get(1).getAID().getBytes()),
 			LedgerSearchMode.EXACT
@@ -74,10 +112,10 @@ public class BerkeleySearchCursorTests extends RadixTestWithStores {
 		List<LedgerEntry> ledgerEntries = ledgerEntryGenerator.createLedgerEntries(identity, 2);
 		for (LedgerEntry ledgerEntry : ledgerEntries) {
 			StoreIndex uniqueIndex = new StoreIndex(PREFIX, ledgerEntry.getAID().getBytes());
-			getStore().store(ledgerEntry, ImmutableSet.of(uniqueIndex), ImmutableSet.of(index));
+			store.store(ledgerEntry, ImmutableSet.of(uniqueIndex), ImmutableSet.of(index));
 		}
 
-		SearchCursor cursor = getStore().search(StoreIndex.LedgerIndexType.DUPLICATE, index, LedgerSearchMode.EXACT);
+		SearchCursor cursor = store.search(StoreIndex.LedgerIndexType.DUPLICATE, index, LedgerSearchMode.EXACT);
 		Assert.assertNotNull(cursor);
 		Assert.assertEquals(ledgerEntries.get(0).getAID(), cursor.get());
 
@@ -97,10 +135,10 @@ public class BerkeleySearchCursorTests extends RadixTestWithStores {
 		List<LedgerEntry> ledgerEntries = ledgerEntryGenerator.createLedgerEntries(identity, 2);
 		for (LedgerEntry ledgerEntry : ledgerEntries) {
 			StoreIndex uniqueIndex = new StoreIndex(PREFIX, ledgerEntry.getAID().getBytes());
-			getStore().store(ledgerEntry, ImmutableSet.of(uniqueIndex), ImmutableSet.of(index));
+			store.store(ledgerEntry, ImmutableSet.of(uniqueIndex), ImmutableSet.of(index));
 		}
 
-		SearchCursor cursor = getStore().search(StoreIndex.LedgerIndexType.DUPLICATE, index, LedgerSearchMode.EXACT);
+		SearchCursor cursor = store.search(StoreIndex.LedgerIndexType.DUPLICATE, index, LedgerSearchMode.EXACT);
 		Assert.assertNotNull(cursor);
 		Assert.assertEquals(ledgerEntries.get(0).getAID(), cursor.get());
 
@@ -120,11 +158,11 @@ public class BerkeleySearchCursorTests extends RadixTestWithStores {
 		List<LedgerEntry> ledgerEntries = ledgerEntryGenerator.createLedgerEntries(identity, 2);
 		for (LedgerEntry ledgerEntry : ledgerEntries) {
 			StoreIndex uniqueIndex = new StoreIndex(PREFIX, ledgerEntry.getAID().getBytes());
-			getStore().store(ledgerEntry, ImmutableSet.of(uniqueIndex), ImmutableSet.of(index));
-			getStore().commit(ledgerEntry.getAID());
+			store.store(ledgerEntry, ImmutableSet.of(uniqueIndex), ImmutableSet.of(index));
+			store.commit(ledgerEntry.getAID());
 		}
 
-		SearchCursor cursor = getStore().search(StoreIndex.LedgerIndexType.DUPLICATE, index, LedgerSearchMode.EXACT);
+		SearchCursor cursor = store.search(StoreIndex.LedgerIndexType.DUPLICATE, index, LedgerSearchMode.EXACT);
 		Assert.assertNotNull(cursor);
 		Assert.assertEquals(ledgerEntries.get(0).getAID(), cursor.get());
 
@@ -17,37 +17,85 @@
 
 package com.radixdlt.store.berkeley;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.radixdlt.crypto.CryptoException;
 import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
+import com.radixdlt.store.IndexedLedgerEntry;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.LedgerEntryStoreResult;
+import com.radixdlt.store.SearchCursor;
 import com.radixdlt.store.StoreIndex;
 import com.radixdlt.store.LedgerSearchMode;
+import com.radixdlt.store.SearchScan;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.store.LedgerEntry;
 import com.radixdlt.consensus.tempo.LedgerEntryGenerator;
+import com.radixdlt.consensus.tempo.TempoException;
 import com.radixdlt.store.LedgerEntryStatus;
+import com.radixdlt.store.log.LogLedgerEntryStore;
+import com.radixdlt.store.snapshot.LedgerSnapshot;
 import com.radixdlt.utils.Ints;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.radix.database.DatabaseEnvironment;
 import org.radix.integration.RadixTestWithStores;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Holds every {@link LedgerEntryStore} backend to the same behaviour, tests of Berkeley specific
+ * features are skipped for the other backends.
+ */
+@RunWith(Parameterized.class)
 public class BerkeleyRadixLedgerEntryStoreTests extends RadixTestWithStores {
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> backends() {
+        return Arrays.asList(new Object[][] {{"berkeley"}, {"log"}});
+    }
+
+    @Parameter
+    public String backend;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
 
     private LedgerEntryGenerator ledgerEntryGenerator = new LedgerEntryGenerator();
     private Serialization serialization = Serialization.getDefault();
-    private BerkeleyLedgerEntryStore tempoAtomStore;
+    private LedgerEntryStore tempoAtomStore;
 
     private List<LedgerEntry> ledgerEntries;
 
     private ECKeyPair identity;
 
     @Before
-    public void setup() throws CryptoException {
-        tempoAtomStore = new BerkeleyLedgerEntryStore(serialization, this.getDbEnv());
+    public void setup() throws CryptoException, IOException {
+        if ("log".equals(backend)) {
+            tempoAtomStore = new LogLedgerEntryStore(folder.newFolder());
+        } else {
+            tempoAtomStore = new BerkeleyLedgerEntryStore(serialization, this.getDbEnv());
+        }
 
         identity = new ECKeyPair();
         ledgerEntries = ledgerEntryGenerator.createLedgerEntries(identity, 5);
@@ -60,6 +108,11 @@ public class BerkeleyRadixLedgerEntryStoreTests extends RadixTestWithStores {
     	}
     }
 
+    private BerkeleyLedgerEntryStore berkeleyStore() {
+        assumeTrue("Berkeley specific", tempoAtomStore instanceof BerkeleyLedgerEntryStore);
+        return (BerkeleyLedgerEntryStore) tempoAtomStore;
+    }
+
     @Test
     public void storePendingCommitTest() {
         SoftAssertions.assertSoftly(softly -> {
@@ -89,6 +142,55 @@ public class BerkeleyRadixLedgerEntryStoreTests extends RadixTestWithStores {
         });
     }
 
+    @Test
+    public void storeAllCommitAllTest() {
+        SoftAssertions.assertSoftly(softly -> {
+            List<IndexedLedgerEntry> batch = ImmutableList.of(
+                new IndexedLedgerEntry(ledgerEntries.get(0), ImmutableSet.of(), ImmutableSet.of()),
+                new IndexedLedgerEntry(ledgerEntries.get(1), ImmutableSet.of(), ImmutableSet.of()),
+                // duplicate of an earlier entry in the same batch
+                new IndexedLedgerEntry(ledgerEntries.get(0), ImmutableSet.of(), ImmutableSet.of())
+            );
+            List<LedgerEntryStoreResult> results = tempoAtomStore.storeAll(batch);
+
+            // conflicting entry does not abort the others
+            softly.assertThat(results).hasSize(3);
+            softly.assertThat(results.get(0).isSuccess()).isTrue();
+            softly.assertThat(results.get(1).isSuccess()).isTrue();
+            softly.assertThat(results.get(2).isSuccess()).isFalse();
+            softly.assertThat(results.get(2).getConflictInfo().getConflictingAids()).containsExactly(ledgerEntries.get(0).getAID());
+
+            // stored atoms are pending
+            softly.assertThat(tempoAtomStore.getPending()).contains(ledgerEntries.get(0).getAID(), ledgerEntries.get(1).getAID());
+
+            tempoAtomStore.commitAll(ImmutableList.of(ledgerEntries.get(0).getAID(), ledgerEntries.get(1).getAID()));
+
+            // committed atoms are committed
+            softly.assertThat(tempoAtomStore.getStatus(ledgerEntries.get(0).getAID())).isEqualTo(LedgerEntryStatus.COMMITTED);
+            softly.assertThat(tempoAtomStore.getStatus(ledgerEntries.get(1).getAID())).isEqualTo(LedgerEntryStatus.COMMITTED);
+            softly.assertThat(tempoAtomStore.getPending()).isEmpty();
+        });
+    }
+
+    @Test
+    public void failedDurabilitySurfacesSyncErrorTest() {
+        berkeleyStore().close();
+        DatabaseEnvironment failingDbEnv = spy(this.getDbEnv());
+        UncheckedIOException syncError = new UncheckedIOException(new IOException("fsync failed"));
+        doThrow(syncError).when(failingDbEnv).awaitDurable();
+        tempoAtomStore = new BerkeleyLedgerEntryStore(serialization, failingDbEnv);
+
+        // the error of the log sync comes out, rather than one of aborting the committed transaction
+        assertThatThrownBy(() -> tempoAtomStore.store(ledgerEntries.get(0), ImmutableSet.of(), ImmutableSet.of()))
+            .isSameAs(syncError);
+        assertThat(tempoAtomStore.getStatus(ledgerEntries.get(0).getAID())).isEqualTo(LedgerEntryStatus.PENDING);
+
+        assertThatThrownBy(() -> tempoAtomStore.commit(ledgerEntries.get(0).getAID()))
+            .isSameAs(syncError);
+        assertThat(tempoAtomStore.getStatus(ledgerEntries.get(0).getAID())).isEqualTo(LedgerEntryStatus.COMMITTED);
+        assertThat(tempoAtomStore.getPending()).doesNotContain(ledgerEntries.get(0).getAID());
+    }
+
     @Test
     public void storeContainsTest() {
         SoftAssertions.assertSoftly(softly -> {
@@ -149,7 +251,7 @@ public class BerkeleyRadixLedgerEntryStoreTests extends RadixTestWithStores {
         // LedgerIndex for shard 200
         StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(200));
         validateShard200(() ->
-        	(BerkeleySearchCursor) tempoAtomStore.search(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.EXACT)
+        	tempoAtomStore.search(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.EXACT)
         );
     }
 
@@ -160,7 +262,7 @@ public class BerkeleyRadixLedgerEntryStoreTests extends RadixTestWithStores {
         // LedgerIndex pointing to not existing shard 150.
         // But because ofLedgerSearchMode.RANGE Cursor will point it to next available shard - shard 200
         validateShard200(() ->
-        	(BerkeleySearchCursor) tempoAtomStore.search(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.RANGE)
+        	tempoAtomStore.search(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.RANGE)
         );
     }
 
@@ -171,62 +273,230 @@ public class BerkeleyRadixLedgerEntryStoreTests extends RadixTestWithStores {
             // LedgerIndex for Atom 3
             StoreIndex storeIndex = new StoreIndex(LedgerEntryIndices.ENTRY_INDEX_PREFIX, ledgerEntries.get(3).getAID().getBytes());
 
-            BerkeleySearchCursor tempoCursor =
-            	(BerkeleySearchCursor) tempoAtomStore.search(StoreIndex.LedgerIndexType.UNIQUE, storeIndex, LedgerSearchMode.EXACT);
+            SearchCursor tempoCursor =
+            	tempoAtomStore.search(StoreIndex.LedgerIndexType.UNIQUE, storeIndex, LedgerSearchMode.EXACT);
             //Cursor pointing to unique single result.
             //getFirst and getLast pointing to the same value
             //getNext and getPrev are not available
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(3).getAID());
-            tempoCursor = tempoAtomStore.getFirst(tempoCursor);
+            tempoCursor = tempoCursor.first();
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(3).getAID());
-            tempoCursor = tempoAtomStore.getLast(tempoCursor);
+            tempoCursor = tempoCursor.last();
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(3).getAID());
-            softly.assertThat((tempoAtomStore.getNext(tempoCursor))).isNull();
-            softly.assertThat((tempoAtomStore.getPrev(tempoCursor))).isNull();
+            softly.assertThat((tempoCursor.next())).isNull();
+            softly.assertThat((tempoCursor.previous())).isNull();
         });
     }
 
+    @Test
+    public void scanDuplicateExactTest() {
+        storeAndCommitAtoms();
+        StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(200));
+        try (SearchScan scan = tempoAtomStore.scan(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.EXACT)) {
+            assertThat(scan.stream().collect(Collectors.toList())).containsExactly(
+                ledgerEntries.get(2).getAID(),
+                ledgerEntries.get(3).getAID(),
+                ledgerEntries.get(4).getAID()
+            );
+        }
+    }
+
+    @Test
+    public void scanDuplicateRangeTest() {
+        storeAndCommitAtoms();
+        // no shard 150, range scan continues at shard 200
+        StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(150));
+        try (SearchScan scan = tempoAtomStore.scan(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.RANGE)) {
+            assertThat(scan.stream().collect(Collectors.toList())).containsExactly(
+                ledgerEntries.get(2).getAID(),
+                ledgerEntries.get(3).getAID(),
+                ledgerEntries.get(4).getAID()
+            );
+        }
+    }
+
+    @Test
+    public void scanResumesAfterIdleReleaseTest() {
+        storeAndCommitAtoms();
+        StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(200));
+        try (BerkeleySearchScan scan = (BerkeleySearchScan) berkeleyStore().scan(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.EXACT)) {
+            assertThat(scan.next()).isEqualTo(ledgerEntries.get(2).getAID());
+            scan.releaseIfIdle(Long.MAX_VALUE, 0L);
+            assertThat(scan.stream().collect(Collectors.toList())).containsExactly(
+                ledgerEntries.get(3).getAID(),
+                ledgerEntries.get(4).getAID()
+            );
+        }
+    }
+
+    @Test
+    public void scanMissingIndexTest() {
+        storeAndCommitAtoms();
+        StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(150));
+        try (SearchScan scan = tempoAtomStore.scan(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.EXACT)) {
+            assertThat(scan.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void nextByIndexTest() {
+        storeAndCommitAtoms();
+        StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(200));
+        CommittedAidsPage first = tempoAtomStore.getNextByIndex(storeIndex, ContinuationToken.initial(), 2);
+        assertThat(first.getAids()).containsExactly(ledgerEntries.get(2).getAID(), ledgerEntries.get(3).getAID());
+        assertThat(first.getLogicalClock(0)).isLessThan(first.getLogicalClock(1));
+
+        // resuming from a token only returns the entries after it
+        CommittedAidsPage second = tempoAtomStore.getNextByIndex(storeIndex, first.getContinuation(), 2);
+        assertThat(second.getAids()).containsExactly(ledgerEntries.get(4).getAID());
+        assertThat(second.getLogicalClock(0)).isGreaterThan(first.getLogicalClock(1));
+
+        CommittedAidsPage last = tempoAtomStore.getNextByIndex(storeIndex, second.getContinuation(), 2);
+        assertThat(last.isEmpty()).isTrue();
+        assertThat(last.getContinuation()).isEqualTo(second.getContinuation());
+    }
+
+    @Test
+    public void nextByMissingIndexTest() {
+        storeAndCommitAtoms();
+        StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(150));
+        assertThat(tempoAtomStore.getNextByIndex(storeIndex, ContinuationToken.initial(), 10).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void bulkLoadBuildsIndicesTest() {
+        BerkeleyLedgerEntryStore berkeleyStore = berkeleyStore();
+        berkeleyStore.beginBulkLoad();
+        berkeleyStore.bulkLoad(shardedEntries());
+        assertThat(berkeleyStore.isBulkLoading()).isTrue();
+        berkeleyStore.finishBulkLoad();
+
+        assertThat(berkeleyStore.isBulkLoading()).isFalse();
+        assertThat(berkeleyStore.contains(ledgerEntries.get(0).getAID())).isTrue();
+        assertThat(berkeleyStore.getStatus(ledgerEntries.get(0).getAID())).isEqualTo(LedgerEntryStatus.COMMITTED);
+        assertShard200();
+    }
+
+    @Test
+    public void bulkLoadRejectsRegularWritesTest() {
+        BerkeleyLedgerEntryStore berkeleyStore = berkeleyStore();
+        berkeleyStore.beginBulkLoad();
+
+        assertThatThrownBy(() -> berkeleyStore.store(ledgerEntries.get(0), ImmutableSet.of(), ImmutableSet.of()))
+            .isInstanceOf(TempoException.class);
+        berkeleyStore.finishBulkLoad();
+    }
+
+    @Test
+    public void bulkLoadUniqueConflictTest() {
+        BerkeleyLedgerEntryStore berkeleyStore = berkeleyStore();
+        StoreIndex sharedIndex = new StoreIndex((byte) 150, Ints.toByteArray(1));
+        berkeleyStore.beginBulkLoad();
+        berkeleyStore.bulkLoad(ImmutableList.of(
+            new IndexedLedgerEntry(ledgerEntries.get(0), ImmutableSet.of(sharedIndex), ImmutableSet.of()),
+            new IndexedLedgerEntry(ledgerEntries.get(1), ImmutableSet.of(sharedIndex), ImmutableSet.of())
+        ));
+
+        assertThatThrownBy(() -> berkeleyStore.finishBulkLoad()).isInstanceOf(TempoException.class);
+        assertThat(berkeleyStore.isBulkLoading()).isTrue();
+
+        berkeleyStore.reset();
+        assertThat(berkeleyStore.isBulkLoading()).isFalse();
+        assertThat(berkeleyStore.contains(ledgerEntries.get(0).getAID())).isFalse();
+    }
+
+    @Test
+    public void rebuildIndicesTest() {
+        BerkeleyLedgerEntryStore berkeleyStore = berkeleyStore();
+        storeAndCommitAtoms();
+        berkeleyStore.rebuildIndices();
+
+        assertThat(berkeleyStore.contains(ledgerEntries.get(3).getAID())).isTrue();
+        assertShard200();
+    }
+
+    @Test
+    public void snapshotExportImportTest() throws IOException {
+        BerkeleyLedgerEntryStore berkeleyStore = berkeleyStore();
+        storeAndCommitAtoms();
+        LedgerSnapshot snapshot = berkeleyStore.exportSnapshot(folder.newFolder(), 1024);
+        assertThat(snapshot.getManifest().getEntries()).isEqualTo(ledgerEntries.size());
+
+        berkeleyStore.reset();
+        berkeleyStore.importSnapshot(LedgerSnapshot.open(snapshot.getDirectory(), serialization));
+
+        for (LedgerEntry ledgerEntry : ledgerEntries) {
+            assertThat(berkeleyStore.get(ledgerEntry.getAID())).contains(ledgerEntry);
+            assertThat(berkeleyStore.getStatus(ledgerEntry.getAID())).isEqualTo(LedgerEntryStatus.COMMITTED);
+        }
+        assertShard200();
+    }
+
+    private void assertShard200() {
+        StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(200));
+        try (SearchScan scan = tempoAtomStore.scan(StoreIndex.LedgerIndexType.DUPLICATE, storeIndex, LedgerSearchMode.EXACT)) {
+            assertThat(scan.stream().collect(Collectors.toList())).containsExactly(
+                ledgerEntries.get(2).getAID(),
+                ledgerEntries.get(3).getAID(),
+                ledgerEntries.get(4).getAID()
+            );
+        }
+    }
+
     /**
-     * Method validating navigation when shard200Supplier returning BerkeleyCursor which pointing to "Shard 200" which contains TempoAtoms(2,3,4)
+     * Method validating navigation when shard200Supplier returning cursor which pointing to "Shard 200" which contains TempoAtoms(2,3,4)
      *
-     * @param shard200Supplier function which return BerkeleyCursor to "shard 200"
+     * @param shard200Supplier function which return cursor to "shard 200"
      */
-    private void validateShard200(Supplier<BerkeleySearchCursor> shard200Supplier) {
+    private void validateShard200(Supplier<SearchCursor> shard200Supplier) {
         SoftAssertions.assertSoftly(softly -> {
-            BerkeleySearchCursor tempoCursor = shard200Supplier.get();
+            SearchCursor tempoCursor = shard200Supplier.get();
             //Navigation in scope of shard 200 => (2,3,4)
             //Pointing Atom[2] - first element in shard
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(2).getAID());
             //Atom[2] getNext -> cursor pointing to Atom[3] - second element in shard
-            tempoCursor = tempoAtomStore.getNext(tempoCursor);
+            tempoCursor = tempoCursor.next();
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(3).getAID());
 
             //Atom[3] getNext -> cursor pointing to Atom[4] - third element in shard
-            tempoCursor = tempoAtomStore.getNext(tempoCursor);
+            tempoCursor = tempoCursor.next();
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(4).getAID());
 
             //Atom[4] getFirst -> cursor pointing to Atom[2] - first element in shard
-            tempoCursor = tempoAtomStore.getFirst(tempoCursor);
+            tempoCursor = tempoCursor.first();
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(2).getAID());
 
             //Atom[2] getPrev -> cursor is null, no previous element for first element.
             // Cursor is not saved, tempoCursor still pointing to Atom[2] - first element
-            softly.assertThat((tempoAtomStore.getPrev(tempoCursor))).isNull();
+            softly.assertThat((tempoCursor.previous())).isNull();
 
             //Atom[2] getLast -> cursor pointing to Atom[4] - last element in shard
-            tempoCursor = tempoAtomStore.getLast(tempoCursor);
+            tempoCursor = tempoCursor.last();
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(4).getAID());
 
             //Atom[4] getNext -> cursor is null, no next element for last element.
             // Cursor is not saved, tempoCursor still pointing to Atom[4] - last element
-            softly.assertThat((tempoAtomStore.getNext(tempoCursor))).isNull();
+            softly.assertThat((tempoCursor.next())).isNull();
 
             //Atom[4] getPrev -> cursor pointing to Atom[3] - element before last one
-            tempoCursor = tempoAtomStore.getPrev(tempoCursor);
+            tempoCursor = tempoCursor.previous();
             softly.assertThat(tempoCursor.get()).isEqualTo(ledgerEntries.get(3).getAID());
         });
     }
 
+    /**
+     * The ledger entries indexed by shard, as stored by {@link #storeAndCommitAtoms()}.
+     */
+    private List<IndexedLedgerEntry> shardedEntries() {
+        ImmutableList.Builder<IndexedLedgerEntry> entries = ImmutableList.builder();
+        for (int i = 0; i < ledgerEntries.size(); i++) {
+            int shard = i < ledgerEntries.size() / 2 ? 100 : 200;
+            StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(shard));
+            entries.add(new IndexedLedgerEntry(ledgerEntries.get(i), ImmutableSet.of(), ImmutableSet.of(storeIndex)));
+        }
+        return entries.build();
+    }
+
     /**
      * Method for storing and committing atoms in atomStore with sharding
      * Atoms are committed because some tests rely on them being ordered, which is currently only guaranteed for committed atoms
@@ -235,11 +505,10 @@ public class BerkeleyRadixLedgerEntryStoreTests extends RadixTestWithStores {
      */
     private void storeAndCommitAtoms() {
         SoftAssertions.assertSoftly(softly -> {
-            for (int i = 0; i < ledgerEntries.size(); i++) {
-                int shard = i < ledgerEntries.size() / 2 ? 100 : 200;
-                StoreIndex storeIndex = new StoreIndex((byte) 200, Ints.toByteArray(shard));
-                softly.assertThat(tempoAtomStore.store(ledgerEntries.get(i), ImmutableSet.of(), ImmutableSet.of(storeIndex)).isSuccess()).isTrue();
-                tempoAtomStore.commit(ledgerEntries.get(i).getAID());
+            for (IndexedLedgerEntry entry : shardedEntries()) {
+                LedgerEntry ledgerEntry = entry.getLedgerEntry();
+                softly.assertThat(tempoAtomStore.store(ledgerEntry, entry.getUniqueIndices(), entry.getDuplicateIndices()).isSuccess()).isTrue();
+                tempoAtomStore.commit(ledgerEntry.getAID());
             }
         });
     }
@@ -0,0 +1,166 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.log;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.radixdlt.common.EUID;
+import com.radixdlt.consensus.tempo.TempoException;
+import com.radixdlt.store.CursorStore;
+import org.radix.logging.Logger;
+import org.radix.logging.Logging;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link CursorStore} which serves cursors from memory and periodically writes a snapshot of them to a file,
+ * as cursors can be recomputed if the latest updates are lost.
+ */
+@Singleton
+public final class LogCursorStore implements CursorStore {
+	private static final Logger logger = Logging.getLogger("store.cursors");
+
+	private static final String DEFAULT_DIRECTORY = ".//RADIXDB-LOG";
+	private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+
+	private final File file;
+	private final Map<EUID, Long> cursors = new ConcurrentHashMap<>();
+	private final Object flushLock = new Object();
+	private final ScheduledExecutorService flusher;
+	private volatile boolean dirty;
+
+	@Inject
+	public LogCursorStore(LogStoreConfiguration configuration) {
+		this(new File(configuration.directory(DEFAULT_DIRECTORY)), configuration.cursorFlushIntervalMillis(DEFAULT_FLUSH_INTERVAL_MILLIS));
+	}
+
+	public LogCursorStore(File directory, long flushIntervalMillis) {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new TempoException("Unable to create cursor directory " + directory);
+		}
+		this.file = new File(directory, "cursors");
+		this.load();
+
+		long interval = Math.max(1L, flushIntervalMillis);
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Cursor store flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	private void load() {
+		if (!this.file.exists()) {
+			return;
+		}
+		try (DataInputStream input = new DataInputStream(Files.newInputStream(this.file.toPath()))) {
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				byte[] nid = new byte[input.readInt()];
+				input.readFully(nid);
+				this.cursors.put(new EUID(nid), input.readLong());
+			}
+		} catch (IOException e) {
+			throw new TempoException("Error while loading cursors from " + this.file, e);
+		}
+	}
+
+	@Override
+	public void put(EUID nid, long cursor) {
+		Objects.requireNonNull(nid, "nid is required");
+		this.cursors.put(nid, cursor);
+		this.dirty = true;
+	}
+
+	@Override
+	public OptionalLong get(EUID nid) {
+		Long cursor = this.cursors.get(nid);
+		return cursor == null ? OptionalLong.empty() : OptionalLong.of(cursor);
+	}
+
+	@Override
+	public void reset() {
+		synchronized (this.flushLock) {
+			this.cursors.clear();
+			this.dirty = false;
+			try {
+				Files.deleteIfExists(this.file.toPath());
+			} catch (IOException e) {
+				throw new TempoException("Error while resetting cursors", e);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		this.flusher.shutdown();
+		flush();
+	}
+
+	/**
+	 * Atomically replaces the cursor file with the current cursors if any changed since the last flush.
+	 */
+	void flush() {
+		synchronized (this.flushLock) {
+			if (!this.dirty) {
+				return;
+			}
+			// cleared before taking the snapshot, so concurrent updates are written by the next flush
+			this.dirty = false;
+			Map<EUID, Long> snapshot = ImmutableMap.copyOf(this.cursors);
+			File tempFile = new File(this.file.getPath() + ".tmp");
+			try {
+				try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(tempFile.toPath()))) {
+					output.writeInt(snapshot.size());
+					for (Map.Entry<EUID, Long> cursor : snapshot.entrySet()) {
+						byte[] nid = cursor.getKey().toByteArray();
+						output.writeInt(nid.length);
+						output.write(nid);
+						output.writeLong(cursor.getValue());
+					}
+				}
+				Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				this.dirty = true;
+				throw new TempoException("Error while storing " + snapshot.size() + " cursors", e);
+			}
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (Exception e) {
+			// must not throw, as that would cancel further executions, cursors are retried on the next flush
+			logger.error("Error while flushing cursors", e);
+		}
+	}
+}
@@ -0,0 +1,735 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.log;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.radixdlt.common.AID;
+import com.radixdlt.consensus.tempo.TempoException;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
+import com.radixdlt.store.IndexedLedgerEntry;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryConflict;
+import com.radixdlt.store.LedgerEntryStatus;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.LedgerEntryStoreResult;
+import com.radixdlt.store.LedgerSearchMode;
+import com.radixdlt.store.SearchCursor;
+import com.radixdlt.store.SearchScan;
+import com.radixdlt.store.StoreIndex;
+import com.radixdlt.store.StoreIndex.LedgerIndexType;
+import com.radixdlt.store.berkeley.LedgerEntryIndices;
+import org.radix.logging.Logger;
+import org.radix.logging.Logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * A {@link LedgerEntryStore} built around an append-only {@link SegmentLog} and sorted in-memory indices.
+ * <p>
+ * Every write is a single batch record in the log, so it is atomic, and the content of ledger entries
+ * is read back from the log by position. The in-memory indices are rebuilt by replaying the log on startup.
+ * Unlike the Berkeley store, writes do not cause any cleaner, checkpointer or eviction work.
+ * <p>
+ * This store is experimental and not selectable by the node, so it is kept with the integration sources,
+ * which run it against the Berkeley store suites: the indices of every entry are held on the heap for the
+ * lifetime of the store, as they are never flushed to immutable index files, and segments are never
+ * compacted. Memory use and startup time, which replays the whole log, therefore grow with the size of
+ * the ledger.
+ */
+@Singleton
+public final class LogLedgerEntryStore implements LedgerEntryStore {
+	private static final Logger log = Logging.getLogger("store.log");
+
+	private static final String DEFAULT_DIRECTORY = ".//RADIXDB-LOG";
+	private static final long DEFAULT_SEGMENT_MAX_BYTES = 256L * 1024L * 1024L;
+	private static final boolean DEFAULT_SYNC_ON_WRITE = false;
+
+	private static final byte OP_PUT_PENDING = 0;
+	private static final byte OP_COMMIT = 1;
+	private static final byte OP_DELETE = 2;
+
+	private final SegmentLog segmentLog;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// all guarded by lock
+	private final Map<AID, Entry> entries = new HashMap<>();
+	private final Set<AID> pending = new HashSet<>();
+	private final NavigableMap<byte[], Entry> uniqueIndices = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+	private final NavigableMap<byte[], NavigableMap<Long, Entry>> duplicateIndices = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+	private final NavigableMap<Long, AID> committed = new TreeMap<>();
+	private long lastLogicalClock;
+
+	/**
+	 * A ledger entry as held in memory, with the position of its content in the log.
+	 */
+	private static final class Entry {
+		private final AID aid;
+		private final long logicalClock;
+		private final ImmutableSet<StoreIndex> uniqueIndices;
+		private final ImmutableSet<StoreIndex> duplicateIndices;
+		private final long segment;
+		private final long contentOffset;
+		private final int contentLength;
+
+		private Entry(
+			AID aid,
+			long logicalClock,
+			ImmutableSet<StoreIndex> uniqueIndices,
+			ImmutableSet<StoreIndex> duplicateIndices,
+			long segment,
+			long contentOffset,
+			int contentLength
+		) {
+			this.aid = aid;
+			this.logicalClock = logicalClock;
+			this.uniqueIndices = uniqueIndices;
+			this.duplicateIndices = duplicateIndices;
+			this.segment = segment;
+			this.contentOffset = contentOffset;
+			this.contentLength = contentLength;
+		}
+	}
+
+	/**
+	 * A ledger entry to be written, with the offset of its content in the encoded batch.
+	 */
+	private static final class PendingWrite {
+		private final LedgerEntry ledgerEntry;
+		private final long logicalClock;
+		private final LedgerEntryIndices indices;
+		private int contentOffsetInBatch;
+
+		private PendingWrite(LedgerEntry ledgerEntry, long logicalClock, LedgerEntryIndices indices) {
+			this.ledgerEntry = ledgerEntry;
+			this.logicalClock = logicalClock;
+			this.indices = indices;
+		}
+	}
+
+	public LogLedgerEntryStore(File directory) {
+		this(directory, DEFAULT_SEGMENT_MAX_BYTES, DEFAULT_SYNC_ON_WRITE);
+	}
+
+	@Inject
+	public LogLedgerEntryStore(LogStoreConfiguration configuration) {
+		this(
+			new File(configuration.directory(DEFAULT_DIRECTORY), "ledger"),
+			configuration.segmentMaxBytes(DEFAULT_SEGMENT_MAX_BYTES),
+			configuration.syncOnWrite(DEFAULT_SYNC_ON_WRITE)
+		);
+	}
+
+	LogLedgerEntryStore(File directory, long segmentMaxBytes, boolean syncOnWrite) {
+		this.segmentLog = new SegmentLog(directory, segmentMaxBytes, syncOnWrite);
+		this.segmentLog.open(this::replay);
+		log.info("Replayed " + this.entries.size() + " atoms from ledger log in " + directory);
+	}
+
+	private void fail(String message) {
+		log.error(message);
+		throw new TempoException(message);
+	}
+
+	private void replay(long segment, long payloadOffset, byte[] payload) {
+		ByteBuffer batch = ByteBuffer.wrap(payload);
+		int operations = batch.getInt();
+		for (int i = 0; i < operations; i++) {
+			byte op = batch.get();
+			AID aid = readAid(batch);
+			if (op == OP_PUT_PENDING) {
+				long logicalClock = batch.getLong();
+				ImmutableSet<StoreIndex> uniqueIndices = readIndices(batch);
+				ImmutableSet<StoreIndex> duplicateIndices = readIndices(batch);
+				int contentLength = batch.getInt();
+				long contentOffset = payloadOffset + batch.position();
+				batch.position(batch.position() + contentLength);
+				applyPut(new Entry(aid, logicalClock, uniqueIndices, duplicateIndices, segment, contentOffset, contentLength));
+			} else if (op == OP_COMMIT) {
+				applyCommit(aid);
+			} else if (op == OP_DELETE) {
+				applyDelete(aid);
+			} else {
+				throw new TempoException("Unknown operation " + op + " in segment " + segment + " at offset " + payloadOffset);
+			}
+		}
+	}
+
+	@Override
+	public boolean contains(AID aid) {
+		lock.readLock().lock();
+		try {
+			return this.entries.containsKey(aid);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public LedgerEntryStatus getStatus(AID aid) {
+		lock.readLock().lock();
+		try {
+			if (!this.entries.containsKey(aid)) {
+				return LedgerEntryStatus.UNAVAILABLE;
+			}
+			return this.pending.contains(aid) ? LedgerEntryStatus.PENDING : LedgerEntryStatus.COMMITTED;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Set<AID> getPending() {
+		lock.readLock().lock();
+		try {
+			return ImmutableSet.copyOf(this.pending);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Optional<LedgerEntry> get(AID aid) {
+		lock.readLock().lock();
+		try {
+			Entry entry = this.entries.get(aid);
+			return entry == null ? Optional.empty() : Optional.of(toLedgerEntry(entry));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Set<StoreIndex> getUniqueIndices(AID aid) {
+		lock.readLock().lock();
+		try {
+			Entry entry = this.entries.get(aid);
+			if (entry == null) {
+				fail("Get unique indices of '" + aid + "' failed");
+			}
+			return entry.uniqueIndices;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public SearchCursor search(LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		Objects.requireNonNull(type, "type is required");
+		Objects.requireNonNull(index, "index is required");
+		Objects.requireNonNull(mode, "mode is required");
+		lock.readLock().lock();
+		try {
+			byte[] key = findKey(type, index, mode);
+			if (key == null) {
+				return null;
+			}
+			if (type == LedgerIndexType.UNIQUE) {
+				return toCursor(type, key, this.uniqueIndices.get(key));
+			} else {
+				return toCursor(type, key, this.duplicateIndices.get(key).firstEntry().getValue());
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public SearchScan scan(LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		Objects.requireNonNull(type, "type is required");
+		Objects.requireNonNull(index, "index is required");
+		Objects.requireNonNull(mode, "mode is required");
+		lock.readLock().lock();
+		try {
+			ImmutableList.Builder<AID> aids = ImmutableList.builder();
+			byte[] key = findKey(type, index, mode);
+			if (key != null) {
+				if (type == LedgerIndexType.UNIQUE) {
+					aids.add(this.uniqueIndices.get(key).aid);
+				} else {
+					this.duplicateIndices.get(key).values().forEach(entry -> aids.add(entry.aid));
+				}
+			}
+			// the in-memory indices are cheap to copy, so scans do not hold on to any resources
+			return new SnapshotSearchScan(aids.build().iterator());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean contains(LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		Objects.requireNonNull(type, "type is required");
+		Objects.requireNonNull(index, "index is required");
+		Objects.requireNonNull(mode, "mode is required");
+		lock.readLock().lock();
+		try {
+			return findKey(type, index, mode) != null;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public CommittedAidsPage getNextCommitted(ContinuationToken continuation, int limit) {
+		Objects.requireNonNull(continuation, "continuation is required");
+		lock.readLock().lock();
+		try {
+			// the transport form of a token is the logical clock of the last entry it was issued for
+			long lastLogicalClock = continuation.toTransportForm();
+			ImmutableList.Builder<AID> aids = ImmutableList.builder();
+			long[] logicalClocks = new long[Math.max(0, Math.min(limit, this.committed.size()))];
+			int size = 0;
+			for (Map.Entry<Long, AID> entry : this.committed.tailMap(lastLogicalClock, false).entrySet()) {
+				if (size >= limit) {
+					break;
+				}
+				lastLogicalClock = entry.getKey();
+				aids.add(entry.getValue());
+				logicalClocks[size++] = lastLogicalClock;
+			}
+			return new CommittedAidsPage(
+				aids.build(),
+				Arrays.copyOf(logicalClocks, size),
+				ContinuationToken.fromTransportForm(lastLogicalClock)
+			);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public CommittedAidsPage getNextByIndex(StoreIndex index, ContinuationToken continuation, int limit) {
+		Objects.requireNonNull(index, "index is required");
+		Objects.requireNonNull(continuation, "continuation is required");
+		lock.readLock().lock();
+		try {
+			long lastLogicalClock = continuation.toTransportForm();
+			NavigableMap<Long, Entry> entriesByClock = this.duplicateIndices.get(index.asKey());
+			if (entriesByClock == null) {
+				return new CommittedAidsPage(ImmutableList.of(), new long[0], continuation);
+			}
+			ImmutableList.Builder<AID> aids = ImmutableList.builder();
+			long[] logicalClocks = new long[Math.max(0, Math.min(limit, entriesByClock.size()))];
+			int size = 0;
+			for (Map.Entry<Long, Entry> entry : entriesByClock.tailMap(lastLogicalClock, false).entrySet()) {
+				if (size >= limit) {
+					break;
+				}
+				lastLogicalClock = entry.getKey();
+				aids.add(entry.getValue().aid);
+				logicalClocks[size++] = lastLogicalClock;
+			}
+			return new CommittedAidsPage(
+				aids.build(),
+				Arrays.copyOf(logicalClocks, size),
+				ContinuationToken.fromTransportForm(lastLogicalClock)
+			);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void commit(AID aid) {
+		commitAll(ImmutableList.of(aid));
+	}
+
+	@Override
+	public void commitAll(List<AID> aids) {
+		Objects.requireNonNull(aids, "aids is required");
+		if (aids.isEmpty()) {
+			return;
+		}
+
+		lock.writeLock().lock();
+		try {
+			Set<AID> toCommit = new HashSet<>();
+			for (AID aid : aids) {
+				if (!this.pending.contains(aid) || !toCommit.add(aid)) {
+					fail("Attempted to commit atom '" + aid + "' which is not pending");
+				}
+			}
+
+			BatchWriter batch = new BatchWriter();
+			aids.forEach(aid -> batch.writeAid(OP_COMMIT, aid));
+			this.segmentLog.append(batch.finish());
+			aids.forEach(this::applyCommit);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public LedgerEntryStoreResult store(LedgerEntry ledgerEntry, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
+		return storeAll(ImmutableList.of(new IndexedLedgerEntry(ledgerEntry, uniqueIndices, duplicateIndices))).get(0);
+	}
+
+	@Override
+	public List<LedgerEntryStoreResult> storeAll(List<IndexedLedgerEntry> ledgerEntries) {
+		Objects.requireNonNull(ledgerEntries, "ledgerEntries is required");
+		if (ledgerEntries.isEmpty()) {
+			return ImmutableList.of();
+		}
+
+		lock.writeLock().lock();
+		try {
+			List<LedgerEntryStoreResult> results = new ArrayList<>(ledgerEntries.size());
+			List<PendingWrite> writes = new ArrayList<>(ledgerEntries.size());
+			// unique indices claimed by earlier entries of this batch
+			Map<byte[], LedgerEntry> claimedIndices = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+			long logicalClock = this.lastLogicalClock;
+			for (IndexedLedgerEntry indexedEntry : ledgerEntries) {
+				LedgerEntry ledgerEntry = indexedEntry.getLedgerEntry();
+				LedgerEntryIndices indices = LedgerEntryIndices.from(
+					ledgerEntry,
+					indexedEntry.getUniqueIndices(),
+					indexedEntry.getDuplicateIndices()
+				);
+
+				ImmutableMap<StoreIndex, LedgerEntry> conflictingAtoms = getConflictingAtoms(indices.getUniqueIndices(), claimedIndices);
+				if (!conflictingAtoms.isEmpty()) {
+					results.add(LedgerEntryStoreResult.conflict(new LedgerEntryConflict(ledgerEntry, conflictingAtoms)));
+					continue;
+				}
+
+				indices.getUniqueIndices().forEach(index -> claimedIndices.put(index.asKey(), ledgerEntry));
+				logicalClock += 1;
+				writes.add(new PendingWrite(ledgerEntry, logicalClock, indices));
+				results.add(LedgerEntryStoreResult.success());
+			}
+
+			doStore(writes, ImmutableList.of());
+			return results;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public LedgerEntryStoreResult replace(Set<AID> aids, LedgerEntry ledgerEntry, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
+		lock.writeLock().lock();
+		try {
+			for (AID aid : aids) {
+				if (!this.pending.contains(aid)) {
+					fail("Could not delete '" + aid + "'");
+				}
+			}
+
+			LedgerEntryIndices indices = LedgerEntryIndices.from(ledgerEntry, uniqueIndices, duplicateIndices);
+			// indices of the replaced entries are released by the replacement
+			ImmutableMap<StoreIndex, LedgerEntry> conflictingAtoms = getConflictingAtoms(indices.getUniqueIndices(), ImmutableMap.of()).entrySet().stream()
+				.filter(conflict -> !aids.contains(conflict.getValue().getAID()))
+				.collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+			if (!conflictingAtoms.isEmpty()) {
+				return LedgerEntryStoreResult.conflict(new LedgerEntryConflict(ledgerEntry, conflictingAtoms));
+			}
+
+			doStore(ImmutableList.of(new PendingWrite(ledgerEntry, this.lastLogicalClock + 1, indices)), aids);
+			return LedgerEntryStoreResult.success();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void reset() {
+		lock.writeLock().lock();
+		try {
+			this.segmentLog.clear();
+			this.entries.clear();
+			this.pending.clear();
+			this.uniqueIndices.clear();
+			this.duplicateIndices.clear();
+			this.committed.clear();
+			this.lastLogicalClock = 0L;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() {
+		lock.writeLock().lock();
+		try {
+			this.segmentLog.close();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	LogSearchCursor getNext(LogSearchCursor cursor) {
+		return navigate(cursor, false, entries -> entries.higherEntry(cursor.getLogicalClock()));
+	}
+
+	LogSearchCursor getPrev(LogSearchCursor cursor) {
+		return navigate(cursor, false, entries -> entries.lowerEntry(cursor.getLogicalClock()));
+	}
+
+	LogSearchCursor getFirst(LogSearchCursor cursor) {
+		return navigate(cursor, true, NavigableMap::firstEntry);
+	}
+
+	LogSearchCursor getLast(LogSearchCursor cursor) {
+		return navigate(cursor, true, NavigableMap::lastEntry);
+	}
+
+	private LogSearchCursor navigate(
+		LogSearchCursor cursor,
+		boolean toBoundary,
+		Function<NavigableMap<Long, Entry>, Map.Entry<Long, Entry>> step
+	) {
+		lock.readLock().lock();
+		try {
+			if (cursor.getType() == LedgerIndexType.UNIQUE) {
+				// a unique index has exactly one entry, which is its own first and last entry
+				Entry entry = this.uniqueIndices.get(cursor.getIndex());
+				return toBoundary && entry != null ? toCursor(cursor.getType(), cursor.getIndex(), entry) : null;
+			}
+
+			NavigableMap<Long, Entry> entries = this.duplicateIndices.get(cursor.getIndex());
+			if (entries == null) {
+				return null;
+			}
+			Map.Entry<Long, Entry> next = step.apply(entries);
+			return next == null ? null : toCursor(cursor.getType(), cursor.getIndex(), next.getValue());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private byte[] findKey(LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		NavigableMap<byte[], ?> keys = type == LedgerIndexType.UNIQUE ? this.uniqueIndices : this.duplicateIndices;
+		byte[] key = index.asKey();
+		if (mode == LedgerSearchMode.EXACT) {
+			return keys.containsKey(key) ? key : null;
+		} else if (mode == LedgerSearchMode.RANGE) {
+			return keys.ceilingKey(key);
+		} else {
+			throw new IllegalStateException("Search mode " + mode + " not supported");
+		}
+	}
+
+	private LogSearchCursor toCursor(LedgerIndexType type, byte[] key, Entry entry) {
+		return new LogSearchCursor(this, type, key, entry.logicalClock, entry.aid);
+	}
+
+	private ImmutableMap<StoreIndex, LedgerEntry> getConflictingAtoms(Set<StoreIndex> uniqueIndices, Map<byte[], LedgerEntry> claimedIndices) {
+		ImmutableMap.Builder<StoreIndex, LedgerEntry> conflictingAtoms = ImmutableMap.builder();
+		for (StoreIndex uniqueIndex : uniqueIndices) {
+			byte[] key = uniqueIndex.asKey();
+			Entry conflictingEntry = this.uniqueIndices.get(key);
+			if (conflictingEntry != null) {
+				conflictingAtoms.put(uniqueIndex, toLedgerEntry(conflictingEntry));
+			} else if (claimedIndices.containsKey(key)) {
+				conflictingAtoms.put(uniqueIndex, claimedIndices.get(key));
+			}
+		}
+		return conflictingAtoms.build();
+	}
+
+	private void doStore(List<PendingWrite> writes, Set<AID> deletes) {
+		if (writes.isEmpty() && deletes.isEmpty()) {
+			return;
+		}
+
+		BatchWriter batch = new BatchWriter();
+		deletes.forEach(aid -> batch.writeAid(OP_DELETE, aid));
+		writes.forEach(batch::writePut);
+		long payloadOffset = this.segmentLog.append(batch.finish());
+		long segment = this.segmentLog.currentSegment();
+
+		deletes.forEach(this::applyDelete);
+		for (PendingWrite write : writes) {
+			applyPut(new Entry(
+				write.ledgerEntry.getAID(),
+				write.logicalClock,
+				ImmutableSet.copyOf(write.indices.getUniqueIndices()),
+				ImmutableSet.copyOf(write.indices.getDuplicateIndices()),
+				segment,
+				payloadOffset + write.contentOffsetInBatch,
+				write.ledgerEntry.getContent().length
+			));
+		}
+	}
+
+	private void applyPut(Entry entry) {
+		this.entries.put(entry.aid, entry);
+		this.pending.add(entry.aid);
+		entry.uniqueIndices.forEach(index -> this.uniqueIndices.put(index.asKey(), entry));
+		entry.duplicateIndices.forEach(index -> this.duplicateIndices
+			.computeIfAbsent(index.asKey(), key -> new TreeMap<>())
+			.put(entry.logicalClock, entry));
+		this.lastLogicalClock = Math.max(this.lastLogicalClock, entry.logicalClock);
+	}
+
+	private void applyCommit(AID aid) {
+		Entry entry = this.entries.get(aid);
+		if (entry != null && this.pending.remove(aid)) {
+			this.committed.put(entry.logicalClock, aid);
+		}
+	}
+
+	private void applyDelete(AID aid) {
+		Entry entry = this.entries.remove(aid);
+		if (entry == null) {
+			return;
+		}
+		this.pending.remove(aid);
+		entry.uniqueIndices.forEach(index -> this.uniqueIndices.remove(index.asKey()));
+		entry.duplicateIndices.forEach(index -> {
+			byte[] key = index.asKey();
+			NavigableMap<Long, Entry> duplicates = this.duplicateIndices.get(key);
+			if (duplicates != null) {
+				duplicates.remove(entry.logicalClock);
+				if (duplicates.isEmpty()) {
+					this.duplicateIndices.remove(key);
+				}
+			}
+		});
+	}
+
+	private LedgerEntry toLedgerEntry(Entry entry) {
+		return new LedgerEntry(this.segmentLog.read(entry.segment, entry.contentOffset, entry.contentLength), entry.aid);
+	}
+
+	private static AID readAid(ByteBuffer buffer) {
+		byte[] aidBytes = new byte[AID.BYTES];
+		buffer.get(aidBytes);
+		return AID.from(aidBytes);
+	}
+
+	private static ImmutableSet<StoreIndex> readIndices(ByteBuffer buffer) {
+		int count = buffer.getInt();
+		ImmutableSet.Builder<StoreIndex> indices = ImmutableSet.builder();
+		for (int i = 0; i < count; i++) {
+			byte[] key = new byte[buffer.getInt()];
+			buffer.get(key);
+			indices.add(StoreIndex.from(key));
+		}
+		return indices.build();
+	}
+
+	/**
+	 * Encodes the operations of a single write into one log record.
+	 */
+	private static final class BatchWriter {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream output = new DataOutputStream(bytes);
+		private int operations;
+
+		private BatchWriter() {
+			try {
+				// placeholder for the number of operations
+				output.writeInt(0);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void writeAid(byte op, AID aid) {
+			try {
+				output.writeByte(op);
+				output.write(aid.getBytes());
+				operations++;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void writePut(PendingWrite write) {
+			try {
+				writeAid(OP_PUT_PENDING, write.ledgerEntry.getAID());
+				output.writeLong(write.logicalClock);
+				writeIndices(write.indices.getUniqueIndices());
+				writeIndices(write.indices.getDuplicateIndices());
+				byte[] content = write.ledgerEntry.getContent();
+				output.writeInt(content.length);
+				write.contentOffsetInBatch = output.size();
+				output.write(content);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void writeIndices(Set<StoreIndex> indices) throws IOException {
+			output.writeInt(indices.size());
+			for (StoreIndex index : indices) {
+				byte[] key = index.asKey();
+				output.writeInt(key.length);
+				output.write(key);
+			}
+		}
+
+		private byte[] finish() {
+			byte[] batch = bytes.toByteArray();
+			ByteBuffer.wrap(batch).putInt(operations);
+			return batch;
+		}
+	}
+
+	/**
+	 * A {@link SearchScan} over a snapshot of matching aids.
+	 */
+	private static final class SnapshotSearchScan implements SearchScan {
+		private Iterator<AID> aids;
+
+		private SnapshotSearchScan(Iterator<AID> aids) {
+			this.aids = aids;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.aids.hasNext();
+		}
+
+		@Override
+		public AID next() {
+			return this.aids.next();
+		}
+
+		@Override
+		public void close() {
+			this.aids = ImmutableList.<AID>of().iterator();
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.log;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.common.AID;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
+import com.radixdlt.store.IndexedLedgerEntry;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryStatus;
+import com.radixdlt.store.LedgerEntryStoreResult;
+import com.radixdlt.store.LedgerSearchMode;
+import com.radixdlt.store.SearchCursor;
+import com.radixdlt.store.SearchScan;
+import com.radixdlt.store.StoreIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LogLedgerEntryStoreTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File directory;
+	private LogLedgerEntryStore store;
+
+	private static LedgerEntry ledgerEntry(int seed) {
+		byte[] aidBytes = new byte[AID.BYTES];
+		aidBytes[0] = (byte) seed;
+		return new LedgerEntry(new byte[] {(byte) seed, 1, 2, 3}, AID.from(aidBytes));
+	}
+
+	private static StoreIndex shardIndex(int shard) {
+		return new StoreIndex((byte) 200, new byte[] {(byte) shard});
+	}
+
+	@Before
+	public void setup() throws IOException {
+		this.directory = folder.newFolder();
+		this.store = new LogLedgerEntryStore(this.directory);
+	}
+
+	@After
+	public void teardown() {
+		this.store.close();
+	}
+
+	@Test
+	public void when_entry_is_stored_and_committed__then_status_and_pending_follow() {
+		LedgerEntry entry = ledgerEntry(1);
+		assertThat(store.store(entry, ImmutableSet.of(), ImmutableSet.of()).isSuccess()).isTrue();
+		assertThat(store.getStatus(entry.getAID())).isEqualTo(LedgerEntryStatus.PENDING);
+		assertThat(store.getPending()).containsExactly(entry.getAID());
+		assertThat(store.get(entry.getAID())).contains(entry);
+
+		store.commit(entry.getAID());
+
+		assertThat(store.getStatus(entry.getAID())).isEqualTo(LedgerEntryStatus.COMMITTED);
+		assertThat(store.getPending()).isEmpty();
+		assertThat(store.contains(ledgerEntry(2).getAID())).isFalse();
+		assertThat(store.getNextCommitted(ContinuationToken.initial(), 10).getAids()).containsExactly(entry.getAID());
+	}
+
+	@Test
+	public void when_batch_contains_conflicting_entry__then_only_that_entry_is_rejected() {
+		List<LedgerEntryStoreResult> results = store.storeAll(ImmutableList.of(
+			new IndexedLedgerEntry(ledgerEntry(1), ImmutableSet.of(), ImmutableSet.of()),
+			new IndexedLedgerEntry(ledgerEntry(2), ImmutableSet.of(), ImmutableSet.of()),
+			new IndexedLedgerEntry(ledgerEntry(1), ImmutableSet.of(), ImmutableSet.of())
+		));
+
+		assertThat(results).extracting(LedgerEntryStoreResult::isSuccess).containsExactly(true, true, false);
+		assertThat(results.get(2).getConflictInfo().getConflictingAids()).containsExactly(ledgerEntry(1).getAID());
+		assertThat(store.getPending()).containsExactlyInAnyOrder(ledgerEntry(1).getAID(), ledgerEntry(2).getAID());
+	}
+
+	@Test
+	public void when_entries_are_replaced__then_replacement_takes_their_place() {
+		store.store(ledgerEntry(1), ImmutableSet.of(), ImmutableSet.of(shardIndex(1)));
+
+		assertThat(store.replace(ImmutableSet.of(ledgerEntry(1).getAID()), ledgerEntry(2), ImmutableSet.of(), ImmutableSet.of(shardIndex(1))).isSuccess())
+			.isTrue();
+
+		assertThat(store.contains(ledgerEntry(1).getAID())).isFalse();
+		assertThat(store.get(ledgerEntry(2).getAID())).contains(ledgerEntry(2));
+		assertThat(store.search(StoreIndex.LedgerIndexType.DUPLICATE, shardIndex(1), LedgerSearchMode.EXACT).get())
+			.isEqualTo(ledgerEntry(2).getAID());
+	}
+
+	@Test
+	public void when_searching_duplicates__then_cursor_navigates_within_index() {
+		for (int i = 0; i < 5; i++) {
+			store.store(ledgerEntry(i), ImmutableSet.of(), ImmutableSet.of(shardIndex(i < 2 ? 100 : 200)));
+		}
+
+		SearchCursor cursor = store.search(StoreIndex.LedgerIndexType.DUPLICATE, shardIndex(150), LedgerSearchMode.RANGE);
+		assertThat(cursor.get()).isEqualTo(ledgerEntry(2).getAID());
+		assertThat(cursor.next().get()).isEqualTo(ledgerEntry(3).getAID());
+		assertThat(cursor.last().get()).isEqualTo(ledgerEntry(4).getAID());
+		assertThat(cursor.last().next()).isNull();
+		assertThat(cursor.previous()).isNull();
+		assertThat(store.search(StoreIndex.LedgerIndexType.DUPLICATE, shardIndex(150), LedgerSearchMode.EXACT)).isNull();
+
+		try (SearchScan scan = store.scan(StoreIndex.LedgerIndexType.DUPLICATE, shardIndex(100), LedgerSearchMode.EXACT)) {
+			assertThat(scan.stream().collect(Collectors.toList())).containsExactly(ledgerEntry(0).getAID(), ledgerEntry(1).getAID());
+		}
+	}
+
+	@Test
+	public void when_paging_a_duplicate_index__then_pages_continue_in_logical_clock_order() {
+		for (int i = 0; i < 5; i++) {
+			store.store(ledgerEntry(i), ImmutableSet.of(), ImmutableSet.of(shardIndex(i < 2 ? 100 : 200)));
+		}
+
+		CommittedAidsPage first = store.getNextByIndex(shardIndex(200), ContinuationToken.initial(), 2);
+		assertThat(first.getAids()).containsExactly(ledgerEntry(2).getAID(), ledgerEntry(3).getAID());
+		CommittedAidsPage second = store.getNextByIndex(shardIndex(200), first.getContinuation(), 2);
+		assertThat(second.getAids()).containsExactly(ledgerEntry(4).getAID());
+		assertThat(second.getLogicalClock(0)).isGreaterThan(first.getLogicalClock(1));
+		assertThat(store.getNextByIndex(shardIndex(200), second.getContinuation(), 2).isEmpty()).isTrue();
+		assertThat(store.getNextByIndex(shardIndex(150), ContinuationToken.initial(), 2).isEmpty()).isTrue();
+	}
+
+	@Test
+	public void when_store_is_reopened__then_state_is_replayed_from_log() {
+		store.store(ledgerEntry(1), ImmutableSet.of(), ImmutableSet.of(shardIndex(1)));
+		store.store(ledgerEntry(2), ImmutableSet.of(), ImmutableSet.of(shardIndex(1)));
+		store.store(ledgerEntry(3), ImmutableSet.of(), ImmutableSet.of());
+		store.commit(ledgerEntry(1).getAID());
+		store.replace(ImmutableSet.of(ledgerEntry(2).getAID()), ledgerEntry(4), ImmutableSet.of(), ImmutableSet.of());
+		store.close();
+
+		store = new LogLedgerEntryStore(this.directory);
+
+		assertThat(store.getStatus(ledgerEntry(1).getAID())).isEqualTo(LedgerEntryStatus.COMMITTED);
+		assertThat(store.getStatus(ledgerEntry(2).getAID())).isEqualTo(LedgerEntryStatus.UNAVAILABLE);
+		assertThat(store.getPending()).containsExactlyInAnyOrder(ledgerEntry(3).getAID(), ledgerEntry(4).getAID());
+		assertThat(store.get(ledgerEntry(4).getAID())).contains(ledgerEntry(4));
+		assertThat(store.contains(StoreIndex.LedgerIndexType.DUPLICATE, shardIndex(1), LedgerSearchMode.EXACT)).isTrue();
+	}
+
+	@Test
+	public void when_last_record_is_torn__then_it_is_discarded_on_reopen() throws IOException {
+		store.store(ledgerEntry(1), ImmutableSet.of(), ImmutableSet.of());
+		store.store(ledgerEntry(2), ImmutableSet.of(), ImmutableSet.of());
+		store.close();
+
+		File segment = new File(this.directory, "segment-0000000000000000.log");
+		try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+			file.setLength(file.length() - 1);
+		}
+
+		store = new LogLedgerEntryStore(this.directory);
+
+		assertThat(store.contains(ledgerEntry(1).getAID())).isTrue();
+		assertThat(store.contains(ledgerEntry(2).getAID())).isFalse();
+		assertThat(store.store(ledgerEntry(2), ImmutableSet.of(), ImmutableSet.of()).isSuccess()).isTrue();
+	}
+}
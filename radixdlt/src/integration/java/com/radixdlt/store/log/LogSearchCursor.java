@@ -0,0 +1,81 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.log;
+
+import com.radixdlt.common.AID;
+import com.radixdlt.store.SearchCursor;
+import com.radixdlt.store.StoreIndex;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link SearchCursor} of a {@link LogLedgerEntryStore}.
+ */
+final class LogSearchCursor implements SearchCursor {
+	private final LogLedgerEntryStore store;
+	private final StoreIndex.LedgerIndexType type;
+	private final byte[] index;
+	private final long logicalClock;
+	private final AID aid;
+
+	LogSearchCursor(LogLedgerEntryStore store, StoreIndex.LedgerIndexType type, byte[] index, long logicalClock, AID aid) {
+		this.store = Objects.requireNonNull(store);
+		this.type = Objects.requireNonNull(type);
+		this.index = Arrays.copyOf(index, index.length);
+		this.logicalClock = logicalClock;
+		this.aid = Objects.requireNonNull(aid);
+	}
+
+	@Override
+	public StoreIndex.LedgerIndexType getType() {
+		return this.type;
+	}
+
+	byte[] getIndex() {
+		return this.index;
+	}
+
+	long getLogicalClock() {
+		return this.logicalClock;
+	}
+
+	@Override
+	public AID get() {
+		return this.aid;
+	}
+
+	@Override
+	public SearchCursor next() {
+		return this.store.getNext(this);
+	}
+
+	@Override
+	public SearchCursor previous() {
+		return this.store.getPrev(this);
+	}
+
+	@Override
+	public SearchCursor first() {
+		return this.store.getFirst(this);
+	}
+
+	@Override
+	public SearchCursor last() {
+		return this.store.getLast(this);
+	}
+}
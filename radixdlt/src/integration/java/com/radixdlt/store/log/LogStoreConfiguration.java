@@ -0,0 +1,70 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.log;
+
+import com.google.inject.Provides;
+import com.radixdlt.properties.RuntimeProperties;
+
+/**
+ * Static configuration for the {@link LogLedgerEntryStore} and {@link LogCursorStore}
+ */
+public interface LogStoreConfiguration {
+	/**
+	 * Directory the log segments and cursors are stored in.
+	 */
+	String directory(String defaultValue);
+
+	/**
+	 * Size in bytes after which a new log segment is started.
+	 */
+	long segmentMaxBytes(long defaultValue);
+
+	/**
+	 * Whether every write is synced to disk before it completes.
+	 */
+	boolean syncOnWrite(boolean defaultValue);
+
+	/**
+	 * Interval in which updated sync cursors are written to disk.
+	 */
+	long cursorFlushIntervalMillis(long defaultValue);
+
+	@Provides
+	static LogStoreConfiguration fromRuntimeProperties(RuntimeProperties properties) {
+		return new LogStoreConfiguration() {
+			@Override
+			public String directory(String defaultValue) {
+				return properties.get("db.log.location", defaultValue);
+			}
+
+			@Override
+			public long segmentMaxBytes(long defaultValue) {
+				return properties.get("db.log.segment_max_bytes", defaultValue);
+			}
+
+			@Override
+			public boolean syncOnWrite(boolean defaultValue) {
+				return properties.get("db.log.sync", defaultValue);
+			}
+
+			@Override
+			public long cursorFlushIntervalMillis(long defaultValue) {
+				return properties.get("db.sync.cursors.flush_interval_ms", defaultValue);
+			}
+		};
+	}
+}
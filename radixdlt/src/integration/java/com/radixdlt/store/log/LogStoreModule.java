@@ -0,0 +1,57 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.log;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.radixdlt.properties.RuntimeProperties;
+import com.radixdlt.store.CursorStore;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.LedgerEntryStoreView;
+import com.radixdlt.store.metrics.MeteredLedgerEntryStore;
+import com.radixdlt.store.metrics.StoreMetrics;
+
+/**
+ * Binds the experimental {@link LogLedgerEntryStore} and {@link LogCursorStore} in place of the
+ * Berkeley stores. Not used by the node, see {@link LogLedgerEntryStore} for its limitations.
+ */
+public class LogStoreModule extends AbstractModule {
+	private final LogStoreConfiguration configuration;
+
+	public LogStoreModule(RuntimeProperties properties) {
+		this(LogStoreConfiguration.fromRuntimeProperties(properties));
+	}
+
+	public LogStoreModule(LogStoreConfiguration configuration) {
+		this.configuration = configuration;
+	}
+
+	@Override
+	protected void configure() {
+		bind(LogStoreConfiguration.class).toInstance(configuration);
+		bind(LedgerEntryStoreView.class).to(LedgerEntryStore.class);
+		bind(CursorStore.class).to(LogCursorStore.class);
+		bind(StoreMetrics.class).toInstance(new StoreMetrics());
+	}
+
+	@Provides
+	@Singleton
+	LedgerEntryStore ledgerEntryStore(LogLedgerEntryStore store, StoreMetrics metrics) {
+		return new MeteredLedgerEntryStore(store, metrics);
+	}
+}
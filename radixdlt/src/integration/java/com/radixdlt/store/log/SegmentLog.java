@@ -0,0 +1,273 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.log;
+
+import org.radix.logging.Logger;
+import org.radix.logging.Logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of records, split into segment files of bounded size.
+ * <p>
+ * Every record is framed by its length and a CRC32 checksum, so a torn write at the end of the log
+ * is detected and discarded when the log is replayed. Records are never modified once written.
+ * This class is not thread-safe, appends and reads must be synchronised by the caller.
+ */
+final class SegmentLog implements AutoCloseable {
+	private static final Logger log = Logging.getLogger("store.log");
+
+	private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{16})\\.log");
+	private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+
+	/**
+	 * Visitor of the records of a log.
+	 */
+	interface RecordVisitor {
+		/**
+		 * Visits a record.
+		 *
+		 * @param segment The id of the segment containing the record
+		 * @param payloadOffset The offset of the payload in the segment file
+		 * @param payload The payload of the record
+		 */
+		void visit(long segment, long payloadOffset, byte[] payload);
+	}
+
+	private final File directory;
+	private final long segmentMaxBytes;
+	private final boolean syncOnAppend;
+	private final TreeMap<Long, FileChannel> segments = new TreeMap<>();
+	private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+	private long currentSegment;
+	private FileChannel currentChannel;
+
+	SegmentLog(File directory, long segmentMaxBytes, boolean syncOnAppend) {
+		this.directory = Objects.requireNonNull(directory, "directory is required");
+		this.segmentMaxBytes = segmentMaxBytes;
+		this.syncOnAppend = syncOnAppend;
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new UncheckedIOException(new IOException("Unable to create log directory " + directory));
+		}
+	}
+
+	/**
+	 * Opens all segments of this log and replays their records in order.
+	 * A corrupt or incomplete record at the end of the last segment is truncated.
+	 *
+	 * @param visitor The visitor of the replayed records
+	 */
+	void open(RecordVisitor visitor) {
+		try {
+			File[] files = Objects.requireNonNull(this.directory.listFiles());
+			Arrays.sort(files);
+			for (File file : files) {
+				Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+				if (matcher.matches()) {
+					long segment = Long.parseLong(matcher.group(1));
+					this.segments.put(segment, FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE));
+				}
+			}
+
+			for (Map.Entry<Long, FileChannel> segment : this.segments.entrySet()) {
+				long validBytes = replay(segment.getKey(), segment.getValue(), visitor);
+				if (validBytes < segment.getValue().size()) {
+					if (!segment.getKey().equals(this.segments.lastKey())) {
+						throw new IOException("Segment " + segment.getKey() + " is corrupt at offset " + validBytes);
+					}
+					log.warn("Truncating incomplete record at offset " + validBytes + " of segment " + segment.getKey());
+					segment.getValue().truncate(validBytes);
+				}
+			}
+
+			if (this.segments.isEmpty()) {
+				roll(0L);
+			} else {
+				this.currentSegment = this.segments.lastKey();
+				this.currentChannel = this.segments.lastEntry().getValue();
+				this.currentChannel.position(this.currentChannel.size());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to open log in " + this.directory, e);
+		}
+	}
+
+	private long replay(long segment, FileChannel channel, RecordVisitor visitor) throws IOException {
+		long size = channel.size();
+		long offset = 0;
+		ByteBuffer recordHeader = ByteBuffer.allocate(HEADER_BYTES);
+		while (offset + HEADER_BYTES <= size) {
+			recordHeader.clear();
+			readFully(channel, recordHeader, offset);
+			recordHeader.flip();
+			int length = recordHeader.getInt();
+			int checksum = recordHeader.getInt();
+			if (length < 0 || offset + HEADER_BYTES + length > size) {
+				break;
+			}
+
+			byte[] payload = new byte[length];
+			readFully(channel, ByteBuffer.wrap(payload), offset + HEADER_BYTES);
+			if (checksum(payload) != checksum) {
+				break;
+			}
+
+			visitor.visit(segment, offset + HEADER_BYTES, payload);
+			offset += HEADER_BYTES + length;
+		}
+		return offset;
+	}
+
+	/**
+	 * Appends a record to this log.
+	 *
+	 * @param payload The payload of the record
+	 * @return The offset of the payload in the segment file, the segment is given by {@link #currentSegment()}
+	 */
+	long append(byte[] payload) {
+		try {
+			if (this.currentChannel.size() > 0 && this.currentChannel.size() + HEADER_BYTES + payload.length > this.segmentMaxBytes) {
+				this.currentChannel.force(false);
+				roll(this.currentSegment + 1);
+			}
+
+			long offset = this.currentChannel.size();
+			this.header.clear();
+			this.header.putInt(payload.length);
+			this.header.putInt(checksum(payload));
+			this.header.flip();
+			ByteBuffer record = ByteBuffer.wrap(payload);
+			while (this.header.hasRemaining() || record.hasRemaining()) {
+				this.currentChannel.write(new ByteBuffer[] {this.header, record});
+			}
+			if (this.syncOnAppend) {
+				this.currentChannel.force(false);
+			}
+			return offset + HEADER_BYTES;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to append to segment " + this.currentSegment, e);
+		}
+	}
+
+	/**
+	 * Gets the id of the segment the last record was appended to.
+	 */
+	long currentSegment() {
+		return this.currentSegment;
+	}
+
+	/**
+	 * Reads part of a record payload.
+	 *
+	 * @param segment The id of the segment
+	 * @param offset The offset in the segment file
+	 * @param length The number of bytes to read
+	 * @return The bytes read
+	 */
+	byte[] read(long segment, long offset, int length) {
+		FileChannel channel = this.segments.get(segment);
+		if (channel == null) {
+			throw new IllegalArgumentException("Unknown segment " + segment);
+		}
+		try {
+			byte[] data = new byte[length];
+			readFully(channel, ByteBuffer.wrap(data), offset);
+			return data;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to read from segment " + segment, e);
+		}
+	}
+
+	/**
+	 * Deletes all records of this log.
+	 */
+	void clear() {
+		try {
+			for (Map.Entry<Long, FileChannel> segment : this.segments.entrySet()) {
+				segment.getValue().close();
+				Files.deleteIfExists(segmentFile(segment.getKey()).toPath());
+			}
+			this.segments.clear();
+			roll(0L);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to clear log in " + this.directory, e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			if (this.currentChannel != null) {
+				this.currentChannel.force(false);
+			}
+			for (FileChannel channel : this.segments.values()) {
+				channel.close();
+			}
+			this.segments.clear();
+			this.currentChannel = null;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to close log in " + this.directory, e);
+		}
+	}
+
+	private void roll(long segment) throws IOException {
+		FileChannel channel = FileChannel.open(
+			segmentFile(segment).toPath(),
+			StandardOpenOption.CREATE,
+			StandardOpenOption.READ,
+			StandardOpenOption.WRITE
+		);
+		this.segments.put(segment, channel);
+		this.currentSegment = segment;
+		this.currentChannel = channel;
+	}
+
+	private File segmentFile(long segment) {
+		return new File(this.directory, String.format("segment-%016d.log", segment));
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+		long position = offset;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("Unexpected end of segment at offset " + position);
+			}
+			position += read;
+		}
+	}
+
+	private static int checksum(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.radixdlt.atomos.RRI;
+import com.radixdlt.atomos.RRIParticle;
+import com.radixdlt.atomos.RadixAddress;
+import com.radixdlt.common.Atom;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.middleware.ParticleGroup;
+import com.radixdlt.middleware.SpunParticle;
+import com.radixdlt.middleware2.store.EngineAtomIndexer;
+import com.radixdlt.middleware2.store.EngineAtomIndices;
+import com.radixdlt.serialization.Serialization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.radix.logging.Logging;
+import org.radix.serialization.TestSetupUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH driven benchmark of computing {@link EngineAtomIndices} for atoms with different numbers of particles,
+ * both directly and through an {@link EngineAtomIndexer} as done by the store and event paths of an atom.
+ * <pre>
+ *    $ gradle --no-daemon clean jmh
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class EngineAtomIndicesBenchmark {
+	@Param({"1", "10", "100"})
+	private int particleCount;
+
+	private final Serialization serialization = Serialization.getDefault();
+
+	private Atom atom;
+	private EngineAtomIndexer indexer;
+
+	@Setup(Level.Trial)
+	public void setupAtom() throws Exception {
+		Logging.getLogger().setLevels(Logging.ALL & ~Logging.INFO & ~Logging.TRACE & ~Logging.DEBUG);
+		TestSetupUtils.installBouncyCastleProvider();
+
+		RadixAddress address = new RadixAddress((byte) 1, new ECKeyPair().getPublicKey());
+		ImmutableList.Builder<SpunParticle> particles = ImmutableList.builder();
+		for (int particle = 0; particle < particleCount; particle++) {
+			particles.add(SpunParticle.up(new RRIParticle(RRI.of(address, "p" + particle))));
+		}
+		this.atom = new Atom(
+			ImmutableList.of(ParticleGroup.of(particles.build())),
+			ImmutableMap.of(),
+			ImmutableMap.of("timestamp", "0")
+		);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupIndexer() {
+		this.indexer = new EngineAtomIndexer(serialization);
+	}
+
+	@Benchmark
+	public EngineAtomIndices computeIndices() {
+		return EngineAtomIndices.from(atom, serialization);
+	}
+
+	@Benchmark
+	public void storeAndEventPath(Blackhole bh) {
+		// indices are needed once when storing the atom and once when broadcasting that it was stored
+		bh.consume(indexer.index(atom));
+		bh.consume(indexer.index(atom));
+	}
+}
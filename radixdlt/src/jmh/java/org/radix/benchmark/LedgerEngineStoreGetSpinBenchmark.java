@@ -0,0 +1,132 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.radixdlt.atomos.RRI;
+import com.radixdlt.atomos.RRIParticle;
+import com.radixdlt.atomos.RadixAddress;
+import com.radixdlt.common.Atom;
+import com.radixdlt.constraintmachine.Spin;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.middleware.ParticleGroup;
+import com.radixdlt.middleware.SpunParticle;
+import com.radixdlt.middleware2.converters.AtomToBinaryConverter;
+import com.radixdlt.middleware2.store.EngineAtomIndexer;
+import com.radixdlt.middleware2.store.LedgerEngineStore;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.radix.database.DatabaseEnvironment;
+import org.radix.logging.Logging;
+import org.radix.serialization.TestSetupUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH driven benchmark of {@link LedgerEngineStore#getSpin} with 1M stored particles,
+ * looking up stored (UP) as well as unknown (NEUTRAL) particles.
+ * <pre>
+ *    $ gradle --no-daemon clean jmh
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class LedgerEngineStoreGetSpinBenchmark {
+	private static final int ATOM_COUNT = 10_000;
+	private static final int PARTICLES_PER_ATOM = 100;
+	private static final int UNKNOWN_PARTICLE_COUNT = 10_000;
+
+	private final Random random = new Random(1234L);
+
+	private File dbDirectory;
+	private DatabaseEnvironment dbEnv;
+	private BerkeleyLedgerEntryStore store;
+	private LedgerEngineStore engineStore;
+
+	private List<RRIParticle> storedParticles;
+	private List<RRIParticle> unknownParticles;
+
+	@Setup(Level.Trial)
+	public void setupStore() throws Exception {
+		Logging.getLogger().setLevels(Logging.ALL & ~Logging.INFO & ~Logging.TRACE & ~Logging.DEBUG);
+		TestSetupUtils.installBouncyCastleProvider();
+
+		Serialization serialization = Serialization.getDefault();
+		this.dbDirectory = StoreBenchmarkUtils.createTempDirectory();
+		this.dbEnv = StoreBenchmarkUtils.createDatabaseEnvironment(this.dbDirectory);
+		this.store = new BerkeleyLedgerEntryStore(serialization, this.dbEnv);
+		this.engineStore = new LedgerEngineStore(this.store, new AtomToBinaryConverter(serialization), new EngineAtomIndexer(serialization));
+
+		RadixAddress address = new RadixAddress((byte) 1, new ECKeyPair().getPublicKey());
+		this.storedParticles = new ArrayList<>(ATOM_COUNT * PARTICLES_PER_ATOM);
+		for (int atom = 0; atom < ATOM_COUNT; atom++) {
+			ImmutableList.Builder<SpunParticle> particles = ImmutableList.builder();
+			for (int particle = 0; particle < PARTICLES_PER_ATOM; particle++) {
+				RRIParticle rriParticle = new RRIParticle(RRI.of(address, "p" + (atom * PARTICLES_PER_ATOM + particle)));
+				this.storedParticles.add(rriParticle);
+				particles.add(SpunParticle.up(rriParticle));
+			}
+			this.engineStore.storeAtom(new Atom(
+				ImmutableList.of(ParticleGroup.of(particles.build())),
+				ImmutableMap.of(),
+				ImmutableMap.of("timestamp", Integer.toString(atom))
+			));
+		}
+
+		this.unknownParticles = new ArrayList<>(UNKNOWN_PARTICLE_COUNT);
+		for (int particle = 0; particle < UNKNOWN_PARTICLE_COUNT; particle++) {
+			this.unknownParticles.add(new RRIParticle(RRI.of(address, "u" + particle)));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownStore() {
+		this.store.close();
+		this.dbEnv.stop();
+		StoreBenchmarkUtils.deleteDirectory(this.dbDirectory);
+	}
+
+	@Benchmark
+	public Spin getSpinStored() {
+		return engineStore.getSpin(storedParticles.get(random.nextInt(storedParticles.size())));
+	}
+
+	@Benchmark
+	public Spin getSpinUnknown() {
+		return engineStore.getSpin(unknownParticles.get(random.nextInt(unknownParticles.size())));
+	}
+}
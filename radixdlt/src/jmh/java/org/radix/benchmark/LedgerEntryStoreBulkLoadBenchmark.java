@@ -0,0 +1,138 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.radixdlt.common.AID;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.IndexedLedgerEntry;
+import com.radixdlt.store.StoreIndex;
+import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
+import com.radixdlt.utils.Ints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.radix.database.DatabaseEnvironment;
+import org.radix.logging.Logging;
+import org.radix.serialization.TestSetupUtils;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * JMH driven benchmarks comparing the ingestion of a ledger into an empty {@link BerkeleyLedgerEntryStore}
+ * with regular batched writes and with a bulk load, which builds the secondary indices at the end.
+ * <p>
+ * Each iteration loads {@code entries} fresh entries with a few duplicate indices each into a reset store.
+ * <pre>
+ *    $ gradle --no-daemon clean jmh
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LedgerEntryStoreBulkLoadBenchmark {
+	private static final int CONTENT_SIZE = 1024;
+	private static final int BATCH_SIZE = 1000;
+	private static final int DUPLICATE_INDICES_PER_ENTRY = 4;
+
+	@Param({"10000", "100000"})
+	private int entries;
+
+	private final Random random = new Random(1234L);
+
+	private File dbDirectory;
+	private DatabaseEnvironment dbEnv;
+	private BerkeleyLedgerEntryStore store;
+
+	private List<List<IndexedLedgerEntry>> batches;
+
+	@Setup(Level.Trial)
+	public void setupStore() throws Exception {
+		Logging.getLogger().setLevels(Logging.ALL & ~Logging.INFO & ~Logging.TRACE & ~Logging.DEBUG);
+		TestSetupUtils.installBouncyCastleProvider();
+
+		this.dbDirectory = StoreBenchmarkUtils.createTempDirectory();
+		this.dbEnv = StoreBenchmarkUtils.createDatabaseEnvironment(this.dbDirectory);
+		this.store = new BerkeleyLedgerEntryStore(Serialization.getDefault(), this.dbEnv);
+	}
+
+	@Setup(Level.Iteration)
+	public void setupLedger() {
+		this.store.reset();
+		List<IndexedLedgerEntry> ledger = IntStream.range(0, entries)
+			.mapToObj(i -> new IndexedLedgerEntry(
+				StoreBenchmarkUtils.randomLedgerEntry(random, CONTENT_SIZE),
+				ImmutableSet.of(),
+				randomDuplicateIndices()
+			))
+			.collect(Collectors.toList());
+		this.batches = Lists.partition(ledger, BATCH_SIZE);
+	}
+
+	private ImmutableSet<StoreIndex> randomDuplicateIndices() {
+		ImmutableSet.Builder<StoreIndex> indices = ImmutableSet.builder();
+		for (int i = 0; i < DUPLICATE_INDICES_PER_ENTRY; i++) {
+			indices.add(new StoreIndex((byte) 200, Ints.toByteArray(random.nextInt(entries))));
+		}
+		return indices.build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownStore() {
+		this.store.close();
+		this.dbEnv.stop();
+		StoreBenchmarkUtils.deleteDirectory(this.dbDirectory);
+	}
+
+	@Benchmark
+	public void regularLoad() {
+		for (List<IndexedLedgerEntry> batch : batches) {
+			store.storeAll(batch);
+			List<AID> aids = batch.stream()
+				.map(indexedLedgerEntry -> indexedLedgerEntry.getLedgerEntry().getAID())
+				.collect(Collectors.toList());
+			store.commitAll(aids);
+		}
+	}
+
+	@Benchmark
+	public void bulkLoad() {
+		store.beginBulkLoad();
+		for (List<IndexedLedgerEntry> batch : batches) {
+			store.bulkLoad(batch);
+		}
+		store.finishBulkLoad();
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.radix.database.DatabaseEnvironment;
+import org.radix.logging.Logging;
+import org.radix.serialization.TestSetupUtils;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH driven benchmark of committing a pending ledger entry in a {@link BerkeleyLedgerEntryStore}
+ * for different entry sizes. As a commit only rewrites the small status record of an entry,
+ * the commit latency is expected to be the same for all sizes.
+ * <pre>
+ *    $ gradle --no-daemon clean jmh
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class LedgerEntryStoreCommitBenchmark {
+	@Param({"256", "4096", "65536"})
+	private int contentSize;
+
+	private final Random random = new Random(1234L);
+
+	private File dbDirectory;
+	private DatabaseEnvironment dbEnv;
+	private BerkeleyLedgerEntryStore store;
+
+	private LedgerEntry pendingEntry;
+
+	@Setup(Level.Trial)
+	public void setupStore() throws Exception {
+		Logging.getLogger().setLevels(Logging.ALL & ~Logging.INFO & ~Logging.TRACE & ~Logging.DEBUG);
+		TestSetupUtils.installBouncyCastleProvider();
+
+		this.dbDirectory = StoreBenchmarkUtils.createTempDirectory();
+		this.dbEnv = StoreBenchmarkUtils.createDatabaseEnvironment(this.dbDirectory);
+		this.store = new BerkeleyLedgerEntryStore(Serialization.getDefault(), this.dbEnv);
+	}
+
+	@Setup(Level.Invocation)
+	public void storePendingEntry() {
+		this.pendingEntry = StoreBenchmarkUtils.randomLedgerEntry(random, contentSize);
+		if (!this.store.store(this.pendingEntry, ImmutableSet.of(), ImmutableSet.of()).isSuccess()) {
+			throw new IllegalStateException("Failed to store pending entry " + this.pendingEntry.getAID());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownStore() {
+		this.store.close();
+		this.dbEnv.stop();
+		StoreBenchmarkUtils.deleteDirectory(this.dbDirectory);
+	}
+
+	@Benchmark
+	public void commit() {
+		store.commit(pendingEntry.getAID());
+	}
+}
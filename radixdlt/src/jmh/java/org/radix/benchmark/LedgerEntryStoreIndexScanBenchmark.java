@@ -0,0 +1,184 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.radix.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.common.AID;
+import com.radixdlt.properties.RuntimeProperties;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.IndexedLedgerEntry;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerSearchMode;
+import com.radixdlt.store.SearchScan;
+import com.radixdlt.store.StoreIndex;
+import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
+import com.radixdlt.store.berkeley.BerkeleyStoreConfiguration;
+import com.radixdlt.utils.Ints;
+import com.sleepycat.je.EnvironmentStats;
+import com.sleepycat.je.StatsConfig;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.radix.database.DatabaseEnvironment;
+import org.radix.logging.Logging;
+import org.radix.serialization.TestSetupUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH driven benchmark of the cache churn caused by index lookups in a {@link BerkeleyLedgerEntryStore}.
+ * Compares key-only scans and existence checks of a duplicate index with scans which materialise
+ * the data of every match, and reports the number of record (LN) fetches and LN cache misses of the
+ * underlying JE environment during each iteration as auxiliary counters.
+ * The entry cache of the store is disabled so that every materialised match reaches JE.
+ * <pre>
+ *    $ gradle --no-daemon clean jmh
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class LedgerEntryStoreIndexScanBenchmark {
+	private static final int NUM_DESTINATIONS = 100;
+	private static final int ENTRIES_PER_DESTINATION = 100;
+	private static final int CONTENT_SIZE = 4096;
+	private static final byte DESTINATION_PREFIX = (byte) 200;
+
+	private final Random random = new Random(1234L);
+
+	private File dbDirectory;
+	private DatabaseEnvironment dbEnv;
+	private BerkeleyLedgerEntryStore store;
+
+	/**
+	 * JE cache statistics collected over a measurement iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class CacheCounters {
+		public long lnFetches;
+		public long lnFetchMisses;
+		public long lookups;
+
+		private EnvironmentStats before;
+
+		@Setup(Level.Iteration)
+		public void resetStats(LedgerEntryStoreIndexScanBenchmark benchmark) {
+			this.lnFetches = 0;
+			this.lnFetchMisses = 0;
+			this.lookups = 0;
+			this.before = benchmark.environmentStats();
+		}
+
+		@TearDown(Level.Iteration)
+		public void collectStats(LedgerEntryStoreIndexScanBenchmark benchmark) {
+			EnvironmentStats after = benchmark.environmentStats();
+			this.lnFetches = after.getNLNsFetch() - this.before.getNLNsFetch();
+			this.lnFetchMisses = after.getNLNsFetchMiss() - this.before.getNLNsFetchMiss();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setupStore() throws Exception {
+		Logging.getLogger().setLevels(Logging.ALL & ~Logging.INFO & ~Logging.TRACE & ~Logging.DEBUG);
+		TestSetupUtils.installBouncyCastleProvider();
+
+		this.dbDirectory = StoreBenchmarkUtils.createTempDirectory();
+		this.dbEnv = StoreBenchmarkUtils.createDatabaseEnvironment(this.dbDirectory);
+		RuntimeProperties properties = new RuntimeProperties(new JSONObject(), new String[0]);
+		properties.set("db.ledger.cache.max_bytes", 0L);
+		this.store = new BerkeleyLedgerEntryStore(
+			Serialization.getDefault(),
+			this.dbEnv,
+			BerkeleyStoreConfiguration.fromRuntimeProperties(properties)
+		);
+
+		for (int destination = 0; destination < NUM_DESTINATIONS; destination++) {
+			List<IndexedLedgerEntry> entries = new ArrayList<>(ENTRIES_PER_DESTINATION);
+			List<AID> aids = new ArrayList<>(ENTRIES_PER_DESTINATION);
+			for (int i = 0; i < ENTRIES_PER_DESTINATION; i++) {
+				LedgerEntry entry = StoreBenchmarkUtils.randomLedgerEntry(random, CONTENT_SIZE);
+				entries.add(new IndexedLedgerEntry(entry, ImmutableSet.of(), ImmutableSet.of(destinationIndex(destination))));
+				aids.add(entry.getAID());
+			}
+			this.store.storeAll(entries);
+			this.store.commitAll(aids);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownStore() {
+		this.store.close();
+		this.dbEnv.stop();
+		StoreBenchmarkUtils.deleteDirectory(this.dbDirectory);
+	}
+
+	@Benchmark
+	public void scanKeysOnly(CacheCounters counters, Blackhole bh) {
+		try (SearchScan scan = store.scan(StoreIndex.LedgerIndexType.DUPLICATE, randomDestinationIndex(), LedgerSearchMode.EXACT)) {
+			while (scan.hasNext()) {
+				bh.consume(scan.next());
+			}
+		}
+		counters.lookups++;
+	}
+
+	@Benchmark
+	public void scanMaterialised(CacheCounters counters, Blackhole bh) {
+		try (SearchScan scan = store.scan(StoreIndex.LedgerIndexType.DUPLICATE, randomDestinationIndex(), LedgerSearchMode.EXACT)) {
+			while (scan.hasNext()) {
+				bh.consume(store.get(scan.next()));
+			}
+		}
+		counters.lookups++;
+	}
+
+	@Benchmark
+	public boolean containsIndex(CacheCounters counters) {
+		counters.lookups++;
+		return store.contains(StoreIndex.LedgerIndexType.DUPLICATE, randomDestinationIndex(), LedgerSearchMode.EXACT);
+	}
+
+	private StoreIndex randomDestinationIndex() {
+		return destinationIndex(random.nextInt(NUM_DESTINATIONS));
+	}
+
+	private EnvironmentStats environmentStats() {
+		return this.dbEnv.getEnvironment().getStats(StatsConfig.DEFAULT);
+	}
+
+	private static StoreIndex destinationIndex(int destination) {
+		return new StoreIndex(DESTINATION_PREFIX, Ints.toByteArray(destination));
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.common.AID;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.IndexedLedgerEntry;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.radix.database.DatabaseEnvironment;
+import org.radix.logging.Logging;
+import org.radix.serialization.TestSetupUtils;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * JMH driven benchmarks comparing single and batched ingestion of ledger entries
+ * into a {@link BerkeleyLedgerEntryStore} backed by a temporary database environment.
+ * <p>
+ * Each invocation stores and then commits {@code batchSize} fresh entries, either
+ * one transaction per entry or one transaction for the whole batch.
+ * <pre>
+ *    $ gradle --no-daemon clean jmh
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class LedgerEntryStoreIngestBenchmark {
+	private static final int CONTENT_SIZE = 1024;
+
+	@Param({"1", "10", "100"})
+	private int batchSize;
+
+	private final Random random = new Random(1234L);
+
+	private File dbDirectory;
+	private DatabaseEnvironment dbEnv;
+	private BerkeleyLedgerEntryStore store;
+
+	private List<LedgerEntry> batch;
+
+	@Setup(Level.Trial)
+	public void setupStore() throws Exception {
+		Logging.getLogger().setLevels(Logging.ALL & ~Logging.INFO & ~Logging.TRACE & ~Logging.DEBUG);
+		TestSetupUtils.installBouncyCastleProvider();
+
+		this.dbDirectory = StoreBenchmarkUtils.createTempDirectory();
+		this.dbEnv = StoreBenchmarkUtils.createDatabaseEnvironment(this.dbDirectory);
+		this.store = new BerkeleyLedgerEntryStore(Serialization.getDefault(), this.dbEnv);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupBatch() {
+		this.batch = IntStream.range(0, batchSize)
+			.mapToObj(i -> StoreBenchmarkUtils.randomLedgerEntry(random, CONTENT_SIZE))
+			.collect(Collectors.toList());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownStore() {
+		this.store.close();
+		this.dbEnv.stop();
+		StoreBenchmarkUtils.deleteDirectory(this.dbDirectory);
+	}
+
+	@Benchmark
+	public void singleIngest(Blackhole bh) {
+		for (LedgerEntry ledgerEntry : batch) {
+			bh.consume(store.store(ledgerEntry, ImmutableSet.of(), ImmutableSet.of()));
+		}
+		for (LedgerEntry ledgerEntry : batch) {
+			store.commit(ledgerEntry.getAID());
+		}
+	}
+
+	@Benchmark
+	public void batchedIngest(Blackhole bh) {
+		List<IndexedLedgerEntry> indexedEntries = batch.stream()
+			.map(ledgerEntry -> new IndexedLedgerEntry(ledgerEntry, ImmutableSet.of(), ImmutableSet.of()))
+			.collect(Collectors.toList());
+		bh.consume(store.storeAll(indexedEntries));
+		List<AID> aids = batch.stream()
+			.map(LedgerEntry::getAID)
+			.collect(Collectors.toList());
+		store.commitAll(aids);
+	}
+}
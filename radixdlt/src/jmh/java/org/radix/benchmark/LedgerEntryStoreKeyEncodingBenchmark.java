@@ -0,0 +1,195 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.common.AID;
+import com.radixdlt.properties.RuntimeProperties;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.serialization.SerializationException;
+import com.radixdlt.store.IndexedLedgerEntry;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryStoreResult;
+import com.radixdlt.store.LedgerEntryStatus;
+import com.radixdlt.store.LedgerSearchMode;
+import com.radixdlt.store.StoreIndex;
+import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
+import com.radixdlt.store.berkeley.BerkeleyStoreConfiguration;
+import com.radixdlt.store.berkeley.LedgerEntryIndices;
+import com.radixdlt.store.berkeley.LedgerKeyCodec;
+import com.radixdlt.utils.Ints;
+import com.sleepycat.je.DatabaseEntry;
+import org.bouncycastle.util.Arrays;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.radix.database.DatabaseEnvironment;
+import org.radix.logging.Logging;
+import org.radix.serialization.TestSetupUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH driven benchmark of the key and index encoding of a {@link BerkeleyLedgerEntryStore}.
+ * <p>
+ * The {@code *Dson} and {@code *Concatenate} benchmarks measure the encoding used before
+ * {@link LedgerKeyCodec} was introduced, their {@code *Binary} and {@code *ThreadLocal} counterparts
+ * the current encoding.  {@code store}, {@code getStatus} and {@code containsIndex} measure the
+ * operations of the store as a whole.  Allocation per operation is reported by the GC profiler:
+ * <pre>
+ *    $ gradle --no-daemon clean jmhJar
+ *    $ java -jar build/libs/*-jmh.jar LedgerEntryStoreKeyEncodingBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class LedgerEntryStoreKeyEncodingBenchmark {
+	private static final int NUM_ENTRIES = 10_000;
+	private static final int NUM_DESTINATIONS = 100;
+	private static final int CONTENT_SIZE = 1024;
+	private static final byte DESTINATION_PREFIX = (byte) 200;
+	private static final byte ADDRESS_PREFIX = (byte) 201;
+
+	private final Random random = new Random(1234L);
+
+	private Serialization serialization;
+	private File dbDirectory;
+	private DatabaseEnvironment dbEnv;
+	private BerkeleyLedgerEntryStore store;
+
+	private List<AID> storedAids;
+	private LedgerEntryIndices indices;
+	private byte[] dsonIndices;
+	private byte[] binaryIndices;
+	private StoreIndex index;
+
+	@Setup
+	public void setup() throws Exception {
+		Logging.getLogger().setLevels(Logging.ALL & ~Logging.INFO & ~Logging.TRACE & ~Logging.DEBUG);
+		TestSetupUtils.installBouncyCastleProvider();
+
+		this.serialization = Serialization.getDefault();
+		this.dbDirectory = StoreBenchmarkUtils.createTempDirectory();
+		this.dbEnv = StoreBenchmarkUtils.createDatabaseEnvironment(this.dbDirectory);
+		RuntimeProperties properties = new RuntimeProperties(new JSONObject(), new String[0]);
+		// lookups should reach the database rather than the entry cache
+		properties.set("db.ledger.cache.max_bytes", 0L);
+		this.store = new BerkeleyLedgerEntryStore(
+			this.serialization,
+			this.dbEnv,
+			BerkeleyStoreConfiguration.fromRuntimeProperties(properties)
+		);
+
+		List<IndexedLedgerEntry> entries = new ArrayList<>(NUM_ENTRIES);
+		this.storedAids = new ArrayList<>(NUM_ENTRIES);
+		for (int i = 0; i < NUM_ENTRIES; i++) {
+			LedgerEntry entry = StoreBenchmarkUtils.randomLedgerEntry(random, CONTENT_SIZE);
+			entries.add(new IndexedLedgerEntry(entry, uniqueIndices(entry), duplicateIndices()));
+			this.storedAids.add(entry.getAID());
+		}
+		this.store.storeAll(entries);
+		this.store.commitAll(this.storedAids);
+
+		LedgerEntry entry = StoreBenchmarkUtils.randomLedgerEntry(random, CONTENT_SIZE);
+		this.indices = LedgerEntryIndices.from(entry, uniqueIndices(entry), duplicateIndices());
+		this.dsonIndices = this.serialization.toDson(this.indices, Output.PERSIST);
+		this.binaryIndices = LedgerKeyCodec.encodeIndices(this.indices);
+		this.index = randomDestinationIndex();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.store.close();
+		this.dbEnv.stop();
+		StoreBenchmarkUtils.deleteDirectory(this.dbDirectory);
+	}
+
+	@Benchmark
+	public byte[] encodeIndicesDson() throws SerializationException {
+		return this.serialization.toDson(this.indices, Output.PERSIST);
+	}
+
+	@Benchmark
+	public byte[] encodeIndicesBinary() {
+		return LedgerKeyCodec.encodeIndices(this.indices);
+	}
+
+	@Benchmark
+	public LedgerEntryIndices decodeIndicesDson() throws SerializationException {
+		return this.serialization.fromDson(this.dsonIndices, LedgerEntryIndices.class);
+	}
+
+	@Benchmark
+	public LedgerEntryIndices decodeIndicesBinary() {
+		return LedgerKeyCodec.decodeIndices(this.binaryIndices);
+	}
+
+	@Benchmark
+	public DatabaseEntry indexKeyConcatenate() {
+		return new DatabaseEntry(Arrays.concatenate(new byte[] { (byte) this.index.getPrefix() }, this.index.getIdentifier()));
+	}
+
+	@Benchmark
+	public DatabaseEntry indexKeyThreadLocal() {
+		return LedgerKeyCodec.indexKey(this.index);
+	}
+
+	@Benchmark
+	public LedgerEntryStoreResult store() {
+		LedgerEntry entry = StoreBenchmarkUtils.randomLedgerEntry(random, CONTENT_SIZE);
+		return this.store.store(entry, uniqueIndices(entry), duplicateIndices());
+	}
+
+	@Benchmark
+	public LedgerEntryStatus getStatus() {
+		return this.store.getStatus(this.storedAids.get(random.nextInt(NUM_ENTRIES)));
+	}
+
+	@Benchmark
+	public boolean containsIndex() {
+		return this.store.contains(StoreIndex.LedgerIndexType.DUPLICATE, randomDestinationIndex(), LedgerSearchMode.EXACT);
+	}
+
+	private ImmutableSet<StoreIndex> uniqueIndices(LedgerEntry entry) {
+		return ImmutableSet.of(new StoreIndex(ADDRESS_PREFIX, entry.getAID().getBytes()));
+	}
+
+	private ImmutableSet<StoreIndex> duplicateIndices() {
+		return ImmutableSet.of(randomDestinationIndex());
+	}
+
+	private StoreIndex randomDestinationIndex() {
+		return new StoreIndex(DESTINATION_PREFIX, Ints.toByteArray(random.nextInt(NUM_DESTINATIONS)));
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.consensus.PendingVotes;
+import com.radixdlt.consensus.QuorumCertificate;
+import com.radixdlt.consensus.VertexMetadata;
+import com.radixdlt.consensus.View;
+import com.radixdlt.consensus.Vote;
+import com.radixdlt.consensus.validators.Validator;
+import com.radixdlt.consensus.validators.ValidatorSet;
+import com.radixdlt.crypto.ECDSASignatures;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.Hash;
+import com.radixdlt.crypto.Signatures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.radix.serialization.TestSetupUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH driven benchmark of forming a {@link QuorumCertificate} from the votes of
+ * all validators for different validator set sizes.
+ * <p>
+ * {@code concatenateAndValidate} reproduces accumulating votes by copying the signature
+ * set and re-validating all signatures on every vote, which grows quadratically with the
+ * number of validators, while {@code pendingVotes} verifies every signature once.
+ * <pre>
+ *    $ gradle --no-daemon clean jmh
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public class QuorumFormationBenchmark {
+	@Param({"4", "16", "64", "128"})
+	private int validatorCount;
+
+	private ValidatorSet validatorSet;
+	private VertexMetadata vertexMetadata;
+	private ImmutableList<Vote> votes;
+	private QuorumCertificate qc;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		TestSetupUtils.installBouncyCastleProvider();
+
+		this.vertexMetadata = new VertexMetadata(View.of(2L), Hash.random(), View.of(1L), Hash.random());
+		ImmutableList.Builder<Validator> validators = ImmutableList.builder();
+		ImmutableList.Builder<Vote> votesBuilder = ImmutableList.builder();
+		for (int i = 0; i < validatorCount; i++) {
+			ECKeyPair key = new ECKeyPair();
+			validators.add(Validator.from(key.getPublicKey()));
+			votesBuilder.add(new Vote(key.getPublicKey(), vertexMetadata, key.sign(vertexMetadata.getId())));
+		}
+		this.validatorSet = ValidatorSet.from(validators.build());
+		this.votes = votesBuilder.build();
+		this.qc = pendingVotes().orElseThrow(() -> new IllegalStateException("No QC formed"));
+	}
+
+	@Benchmark
+	public Optional<QuorumCertificate> pendingVotes() {
+		PendingVotes pendingVotes = new PendingVotes();
+		for (Vote vote : this.votes) {
+			Optional<QuorumCertificate> formed = pendingVotes.insertVote(vote, this.validatorSet);
+			if (formed.isPresent()) {
+				return formed;
+			}
+		}
+		return Optional.empty();
+	}
+
+	@Benchmark
+	public Optional<QuorumCertificate> concatenateAndValidate() {
+		Signatures signatures = new ECDSASignatures();
+		for (Vote vote : this.votes) {
+			signatures = signatures.concatenate(vote.getAuthor(), vote.getSignature().get());
+			if (this.validatorSet.validate(this.vertexMetadata.getId(), signatures).valid()) {
+				return Optional.of(new QuorumCertificate(this.vertexMetadata, (ECDSASignatures) signatures));
+			}
+		}
+		return Optional.empty();
+	}
+
+	@Benchmark
+	public void validateReceivedQC(Blackhole bh) {
+		bh.consume(this.validatorSet.validate(this.qc.getVertexMetadata().getId(), this.qc.getSignatures()));
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import com.radixdlt.common.AID;
+import com.radixdlt.properties.RuntimeProperties;
+import com.radixdlt.store.LedgerEntry;
+import org.apache.commons.cli.ParseException;
+import org.json.JSONObject;
+import org.radix.database.DatabaseEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Helpers for benchmarks which operate on a real, temporary, database environment.
+ */
+final class StoreBenchmarkUtils {
+	private StoreBenchmarkUtils() {
+		throw new IllegalStateException("Cannot instantiate.");
+	}
+
+	/**
+	 * Creates a new {@link DatabaseEnvironment} in the given directory.
+	 *
+	 * @param directory The directory to create the environment in
+	 * @return The started environment
+	 */
+	static DatabaseEnvironment createDatabaseEnvironment(File directory) {
+		try {
+			RuntimeProperties properties = new RuntimeProperties(new JSONObject(), new String[0]);
+			properties.set("db.location", directory.getAbsolutePath());
+			return new DatabaseEnvironment(properties);
+		} catch (ParseException e) {
+			throw new IllegalStateException("Unable to create runtime properties", e);
+		}
+	}
+
+	/**
+	 * Creates a new temporary directory for a database environment.
+	 *
+	 * @return The new directory
+	 */
+	static File createTempDirectory() {
+		try {
+			return Files.createTempDirectory("radix-benchmark").toFile();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Recursively deletes the given directory.
+	 *
+	 * @param directory The directory to delete
+	 */
+	static void deleteDirectory(File directory) {
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			paths.sorted(Comparator.reverseOrder())
+				.map(Path::toFile)
+				.forEach(File::delete);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Creates a {@link LedgerEntry} with a random aid and random content of the given size.
+	 *
+	 * @param random The source of randomness
+	 * @param contentSize The size of the content in bytes
+	 * @return The new ledger entry
+	 */
+	static LedgerEntry randomLedgerEntry(Random random, int contentSize) {
+		byte[] aidBytes = new byte[AID.BYTES];
+		random.nextBytes(aidBytes);
+		byte[] content = new byte[contentSize];
+		random.nextBytes(content);
+		return new LedgerEntry(content, AID.from(aidBytes));
+	}
+}
@@ -17,6 +17,7 @@
 
 package com.radixdlt;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
@@ -29,9 +30,13 @@ import com.radixdlt.consensus.Vertex;
 import com.radixdlt.consensus.VertexMetadata;
 import com.radixdlt.consensus.VertexStore;
 import com.radixdlt.consensus.View;
+import com.radixdlt.consensus.liveness.AdaptivePacemakerTimeoutCalculator;
 import com.radixdlt.consensus.liveness.Pacemaker;
+import com.radixdlt.consensus.liveness.PacemakerConfiguration;
 import com.radixdlt.consensus.liveness.PacemakerImpl;
 import com.radixdlt.consensus.liveness.PacemakerRx;
+import com.radixdlt.consensus.liveness.PacemakerTimeoutCalculator;
+import com.radixdlt.consensus.liveness.ProposalGeneratorConfiguration;
 import com.radixdlt.consensus.safety.SafetyRules;
 import com.radixdlt.consensus.tempo.Scheduler;
 import com.radixdlt.consensus.tempo.SingleThreadedScheduler;
@@ -47,6 +52,7 @@ import java.util.Objects;
 import org.radix.logging.Logger;
 import org.radix.logging.Logging;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import org.radix.network2.addressbook.AddressBook;
 
@@ -66,6 +72,7 @@ public class CerberusModule extends AbstractModule {
 		bind(PacemakerRx.class).to(PacemakerImpl.class);
 		bind(Pacemaker.class).to(PacemakerImpl.class);
 		bind(SafetyRules.class).in(Scopes.SINGLETON);
+		bind(ProposalGeneratorConfiguration.class).toInstance(ProposalGeneratorConfiguration.fromRuntimeProperties(runtimeProperties));
 	}
 
 	@Provides
@@ -89,7 +96,16 @@ public class CerberusModule extends AbstractModule {
 	@Provides
 	@Singleton
 	private PacemakerImpl pacemaker() {
-		return new PacemakerImpl(Executors.newSingleThreadScheduledExecutor());
+		final PacemakerConfiguration configuration = PacemakerConfiguration.fromRuntimeProperties(runtimeProperties);
+		final long initialTimeoutMillis = configuration.initialTimeoutMillis(1000L);
+		final PacemakerTimeoutCalculator timeoutCalculator = configuration.adaptiveTimeout(true)
+			? new AdaptivePacemakerTimeoutCalculator(
+				initialTimeoutMillis,
+				configuration.minTimeoutMillis(100L),
+				configuration.maxTimeoutMillis(60_000L)
+			)
+			: PacemakerTimeoutCalculator.fixed(initialTimeoutMillis);
+		return new PacemakerImpl(Executors.newSingleThreadScheduledExecutor(), timeoutCalculator);
 	}
 
 	@Provides
@@ -107,6 +123,14 @@ public class CerberusModule extends AbstractModule {
 		final QuorumCertificate rootQC = new QuorumCertificate(genesisMetadata, new ECDSASignatures());
 
 		log.info("Genesis Vertex Id: " + genesisVertex.getId());
-		return new VertexStore(genesisVertex, rootQC, radixEngine);
+		final int committedWindow = runtimeProperties.get("consensus.vertex_store.committed_window", VertexStore.DEFAULT_COMMITTED_WINDOW);
+		Executor executionExecutor = null;
+		if (runtimeProperties.get("consensus.pipelined", false)) {
+			// execute vertices off the consensus thread so that voting does not wait for execution
+			executionExecutor = Executors.newSingleThreadExecutor(
+				new ThreadFactoryBuilder().setNameFormat("Vertex execution").setDaemon(true).build()
+			);
+		}
+		return new VertexStore(genesisVertex, rootQC, radixEngine, executionExecutor, committedWindow);
 	}
 }
@@ -17,10 +17,10 @@
 
 package com.radixdlt.consensus;
 
-import com.radixdlt.consensus.validators.ValidationResult;
+import com.google.common.annotations.VisibleForTesting;
+import com.radixdlt.consensus.validators.ValidationState;
 import com.radixdlt.consensus.validators.ValidatorSet;
 import com.radixdlt.crypto.ECDSASignature;
-import com.radixdlt.crypto.ECDSASignatures;
 import com.radixdlt.crypto.Hash;
 
 import java.util.HashMap;
@@ -31,12 +31,15 @@ import java.util.Optional;
  * Manages pending votes for various vertices
  */
 public final class PendingVotes {
-	private final HashMap<Hash, ECDSASignatures> pendingVotes = new HashMap<>();
+	private final HashMap<Hash, ValidationState> pendingVotes = new HashMap<>();
+	private final HashMap<Hash, View> pendingVoteViews = new HashMap<>();
 
 	/**
 	 * Inserts a vote for a given vertex, attempting to form a quorum certificate for that vertex.
 	 *
 	 * A QC will only be formed if permitted by the {@link ValidatorSet}.
+	 * The signature of the vote is verified once on insertion, votes with invalid
+	 * signatures or from authors who have already voted for the vertex are ignored.
 	 * @param vote The vote to be inserted
 	 * @return The generated QC, if any
 	 */
@@ -45,20 +48,40 @@ public final class PendingVotes {
 
 		Hash voteId = vote.getVertexMetadata().getId();
 		ECDSASignature signature = vote.getSignature().orElseThrow(() -> new IllegalArgumentException("vote is missing signature"));
-		ECDSASignatures signatures = pendingVotes.getOrDefault(voteId, new ECDSASignatures());
-		signatures = (ECDSASignatures) signatures.concatenate(vote.getAuthor(), signature);
+		ValidationState validationState = pendingVotes.computeIfAbsent(voteId, validatorSet::newValidationState);
+		pendingVoteViews.putIfAbsent(voteId, vote.getVertexMetadata().getView());
 
 		// try to form a QC with the added signature according to the requirements
-		ValidationResult validationResult = validatorSet.validate(voteId, signatures);
-		if (!validationResult.valid()) {
-			// if no QC could be formed, update pending and return nothing
-			pendingVotes.put(voteId, signatures);
+		if (!validationState.addSignature(vote.getAuthor(), signature) || !validationState.complete()) {
+			// if no QC could be formed, keep pending and return nothing
 			return Optional.empty();
 		} else {
 			// if QC could be formed, remove pending and return formed QC
 			pendingVotes.remove(voteId);
-			QuorumCertificate qc = new QuorumCertificate(vote.getVertexMetadata(), signatures);
+			pendingVoteViews.remove(voteId);
+			QuorumCertificate qc = new QuorumCertificate(vote.getVertexMetadata(), validationState.signatures());
 			return Optional.of(qc);
 		}
 	}
+
+	/**
+	 * Discards the pending votes for vertices at or below the given view,
+	 * as no QC formed from them could extend a QC for that view.
+	 *
+	 * @param view The view of the highest known QC
+	 */
+	public void removeStaleVotes(View view) {
+		pendingVoteViews.entrySet().removeIf(e -> {
+			if (e.getValue().compareTo(view) <= 0) {
+				pendingVotes.remove(e.getKey());
+				return true;
+			}
+			return false;
+		});
+	}
+
+	@VisibleForTesting
+	int size() {
+		return pendingVotes.size();
+	}
 }
@@ -60,6 +60,10 @@ public final class QuorumCertificate {
 		return vertexMetadata;
 	}
 
+	public ECDSASignatures getSignatures() {
+		return signatures;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -37,6 +37,7 @@ import com.radixdlt.utils.Longs;
 import org.radix.logging.Logger;
 import org.radix.logging.Logging;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -57,6 +58,9 @@ public final class ValidatingEventCoordinator implements EventCoordinator {
 	private final SafetyRules safetyRules;
 	private final ValidatorSet validatorSet;
 
+	// the highest view this node has broadcast a proposal for, to avoid proposing twice in a view
+	private View lastProposedView = View.genesis();
+
 	@Inject
 	public ValidatingEventCoordinator(
 		ProposalGenerator proposalGenerator,
@@ -96,7 +100,13 @@ public final class ValidatingEventCoordinator implements EventCoordinator {
 			return;
 		}
 
-		Vertex proposal = proposalGenerator.generateProposal(this.pacemaker.getCurrentView());
+		final View currentView = this.pacemaker.getCurrentView();
+		if (currentView.compareTo(this.lastProposedView) <= 0) {
+			return;
+		}
+		this.lastProposedView = currentView;
+
+		Vertex proposal = proposalGenerator.generateProposal(currentView);
 
 		log.info(getShortName() + ": Broadcasting Proposal: " + proposal);
 		this.networkSender.broadcastProposal(proposal);
@@ -119,30 +129,40 @@ public final class ValidatingEventCoordinator implements EventCoordinator {
 		// sync up to QC if necessary
 		this.vertexStore.syncToQC(qc);
 
+		// votes for views up to the QC can no longer extend the chain
+		this.pendingVotes.removeStaleVotes(qc.getView());
+
 		// commit any newly committable vertices
 		this.safetyRules.process(qc)
-			.ifPresent(vertexId -> {
-				log.info(this.getShortName() + ": Committing vertex " + vertexId);
-
-				final Vertex vertex = vertexStore.commitVertex(vertexId);
-				final Atom committedAtom = vertex.getAtom();
-				if (committedAtom != null) {
-					mempool.removeCommittedAtom(committedAtom.getAID());
-				}
-			});
+			.ifPresent(this::commit);
 
 		// proceed to next view if pacemaker feels like it
 		this.pacemaker.processQC(qc.getView())
 			.ifPresent(this::proceedToView);
 	}
 
+	private void commit(Hash vertexId) {
+		log.info(this.getShortName() + ": Committing vertex " + vertexId);
+
+		final Vertex vertex;
+		try {
+			vertex = vertexStore.commitVertex(vertexId);
+		} catch (VertexExecutionException e) {
+			throw executionFailed(e);
+		}
+		// atoms rejected on insertion have already been removed, removal is idempotent
+		for (Atom committedAtom : vertex.getAtoms()) {
+			mempool.removeCommittedAtom(committedAtom.getAID());
+		}
+	}
+
 	@Override
 	public void processVote(Vote vote) {
 		log.info(this.getShortName() + ": Processing VOTE_MESSAGE: " + vote);
 
 		// only do something if we're actually the leader for the vote
 		final View view = vote.getVertexMetadata().getView();
-		if (!Objects.equals(proposerElection.getProposer(view), selfKey.getPublicKey())) {
+		if (!Objects.equals(proposerElection.getProposer(voteCollectorView(view)), selfKey.getPublicKey())) {
 			log.warn(String.format("%s Ignoring confused vote %s for %s", getShortName(), vote.hashCode(), vote.getVertexMetadata().getView()));
 			return;
 		}
@@ -158,9 +178,24 @@ public final class ValidatingEventCoordinator implements EventCoordinator {
 				// Should never go here
 				throw new IllegalStateException("Could not process QC " + e.getQC() + " which was created.");
 			}
+
+			if (this.vertexStore.isPipelined()) {
+				// the QC justifies the next view, so the next leader can propose right away
+				// rather than waiting for a quorum of new-views
+				startQuorumNewView(this.pacemaker.getCurrentView());
+			}
 		}
 	}
 
+	/**
+	 * Returns the view whose leader collects the votes for the given view.
+	 * When pipelined, votes go to the next leader, who forms the QC and extends it
+	 * in its own proposal without another round trip.
+	 */
+	private View voteCollectorView(View view) {
+		return this.vertexStore.isPipelined() ? view.next() : view;
+	}
+
 	@Override
 	public void processNewView(NewView newView) {
 		log.info(this.getShortName() + ": Processing NEW_VIEW_MESSAGE: " + newView);
@@ -209,21 +244,31 @@ public final class ValidatingEventCoordinator implements EventCoordinator {
 		}
 
 		try {
-			vertexStore.insertVertex(proposedVertex);
+			if (vertexStore.isPipelined()) {
+				// vote speculatively on the prepared vertex while its atoms execute, as the
+				// rejected atoms are the same on all replicas they do not affect the vote
+				vertexStore.prepareVertex(proposedVertex)
+					.whenComplete((rejectedAtoms, e) -> {
+						if (e != null) {
+							// this thread cannot stop consensus, the next proposal or commit will
+							log.error(this.getShortName() + ": Execution of " + proposedVertex + " failed", e);
+						} else {
+							removeRejectedAtoms(proposedVertex, rejectedAtoms);
+						}
+					});
+			} else {
+				removeRejectedAtoms(proposedVertex, vertexStore.insertVertex(proposedVertex));
+			}
 		} catch (VertexInsertionException e) {
 			log.info("Rejected vertex insertion " + e);
-
-			// TODO: Better logic for removal on exception
-			final Atom atom = proposedVertex.getAtom();
-			if (atom != null) {
-				mempool.removeRejectedAtom(atom.getAID());
-			}
 			return;
+		} catch (VertexExecutionException e) {
+			throw executionFailed(e);
 		}
 
 		try {
 			final Vote vote = safetyRules.voteFor(proposedVertex);
-			final ECPublicKey leader = this.proposerElection.getProposer(updatedView);
+			final ECPublicKey leader = this.proposerElection.getProposer(voteCollectorView(updatedView));
 			log.info(this.getShortName() + ": Sending Vote to " + this.getShortName(leader.getUID()) + ": " + vote);
 			networkSender.sendVote(vote, leader.getUID());
 		} catch (SafetyViolationException e) {
@@ -234,6 +279,26 @@ public final class ValidatingEventCoordinator implements EventCoordinator {
 		// TODO: For now, just depend on Timeout events
 	}
 
+	/**
+	 * The ledger may hold a partially executed vertex, which can neither be rolled back nor
+	 * resynced yet, so consensus is stopped rather than voting on or committing anything after it.
+	 */
+	private IllegalStateException executionFailed(VertexExecutionException e) {
+		return new IllegalStateException(this.getShortName() + ": Execution of vertex " + e.getVertexId() + " failed", e);
+	}
+
+	/**
+	 * Removes the rejected atoms of an executed vertex from the mempool.  When pipelined this is
+	 * called on the execution thread, which relies on the {@link Mempool} being thread safe.
+	 */
+	private void removeRejectedAtoms(Vertex vertex, List<Atom> rejectedAtoms) {
+		// only the offending atoms are dropped, the rest of the batch remains in the vertex
+		for (Atom rejectedAtom : rejectedAtoms) {
+			log.info(this.getShortName() + ": Rejected atom " + rejectedAtom.getAID() + " of " + vertex);
+			mempool.removeRejectedAtom(rejectedAtom.getAID());
+		}
+	}
+
 	@Override
 	public void processLocalTimeout(View view) {
 		log.info(this.getShortName() + ": Processing LOCAL_TIMEOUT: " + view);
@@ -19,6 +19,7 @@ package com.radixdlt.consensus;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.common.Atom;
 import com.radixdlt.crypto.Hash;
 import com.radixdlt.serialization.DsonOutput;
@@ -28,6 +29,7 @@ import com.radixdlt.serialization.SerializerDummy;
 import com.radixdlt.serialization.SerializerId2;
 import com.radixdlt.serialization.DsonOutput.Output;
 
+import java.util.List;
 import java.util.Objects;
 
 import java.util.function.Supplier;
@@ -49,9 +51,10 @@ public final class Vertex {
 
 	private View view;
 
-	@JsonProperty("atom")
+	// replaced the single "atom" field, vertices are not compatible with nodes predating batches
+	@JsonProperty("atoms")
 	@DsonOutput(Output.ALL)
-	private final Atom atom;
+	private final ImmutableList<Atom> atoms;
 
 	private final transient Supplier<Hash> cachedHash = Suppliers.memoize(this::doGetHash);
 
@@ -59,27 +62,30 @@ public final class Vertex {
 		// Serializer only
 		this.qc = null;
 		this.view = null;
-		this.atom = null;
+		this.atoms = ImmutableList.of();
 	}
 
-	public Vertex(QuorumCertificate qc, View view, Atom atom) {
+	public Vertex(QuorumCertificate qc, View view, List<Atom> atoms) {
 		this.qc = qc;
 		this.view = Objects.requireNonNull(view);
-		this.atom = atom;
+		this.atoms = ImmutableList.copyOf(atoms);
 	}
 
 	public static Vertex createGenesis(Atom atom) {
-		return new Vertex(null, View.of(0), atom);
+		return new Vertex(null, View.of(0), atom == null ? ImmutableList.of() : ImmutableList.of(atom));
 	}
 
-	public static Vertex createVertex(QuorumCertificate qc, View view, Atom atom) {
+	/**
+	 * Creates a vertex proposing an ordered batch of atoms, which may be empty.
+	 */
+	public static Vertex createVertex(QuorumCertificate qc, View view, List<Atom> atoms) {
 		Objects.requireNonNull(qc);
 
 		if (view.number() == 0) {
 			throw new IllegalArgumentException("Only genesis can have view 0.");
 		}
 
-		return new Vertex(qc, view, atom);
+		return new Vertex(qc, view, atoms);
 	}
 
 	private Hash doGetHash() {
@@ -110,8 +116,11 @@ public final class Vertex {
 		return view;
 	}
 
-	public Atom getAtom() {
-		return atom;
+	/**
+	 * Gets the unmodifiable list of atoms proposed by this vertex, in the order they are executed.
+	 */
+	public List<Atom> getAtoms() {
+		return atoms;
 	}
 
 	public boolean isGenesis() {
@@ -131,12 +140,12 @@ public final class Vertex {
 
 	@Override
 	public String toString() {
-		return String.format("Vertex{view=%s, atom=%s, qc=%s}", view, atom, qc);
+		return String.format("Vertex{view=%s, atoms=%s, qc=%s}", view, atoms.size(), qc);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(qc, view, atom);
+		return Objects.hash(qc, view, atoms);
 	}
 
 	@Override
@@ -147,7 +156,7 @@ public final class Vertex {
 
 		Vertex v = (Vertex) o;
 		return Objects.equals(v.view, view)
-			&& Objects.equals(v.atom, this.atom)
+			&& Objects.equals(v.atoms, this.atoms)
 			&& Objects.equals(v.qc, this.qc);
 	}
 }
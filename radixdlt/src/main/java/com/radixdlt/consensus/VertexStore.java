@@ -17,24 +17,45 @@
 
 package com.radixdlt.consensus;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.common.Atom;
 import com.radixdlt.crypto.Hash;
 import com.radixdlt.engine.RadixEngine;
 import com.radixdlt.engine.RadixEngineException;
 
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.subjects.BehaviorSubject;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
- * Manages the BFT Vertex chain
+ * Manages the BFT Vertex chain.
+ * <p>
+ * Once a vertex is committed, vertices which can no longer be committed, i.e. uncommitted
+ * vertices at or below its view, are discarded, and only the most recent committed vertices
+ * up to a configurable window are kept to serve sync requests.
  */
 public final class VertexStore {
+	public static final int DEFAULT_COMMITTED_WINDOW = 100;
 
 	private final RadixEngine engine;
+	private final int committedWindow;
+	// ids of the retained committed vertices, oldest first
+	private final Deque<Hash> committedChain = new ArrayDeque<>();
+	// executes vertex atoms off the consensus thread if not null
+	private final Executor executionExecutor;
+	private final Map<Hash, CompletableFuture<List<Atom>>> pendingExecutions = new HashMap<>();
+	// the first failed execution, after which nothing is executed as the ledger may hold a partial vertex
+	private volatile VertexExecutionException executionFailure;
 	private final Map<Hash, Vertex> vertices = new HashMap<>();
 	private final Map<Hash, Vertex> committedVertices = new HashMap<>();
 	private final BehaviorSubject<Vertex> lastCommittedVertex = BehaviorSubject.create();
@@ -47,20 +68,66 @@ public final class VertexStore {
 		Vertex genesisVertex,
 		QuorumCertificate rootQC,
 		RadixEngine engine
+	) {
+		this(genesisVertex, rootQC, engine, null);
+	}
+
+	/**
+	 * Creates a vertex store which executes the atoms of inserted vertices on the given executor.
+	 * The executor must execute tasks one at a time in submission order, as vertices are executed
+	 * against the engine in the order they are prepared.
+	 *
+	 * @param genesisVertex the genesis vertex
+	 * @param rootQC the root quorum certificate
+	 * @param engine the engine to execute atoms with
+	 * @param executionExecutor the executor to execute atoms on, or {@code null} to execute on the calling thread
+	 */
+	public VertexStore(
+		Vertex genesisVertex,
+		QuorumCertificate rootQC,
+		RadixEngine engine,
+		Executor executionExecutor
+	) {
+		this(genesisVertex, rootQC, engine, executionExecutor, DEFAULT_COMMITTED_WINDOW);
+	}
+
+	/**
+	 * Creates a vertex store which retains the given number of most recently committed vertices.
+	 *
+	 * @param genesisVertex the genesis vertex
+	 * @param rootQC the root quorum certificate
+	 * @param engine the engine to execute atoms with
+	 * @param executionExecutor the executor to execute atoms on, or {@code null} to execute on the calling thread
+	 * @param committedWindow the number of most recently committed vertices to retain, at least one
+	 */
+	public VertexStore(
+		Vertex genesisVertex,
+		QuorumCertificate rootQC,
+		RadixEngine engine,
+		Executor executionExecutor,
+		int committedWindow
 	) {
 		Objects.requireNonNull(genesisVertex);
 		Objects.requireNonNull(rootQC);
 		Objects.requireNonNull(engine);
+		if (committedWindow < 1) {
+			throw new IllegalArgumentException("committedWindow must be positive: " + committedWindow);
+		}
 
 		this.engine = engine;
+		this.executionExecutor = executionExecutor;
+		this.committedWindow = committedWindow;
 		this.highestQC = rootQC;
-		try {
-			this.engine.store(genesisVertex.getAtom());
-		} catch (RadixEngineException e) {
-			throw new IllegalStateException("Could not store genesis atom: " + genesisVertex.getAtom(), e);
+		for (Atom atom : genesisVertex.getAtoms()) {
+			try {
+				this.engine.store(atom);
+			} catch (RadixEngineException e) {
+				throw new IllegalStateException("Could not store genesis atom: " + atom, e);
+			}
 		}
 		this.vertices.put(genesisVertex.getId(), genesisVertex);
 		this.committedVertices.put(genesisVertex.getId(), genesisVertex);
+		this.committedChain.addLast(genesisVertex.getId());
 		this.lastCommittedVertex.onNext(genesisVertex);
 	}
 
@@ -76,39 +143,171 @@ public final class VertexStore {
 		}
 	}
 
-	public void insertVertex(Vertex vertex) throws VertexInsertionException {
+	/**
+	 * Inserts a vertex and executes its atoms in order against the engine.
+	 * Atoms which fail to execute are skipped without affecting the other atoms of the vertex.
+	 *
+	 * @param vertex the vertex to insert
+	 * @return the unmodifiable list of atoms of the vertex which were rejected by the engine, in order
+	 * @throws VertexInsertionException if the vertex cannot be inserted
+	 * @throws VertexExecutionException if an earlier pipelined execution failed
+	 */
+	public List<Atom> insertVertex(Vertex vertex) throws VertexInsertionException, VertexExecutionException {
+		return prepareVertex(vertex).join();
+	}
+
+	/**
+	 * Whether the atoms of inserted vertices are executed off the calling thread, in which case
+	 * consensus may vote on a vertex before it has been executed.
+	 *
+	 * @return {@code true} if vertices are executed asynchronously
+	 */
+	public boolean isPipelined() {
+		return this.executionExecutor != null;
+	}
+
+	/**
+	 * Inserts a vertex into the vertex chain and schedules the execution of its atoms.
+	 * The vertex is available to consensus, for example to vote on or to extend, as soon as
+	 * this method returns, while its atoms may still be executing.
+	 * <p>
+	 * If an execution fails unexpectedly its future fails, and so do the executions of all vertices
+	 * prepared after it without touching the engine.  From then on no vertex can be prepared or
+	 * committed past it, see {@link #commitVertex(Hash)}.
+	 *
+	 * @param vertex the vertex to insert
+	 * @return a future of the unmodifiable list of atoms of the vertex which were rejected by the engine, in order
+	 * @throws VertexInsertionException if the vertex cannot be inserted
+	 * @throws VertexExecutionException if an earlier pipelined execution failed
+	 */
+	public CompletableFuture<List<Atom>> prepareVertex(Vertex vertex) throws VertexInsertionException, VertexExecutionException {
+		final VertexExecutionException failure = this.executionFailure;
+		if (failure != null) {
+			throw failure;
+		}
+
 		final Vertex parent = vertices.get(vertex.getParentId());
 		if (parent == null) {
 			throw new MissingParentException(vertex.getParentId());
 		}
 
-		if (vertex.getAtom() != null) {
+		final CompletableFuture<List<Atom>> execution;
+		if (this.executionExecutor == null) {
+			execution = CompletableFuture.completedFuture(execute(vertex));
+		} else {
+			execution = CompletableFuture.supplyAsync(() -> executePipelined(vertex), this.executionExecutor);
+			pendingExecutions.put(vertex.getId(), execution);
+		}
+
+		vertices.put(vertex.getId(), vertex);
+		return execution;
+	}
+
+	private List<Atom> executePipelined(Vertex vertex) {
+		final VertexExecutionException failure = this.executionFailure;
+		if (failure != null) {
+			throw new CompletionException(failure);
+		}
+		try {
+			return execute(vertex);
+		} catch (RuntimeException e) {
+			// executions run one at a time, so the next one already observes the failure
+			this.executionFailure = new VertexExecutionException(vertex.getId(), e);
+			throw e;
+		}
+	}
+
+	private List<Atom> execute(Vertex vertex) {
+		final ImmutableList.Builder<Atom> rejectedAtoms = ImmutableList.builder();
+		for (Atom atom : vertex.getAtoms()) {
 			try {
-				this.engine.store(vertex.getAtom());
+				this.engine.store(atom);
 			} catch (RadixEngineException e) {
-				throw new VertexInsertionException("Failed to execute", e);
+				// every replica executes the batch against the same state, so all of them reject the same atoms
+				rejectedAtoms.add(atom);
 			}
 		}
-
-		vertices.put(vertex.getId(), vertex);
+		return rejectedAtoms.build();
 	}
 
-	public Vertex commitVertex(Hash vertexId) {
+	/**
+	 * Commits a vertex and its uncommitted ancestors, oldest first, each once its atoms have been executed.
+	 * <p>
+	 * If the execution of one of these vertices failed, the ledger state it leads to is unknown.
+	 * Its ancestors are committed, but neither it nor any vertex after it, which callers must
+	 * treat as fatal.
+	 *
+	 * @param vertexId the id of the vertex to commit
+	 * @return the committed vertex
+	 * @throws VertexExecutionException if the execution of the vertex or of an uncommitted ancestor failed
+	 */
+	public Vertex commitVertex(Hash vertexId) throws VertexExecutionException {
 		final Vertex tipVertex = vertices.get(vertexId);
 		if (tipVertex == null) {
 			throw new IllegalStateException("Committing a vertex which was never inserted: " + vertexId);
 		}
+		final Deque<Vertex> uncommitted = new ArrayDeque<>();
 		Vertex vertex = tipVertex;
 		while (vertex != null && !committedVertices.containsKey(vertex.getId())) {
-			committedVertices.put(vertexId, vertex);
+			uncommitted.addFirst(vertex);
 			vertex = vertices.get(vertex.getParentId());
 		}
 
-		lastCommittedVertex.onNext(tipVertex);
+		Vertex lastCommitted = null;
+		VertexExecutionException failure = null;
+		for (Vertex next : uncommitted) {
+			// a vertex may only be committed once its atoms have been executed
+			final Throwable executionFailure = awaitExecution(next.getId());
+			if (executionFailure != null) {
+				failure = executionFailure instanceof VertexExecutionException
+					? (VertexExecutionException) executionFailure
+					: new VertexExecutionException(next.getId(), executionFailure);
+				break;
+			}
+			pendingExecutions.remove(next.getId());
+			committedVertices.put(next.getId(), next);
+			committedChain.addLast(next.getId());
+			lastCommitted = next;
+		}
+
+		if (lastCommitted != null) {
+			prune(lastCommitted);
+			lastCommittedVertex.onNext(lastCommitted);
+		}
+		if (failure != null) {
+			throw failure;
+		}
 
 		return tipVertex;
 	}
 
+	/**
+	 * Waits for the execution of a vertex to complete.
+	 *
+	 * @return the cause of the failure if the execution failed, otherwise {@code null}
+	 */
+	private Throwable awaitExecution(Hash vertexId) {
+		final CompletableFuture<List<Atom>> execution = pendingExecutions.get(vertexId);
+		if (execution == null) {
+			return null;
+		}
+		final Throwable failure = execution.handle((rejectedAtoms, e) -> e).join();
+		return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+	}
+
+	private void prune(Vertex tipVertex) {
+		// uncommitted vertices at or below the committed view are on abandoned forks
+		final View committedView = tipVertex.getView();
+		vertices.values().removeIf(v -> v.getView().compareTo(committedView) <= 0 && !committedVertices.containsKey(v.getId()));
+		pendingExecutions.keySet().removeIf(id -> !vertices.containsKey(id));
+
+		while (committedChain.size() > committedWindow) {
+			final Hash prunedId = committedChain.removeFirst();
+			committedVertices.remove(prunedId);
+			vertices.remove(prunedId);
+		}
+	}
+
 	public Observable<Vertex> lastCommittedVertex() {
 		return lastCommittedVertex;
 	}
@@ -132,4 +331,9 @@ public final class VertexStore {
 	public QuorumCertificate getHighestQC() {
 		return this.highestQC;
 	}
+
+	@VisibleForTesting
+	int getVertexCount() {
+		return this.vertices.size();
+	}
 }
@@ -0,0 +1,134 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus.liveness;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derives pacemaker timeouts from the observed latency of forming quorum certificates.
+ * <p>
+ * The base timeout is the smoothed latency plus four times its smoothed mean deviation,
+ * estimated with exponentially weighted moving averages in the same way as TCP estimates
+ * its retransmission timeout. Every consecutive timeout doubles the timeout, and the next
+ * view which makes progress resets it to the base timeout. All timeouts are clamped to a
+ * configured minimum and maximum.
+ */
+public final class AdaptivePacemakerTimeoutCalculator implements PacemakerTimeoutCalculator {
+	// gains of the latency and deviation averages, as in RFC 6298
+	private static final double LATENCY_GAIN = 1.0 / 8.0;
+	private static final double DEVIATION_GAIN = 1.0 / 4.0;
+	private static final int DEVIATION_FACTOR = 4;
+	// more doublings than this would exceed any sensible maximum anyway
+	private static final int MAX_BACKOFF_EXPONENT = 20;
+
+	private final long initialTimeoutMillis;
+	private final long minTimeoutMillis;
+	private final long maxTimeoutMillis;
+
+	private boolean hasSamples;
+	private double smoothedLatencyMillis;
+	private double latencyDeviationMillis;
+	private int consecutiveTimeouts;
+
+	/**
+	 * Creates a calculator.
+	 *
+	 * @param initialTimeoutMillis the base timeout until the first latency was observed
+	 * @param minTimeoutMillis the minimum timeout
+	 * @param maxTimeoutMillis the maximum timeout, including backoff
+	 */
+	public AdaptivePacemakerTimeoutCalculator(long initialTimeoutMillis, long minTimeoutMillis, long maxTimeoutMillis) {
+		if (minTimeoutMillis <= 0 || minTimeoutMillis > maxTimeoutMillis) {
+			throw new IllegalArgumentException(String.format(
+				"Invalid timeout bounds [%s, %s]", minTimeoutMillis, maxTimeoutMillis));
+		}
+		this.initialTimeoutMillis = initialTimeoutMillis;
+		this.minTimeoutMillis = minTimeoutMillis;
+		this.maxTimeoutMillis = maxTimeoutMillis;
+	}
+
+	@Override
+	public long timeoutMillis() {
+		long timeout = baseTimeoutMillis();
+		int exponent = Math.min(this.consecutiveTimeouts, MAX_BACKOFF_EXPONENT);
+		if (timeout > this.maxTimeoutMillis >> exponent) {
+			return this.maxTimeoutMillis;
+		}
+		return Math.max(this.minTimeoutMillis, Math.min(this.maxTimeoutMillis, timeout << exponent));
+	}
+
+	/**
+	 * Returns the timeout derived from the observed latencies, without backoff.
+	 *
+	 * @return the base timeout in milliseconds
+	 */
+	public long baseTimeoutMillis() {
+		if (!this.hasSamples) {
+			return clamp(this.initialTimeoutMillis);
+		}
+		return clamp((long) Math.ceil(this.smoothedLatencyMillis + DEVIATION_FACTOR * this.latencyDeviationMillis));
+	}
+
+	@Override
+	public void progress(long latencyNanos) {
+		double latencyMillis = latencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+		if (!this.hasSamples) {
+			this.smoothedLatencyMillis = latencyMillis;
+			this.latencyDeviationMillis = latencyMillis / 2.0;
+			this.hasSamples = true;
+		} else {
+			double deviation = Math.abs(this.smoothedLatencyMillis - latencyMillis);
+			this.latencyDeviationMillis += DEVIATION_GAIN * (deviation - this.latencyDeviationMillis);
+			this.smoothedLatencyMillis += LATENCY_GAIN * (latencyMillis - this.smoothedLatencyMillis);
+		}
+		this.consecutiveTimeouts = 0;
+	}
+
+	@Override
+	public void timeout() {
+		this.consecutiveTimeouts += 1;
+	}
+
+	/**
+	 * Returns the smoothed latency of forming a quorum certificate, or zero if none was observed.
+	 *
+	 * @return the smoothed latency in milliseconds
+	 */
+	public double smoothedLatencyMillis() {
+		return this.smoothedLatencyMillis;
+	}
+
+	/**
+	 * Returns the number of views which timed out since the last view which made progress.
+	 *
+	 * @return the number of consecutive timeouts
+	 */
+	public int consecutiveTimeouts() {
+		return this.consecutiveTimeouts;
+	}
+
+	private long clamp(long timeoutMillis) {
+		return Math.max(this.minTimeoutMillis, Math.min(this.maxTimeoutMillis, timeoutMillis));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[latency=%.1fms deviation=%.1fms timeouts=%s]", getClass().getSimpleName(),
+			this.smoothedLatencyMillis, this.latencyDeviationMillis, this.consecutiveTimeouts);
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus.liveness;
+
+import com.radixdlt.properties.RuntimeProperties;
+
+/**
+ * Static configuration for a {@link PacemakerImpl}.
+ */
+public interface PacemakerConfiguration {
+	/**
+	 * Get whether the timeout adapts to the observed latency of forming quorum certificates.
+	 * If not, the initial timeout is used for every view.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return whether the timeout is adaptive
+	 */
+	boolean adaptiveTimeout(boolean defaultValue);
+
+	/**
+	 * Get the timeout of a view before any latency has been observed.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the initial timeout in milliseconds
+	 */
+	long initialTimeoutMillis(long defaultValue);
+
+	/**
+	 * Get the minimum timeout of an adaptive timeout.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the minimum timeout in milliseconds
+	 */
+	long minTimeoutMillis(long defaultValue);
+
+	/**
+	 * Get the maximum timeout of an adaptive timeout, including backoff after consecutive timeouts.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the maximum timeout in milliseconds
+	 */
+	long maxTimeoutMillis(long defaultValue);
+
+	/**
+	 * Create a configuration from specified {@link RuntimeProperties}.
+	 *
+	 * @param properties the properties to read the configuration from
+	 * @return The configuration
+	 */
+	static PacemakerConfiguration fromRuntimeProperties(RuntimeProperties properties) {
+		return new PacemakerConfiguration() {
+			@Override
+			public boolean adaptiveTimeout(boolean defaultValue) {
+				return properties.get("consensus.pacemaker.adaptive", defaultValue);
+			}
+
+			@Override
+			public long initialTimeoutMillis(long defaultValue) {
+				return properties.get("consensus.pacemaker.timeout_ms", defaultValue);
+			}
+
+			@Override
+			public long minTimeoutMillis(long defaultValue) {
+				return properties.get("consensus.pacemaker.min_timeout_ms", defaultValue);
+			}
+
+			@Override
+			public long maxTimeoutMillis(long defaultValue) {
+				return properties.get("consensus.pacemaker.max_timeout_ms", defaultValue);
+			}
+		};
+	}
+}
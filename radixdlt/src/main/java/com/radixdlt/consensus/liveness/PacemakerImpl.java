@@ -17,38 +17,55 @@
 
 package com.radixdlt.consensus.liveness;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.radixdlt.consensus.NewView;
 import com.radixdlt.consensus.View;
-import com.radixdlt.consensus.validators.ValidationResult;
+import com.radixdlt.consensus.validators.ValidationState;
 import com.radixdlt.consensus.validators.ValidatorSet;
 import com.radixdlt.crypto.ECDSASignature;
-import com.radixdlt.crypto.ECDSASignatures;
 import com.radixdlt.crypto.Hash;
 import com.radixdlt.utils.Longs;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.subjects.PublishSubject;
+import org.radix.utils.SystemMetaData;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Overly simplistic pacemaker
+ * Overly simplistic pacemaker.
+ * How long a view lasts before timing out is decided by a {@link PacemakerTimeoutCalculator}.
+ * View changes, timeouts and the current timeout are published to {@link SystemMetaData}
+ * as consensus.pacemaker.* at most once per {@link #METRICS_PUBLISH_INTERVAL_MILLIS}.
  */
 public final class PacemakerImpl implements Pacemaker, PacemakerRx {
 	static final int TIMEOUT_MILLISECONDS = 1000;
+	static final long METRICS_PUBLISH_INTERVAL_MILLIS = 1000L;
 	private final PublishSubject<View> timeouts;
 	private final Observable<View> timeoutsObservable;
 	private final ScheduledExecutorService executorService;
+	private final PacemakerTimeoutCalculator timeoutCalculator;
 
-	private final Map<View, ECDSASignatures> pendingNewViews = new HashMap<>();
+	private final TreeMap<View, ValidationState> pendingNewViews = new TreeMap<>();
 	private View currentView = View.of(0L);
+	private long viewStartNanos = System.nanoTime();
+	private long currentTimeoutMillis;
+
+	private long viewChanges;
+	private long localTimeouts;
+	private long lastPublishNanos = System.nanoTime();
+	private long lastPublishViewChanges;
 
 	public PacemakerImpl(ScheduledExecutorService executorService) {
+		this(executorService, PacemakerTimeoutCalculator.fixed(TIMEOUT_MILLISECONDS));
+	}
+
+	public PacemakerImpl(ScheduledExecutorService executorService, PacemakerTimeoutCalculator timeoutCalculator) {
 		this.executorService = Objects.requireNonNull(executorService);
+		this.timeoutCalculator = Objects.requireNonNull(timeoutCalculator);
 		this.timeouts = PublishSubject.create();
 		this.timeoutsObservable = this.timeouts
 			.publish()
@@ -57,9 +74,76 @@ public final class PacemakerImpl implements Pacemaker, PacemakerRx {
 	}
 
 	private void scheduleTimeout(final View timeoutView) {
+		final long timeoutMillis = this.timeoutCalculator.timeoutMillis();
+		this.currentTimeoutMillis = timeoutMillis;
 		executorService.schedule(() -> {
 			timeouts.onNext(timeoutView);
-		}, TIMEOUT_MILLISECONDS, TimeUnit.MILLISECONDS);
+		}, timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private void startView(View view) {
+		this.currentView = view;
+		// new-views for earlier views can no longer start a view
+		this.pendingNewViews.headMap(view).clear();
+		this.viewStartNanos = System.nanoTime();
+		this.viewChanges += 1;
+		scheduleTimeout(view);
+		maybePublishMetrics();
+	}
+
+	private void maybePublishMetrics() {
+		final long now = System.nanoTime();
+		final long elapsedNanos = now - this.lastPublishNanos;
+		if (elapsedNanos < TimeUnit.MILLISECONDS.toNanos(METRICS_PUBLISH_INTERVAL_MILLIS)) {
+			return;
+		}
+		final long viewChangesPerMinute = (this.viewChanges - this.lastPublishViewChanges) * TimeUnit.MINUTES.toNanos(1) / elapsedNanos;
+		this.lastPublishNanos = now;
+		this.lastPublishViewChanges = this.viewChanges;
+
+		final long changes = this.viewChanges;
+		final long timedOut = this.localTimeouts;
+		final long timeoutMillis = this.currentTimeoutMillis;
+		final long view = this.currentView.number();
+		SystemMetaData.ifPresent(a -> {
+			a.put("consensus.pacemaker.view", view);
+			a.put("consensus.pacemaker.view_changes", changes);
+			a.put("consensus.pacemaker.view_changes_per_minute", viewChangesPerMinute);
+			a.put("consensus.pacemaker.timeouts", timedOut);
+			a.put("consensus.pacemaker.timeout_ms", timeoutMillis);
+		});
+	}
+
+	/**
+	 * Returns the timeout of the current view.
+	 *
+	 * @return the timeout in milliseconds
+	 */
+	public long getCurrentTimeoutMillis() {
+		return this.currentTimeoutMillis;
+	}
+
+	/**
+	 * Returns the number of views started since creation.
+	 *
+	 * @return the number of view changes
+	 */
+	public long getViewChanges() {
+		return this.viewChanges;
+	}
+
+	/**
+	 * Returns the number of views which timed out since creation.
+	 *
+	 * @return the number of local timeouts
+	 */
+	public long getLocalTimeouts() {
+		return this.localTimeouts;
+	}
+
+	@VisibleForTesting
+	int getPendingNewViewCount() {
+		return this.pendingNewViews.size();
 	}
 
 	@Override
@@ -73,9 +157,9 @@ public final class PacemakerImpl implements Pacemaker, PacemakerRx {
 			return Optional.empty();
 		}
 
-		this.currentView = currentView.next();
-
-		scheduleTimeout(this.currentView);
+		this.localTimeouts += 1;
+		this.timeoutCalculator.timeout();
+		startView(currentView.next());
 		return Optional.of(this.currentView);
 	}
 
@@ -83,14 +167,11 @@ public final class PacemakerImpl implements Pacemaker, PacemakerRx {
 	public Optional<View> processNewView(NewView newView, ValidatorSet validatorSet) {
 		Hash newViewId = new Hash(Hash.hash256(Longs.toByteArray(newView.getView().number())));
 		ECDSASignature signature = newView.getSignature().orElseThrow(() -> new IllegalArgumentException("new-view is missing signature"));
-		ECDSASignatures signatures = pendingNewViews.getOrDefault(newView.getView(), new ECDSASignatures());
-		signatures = (ECDSASignatures) signatures.concatenate(newView.getAuthor(), signature);
+		ValidationState validationState = pendingNewViews.computeIfAbsent(newView.getView(), v -> validatorSet.newValidationState(newViewId));
 
 		// check if we have gotten enough new-views to proceed
-		ValidationResult validationResult = validatorSet.validate(newViewId, signatures);
-		if (!validationResult.valid()) {
+		if (!validationState.addSignature(newView.getAuthor(), signature) || !validationState.complete()) {
 			// if we haven't got enough new-views yet, do nothing
-			pendingNewViews.put(newView.getView(), signatures);
 			return Optional.empty();
 		} else {
 			// if we got enough new-views, remove pending and return formed QC
@@ -104,10 +185,11 @@ public final class PacemakerImpl implements Pacemaker, PacemakerRx {
 		// check if a new view can be started
 		View newView = view.next();
 		if (newView.compareTo(currentView) > 0) {
-			// start new view
-			this.currentView = newView;
+			// the QC shows progress since the current view started
+			this.timeoutCalculator.progress(System.nanoTime() - this.viewStartNanos);
 
-			scheduleTimeout(this.currentView);
+			// start new view
+			startView(newView);
 
 			return Optional.of(this.currentView);
 		} else {
@@ -0,0 +1,71 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus.liveness;
+
+/**
+ * Decides how long the {@link PacemakerImpl} waits in a view before timing out.
+ * Implementations are only accessed from the thread processing consensus events.
+ */
+public interface PacemakerTimeoutCalculator {
+	/**
+	 * Returns the timeout of the view which is about to start.
+	 *
+	 * @return the timeout in milliseconds
+	 */
+	long timeoutMillis();
+
+	/**
+	 * Records that a view made progress, i.e. a quorum certificate was formed.
+	 *
+	 * @param latencyNanos the time between the start of the view and the progress
+	 */
+	void progress(long latencyNanos);
+
+	/**
+	 * Records that a view timed out without progress.
+	 */
+	void timeout();
+
+	/**
+	 * Creates a calculator which always uses the same timeout.
+	 *
+	 * @param timeoutMillis the timeout in milliseconds
+	 * @return the calculator
+	 */
+	static PacemakerTimeoutCalculator fixed(long timeoutMillis) {
+		if (timeoutMillis <= 0) {
+			throw new IllegalArgumentException("timeoutMillis must be positive: " + timeoutMillis);
+		}
+		return new PacemakerTimeoutCalculator() {
+			@Override
+			public long timeoutMillis() {
+				return timeoutMillis;
+			}
+
+			@Override
+			public void progress(long latencyNanos) {
+				// fixed
+			}
+
+			@Override
+			public void timeout() {
+				// fixed
+			}
+		};
+	}
+}
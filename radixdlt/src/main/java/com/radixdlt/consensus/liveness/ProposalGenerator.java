@@ -1,5 +1,23 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
 package com.radixdlt.consensus.liveness;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.common.AID;
 import com.radixdlt.common.Atom;
 import com.radixdlt.consensus.QuorumCertificate;
@@ -7,9 +25,13 @@ import com.radixdlt.consensus.Vertex;
 import com.radixdlt.consensus.VertexStore;
 import com.radixdlt.consensus.View;
 import com.radixdlt.mempool.Mempool;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.serialization.SerializationException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 
@@ -17,16 +39,55 @@ import javax.inject.Inject;
  * Logic for generating new proposals
  */
 public final class ProposalGenerator {
+	private static final int DEFAULT_MAX_ATOMS_PER_VERTEX = 100;
+	// leaves room for the QC and message framing within a single 1 MiB TCP packet
+	private static final long DEFAULT_MAX_ATOM_BYTES_PER_VERTEX = 512L * 1024L;
+
 	private final Mempool mempool;
 	private final VertexStore vertexStore;
+	private final int maxAtoms;
+	private final long maxAtomBytes;
+	private final ToIntFunction<Atom> atomSize;
 
 	@Inject
 	public ProposalGenerator(
 		VertexStore vertexStore,
-		Mempool mempool
+		Mempool mempool,
+		Serialization serialization,
+		ProposalGeneratorConfiguration configuration
 	) {
+		this(
+			vertexStore,
+			mempool,
+			configuration.maxAtomsPerVertex(DEFAULT_MAX_ATOMS_PER_VERTEX),
+			configuration.maxAtomBytesPerVertex(DEFAULT_MAX_ATOM_BYTES_PER_VERTEX),
+			atom -> serializedSize(serialization, atom)
+		);
+	}
+
+	public ProposalGenerator(
+		VertexStore vertexStore,
+		Mempool mempool,
+		int maxAtoms,
+		long maxAtomBytes,
+		ToIntFunction<Atom> atomSize
+	) {
+		if (maxAtoms <= 0) {
+			throw new IllegalArgumentException("maxAtoms must be positive: " + maxAtoms);
+		}
 		this.vertexStore = Objects.requireNonNull(vertexStore);
 		this.mempool = Objects.requireNonNull(mempool);
+		this.maxAtoms = maxAtoms;
+		this.maxAtomBytes = maxAtomBytes;
+		this.atomSize = Objects.requireNonNull(atomSize);
+	}
+
+	private static int serializedSize(Serialization serialization, Atom atom) {
+		try {
+			return serialization.toDson(atom, Output.WIRE).length;
+		} catch (SerializationException e) {
+			throw new IllegalStateException("Error serializing atom " + atom.getAID(), e);
+		}
 	}
 
 	// TODO: check that next proposal works with current vertexStore state
@@ -34,13 +95,24 @@ public final class ProposalGenerator {
 		final QuorumCertificate highestQC = vertexStore.getHighestQC();
 		final List<Vertex> preparedVertices = vertexStore.getPathFromRoot(highestQC.getVertexMetadata().getId());
 		final Set<AID> preparedAtoms = preparedVertices.stream()
-			.filter(v -> v.getAtom() != null)
-			.map(Vertex::getAtom)
+			.flatMap(v -> v.getAtoms().stream())
 			.map(Atom::getAID)
 			.collect(Collectors.toSet());
 
-		final List<Atom> atoms = mempool.getAtoms(1, preparedAtoms);
+		final List<Atom> atoms = mempool.getAtoms(this.maxAtoms, preparedAtoms);
+
+		// take atoms in mempool order until the byte budget is used up, but always at least one
+		final ImmutableList.Builder<Atom> batch = ImmutableList.builder();
+		long batchBytes = 0L;
+		for (int i = 0; i < atoms.size(); i++) {
+			Atom atom = atoms.get(i);
+			batchBytes += this.atomSize.applyAsInt(atom);
+			if (i > 0 && batchBytes > this.maxAtomBytes) {
+				break;
+			}
+			batch.add(atom);
+		}
 
-		return Vertex.createVertex(highestQC, view, !atoms.isEmpty() ? atoms.get(0) : null);
+		return Vertex.createVertex(highestQC, view, batch.build());
 	}
 }
@@ -0,0 +1,62 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus.liveness;
+
+import com.radixdlt.properties.RuntimeProperties;
+
+/**
+ * Static configuration for a {@link ProposalGenerator}.
+ */
+public interface ProposalGeneratorConfiguration {
+	/**
+	 * Get the maximum number of atoms proposed in a single vertex.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the maximum number of atoms per vertex
+	 */
+	int maxAtomsPerVertex(int defaultValue);
+
+	/**
+	 * Get the maximum total serialized size of the atoms proposed in a single vertex.
+	 * Note that a single atom larger than this is still proposed on its own.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the maximum number of atom bytes per vertex
+	 */
+	long maxAtomBytesPerVertex(long defaultValue);
+
+	/**
+	 * Create a configuration from specified {@link RuntimeProperties}.
+	 *
+	 * @param properties the properties to read the configuration from
+	 * @return The configuration
+	 */
+	static ProposalGeneratorConfiguration fromRuntimeProperties(RuntimeProperties properties) {
+		return new ProposalGeneratorConfiguration() {
+			@Override
+			public int maxAtomsPerVertex(int defaultValue) {
+				return properties.get("consensus.vertex.max_atoms", defaultValue);
+			}
+
+			@Override
+			public long maxAtomBytesPerVertex(long defaultValue) {
+				return properties.get("consensus.vertex.max_atom_bytes", defaultValue);
+			}
+		};
+	}
+}
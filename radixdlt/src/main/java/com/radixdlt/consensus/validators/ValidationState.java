@@ -0,0 +1,136 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus.validators;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.radixdlt.crypto.ECDSASignature;
+import com.radixdlt.crypto.ECDSASignatures;
+import com.radixdlt.crypto.ECPublicKey;
+import com.radixdlt.crypto.Hash;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Incrementally accumulates signatures of a {@link ValidatorSet} over a single message.
+ * <p>
+ * Each signature is verified exactly once, when it is added, and the signing power is
+ * kept in a counter so that checking for a quorum does not require re-verifying earlier
+ * signatures. This keeps the signature work for forming a quorum linear in the number of
+ * validators.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class ValidationState {
+	private final Hash message;
+	private final ValidatorSet validatorSet;
+	private final int threshold;
+	private final Map<ECPublicKey, ECDSASignature> signed = new LinkedHashMap<>();
+	private int signedPower;
+
+	ValidationState(Hash message, ValidatorSet validatorSet, int threshold) {
+		this.message = Objects.requireNonNull(message);
+		this.validatorSet = Objects.requireNonNull(validatorSet);
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Adds a signature to this state, verifying it against the message.
+	 * Signatures from keys which are not in the validator set, duplicate
+	 * signatures and signatures which do not verify are ignored.
+	 *
+	 * @param key The key of the signer
+	 * @param signature The signature of the message
+	 * @return {@code true} if the signature was added, {@code false} if it was ignored
+	 */
+	public boolean addSignature(ECPublicKey key, ECDSASignature signature) {
+		Objects.requireNonNull(key);
+		Objects.requireNonNull(signature);
+		if (this.signed.containsKey(key) || !this.validatorSet.containsKey(key)) {
+			return false;
+		}
+		if (!key.verify(this.message, signature)) {
+			return false;
+		}
+		this.signed.put(key, signature);
+		// all validators currently have equal voting power
+		this.signedPower += 1;
+		return true;
+	}
+
+	/**
+	 * Returns {@code true} if the added signatures form a quorum.
+	 *
+	 * @return {@code true} if the added signatures form a quorum
+	 */
+	public boolean complete() {
+		return this.signedPower > 0 && this.signedPower >= this.threshold;
+	}
+
+	/**
+	 * Returns the voting power of the validators which have signed so far.
+	 *
+	 * @return the signed voting power
+	 */
+	public int signedPower() {
+		return this.signedPower;
+	}
+
+	/**
+	 * Returns the message the signatures are accumulated for.
+	 *
+	 * @return the message hash
+	 */
+	public Hash message() {
+		return this.message;
+	}
+
+	/**
+	 * Returns the result of the validation so far, with the validators that signed in
+	 * the order their signatures were added.
+	 *
+	 * @return A {@link ValidationResult}
+	 */
+	public ValidationResult result() {
+		if (!complete()) {
+			return ValidationResult.failure();
+		}
+		return ValidationResult.passed(this.signed.keySet().stream()
+			.map(this.validatorSet::getValidator)
+			.collect(ImmutableList.toImmutableList()));
+	}
+
+	/**
+	 * Returns the verified signatures added so far, in the representation used by quorum certificates.
+	 * This is the single place where the signature representation of a quorum is chosen, so that an
+	 * aggregate signature scheme only needs to change how the verified signatures are combined here.
+	 *
+	 * @return the verified signatures
+	 */
+	public ECDSASignatures signatures() {
+		// built in one pass, concatenating one signature at a time copies all earlier signatures each time
+		return new ECDSASignatures(ImmutableMap.copyOf(this.signed));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s %s/%s]", getClass().getSimpleName(), this.message, this.signedPower, this.threshold);
+	}
+}
@@ -73,6 +73,25 @@ public final class ValidatorSet {
 		}
 	}
 
+	/**
+	 * Creates a new, empty {@link ValidationState} for incrementally accumulating
+	 * signatures of this validator set over the specified message hash.
+	 *
+	 * @param message The message hash the signatures are for
+	 * @return A new {@link ValidationState}
+	 */
+	public ValidationState newValidationState(Hash message) {
+		return new ValidationState(message, this, threshold(this.validators.size()));
+	}
+
+	boolean containsKey(ECPublicKey key) {
+		return this.validators.containsKey(key);
+	}
+
+	Validator getValidator(ECPublicKey key) {
+		return this.validators.get(key);
+	}
+
 	public ImmutableSet<Validator> getValidators() {
 		return validators.values();
 	}
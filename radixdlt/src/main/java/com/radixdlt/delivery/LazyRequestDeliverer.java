@@ -27,6 +27,7 @@ import com.radixdlt.common.AID;
 import com.radixdlt.common.EUID;
 import com.radixdlt.store.LedgerEntry;
 import com.radixdlt.store.LedgerEntryStoreView;
+import com.radixdlt.store.async.AsyncLedgerEntryStore;
 import com.radixdlt.consensus.tempo.Scheduler;
 import com.radixdlt.delivery.messages.DeliveryRequestMessage;
 import com.radixdlt.delivery.messages.DeliveryResponseMessage;
@@ -44,7 +45,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -67,6 +67,7 @@ public final class LazyRequestDeliverer {
 	private final Scheduler scheduler;
 	private final MessageCentral messageCentral;
 	private final LedgerEntryStoreView storeView;
+	private final AsyncLedgerEntryStore asyncStore;
 	private final Universe universe;
 
 	private final BlockingQueue<AtomDeliveryRequest> requestQueue;
@@ -77,12 +78,14 @@ public final class LazyRequestDeliverer {
 		Scheduler scheduler,
 		MessageCentral messageCentral,
 		LedgerEntryStoreView storeView,
+		AsyncLedgerEntryStore asyncStore,
 		LazyRequestDelivererConfiguration configuration,
 		Universe universe
 	) {
 		this.scheduler = Objects.requireNonNull(scheduler);
 		this.messageCentral = Objects.requireNonNull(messageCentral);
 		this.storeView = Objects.requireNonNull(storeView);
+		this.asyncStore = Objects.requireNonNull(asyncStore);
 		this.universe = Objects.requireNonNull(universe);
 
 		this.requestTimeoutSeconds = configuration.requestTimeoutSeconds(DEFAULT_REQUEST_TIMEOUT_SECONDS);
@@ -107,12 +110,16 @@ public final class LazyRequestDeliverer {
 				request.getMessage().getAids().size(), request.getPeer()));
 		}
 
-		request.getMessage().getAids().stream()
-			.map(storeView::get)
-			.filter(Optional::isPresent)
-			.map(Optional::get)
-			.map(ledgerEntry -> new DeliveryResponseMessage(ledgerEntry, this.universe.getMagic()))
-			.forEach(response -> messageCentral.send(request.getPeer(), response));
+		// reads are pipelined through the async store, responses are sent as the entries are read
+		for (AID aid : request.getMessage().getAids()) {
+			asyncStore.get(aid).whenComplete((ledgerEntry, error) -> {
+				if (error != null) {
+					log.warn("Failed to read '" + aid + "' for delivery to " + request.getPeer() + ": " + error.getMessage());
+				} else if (ledgerEntry.isPresent()) {
+					messageCentral.send(request.getPeer(), new DeliveryResponseMessage(ledgerEntry.get(), this.universe.getMagic()));
+				}
+			});
+		}
 	}
 
 	private void onResponse(Peer peer, DeliveryResponseMessage message) {
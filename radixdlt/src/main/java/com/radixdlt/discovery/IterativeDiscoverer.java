@@ -28,6 +28,8 @@ import com.radixdlt.store.LedgerEntryStoreView;
 import com.radixdlt.consensus.tempo.Scheduler;
 import com.radixdlt.discovery.messages.IterativeDiscoveryRequestMessage;
 import com.radixdlt.discovery.messages.IterativeDiscoveryResponseMessage;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
 import com.radixdlt.store.CursorStore;
 import com.radixdlt.universe.Universe;
 import org.radix.common.Syncronicity;
@@ -62,7 +64,10 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 
 	private static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 5;
 	private static final int DEFAULT_MAX_BACKOFF = 4;
-	private static final int DEFAULT_RESPONSE_LIMIT = 10;
+	private static final int DEFAULT_RESPONSE_LIMIT = 4096;
+	private static final int DEFAULT_INITIAL_PAGE_SIZE = 256;
+	private static final int MIN_PAGE_SIZE = 16;
+	private static final int DEFAULT_TARGET_LATENCY_MILLIS = 1000;
 	private static final int DEFAULT_REQUEST_QUEUE_CAPACITY = 8192;
 	private static final int DEFAULT_REQUEST_PROCESSOR_THREADS = 2;
 
@@ -71,7 +76,7 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 	private final int requestTimeoutSeconds;
 
 	@VisibleForTesting
-	final IterativeDiscoveryState discoveryState = new IterativeDiscoveryState();
+	final IterativeDiscoveryState discoveryState;
 
 	private final CursorStore cursorStore;
 	private final LedgerEntryStoreView storeView;
@@ -100,6 +105,18 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 		this.messageCentral = Objects.requireNonNull(messageCentral);
 		this.universeMagic = Objects.requireNonNull(universe).getMagic();
 
+		this.responseLimit = configuration.responseLimit(DEFAULT_RESPONSE_LIMIT);
+		this.maxBackoff = configuration.maxBackoff(DEFAULT_MAX_BACKOFF);
+		this.requestTimeoutSeconds = configuration.requestTimeoutSeconds(DEFAULT_REQUEST_TIMEOUT_SECONDS);
+		int minPageSize = Math.min(MIN_PAGE_SIZE, this.responseLimit);
+		int initialPageSize = configuration.initialPageSize(DEFAULT_INITIAL_PAGE_SIZE);
+		this.discoveryState = new IterativeDiscoveryState(
+			minPageSize,
+			Math.max(minPageSize, Math.min(initialPageSize, this.responseLimit)),
+			this.responseLimit,
+			configuration.targetLatencyMillis(DEFAULT_TARGET_LATENCY_MILLIS)
+		);
+
 		// TODO improve locking to something like in messaging
 		this.discoveryListeners = Collections.synchronizedList(new ArrayList<>());
 
@@ -111,10 +128,6 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 			.filter(Peer::hasSystem)
 			.forEach(IterativeDiscoverer.this::abandonDiscovery));
 
-		this.responseLimit = configuration.responseLimit(DEFAULT_RESPONSE_LIMIT);
-		this.maxBackoff = configuration.maxBackoff(DEFAULT_MAX_BACKOFF);
-		this.requestTimeoutSeconds = configuration.requestTimeoutSeconds(DEFAULT_REQUEST_TIMEOUT_SECONDS);
-
 		this.messageCentral.addListener(IterativeDiscoveryRequestMessage.class, this::onRequest);
 		this.messageCentral.addListener(IterativeDiscoveryResponseMessage.class, this::onResponse);
 
@@ -136,7 +149,7 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 	}
 
 	private void processRequest(IterativeDiscoveryRequest request) {
-		IterativeDiscoveryResponseMessage response = fetchResponse(request.getMessage().getCursor());
+		IterativeDiscoveryResponseMessage response = fetchResponse(request.getMessage().getCursor(), request.getMessage().getLimit());
 		if (log.hasLevel(Logging.DEBUG)) {
 			log.debug("Responding to iterative discovery request from " + request.getPeer() + " with " + response.getCursor() + "");
 		}
@@ -146,7 +159,7 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 	private void onResponse(Peer peer, IterativeDiscoveryResponseMessage message) {
 		EUID peerNid = peer.getNID();
 		notifyListeners(message.getAids(), peer);
-		discoveryState.removeRequest(peerNid, message.getCursor().getLcPosition());
+		discoveryState.onResponse(peerNid, message.getCursor().getLcPosition(), message.getAids().size());
 
 		boolean isLatest = updateCursor(peer, message.getCursor());
 		if (discoveryState.contains(peerNid) && isLatest) {
@@ -182,7 +195,7 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 	}
 
 	private void requestDiscovery(Peer peer, LogicalClockCursor cursor) {
-		IterativeDiscoveryRequestMessage request = new IterativeDiscoveryRequestMessage(cursor, universeMagic);
+		IterativeDiscoveryRequestMessage request = new IterativeDiscoveryRequestMessage(cursor, discoveryState.getPageSize(peer.getNID()), universeMagic);
 		discoveryState.addRequest(peer.getNID(), cursor.getLcPosition());
 		messageCentral.send(peer, request);
 		if (log.hasLevel(Logging.DEBUG)) {
@@ -195,6 +208,7 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 				if (log.hasLevel(Logging.DEBUG)) {
 					log.debug("Iterative discovery request to peer " + peer + " at " + cursor + " has timed out, resending");
 				}
+				discoveryState.onTimeout(peer.getNID());
 
 				requestDiscovery(peer, cursor);
 			}
@@ -217,11 +231,15 @@ public final class IterativeDiscoverer implements AtomDiscoverer {
 		return nextCursor.getLcPosition() >= latestCursor;
 	}
 
-	private IterativeDiscoveryResponseMessage fetchResponse(LogicalClockCursor cursor) {
+	private IterativeDiscoveryResponseMessage fetchResponse(LogicalClockCursor cursor, int requestedLimit) {
 		long lcPosition = cursor.getLcPosition();
-		ImmutableList<AID> aids = storeView.getNextCommitted(lcPosition, responseLimit);
+		// requesters which do not ask for a limit get the most we are willing to send
+		int limit = requestedLimit > 0 ? Math.min(requestedLimit, responseLimit) : responseLimit;
+		CommittedAidsPage page = storeView.getNextCommitted(ContinuationToken.fromTransportForm(lcPosition), limit);
+		ImmutableList<AID> aids = page.getAids();
 
-		long nextLcPosition = lcPosition + aids.size();
+		// logical clocks of committed aids are not contiguous, so continue after the last one returned
+		long nextLcPosition = page.getContinuation().toTransportForm();
 		LogicalClockCursor nextCursor = null;
 		// only set next cursor if the cursor was actually advanced
 		if (nextLcPosition > lcPosition) {
@@ -29,6 +29,10 @@ public interface IterativeDiscovererConfiguration {
 
 	int responseLimit(int defaultValue);
 
+	int initialPageSize(int defaultValue);
+
+	int targetLatencyMillis(int defaultValue);
+
 	int requestQueueCapacity(int defaultValue);
 
 	int requestProcessorThreads(int defaultValue);
@@ -50,6 +54,16 @@ public interface IterativeDiscovererConfiguration {
 				return properties.get("tempo.discovery.iterative.response_limit", defaultValue);
 			}
 
+			@Override
+			public int initialPageSize(int defaultValue) {
+				return properties.get("tempo.discovery.iterative.initial_page_size", defaultValue);
+			}
+
+			@Override
+			public int targetLatencyMillis(int defaultValue) {
+				return properties.get("tempo.discovery.iterative.target_latency_ms", defaultValue);
+			}
+
 			@Override
 			public int requestQueueCapacity(int defaultValue) {
 				return properties.get("tempo.discovery.iterative.request_queue_capacity", defaultValue);
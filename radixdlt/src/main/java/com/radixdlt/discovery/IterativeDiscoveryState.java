@@ -22,23 +22,35 @@ import com.radixdlt.consensus.tempo.TempoException;
 import org.radix.network2.utils.Locking;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 /**
  * The state of iterative discovery across multiple peers.
- * The individual peer states capture pending requests and a 'backoff' when discovery is synchronised.
+ * The individual peer states capture pending requests, a 'backoff' when discovery is synchronised
+ * and a page size which adapts to the latency of the peer.
  */
 class IterativeDiscoveryState {
 	private final Lock stateLock = new ReentrantLock(true);
 	private final Map<EUID, IterativeDiscoveryPeerState> states = new HashMap<>();
 
-	IterativeDiscoveryState() {
-		// nothing to do here
+	private final int minPageSize;
+	private final int initialPageSize;
+	private final int maxPageSize;
+	private final long targetLatencyMillis;
+
+	IterativeDiscoveryState(int minPageSize, int initialPageSize, int maxPageSize, long targetLatencyMillis) {
+		if (minPageSize < 1 || minPageSize > initialPageSize || initialPageSize > maxPageSize) {
+			throw new IllegalArgumentException(String.format(
+				"Invalid page sizes min=%d, initial=%d, max=%d", minPageSize, initialPageSize, maxPageSize));
+		}
+		this.minPageSize = minPageSize;
+		this.initialPageSize = initialPageSize;
+		this.maxPageSize = maxPageSize;
+		this.targetLatencyMillis = targetLatencyMillis;
 	}
 
 	boolean isDiscovered(EUID nid) {
@@ -81,6 +93,47 @@ class IterativeDiscoveryState {
 		});
 	}
 
+	/**
+	 * Removes a pending request which has been responded to and adapts the page size to the latency of the response.
+	 * The page size grows while full pages arrive within the target latency and shrinks when responses are slow.
+	 */
+	void onResponse(EUID nid, long request, int responseSize) {
+		Locking.withLock(stateLock, () -> {
+			IterativeDiscoveryPeerState state = states.get(nid);
+			if (state == null) {
+				throw new TempoException("State for nid '" + nid + "' does not exist");
+			}
+			Long requestedAtNanos = state.removeRequest(request);
+			if (requestedAtNanos != null) {
+				long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestedAtNanos);
+				if (latencyMillis > targetLatencyMillis) {
+					state.pageSize = Math.max(minPageSize, state.pageSize / 2);
+				} else if (responseSize >= state.pageSize) {
+					state.pageSize = Math.min(maxPageSize, state.pageSize * 2);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Shrinks the page size of a peer whose request has timed out.
+	 */
+	void onTimeout(EUID nid) {
+		Locking.withLock(stateLock, () -> {
+			IterativeDiscoveryPeerState state = states.get(nid);
+			if (state != null) {
+				state.pageSize = Math.max(minPageSize, state.pageSize / 2);
+			}
+		});
+	}
+
+	int getPageSize(EUID nid) {
+		return Locking.withSupplierLock(stateLock, () -> {
+			IterativeDiscoveryPeerState state = states.get(nid);
+			return state == null ? initialPageSize : state.pageSize;
+		});
+	}
+
 	void onDiscovered(EUID nid) {
 		Locking.withLock(stateLock, () -> {
 			IterativeDiscoveryPeerState state = states.get(nid);
@@ -123,24 +176,27 @@ class IterativeDiscoveryState {
 	}
 
 	private class IterativeDiscoveryPeerState {
-		private final Set<Long> pendingRequests;
+		// time in nanos at which pending requests were sent by their requested position
+		private final Map<Long, Long> pendingRequests;
 		private int backoffCounter;
+		private int pageSize;
 
 		private IterativeDiscoveryPeerState() {
-			this.pendingRequests = new HashSet<>();
+			this.pendingRequests = new HashMap<>();
 			this.backoffCounter = 0;
+			this.pageSize = initialPageSize;
 		}
 
 		private void addRequest(long request) {
-			pendingRequests.add(request);
+			pendingRequests.put(request, System.nanoTime());
 		}
 
-		private void removeRequest(long request) {
-			pendingRequests.remove(request);
+		private Long removeRequest(long request) {
+			return pendingRequests.remove(request);
 		}
 
 		private boolean isPending(long requestedLCPosition) {
-			return pendingRequests.contains(requestedLCPosition);
+			return pendingRequests.containsKey(requestedLCPosition);
 		}
 
 		private void onDiscovered() {
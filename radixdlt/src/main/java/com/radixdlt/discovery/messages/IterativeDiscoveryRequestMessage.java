@@ -30,17 +30,31 @@ public class IterativeDiscoveryRequestMessage extends Message {
 	@DsonOutput(DsonOutput.Output.ALL)
 	private LogicalClockCursor cursor;
 
+	// maximum number of aids the requester wants in the response, 0 to leave it to the responder
+	@JsonProperty("limit")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private int limit;
+
 	IterativeDiscoveryRequestMessage() {
 		// Serializer only
 		super(0);
 	}
 
 	public IterativeDiscoveryRequestMessage(LogicalClockCursor cursor, int magic) {
+		this(cursor, 0, magic);
+	}
+
+	public IterativeDiscoveryRequestMessage(LogicalClockCursor cursor, int limit, int magic) {
 		super(magic);
 		this.cursor = cursor;
+		this.limit = limit;
 	}
 
 	public LogicalClockCursor getCursor() {
 		return cursor;
 	}
+
+	public int getLimit() {
+		return limit;
+	}
 }
@@ -52,6 +52,9 @@ public interface Mempool {
 	/**
 	 * Remove the referenced atom from the local mempool after it has
 	 * been rejected by consensus.
+	 * <p>
+	 * Note that with pipelined consensus this is called from the thread
+	 * executing vertices rather than the consensus thread.
 	 *
 	 * @param aid The ID of the atom to remove
 	 */
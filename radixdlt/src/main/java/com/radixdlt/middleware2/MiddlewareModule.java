@@ -31,6 +31,7 @@ import com.radixdlt.engine.RadixEngine;
 import com.radixdlt.middleware.AtomCheckHook;
 import com.radixdlt.middleware2.converters.AtomToBinaryConverter;
 import com.radixdlt.middleware2.processing.EngineAtomEventListener;
+import com.radixdlt.middleware2.store.EngineAtomIndexer;
 import com.radixdlt.middleware2.store.LedgerEngineStore;
 import com.radixdlt.properties.RuntimeProperties;
 import com.radixdlt.serialization.Serialization;
@@ -79,7 +80,7 @@ public class MiddlewareModule extends AbstractModule {
 			ConstraintMachine constraintMachine,
 			UnaryOperator<CMStore> virtualStoreLayer,
 			EngineStore engineStore,
-			Serialization serialization,
+			EngineAtomIndexer engineAtomIndexer,
 			RuntimeProperties properties,
 			Universe universe
 	) {
@@ -100,7 +101,7 @@ public class MiddlewareModule extends AbstractModule {
 				)
 		);
 
-		radixEngine.addAtomEventListener(new EngineAtomEventListener(serialization));
+		radixEngine.addAtomEventListener(new EngineAtomEventListener(engineAtomIndexer));
 
 		return radixEngine;
 	}
@@ -24,8 +24,8 @@ import com.radixdlt.constraintmachine.CMError;
 import com.radixdlt.constraintmachine.DataPointer;
 import com.radixdlt.constraintmachine.Particle;
 import com.radixdlt.engine.AtomEventListener;
+import com.radixdlt.middleware2.store.EngineAtomIndexer;
 import com.radixdlt.middleware2.store.EngineAtomIndices;
-import com.radixdlt.serialization.Serialization;
 import org.radix.atoms.AtomDependencyNotFoundException;
 import org.radix.atoms.events.AtomExceptionEvent;
 import org.radix.atoms.events.AtomStoredEvent;
@@ -41,10 +41,10 @@ import java.util.stream.Collectors;
 
 public class EngineAtomEventListener implements AtomEventListener {
 	private static final Logger log = Logging.getLogger("middleware2.eventListener");
-	private final Serialization serialization;
+	private final EngineAtomIndexer engineAtomIndexer;
 
-	public EngineAtomEventListener(Serialization serialization) {
-		this.serialization = serialization;
+	public EngineAtomEventListener(EngineAtomIndexer engineAtomIndexer) {
+		this.engineAtomIndexer = engineAtomIndexer;
 	}
 
 	@Override
@@ -56,7 +56,7 @@ public class EngineAtomEventListener implements AtomEventListener {
 	@Override
 	public void onStateStore(Atom atom) {
 		try {
-			EngineAtomIndices engineAtomIndices = EngineAtomIndices.from(atom, serialization);
+			EngineAtomIndices engineAtomIndices = engineAtomIndexer.index(atom);
 			Events.getInstance().broadcastWithException(new AtomStoredEvent(atom, () ->
 					engineAtomIndices.getDuplicateIndices().stream().filter(e -> e.getPrefix() == EngineAtomIndices.IndexType.DESTINATION.getValue())
 					.map(e -> EngineAtomIndices.toEUID(e.asKey()))
@@ -0,0 +1,58 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.middleware2.store;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.radixdlt.common.AID;
+import com.radixdlt.common.Atom;
+import com.radixdlt.serialization.Serialization;
+
+import java.util.Objects;
+
+/**
+ * Computes the {@link EngineAtomIndices} of atoms, remembering the indices of recently indexed atoms
+ * so that the store and event paths of the same atom only compute them once.
+ * As an {@link AID} identifies the content of an atom, remembered indices never go stale.
+ */
+@Singleton
+public class EngineAtomIndexer {
+	private static final long MAX_REMEMBERED_ATOMS = 1024;
+
+	private final Serialization serialization;
+	private final Cache<AID, EngineAtomIndices> recentIndices = CacheBuilder.newBuilder()
+		.maximumSize(MAX_REMEMBERED_ATOMS)
+		.build();
+
+	@Inject
+	public EngineAtomIndexer(Serialization serialization) {
+		this.serialization = Objects.requireNonNull(serialization);
+	}
+
+	/**
+	 * Gets the indices of the given atom, computing them only if they are not remembered already.
+	 *
+	 * @param atom The atom
+	 * @return The indices of that atom
+	 */
+	public EngineAtomIndices index(Atom atom) {
+		return recentIndices.asMap().computeIfAbsent(atom.getAID(), aid -> EngineAtomIndices.from(atom, serialization));
+	}
+}
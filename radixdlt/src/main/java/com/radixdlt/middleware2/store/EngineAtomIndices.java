@@ -31,9 +31,10 @@ import com.radixdlt.serialization.SerializationUtils;
 import com.radixdlt.store.SpinStateMachine;
 import com.radixdlt.utils.Longs;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EngineAtomIndices {
 	public enum IndexType {
@@ -54,6 +55,9 @@ public class EngineAtomIndices {
 		}
 	}
 
+	// serializer ids of particle classes are fixed, so their numeric ids only need to be computed once
+	private static final Map<Class<?>, EUID> NUMERIC_CLASS_IDS = new ConcurrentHashMap<>();
+
 	private final Set<StoreIndex> uniqueIndices;
 	private final Set<StoreIndex> duplicateIndices;
 
@@ -72,61 +76,55 @@ public class EngineAtomIndices {
 		ImmutableSet.Builder<StoreIndex> uniqueIndices = ImmutableSet.builder();
 		ImmutableSet.Builder<StoreIndex> duplicateIndices = ImmutableSet.builder();
 
-		Map<Particle, Spin> curSpins = radixEngineAtom.getCMInstruction().getMicroInstructions().stream()
-				.filter(CMMicroInstruction::isCheckSpin)
-				.collect(Collectors.toMap(
-						CMMicroInstruction::getParticle,
-						CMMicroInstruction::getCheckSpin
-				));
-
-		radixEngineAtom.getCMInstruction().getMicroInstructions().stream()
-				.filter(i -> i.getMicroOp() == CMMicroInstruction.CMMicroOp.PUSH)
-				.forEach(i -> {
-					Spin curSpin = curSpins.get(i.getParticle());
-					Spin nextSpin = SpinStateMachine.next(curSpin);
-					curSpins.put(i.getParticle(), nextSpin);
-
-					final IndexType indexType;
-					switch (nextSpin) {
-						case UP:
-							indexType = IndexType.PARTICLE_UP;
-							break;
-						case DOWN:
-							indexType = IndexType.PARTICLE_DOWN;
-							break;
-						default:
-							throw new IllegalStateException("Unknown SPIN state for particle " + nextSpin);
-					}
-
-					final byte[] indexableBytes = toByteArray(indexType, i.getParticle().getHID());
-					uniqueIndices.add(new StoreIndex(indexableBytes));
-				});
-
-
-		final ImmutableSet<EUID> destinations = radixEngineAtom.getCMInstruction().getMicroInstructions().stream()
-				.filter(CMMicroInstruction::isCheckSpin)
-				.map(CMMicroInstruction::getParticle)
-				.map(Particle::getDestinations)
-				.flatMap(Set::stream)
-				.collect(ImmutableSet.toImmutableSet());
-
-		for (EUID euid : destinations) {
-			duplicateIndices.add(new StoreIndex(toByteArray(IndexType.DESTINATION, euid)));
+		// single pass over all micro instructions, a check spin always precedes the pushes of its particle
+		Map<Particle, Spin> curSpins = new HashMap<>();
+		for (CMMicroInstruction instruction : radixEngineAtom.getCMInstruction().getMicroInstructions()) {
+			final Particle particle = instruction.getParticle();
+			if (instruction.isCheckSpin()) {
+				curSpins.putIfAbsent(particle, instruction.getCheckSpin());
+
+				for (EUID destination : particle.getDestinations()) {
+					duplicateIndices.add(new StoreIndex(toByteArray(IndexType.DESTINATION, destination)));
+				}
+
+				// TODO: Remove
+				// This does not handle nested particle classes.
+				// If that ever becomes a problem, this is the place to fix it.
+				final EUID numericClassId = numericClassId(particle.getClass(), serialization);
+				duplicateIndices.add(new StoreIndex(IndexType.PARTICLE_CLASS.getValue(), toByteArray(IndexType.PARTICLE_CLASS, numericClassId)));
+			} else if (instruction.getMicroOp() == CMMicroInstruction.CMMicroOp.PUSH) {
+				Spin curSpin = curSpins.get(particle);
+				Spin nextSpin = SpinStateMachine.next(curSpin);
+				curSpins.put(particle, nextSpin);
+
+				final IndexType indexType;
+				switch (nextSpin) {
+					case UP:
+						indexType = IndexType.PARTICLE_UP;
+						break;
+					case DOWN:
+						indexType = IndexType.PARTICLE_DOWN;
+						break;
+					default:
+						throw new IllegalStateException("Unknown SPIN state for particle " + nextSpin);
+				}
+
+				final byte[] indexableBytes = toByteArray(indexType, particle.getHID());
+				uniqueIndices.add(new StoreIndex(indexableBytes));
+			}
 		}
 
-		radixEngineAtom.getCMInstruction().getMicroInstructions().stream().filter(CMMicroInstruction::isCheckSpin)
-				.forEach(checkSpin -> {
-					// TODO: Remove
-					// This does not handle nested particle classes.
-					// If that ever becomes a problem, this is the place to fix it.
-					// TODO Should probably not be using serialization for this
-					final String idForClass = serialization.getIdForClass(checkSpin.getParticle().getClass());
-					final EUID numericClassId = SerializationUtils.stringToNumericID(idForClass);
-					duplicateIndices.add(new StoreIndex(IndexType.PARTICLE_CLASS.getValue(), toByteArray(IndexType.PARTICLE_CLASS, numericClassId)));
-				});
 		return new EngineAtomIndices(uniqueIndices.build(), duplicateIndices.build());
 	}
 
+	// TODO Should probably not be using serialization for this
+	private static EUID numericClassId(Class<? extends Particle> particleClass, Serialization serialization) {
+		return NUMERIC_CLASS_IDS.computeIfAbsent(
+			particleClass,
+			c -> SerializationUtils.stringToNumericID(serialization.getIdForClass(c))
+		);
+	}
+
 	public Set<StoreIndex> getUniqueIndices() {
 		return uniqueIndices;
 	}
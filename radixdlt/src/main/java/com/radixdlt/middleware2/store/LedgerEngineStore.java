@@ -17,13 +17,14 @@
 
 package com.radixdlt.middleware2.store;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import com.radixdlt.common.AID;
 import com.radixdlt.common.Atom;
 import com.radixdlt.common.EUID;
 import com.radixdlt.constraintmachine.Particle;
 import com.radixdlt.constraintmachine.Spin;
-import com.radixdlt.serialization.Serialization;
 import com.radixdlt.store.SearchCursor;
 import com.radixdlt.store.StoreIndex;
 import com.radixdlt.store.LedgerSearchMode;
@@ -31,6 +32,7 @@ import com.radixdlt.middleware2.converters.AtomToBinaryConverter;
 import com.radixdlt.store.EngineStore;
 import com.radixdlt.store.LedgerEntry;
 import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.LedgerEntryStoreResult;
 import org.radix.logging.Logger;
 import org.radix.logging.Logging;
 
@@ -40,16 +42,21 @@ import java.util.function.Consumer;
 
 public class LedgerEngineStore implements EngineStore {
     private static final Logger log = Logging.getLogger("middleware2.store");
+    private static final long SPIN_CACHE_MAX_SIZE = 1L << 18;
 
-    private final Serialization serialization;
     private final LedgerEntryStore store;
+    private final EngineAtomIndexer engineAtomIndexer;
     private AtomToBinaryConverter atomToBinaryConverter;
+    // spins of recently touched particles by HID, only ever holds UP or DOWN as NEUTRAL may change at any time
+    private final Cache<EUID, Spin> spinCache = CacheBuilder.newBuilder()
+        .maximumSize(SPIN_CACHE_MAX_SIZE)
+        .build();
 
     @Inject
     public LedgerEngineStore(LedgerEntryStore store,
                              AtomToBinaryConverter atomToBinaryConverter,
-                             Serialization serialization) {
-        this.serialization = serialization;
+                             EngineAtomIndexer engineAtomIndexer) {
+        this.engineAtomIndexer = engineAtomIndexer;
         this.store = store;
         this.atomToBinaryConverter = atomToBinaryConverter;
     }
@@ -80,8 +87,17 @@ public class LedgerEngineStore implements EngineStore {
     public void storeAtom(Atom atom) {
         byte[] binaryAtom = atomToBinaryConverter.toLedgerEntryContent(atom);
         LedgerEntry ledgerEntry = new LedgerEntry(binaryAtom, atom.getAID());
-        EngineAtomIndices engineAtomIndices = EngineAtomIndices.from(atom, serialization);
-        store.store(ledgerEntry, engineAtomIndices.getUniqueIndices(), engineAtomIndices.getDuplicateIndices());
+        EngineAtomIndices engineAtomIndices = engineAtomIndexer.index(atom);
+        LedgerEntryStoreResult result = store.store(ledgerEntry, engineAtomIndices.getUniqueIndices(), engineAtomIndices.getDuplicateIndices());
+        if (result.isSuccess()) {
+            engineAtomIndices.getUniqueIndices().forEach(index -> {
+                if (index.getPrefix() == EngineAtomIndices.IndexType.PARTICLE_UP.getValue()) {
+                    cacheSpin(EngineAtomIndices.toEUID(index.asKey()), Spin.UP);
+                } else if (index.getPrefix() == EngineAtomIndices.IndexType.PARTICLE_DOWN.getValue()) {
+                    cacheSpin(EngineAtomIndices.toEUID(index.asKey()), Spin.DOWN);
+                }
+            });
+        }
     }
 
     @Override
@@ -97,11 +113,32 @@ public class LedgerEngineStore implements EngineStore {
 
     @Override
     public Spin getSpin(Particle particle) {
-        if (getAtomByParticle(particle, true).isPresent()) {
+        final EUID hid = particle.getHID();
+        final Spin cachedSpin = spinCache.getIfPresent(hid);
+        if (cachedSpin == Spin.DOWN) {
             return Spin.DOWN;
-        } else if (getAtomByParticle(particle, false).isPresent()) {
-            return Spin.UP;
         }
-        return Spin.NEUTRAL;
+
+        // only the index is checked, the atom containing the particle is never loaded
+        final Spin spin;
+        if (hasSpinIndex(EngineAtomIndices.IndexType.PARTICLE_DOWN, hid)) {
+            spin = Spin.DOWN;
+        } else if (cachedSpin == Spin.UP || hasSpinIndex(EngineAtomIndices.IndexType.PARTICLE_UP, hid)) {
+            spin = Spin.UP;
+        } else {
+            return Spin.NEUTRAL;
+        }
+        cacheSpin(hid, spin);
+        return spin;
+    }
+
+    private boolean hasSpinIndex(EngineAtomIndices.IndexType indexType, EUID hid) {
+        final byte[] indexableBytes = EngineAtomIndices.toByteArray(indexType, hid);
+        return store.contains(StoreIndex.LedgerIndexType.UNIQUE, new StoreIndex(indexableBytes), LedgerSearchMode.EXACT);
+    }
+
+    private void cacheSpin(EUID hid, Spin spin) {
+        // spins only ever advance from UP to DOWN, so a concurrent lookup may never regress a cached DOWN
+        spinCache.asMap().merge(hid, spin, (current, next) -> current == Spin.DOWN ? current : next);
     }
 }
@@ -0,0 +1,168 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.snapshot;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.radixdlt.consensus.tempo.TempoException;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.ContinuationToken;
+import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
+import com.radixdlt.store.snapshot.LedgerSnapshot;
+import org.bouncycastle.util.encoders.Hex;
+import org.radix.logging.Logger;
+import org.radix.logging.Logging;
+import org.radix.network2.addressbook.AddressBook;
+import org.radix.network2.addressbook.Peer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Ties ledger snapshots into the startup of a node.
+ * <p>
+ * A node with an empty ledger which is configured with a trusted snapshot id fetches that snapshot
+ * from its peers and imports it before consensus starts, and serves it from then on.  A node which is
+ * configured to serve a snapshot from a directory which does not contain one yet exports its committed
+ * ledger into that directory in the background and serves it once the export is complete.
+ */
+@Singleton
+public final class SnapshotBootstrap {
+	private static final Logger log = Logging.getLogger("deliverer.snapshot");
+
+	private static final String DEFAULT_BOOTSTRAP_DIRECTORY = ".//RADIXDB-SNAPSHOT";
+	private static final int DEFAULT_BOOTSTRAP_TIMEOUT_SECONDS = 600;
+	// compressed chunks must fit into a single message
+	private static final int DEFAULT_CHUNK_MAX_BYTES = 512 * 1024;
+	private static final long PEER_POLL_INTERVAL_MILLIS = 1000L;
+
+	private final SnapshotDeliverer deliverer;
+	private final BerkeleyLedgerEntryStore store;
+	private final AddressBook addressBook;
+	private final Serialization serialization;
+	private final SnapshotDelivererConfiguration configuration;
+
+	@Inject
+	public SnapshotBootstrap(
+		SnapshotDeliverer deliverer,
+		BerkeleyLedgerEntryStore store,
+		AddressBook addressBook,
+		Serialization serialization,
+		SnapshotDelivererConfiguration configuration
+	) {
+		this.deliverer = Objects.requireNonNull(deliverer);
+		this.store = Objects.requireNonNull(store);
+		this.addressBook = Objects.requireNonNull(addressBook);
+		this.serialization = Objects.requireNonNull(serialization);
+		this.configuration = Objects.requireNonNull(configuration);
+	}
+
+	/**
+	 * Bootstraps the ledger from the trusted snapshot if one is configured and the ledger is empty,
+	 * then starts exporting the snapshot to serve if required.  Must be called before consensus starts.
+	 */
+	public void start() {
+		String snapshotId = this.configuration.bootstrapSnapshotId("");
+		if (!snapshotId.isEmpty()) {
+			bootstrap(Hex.decode(snapshotId));
+		}
+
+		String serveDirectory = this.configuration.serveDirectory("");
+		if (!serveDirectory.isEmpty() && !this.deliverer.getServedSnapshot().isPresent()) {
+			Thread exporter = new Thread(() -> export(new File(serveDirectory)), "Ledger snapshot export");
+			exporter.setDaemon(true);
+			exporter.start();
+		}
+	}
+
+	private void bootstrap(byte[] snapshotId) {
+		if (!this.store.getNextCommitted(ContinuationToken.initial(), 1).isEmpty()) {
+			log.info("Ledger is not empty, not bootstrapping from ledger snapshot " + Hex.toHexString(snapshotId));
+			return;
+		}
+
+		File directory = new File(this.configuration.bootstrapDirectory(DEFAULT_BOOTSTRAP_DIRECTORY));
+		long timeoutMillis = TimeUnit.SECONDS.toMillis(this.configuration.bootstrapTimeoutSeconds(DEFAULT_BOOTSTRAP_TIMEOUT_SECONDS));
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		LedgerSnapshot snapshot;
+		try {
+			snapshot = openFetched(directory, snapshotId);
+			if (snapshot == null) {
+				List<Peer> peers = awaitPeers(deadline);
+				long remainingMillis = Math.max(0L, deadline - System.currentTimeMillis());
+				snapshot = this.deliverer.fetch(peers, snapshotId, directory).get(remainingMillis, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("Interrupted while fetching ledger snapshot " + Hex.toHexString(snapshotId));
+			return;
+		} catch (ExecutionException | TimeoutException | IOException e) {
+			// the ledger is still empty, so the node can sync it from its peers instead
+			log.error("Unable to fetch ledger snapshot " + Hex.toHexString(snapshotId) + ", syncing from peers instead", e);
+			return;
+		}
+
+		this.store.importSnapshot(snapshot);
+		log.info("Bootstrapped ledger from snapshot " + snapshot);
+		if (!this.deliverer.getServedSnapshot().isPresent()) {
+			this.deliverer.serve(snapshot);
+		}
+	}
+
+	/**
+	 * Opens the trusted snapshot if it was completely fetched before, e.g. by an interrupted bootstrap.
+	 */
+	private LedgerSnapshot openFetched(File directory, byte[] snapshotId) throws IOException {
+		if (!LedgerSnapshot.exists(directory)) {
+			return null;
+		}
+		LedgerSnapshot snapshot = LedgerSnapshot.open(directory, this.serialization);
+		if (!snapshot.getManifest().hasId(snapshotId)) {
+			throw new IOException("Directory " + directory + " already contains another ledger snapshot " + snapshot);
+		}
+		return snapshot;
+	}
+
+	private List<Peer> awaitPeers(long deadline) throws InterruptedException, TimeoutException {
+		while (true) {
+			List<Peer> peers = this.addressBook.recentPeers().collect(Collectors.toList());
+			if (!peers.isEmpty()) {
+				return peers;
+			}
+			if (System.currentTimeMillis() >= deadline) {
+				throw new TimeoutException("No peers to fetch the ledger snapshot from");
+			}
+			Thread.sleep(PEER_POLL_INTERVAL_MILLIS);
+		}
+	}
+
+	private void export(File directory) {
+		try {
+			LedgerSnapshot snapshot = this.store.exportSnapshot(directory, this.configuration.chunkMaxBytes(DEFAULT_CHUNK_MAX_BYTES));
+			this.deliverer.serve(snapshot);
+		} catch (TempoException e) {
+			log.error("Unable to export ledger snapshot to " + directory + ", not serving a snapshot", e);
+		}
+	}
+}
@@ -0,0 +1,470 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.snapshot;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.radixdlt.common.EUID;
+import com.radixdlt.consensus.tempo.Scheduler;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.snapshot.messages.SnapshotChunkRequestMessage;
+import com.radixdlt.snapshot.messages.SnapshotChunkResponseMessage;
+import com.radixdlt.snapshot.messages.SnapshotManifestRequestMessage;
+import com.radixdlt.snapshot.messages.SnapshotManifestResponseMessage;
+import com.radixdlt.store.snapshot.LedgerSnapshot;
+import com.radixdlt.store.snapshot.SnapshotChunkInfo;
+import com.radixdlt.store.snapshot.SnapshotManifest;
+import com.radixdlt.universe.Universe;
+import org.bouncycastle.util.encoders.Hex;
+import org.radix.logging.Logger;
+import org.radix.logging.Logging;
+import org.radix.network.messaging.Message;
+import org.radix.network2.addressbook.Peer;
+import org.radix.network2.messaging.MessageCentral;
+import org.radix.utils.SimpleThreadPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the chunks of a local {@link LedgerSnapshot} to peers and fetches a snapshot from peers.
+ * <p>
+ * A fetch is pinned to a trusted snapshot id, which is derived from the hashes of all chunks of
+ * the snapshot.  It asks every given peer for the manifest of the snapshot it serves, ignores any
+ * manifest which is inconsistent or has a different id and then requests the chunks of the trusted
+ * snapshot in parallel from every peer offering it.  Every chunk is verified against the manifest
+ * before it is stored, chunks which are corrupt or time out are requested again from another peer.
+ */
+@Singleton
+public final class SnapshotDeliverer {
+	private static final Logger log = Logging.getLogger("deliverer.snapshot");
+
+	private static final int DEFAULT_REQUEST_QUEUE_CAPACITY = 256;
+	private static final int DEFAULT_REQUEST_PROCESSOR_THREADS = 2;
+	private static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 30;
+	private static final int DEFAULT_MAX_CHUNKS_IN_FLIGHT_PER_PEER = 2;
+
+	private final Scheduler scheduler;
+	private final MessageCentral messageCentral;
+	private final Serialization serialization;
+	private final Universe universe;
+
+	private final int requestTimeoutSeconds;
+	private final int maxChunksInFlightPerPeer;
+
+	private final BlockingQueue<Runnable> requestQueue;
+	private final SimpleThreadPool<Runnable> requestThreadPool;
+
+	private volatile LedgerSnapshot servedSnapshot;
+	private final AtomicReference<SnapshotFetch> currentFetch = new AtomicReference<>();
+
+	@Inject
+	public SnapshotDeliverer(
+		Scheduler scheduler,
+		MessageCentral messageCentral,
+		Serialization serialization,
+		SnapshotDelivererConfiguration configuration,
+		Universe universe
+	) {
+		this.scheduler = Objects.requireNonNull(scheduler);
+		this.messageCentral = Objects.requireNonNull(messageCentral);
+		this.serialization = Objects.requireNonNull(serialization);
+		this.universe = Objects.requireNonNull(universe);
+
+		this.requestTimeoutSeconds = configuration.requestTimeoutSeconds(DEFAULT_REQUEST_TIMEOUT_SECONDS);
+		this.maxChunksInFlightPerPeer = configuration.maxChunksInFlightPerPeer(DEFAULT_MAX_CHUNKS_IN_FLIGHT_PER_PEER);
+
+		String serveDirectory = configuration.serveDirectory("");
+		if (!serveDirectory.isEmpty() && LedgerSnapshot.exists(new File(serveDirectory))) {
+			try {
+				this.servedSnapshot = LedgerSnapshot.open(new File(serveDirectory), serialization);
+				log.info("Serving ledger snapshot " + this.servedSnapshot);
+			} catch (IOException e) {
+				log.error("Unable to open ledger snapshot in " + serveDirectory + ", not serving a snapshot", e);
+			}
+		}
+
+		this.messageCentral.addListener(SnapshotManifestRequestMessage.class, this::onManifestRequest);
+		this.messageCentral.addListener(SnapshotManifestResponseMessage.class, this::onManifestResponse);
+		this.messageCentral.addListener(SnapshotChunkRequestMessage.class, this::onChunkRequest);
+		this.messageCentral.addListener(SnapshotChunkResponseMessage.class, this::onChunkResponse);
+
+		// reading, verifying and writing chunks is blocking io, which is kept off the messaging threads
+		this.requestQueue = new ArrayBlockingQueue<>(configuration.requestQueueCapacity(DEFAULT_REQUEST_QUEUE_CAPACITY));
+		int processorThreads = configuration.requestProcessorThreads(DEFAULT_REQUEST_PROCESSOR_THREADS);
+		this.requestThreadPool = new SimpleThreadPool<>("Snapshot delivery processing", processorThreads, requestQueue::take, Runnable::run, log);
+		this.requestThreadPool.start();
+	}
+
+	/**
+	 * Serves the given snapshot to peers from now on.
+	 *
+	 * @param snapshot The snapshot to serve, or {@code null} to stop serving a snapshot
+	 */
+	public void serve(LedgerSnapshot snapshot) {
+		this.servedSnapshot = snapshot;
+	}
+
+	public Optional<LedgerSnapshot> getServedSnapshot() {
+		return Optional.ofNullable(this.servedSnapshot);
+	}
+
+	/**
+	 * Fetches the snapshot with the given id from the given peers into the given directory.
+	 * Only one fetch may be in progress at any time.
+	 *
+	 * @param peers The peers to fetch from
+	 * @param snapshotId The id of the trusted snapshot to fetch, see {@link SnapshotManifest#getId()}
+	 * @param directory The directory to store the snapshot in
+	 * @return A future which completes with the verified snapshot
+	 */
+	public CompletableFuture<LedgerSnapshot> fetch(Collection<Peer> peers, byte[] snapshotId, File directory) {
+		Objects.requireNonNull(peers, "peers is required");
+		Objects.requireNonNull(snapshotId, "snapshotId is required");
+		Objects.requireNonNull(directory, "directory is required");
+		if (peers.isEmpty()) {
+			throw new IllegalArgumentException("peers cannot be empty");
+		}
+
+		SnapshotFetch fetch = new SnapshotFetch(peers, snapshotId.clone(), directory);
+		if (!this.currentFetch.compareAndSet(null, fetch)) {
+			throw new IllegalStateException("A snapshot fetch is already in progress");
+		}
+		fetch.future.whenComplete((snapshot, e) -> this.currentFetch.compareAndSet(fetch, null));
+		fetch.start();
+		return fetch.future;
+	}
+
+	private void onManifestRequest(Peer peer, SnapshotManifestRequestMessage message) {
+		LedgerSnapshot snapshot = this.servedSnapshot;
+		SnapshotManifest manifest = snapshot == null ? null : snapshot.getManifest();
+		messageCentral.send(peer, new SnapshotManifestResponseMessage(manifest, this.universe.getMagic()));
+	}
+
+	private void onChunkRequest(Peer peer, SnapshotChunkRequestMessage message) {
+		enqueue(() -> processChunkRequest(peer, message), peer);
+	}
+
+	private void processChunkRequest(Peer peer, SnapshotChunkRequestMessage message) {
+		LedgerSnapshot snapshot = this.servedSnapshot;
+		int index = message.getIndex();
+		if (snapshot == null
+			|| !snapshot.getManifest().hasId(message.getSnapshotId())
+			|| index < 0 || index >= snapshot.getManifest().getChunks().size()) {
+			// the requester will time out and ask another peer
+			return;
+		}
+
+		try {
+			byte[] chunk = snapshot.readChunk(index);
+			messageCentral.send(peer, new SnapshotChunkResponseMessage(message.getSnapshotId(), index, chunk, this.universe.getMagic()));
+		} catch (IOException e) {
+			log.error("Unable to read chunk " + index + " of " + snapshot, e);
+		}
+	}
+
+	private void onManifestResponse(Peer peer, SnapshotManifestResponseMessage message) {
+		SnapshotFetch fetch = this.currentFetch.get();
+		if (fetch != null) {
+			fetch.onManifest(peer, message.getManifest().orElse(null));
+		}
+	}
+
+	private void onChunkResponse(Peer peer, SnapshotChunkResponseMessage message) {
+		SnapshotFetch fetch = this.currentFetch.get();
+		if (fetch != null) {
+			enqueue(() -> fetch.onChunk(peer, message), peer);
+		}
+	}
+
+	private void enqueue(Runnable task, Peer peer) {
+		if (!this.requestQueue.offer(task)) {
+			// the chunk will be requested again once its request times out
+			log.warn("Dropping snapshot message from " + peer + ", processing queue is full");
+		}
+	}
+
+	private void send(List<PeerRequest> requests) {
+		requests.forEach(request -> messageCentral.send(request.peer, request.message));
+	}
+
+	public void close() {
+		SnapshotFetch fetch = this.currentFetch.get();
+		if (fetch != null) {
+			fetch.future.cancel(false);
+		}
+		requestThreadPool.stop();
+	}
+
+	private static final class PeerRequest {
+		private final Peer peer;
+		private final Message message;
+
+		private PeerRequest(Peer peer, Message message) {
+			this.peer = peer;
+			this.message = message;
+		}
+	}
+
+	/**
+	 * State of a single snapshot fetch, guarded by its own monitor.
+	 */
+	private final class SnapshotFetch {
+		private final Map<EUID, Peer> peers = new LinkedHashMap<>();
+		private final byte[] snapshotId;
+		private final File directory;
+		private final CompletableFuture<LedgerSnapshot> future = new CompletableFuture<>();
+
+		private final Set<EUID> responded = new HashSet<>();
+		private final Map<EUID, Peer> sources = new LinkedHashMap<>();
+		private final Deque<Integer> missingChunks = new ArrayDeque<>();
+		private final Map<Integer, EUID> chunksInFlight = new HashMap<>();
+		private final Map<EUID, Integer> chunksInFlightByPeer = new HashMap<>();
+		private final Map<Integer, Set<EUID>> failedSources = new HashMap<>();
+
+		private SnapshotManifest manifest = null;
+		private boolean manifestsCollected = false;
+		private int storedChunks = 0;
+
+		private SnapshotFetch(Collection<Peer> peers, byte[] snapshotId, File directory) {
+			peers.forEach(peer -> this.peers.put(peer.getNID(), peer));
+			this.snapshotId = snapshotId;
+			this.directory = directory;
+		}
+
+		private void start() {
+			log.info("Fetching ledger snapshot " + Hex.toHexString(this.snapshotId) + " from " + this.peers.size() + " peers into " + this.directory);
+			SnapshotManifestRequestMessage request = new SnapshotManifestRequestMessage(universe.getMagic());
+			this.peers.values().forEach(peer -> messageCentral.send(peer, request));
+			scheduler.schedule(this::onManifestTimeout, requestTimeoutSeconds, TimeUnit.SECONDS);
+		}
+
+		private synchronized void onManifestTimeout() {
+			if (this.future.isDone()) {
+				return;
+			}
+			if (this.manifest == null) {
+				fail("None of the " + this.peers.size() + " peers offered ledger snapshot " + Hex.toHexString(this.snapshotId) + " in time");
+			} else {
+				this.manifestsCollected = true;
+				failIfStuck();
+			}
+		}
+
+		private void onManifest(Peer peer, SnapshotManifest offered) {
+			List<PeerRequest> requests;
+			synchronized (this) {
+				EUID nid = peer.getNID();
+				if (this.future.isDone() || !this.peers.containsKey(nid) || !this.responded.add(nid)) {
+					return;
+				}
+
+				// the id covers the hashes of all chunks, so a consistent manifest with the trusted id cannot be forged
+				if (offered != null && offered.isConsistent() && offered.hasId(this.snapshotId)) {
+					if (this.manifest == null) {
+						this.manifest = offered;
+						for (int i = 0; i < offered.getChunks().size(); i++) {
+							this.missingChunks.add(i);
+						}
+						log.info("Fetching ledger snapshot " + offered + " from " + peer);
+					}
+					this.sources.put(nid, peer);
+				} else if (offered != null) {
+					log.debug("Ignoring ledger snapshot " + offered + " offered by " + peer);
+				}
+
+				if (this.responded.size() == this.peers.size()) {
+					this.manifestsCollected = true;
+					if (this.manifest == null) {
+						fail("None of the " + this.peers.size() + " peers offered ledger snapshot " + Hex.toHexString(this.snapshotId));
+						return;
+					}
+				}
+				if (completeIfAllStored() || failIfStuck()) {
+					return;
+				}
+				requests = dispatch();
+			}
+			send(requests);
+		}
+
+		private void onChunk(Peer peer, SnapshotChunkResponseMessage message) {
+			EUID nid = peer.getNID();
+			int index = message.getIndex();
+			SnapshotChunkInfo chunkInfo;
+			synchronized (this) {
+				if (!isInFlight(index, nid, message.getSnapshotId())) {
+					return;
+				}
+				chunkInfo = this.manifest.getChunks().get(index);
+			}
+
+			boolean stored;
+			try {
+				LedgerSnapshot.writeChunk(this.directory, chunkInfo, message.getChunk());
+				stored = true;
+			} catch (IOException e) {
+				log.warn("Discarding chunk " + index + " from " + peer + ": " + e.getMessage());
+				stored = false;
+			}
+
+			List<PeerRequest> requests;
+			synchronized (this) {
+				if (!isInFlight(index, nid, message.getSnapshotId())) {
+					return;
+				}
+				release(index, nid);
+				if (stored) {
+					this.storedChunks += 1;
+				} else {
+					this.failedSources.computeIfAbsent(index, i -> new HashSet<>()).add(nid);
+					this.missingChunks.addFirst(index);
+				}
+				if (completeIfAllStored() || failIfStuck()) {
+					return;
+				}
+				requests = dispatch();
+			}
+			send(requests);
+		}
+
+		private void onChunkTimeout(int index, EUID nid) {
+			List<PeerRequest> requests;
+			synchronized (this) {
+				if (this.future.isDone() || !nid.equals(this.chunksInFlight.get(index))) {
+					return;
+				}
+				log.debug("Request for chunk " + index + " timed out at " + this.sources.get(nid));
+				release(index, nid);
+				this.failedSources.computeIfAbsent(index, i -> new HashSet<>()).add(nid);
+				this.missingChunks.addFirst(index);
+				if (failIfStuck()) {
+					return;
+				}
+				requests = dispatch();
+			}
+			send(requests);
+		}
+
+		private boolean isInFlight(int index, EUID nid, byte[] snapshotId) {
+			return !this.future.isDone()
+				&& this.manifest != null
+				&& this.manifest.hasId(snapshotId)
+				&& nid.equals(this.chunksInFlight.get(index));
+		}
+
+		private void release(int index, EUID nid) {
+			this.chunksInFlight.remove(index);
+			this.chunksInFlightByPeer.merge(nid, -1, Integer::sum);
+		}
+
+		/**
+		 * Assigns missing chunks to sources round robin, up to the maximum number of chunks in flight per source.
+		 */
+		private List<PeerRequest> dispatch() {
+			List<PeerRequest> requests = new ArrayList<>();
+			boolean assigned = true;
+			while (assigned) {
+				assigned = false;
+				for (Peer source : this.sources.values()) {
+					EUID nid = source.getNID();
+					if (this.chunksInFlightByPeer.getOrDefault(nid, 0) >= maxChunksInFlightPerPeer) {
+						continue;
+					}
+					Integer index = takeMissingChunkFor(nid);
+					if (index == null) {
+						continue;
+					}
+					this.chunksInFlight.put(index, nid);
+					this.chunksInFlightByPeer.merge(nid, 1, Integer::sum);
+					requests.add(new PeerRequest(source, new SnapshotChunkRequestMessage(this.manifest.getId(), index, universe.getMagic())));
+					scheduler.schedule(() -> onChunkTimeout(index, nid), requestTimeoutSeconds, TimeUnit.SECONDS);
+					assigned = true;
+				}
+			}
+			return requests;
+		}
+
+		private Integer takeMissingChunkFor(EUID nid) {
+			Iterator<Integer> chunks = this.missingChunks.iterator();
+			while (chunks.hasNext()) {
+				Integer index = chunks.next();
+				if (!this.failedSources.getOrDefault(index, Collections.emptySet()).contains(nid)) {
+					chunks.remove();
+					return index;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Fails the fetch if a missing chunk has failed at every source and no further sources can be expected.
+		 */
+		private boolean failIfStuck() {
+			if (!this.manifestsCollected) {
+				return false;
+			}
+			for (Integer index : this.missingChunks) {
+				if (this.failedSources.getOrDefault(index, Collections.emptySet()).containsAll(this.sources.keySet())) {
+					fail("Chunk " + index + " could not be fetched from any of " + this.sources.size() + " peers");
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean completeIfAllStored() {
+			if (this.manifest == null || this.storedChunks < this.manifest.getChunks().size()) {
+				return false;
+			}
+			try {
+				LedgerSnapshot snapshot = LedgerSnapshot.complete(this.directory, this.manifest, serialization);
+				log.info("Fetched ledger snapshot " + snapshot);
+				this.future.complete(snapshot);
+			} catch (IOException e) {
+				log.error("Unable to complete ledger snapshot in " + this.directory, e);
+				this.future.completeExceptionally(e);
+			}
+			return true;
+		}
+
+		private void fail(String message) {
+			log.error(message);
+			this.future.completeExceptionally(new IOException(message));
+		}
+	}
+}
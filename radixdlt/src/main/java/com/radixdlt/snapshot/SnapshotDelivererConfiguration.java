@@ -0,0 +1,106 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.snapshot;
+
+import com.google.inject.Provides;
+import com.radixdlt.properties.RuntimeProperties;
+
+/**
+ * Static configuration for a {@link SnapshotDeliverer}
+ */
+public interface SnapshotDelivererConfiguration {
+	/**
+	 * @return The directory of the snapshot to serve to peers, or an empty string to serve none
+	 */
+	String serveDirectory(String defaultValue);
+
+	int requestQueueCapacity(int defaultValue);
+
+	int requestProcessorThreads(int defaultValue);
+
+	int requestTimeoutSeconds(int defaultValue);
+
+	int maxChunksInFlightPerPeer(int defaultValue);
+
+	/**
+	 * @return The uncompressed size after which a chunk of an exported snapshot is completed
+	 */
+	int chunkMaxBytes(int defaultValue);
+
+	/**
+	 * @return The hex encoded id of the trusted snapshot to bootstrap an empty ledger from, or an empty string to not bootstrap
+	 */
+	String bootstrapSnapshotId(String defaultValue);
+
+	/**
+	 * @return The directory to fetch the snapshot to bootstrap from into
+	 */
+	String bootstrapDirectory(String defaultValue);
+
+	int bootstrapTimeoutSeconds(int defaultValue);
+
+	@Provides
+	static SnapshotDelivererConfiguration fromRuntimeProperties(RuntimeProperties properties) {
+		return new SnapshotDelivererConfiguration() {
+			@Override
+			public String serveDirectory(String defaultValue) {
+				return properties.get("ledger.snapshot.serve_directory", defaultValue);
+			}
+
+			@Override
+			public int requestQueueCapacity(int defaultValue) {
+				return properties.get("ledger.snapshot.request_queue_capacity", defaultValue);
+			}
+
+			@Override
+			public int requestProcessorThreads(int defaultValue) {
+				return properties.get("ledger.snapshot.request_processor_threads", defaultValue);
+			}
+
+			@Override
+			public int requestTimeoutSeconds(int defaultValue) {
+				return properties.get("ledger.snapshot.request_timeout_seconds", defaultValue);
+			}
+
+			@Override
+			public int maxChunksInFlightPerPeer(int defaultValue) {
+				return properties.get("ledger.snapshot.max_chunks_in_flight_per_peer", defaultValue);
+			}
+
+			@Override
+			public int chunkMaxBytes(int defaultValue) {
+				return properties.get("ledger.snapshot.chunk_max_bytes", defaultValue);
+			}
+
+			@Override
+			public String bootstrapSnapshotId(String defaultValue) {
+				return properties.get("ledger.snapshot.bootstrap.id", defaultValue);
+			}
+
+			@Override
+			public String bootstrapDirectory(String defaultValue) {
+				return properties.get("ledger.snapshot.bootstrap.directory", defaultValue);
+			}
+
+			@Override
+			public int bootstrapTimeoutSeconds(int defaultValue) {
+				return properties.get("ledger.snapshot.bootstrap.timeout_seconds", defaultValue);
+			}
+		};
+	}
+}
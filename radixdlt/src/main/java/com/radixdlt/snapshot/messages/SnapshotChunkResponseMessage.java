@@ -0,0 +1,68 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.snapshot.messages;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.SerializerId2;
+import com.radixdlt.utils.Bytes;
+import org.radix.network.messaging.Message;
+
+import java.util.Objects;
+
+@SerializerId2("ledger.snapshot.chunk.response")
+public class SnapshotChunkResponseMessage extends Message {
+	@JsonProperty("snapshot")
+	@DsonOutput(Output.ALL)
+	private byte[] snapshotId;
+
+	@JsonProperty("index")
+	@DsonOutput(Output.ALL)
+	private int index;
+
+	@JsonProperty("chunk")
+	@DsonOutput(Output.ALL)
+	private byte[] chunk;
+
+	SnapshotChunkResponseMessage() {
+		// Serializer only
+		super(0);
+		this.snapshotId = Bytes.EMPTY_BYTES;
+		this.chunk = Bytes.EMPTY_BYTES;
+	}
+
+	public SnapshotChunkResponseMessage(byte[] snapshotId, int index, byte[] chunk, int magic) {
+		super(magic);
+		this.snapshotId = Objects.requireNonNull(snapshotId);
+		this.index = index;
+		this.chunk = Objects.requireNonNull(chunk);
+	}
+
+	public byte[] getSnapshotId() {
+		return this.snapshotId;
+	}
+
+	public int getIndex() {
+		return this.index;
+	}
+
+	public byte[] getChunk() {
+		return this.chunk;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.snapshot.messages;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.SerializerId2;
+import com.radixdlt.store.snapshot.SnapshotManifest;
+import org.radix.network.messaging.Message;
+
+import java.util.Optional;
+
+@SerializerId2("ledger.snapshot.manifest.response")
+public class SnapshotManifestResponseMessage extends Message {
+	@JsonProperty("manifest")
+	@DsonOutput(Output.ALL)
+	private SnapshotManifest manifest;
+
+	SnapshotManifestResponseMessage() {
+		// Serializer only
+		super(0);
+		this.manifest = null;
+	}
+
+	/**
+	 * Creates a response with the manifest of the snapshot served by this node.
+	 *
+	 * @param manifest The manifest, or {@code null} if this node does not serve a snapshot
+	 * @param magic The universe magic
+	 */
+	public SnapshotManifestResponseMessage(SnapshotManifest manifest, int magic) {
+		super(magic);
+		this.manifest = manifest;
+	}
+
+	public Optional<SnapshotManifest> getManifest() {
+		return Optional.ofNullable(this.manifest);
+	}
+}
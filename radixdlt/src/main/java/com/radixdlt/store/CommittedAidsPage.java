@@ -0,0 +1,94 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store;
+
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.common.AID;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A page of committed {@link AID}s in logical clock order together with their logical clocks,
+ * and the {@link ContinuationToken} to resume paging after the last of them.
+ * Pages of a duplicate index may also contain pending {@link AID}s.
+ */
+public final class CommittedAidsPage {
+	private final ImmutableList<AID> aids;
+	private final long[] logicalClocks;
+	private final ContinuationToken continuation;
+
+	public CommittedAidsPage(ImmutableList<AID> aids, long[] logicalClocks, ContinuationToken continuation) {
+		this.aids = Objects.requireNonNull(aids, "aids is required");
+		this.logicalClocks = Objects.requireNonNull(logicalClocks, "logicalClocks is required").clone();
+		this.continuation = Objects.requireNonNull(continuation, "continuation is required");
+		if (aids.size() != logicalClocks.length) {
+			throw new IllegalArgumentException("Got " + aids.size() + " aids but " + logicalClocks.length + " logical clocks");
+		}
+	}
+
+	public ImmutableList<AID> getAids() {
+		return aids;
+	}
+
+	/**
+	 * Gets the logical clock of the aid at the given index of this page.
+	 */
+	public long getLogicalClock(int index) {
+		return logicalClocks[index];
+	}
+
+	public int size() {
+		return aids.size();
+	}
+
+	public boolean isEmpty() {
+		return aids.isEmpty();
+	}
+
+	/**
+	 * Gets the token to resume paging after this page, equal to the requested token if this page is empty.
+	 */
+	public ContinuationToken getContinuation() {
+		return continuation;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		CommittedAidsPage that = (CommittedAidsPage) o;
+		return Objects.equals(aids, that.aids)
+			&& Arrays.equals(logicalClocks, that.logicalClocks)
+			&& Objects.equals(continuation, that.continuation);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(aids, Arrays.hashCode(logicalClocks), continuation);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%d aids, continuation=%s]", getClass().getSimpleName(), aids.size(), continuation);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store;
+
+import java.util.Objects;
+
+/**
+ * An opaque position in the committed ledger entries of a store, used to resume paging through them.
+ * Tokens are only meaningful to the store they were obtained from.
+ */
+public final class ContinuationToken {
+	private static final ContinuationToken INITIAL = new ContinuationToken(0L);
+
+	private final long logicalClock;
+
+	private ContinuationToken(long logicalClock) {
+		this.logicalClock = logicalClock;
+	}
+
+	/**
+	 * Gets the token positioned before all committed ledger entries.
+	 */
+	public static ContinuationToken initial() {
+		return INITIAL;
+	}
+
+	/**
+	 * Restores a token from its transport form as returned by {@link #toTransportForm()}.
+	 */
+	public static ContinuationToken fromTransportForm(long transportForm) {
+		return new ContinuationToken(transportForm);
+	}
+
+	/**
+	 * Gets the transport form of this token to hand it to others, e.g. peers resuming from it.
+	 */
+	public long toTransportForm() {
+		return this.logicalClock;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		return logicalClock == ((ContinuationToken) o).logicalClock;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(logicalClock);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%d]", getClass().getSimpleName(), logicalClock);
+	}
+}
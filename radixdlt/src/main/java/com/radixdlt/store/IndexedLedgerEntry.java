@@ -0,0 +1,55 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link LedgerEntry} together with the indices it is to be stored with.
+ */
+public final class IndexedLedgerEntry {
+	private final LedgerEntry ledgerEntry;
+	private final ImmutableSet<StoreIndex> uniqueIndices;
+	private final ImmutableSet<StoreIndex> duplicateIndices;
+
+	public IndexedLedgerEntry(LedgerEntry ledgerEntry, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
+		this.ledgerEntry = Objects.requireNonNull(ledgerEntry, "ledgerEntry is required");
+		this.uniqueIndices = ImmutableSet.copyOf(Objects.requireNonNull(uniqueIndices, "uniqueIndices is required"));
+		this.duplicateIndices = ImmutableSet.copyOf(Objects.requireNonNull(duplicateIndices, "duplicateIndices is required"));
+	}
+
+	public LedgerEntry getLedgerEntry() {
+		return ledgerEntry;
+	}
+
+	public ImmutableSet<StoreIndex> getUniqueIndices() {
+		return uniqueIndices;
+	}
+
+	public ImmutableSet<StoreIndex> getDuplicateIndices() {
+		return duplicateIndices;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("IndexedLedgerEntry{ledgerEntry=%s}", ledgerEntry);
+	}
+}
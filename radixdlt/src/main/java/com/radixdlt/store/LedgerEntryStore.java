@@ -19,6 +19,7 @@ package com.radixdlt.store;
 
 import com.radixdlt.common.AID;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -33,6 +34,14 @@ public interface LedgerEntryStore extends LedgerEntryStoreView {
 	 */
 	void commit(AID aid);
 
+	/**
+	 * Irreversibly commits a batch of atoms in a single atomic operation.
+	 * Either all or none of the given atoms are committed.
+	 *
+	 * @param aids The aids to commit, in order
+	 */
+	void commitAll(List<AID> aids);
+
 	/**
 	 * Stores a {@link LedgerEntry} with certain indices.
 	 * The stored atom will be treated as 'pending' until it is eventually deleted or committed.
@@ -44,6 +53,17 @@ public interface LedgerEntryStore extends LedgerEntryStoreView {
 	 */
 	LedgerEntryStoreResult store(LedgerEntry ledgerEntry, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices);
 
+	/**
+	 * Stores a batch of {@link LedgerEntry}s with their indices in a single atomic operation.
+	 * The stored atoms will be treated as 'pending' until they are eventually deleted or committed.
+	 * An entry which conflicts with a stored entry (or an earlier entry in the same batch) is not
+	 * stored, but does not prevent the remaining entries from being stored.
+	 *
+	 * @param ledgerEntries The ledger entries and their indices, in order
+	 * @return The result for each of the given entries, in the same order
+	 */
+	List<LedgerEntryStoreResult> storeAll(List<IndexedLedgerEntry> ledgerEntries);
+
 	/**
 	 * Replaces a set of atoms with another atom in an atomic operation
 	 * The stored atom will be treated as 'pending' until it is eventually deleted or committed.
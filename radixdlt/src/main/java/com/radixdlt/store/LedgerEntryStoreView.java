@@ -71,6 +71,18 @@ public interface LedgerEntryStoreView {
 	 */
 	SearchCursor search(StoreIndex.LedgerIndexType type, StoreIndex index, LedgerSearchMode mode);
 
+	/**
+	 * Opens a forward-only scan over all aids with a certain index.
+	 * Unlike iterating a {@link SearchCursor}, a scan does not search for its position again for every aid.
+	 * The returned scan must be closed after use.
+	 *
+	 * @param type The type of index
+	 * @param index The index
+	 * @param mode The mode
+	 * @return The scan over the matching aids, which is empty if there are none
+	 */
+	SearchScan scan(StoreIndex.LedgerIndexType type, StoreIndex index, LedgerSearchMode mode);
+
 	/**
 	 * Checks whether a certain index is contained in this ledger.
 	 *
@@ -87,5 +99,27 @@ public interface LedgerEntryStoreView {
 	 * @param limit The maximum number of aids
 	 * @return The relevant aids and the advanced cursor
 	 */
-	ImmutableList<AID> getNextCommitted(long logicalClock, int limit);
+	default ImmutableList<AID> getNextCommitted(long logicalClock, int limit) {
+		return getNextCommitted(ContinuationToken.fromTransportForm(logicalClock), limit).getAids();
+	}
+
+	/**
+	 * Gets the next page of committed aids after a certain continuation token in a single range scan.
+	 * @param continuation The token to continue after, {@link ContinuationToken#initial()} to start from the beginning
+	 * @param limit The maximum number of aids
+	 * @return The page of aids with their logical clocks and the token to resume after them
+	 */
+	CommittedAidsPage getNextCommitted(ContinuationToken continuation, int limit);
+
+	/**
+	 * Gets the next page of pending and committed aids with a certain duplicate index after a certain
+	 * continuation token in logical clock order, e.g. the atoms of a destination since a known logical clock.
+	 * Entries of an index are kept in logical clock order, so this is a single range scan no matter how
+	 * many entries precede the continuation.
+	 * @param index The duplicate index
+	 * @param continuation The token to continue after, {@link ContinuationToken#initial()} to start from the beginning
+	 * @param limit The maximum number of aids
+	 * @return The page of aids with their logical clocks and the token to resume after them
+	 */
+	CommittedAidsPage getNextByIndex(StoreIndex index, ContinuationToken continuation, int limit);
 }
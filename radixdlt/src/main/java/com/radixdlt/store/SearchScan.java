@@ -0,0 +1,47 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store;
+
+import com.radixdlt.common.AID;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A forward-only scan over the {@link AID}s matching a search, bound to a specific ledger instance.
+ * Scans hold resources of the underlying store and must be closed after use.
+ */
+public interface SearchScan extends Iterator<AID>, AutoCloseable {
+	/**
+	 * Releases the resources held by this scan, after which it has no more elements.
+	 */
+	@Override
+	void close();
+
+	/**
+	 * Gets the remaining {@link AID}s of this scan as a stream, which closes this scan when closed.
+	 * @return The remaining aids of this scan
+	 */
+	default Stream<AID> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(this::close);
+	}
+}
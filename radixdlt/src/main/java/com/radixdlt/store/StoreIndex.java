@@ -118,7 +118,10 @@ public final class StoreIndex implements Comparable<StoreIndex> {
 	}
 
 	public static byte[] from(byte prefix, byte[] identifier) {
-		return Arrays.concatenate(new byte[]{prefix}, identifier);
+		byte[] key = new byte[1 + identifier.length];
+		key[0] = prefix;
+		System.arraycopy(identifier, 0, key, 1, identifier.length);
+		return key;
 	}
 
 	@Override
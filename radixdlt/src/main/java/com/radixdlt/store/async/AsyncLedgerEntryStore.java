@@ -0,0 +1,257 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.async;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.radixdlt.common.AID;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryStatus;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.LedgerSearchMode;
+import com.radixdlt.store.StoreIndex;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * An asynchronous read facade of a {@link LedgerEntryStore}, which executes reads on its own bounded
+ * I/O threads so that callers can pipeline many reads instead of blocking on disk for each of them.
+ * <p>
+ * Reads are executed on a pool of read threads.  A read which is requested while an identical read
+ * is still waiting for a read thread joins the waiting read instead of reading again.  Likewise, pages
+ * of committed {@link AID}s which are requested from the same position of the same index while a scan
+ * from there is still waiting are merged into a single scan up to the largest requested limit, each
+ * of them receiving the prefix it asked for.
+ * <p>
+ * A read observes all writes to the underlying store which completed before the read was requested.
+ * Reads requested while the read queue is full fail with a {@link RejectedExecutionException}.
+ * Futures are completed on the read threads, expensive continuations should therefore use the
+ * asynchronous variants of the {@link CompletableFuture} stage methods.
+ * <p>
+ * Writes are not offered, they stay synchronous on the underlying store so that they cannot be lost
+ * in a queue on shutdown.
+ */
+@Singleton
+public final class AsyncLedgerEntryStore {
+	private static final int DEFAULT_READ_THREADS = 4;
+	private static final int DEFAULT_READ_QUEUE_CAPACITY = 8192;
+
+	private enum ReadType {
+		CONTAINS,
+		GET_STATUS,
+		GET,
+		CONTAINS_INDEX,
+		GET_NEXT_COMMITTED,
+		GET_NEXT_BY_INDEX
+	}
+
+	private final LedgerEntryStore store;
+	private final ThreadPoolExecutor readExecutor;
+	private final ConcurrentMap<List<Object>, CompletableFuture<?>> waitingReads = new ConcurrentHashMap<>();
+	private final ConcurrentMap<List<Object>, PageScan> waitingScans = new ConcurrentHashMap<>();
+
+	@Inject
+	public AsyncLedgerEntryStore(LedgerEntryStore store, AsyncLedgerEntryStoreConfiguration configuration) {
+		this.store = Objects.requireNonNull(store);
+
+		int readThreads = configuration.readThreads(DEFAULT_READ_THREADS);
+		AtomicInteger readThreadCount = new AtomicInteger();
+		this.readExecutor = new ThreadPoolExecutor(
+			readThreads,
+			readThreads,
+			0L,
+			TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(configuration.readQueueCapacity(DEFAULT_READ_QUEUE_CAPACITY)),
+			runnable -> {
+				Thread thread = new Thread(runnable, "Ledger store reader " + readThreadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		);
+	}
+
+	public CompletableFuture<Boolean> contains(AID aid) {
+		return read(ImmutableList.of(ReadType.CONTAINS, aid), () -> store.contains(aid));
+	}
+
+	public CompletableFuture<LedgerEntryStatus> getStatus(AID aid) {
+		return read(ImmutableList.of(ReadType.GET_STATUS, aid), () -> store.getStatus(aid));
+	}
+
+	public CompletableFuture<Optional<LedgerEntry>> get(AID aid) {
+		return read(ImmutableList.of(ReadType.GET, aid), () -> store.get(aid));
+	}
+
+	public CompletableFuture<Boolean> contains(StoreIndex.LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		return read(ImmutableList.of(ReadType.CONTAINS_INDEX, type, index, mode), () -> store.contains(type, index, mode));
+	}
+
+	public CompletableFuture<CommittedAidsPage> getNextCommitted(ContinuationToken continuation, int limit) {
+		return scan(ImmutableList.of(ReadType.GET_NEXT_COMMITTED, continuation), continuation, limit,
+			scanLimit -> store.getNextCommitted(continuation, scanLimit));
+	}
+
+	public CompletableFuture<CommittedAidsPage> getNextByIndex(StoreIndex index, ContinuationToken continuation, int limit) {
+		return scan(ImmutableList.of(ReadType.GET_NEXT_BY_INDEX, index, continuation), continuation, limit,
+			scanLimit -> store.getNextByIndex(index, continuation, scanLimit));
+	}
+
+	/**
+	 * Stops accepting reads and waits for queued reads to complete.
+	 * The underlying store is not closed.
+	 */
+	public void close() {
+		this.readExecutor.shutdown();
+		try {
+			this.readExecutor.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> CompletableFuture<T> read(List<Object> key, Supplier<T> read) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		CompletableFuture<T> waitingRead = (CompletableFuture<T>) this.waitingReads.putIfAbsent(key, future);
+		if (waitingRead != null) {
+			// a dependent future, so that completing the returned future does not affect other readers
+			return waitingRead.thenApply(Function.identity());
+		}
+
+		try {
+			this.readExecutor.execute(() -> {
+				// reads requested from here on may have been requested after a write completed
+				this.waitingReads.remove(key, future);
+				complete(future, read);
+			});
+		} catch (RejectedExecutionException e) {
+			this.waitingReads.remove(key, future);
+			future.completeExceptionally(e);
+		}
+		return future.thenApply(Function.identity());
+	}
+
+	private CompletableFuture<CommittedAidsPage> scan(
+		List<Object> key,
+		ContinuationToken continuation,
+		int limit,
+		IntFunction<CommittedAidsPage> scanner
+	) {
+		while (true) {
+			PageScan waitingScan = this.waitingScans.get(key);
+			if (waitingScan != null && waitingScan.join(limit)) {
+				return waitingScan.future.thenApply(page -> prefix(page, continuation, limit));
+			}
+
+			PageScan pageScan = new PageScan(limit);
+			boolean added = waitingScan == null
+				? this.waitingScans.putIfAbsent(key, pageScan) == null
+				: this.waitingScans.replace(key, waitingScan, pageScan);
+			if (!added) {
+				// raced with another scan of the same position, join that one instead
+				continue;
+			}
+
+			try {
+				this.readExecutor.execute(() -> {
+					// scans requested from here on may have been requested after a write completed
+					int scanLimit = pageScan.start();
+					this.waitingScans.remove(key, pageScan);
+					complete(pageScan.future, () -> scanner.apply(scanLimit));
+				});
+			} catch (RejectedExecutionException e) {
+				this.waitingScans.remove(key, pageScan);
+				pageScan.future.completeExceptionally(e);
+			}
+			return pageScan.future.thenApply(page -> prefix(page, continuation, limit));
+		}
+	}
+
+	/**
+	 * Gets the first aids of a merged page up to the given limit, as if they were scanned on their own.
+	 */
+	private static CommittedAidsPage prefix(CommittedAidsPage page, ContinuationToken continuation, int limit) {
+		if (page.size() <= limit) {
+			return page;
+		}
+		if (limit <= 0) {
+			return new CommittedAidsPage(ImmutableList.of(), new long[0], continuation);
+		}
+
+		long[] logicalClocks = new long[limit];
+		for (int i = 0; i < limit; i++) {
+			logicalClocks[i] = page.getLogicalClock(i);
+		}
+		// stores resume after the logical clock carried by a token, so the prefix resumes after its last aid
+		return new CommittedAidsPage(
+			page.getAids().subList(0, limit),
+			logicalClocks,
+			ContinuationToken.fromTransportForm(logicalClocks[limit - 1])
+		);
+	}
+
+	private static <T> void complete(CompletableFuture<T> future, Supplier<T> operation) {
+		try {
+			future.complete(operation.get());
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * A scan of a page which accepts larger limits until it is started.
+	 */
+	private static final class PageScan {
+		private final CompletableFuture<CommittedAidsPage> future = new CompletableFuture<>();
+		private int limit;
+		private boolean started = false;
+
+		private PageScan(int limit) {
+			this.limit = limit;
+		}
+
+		private synchronized boolean join(int limit) {
+			if (this.started) {
+				return false;
+			}
+			this.limit = Math.max(this.limit, limit);
+			return true;
+		}
+
+		private synchronized int start() {
+			this.started = true;
+			return this.limit;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.async;
+
+import com.google.inject.Provides;
+import com.radixdlt.properties.RuntimeProperties;
+
+/**
+ * Static configuration for an {@link AsyncLedgerEntryStore}
+ */
+public interface AsyncLedgerEntryStoreConfiguration {
+	/**
+	 * Number of threads executing reads.
+	 */
+	int readThreads(int defaultValue);
+
+	/**
+	 * Number of reads which may wait for a read thread before further reads are rejected.
+	 */
+	int readQueueCapacity(int defaultValue);
+
+	@Provides
+	static AsyncLedgerEntryStoreConfiguration fromRuntimeProperties(RuntimeProperties properties) {
+		return new AsyncLedgerEntryStoreConfiguration() {
+			@Override
+			public int readThreads(int defaultValue) {
+				return properties.get("db.async.read_threads", defaultValue);
+			}
+
+			@Override
+			public int readQueueCapacity(int defaultValue) {
+				return properties.get("db.async.read_queue_capacity", defaultValue);
+			}
+		};
+	}
+}
@@ -17,12 +17,14 @@
 
 package com.radixdlt.store.berkeley;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.radixdlt.common.EUID;
 import com.radixdlt.consensus.tempo.TempoException;
 import com.radixdlt.store.CursorStore;
 import com.radixdlt.utils.Longs;
+import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
@@ -36,22 +38,51 @@ import org.radix.database.DatabaseEnvironment;
 import org.radix.logging.Logger;
 import org.radix.logging.Logging;
 
+import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalLong;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link CursorStore} which serves cursors from memory and writes them behind to the database.
+ * Updates are coalesced per nid and flushed in a single transaction at a fixed interval and on close,
+ * as cursors can be recomputed if the latest updates are lost.
+ */
 @Singleton
 public final class BerkeleyCursorStore implements CursorStore {
 	private static final String LC_CURSOR_STORE_NAME = "tempo2.sync.iterative.cursors";
 	private static final Logger logger = Logging.getLogger("store.cursors");
 
+	private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+
 	private final DatabaseEnvironment dbEnv;
+	private final Map<EUID, Long> cachedCursors = new ConcurrentHashMap<>();
+	private final Map<EUID, Long> dirtyCursors = new ConcurrentHashMap<>();
+	private final Object flushLock = new Object();
+	private final ScheduledExecutorService flusher;
 	private Database cursors;
 
-	@Inject
 	public BerkeleyCursorStore(DatabaseEnvironment dbEnv) {
+		this(dbEnv, BerkeleyStoreConfiguration.defaults());
+	}
+
+	@Inject
+	public BerkeleyCursorStore(DatabaseEnvironment dbEnv, BerkeleyStoreConfiguration configuration) {
 		this.dbEnv = Objects.requireNonNull(dbEnv, "dbEnv is required");
 
 		this.open();
+		this.load();
+
+		long flushIntervalMillis = Math.max(1L, configuration.cursorFlushIntervalMillis(DEFAULT_FLUSH_INTERVAL_MILLIS));
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Cursor store flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
 	}
 
 	private void fail(String message) {
@@ -84,8 +115,24 @@ public final class BerkeleyCursorStore implements CursorStore {
 		}
 	}
 
+	private void load() {
+		try (Cursor cursor = this.cursors.openCursor(null, null)) {
+			DatabaseEntry key = new DatabaseEntry();
+			DatabaseEntry value = new DatabaseEntry();
+			while (cursor.getNext(key, value, LockMode.READ_COMMITTED) == OperationStatus.SUCCESS) {
+				this.cachedCursors.put(new EUID(key.getData()), Longs.fromByteArray(value.getData()));
+			}
+		} catch (Exception e) {
+			throw new TempoException("Error while loading cursors", e);
+		}
+	}
+
 	@Override
 	public void reset() {
+		synchronized (this.flushLock) {
+			this.dirtyCursors.clear();
+			this.cachedCursors.clear();
+		}
 		dbEnv.withLock(() -> {
 			Transaction transaction = null;
 			try {
@@ -112,50 +159,72 @@ public final class BerkeleyCursorStore implements CursorStore {
 
 	@Override
 	public void close() {
-		if (this.cursors != null) {
-			this.cursors.close();
+		this.flusher.shutdown();
+		try {
+			flush();
+		} finally {
+			if (this.cursors != null) {
+				this.cursors.close();
+			}
 		}
 	}
 
 	@Override
 	public void put(EUID nid, long cursor) {
-		Transaction transaction = dbEnv.getEnvironment().beginTransaction(null, null);
-		try {
-			DatabaseEntry key = new DatabaseEntry(toPKey(nid));
-			DatabaseEntry value = new DatabaseEntry(Longs.toByteArray(cursor));
+		Objects.requireNonNull(nid, "nid is required");
+		this.cachedCursors.put(nid, cursor);
+		this.dirtyCursors.put(nid, cursor);
+	}
 
-			OperationStatus status = this.cursors.put(transaction, key, value);
-			if (status != OperationStatus.SUCCESS) {
-				fail("Database returned status " + status + " for put operation");
+	@Override
+	public OptionalLong get(EUID nid) {
+		Long cursor = this.cachedCursors.get(nid);
+		return cursor == null ? OptionalLong.empty() : OptionalLong.of(cursor);
+	}
+
+	/**
+	 * Writes all cursors updated since the last flush to the database in a single transaction.
+	 */
+	void flush() {
+		synchronized (this.flushLock) {
+			if (this.dirtyCursors.isEmpty()) {
+				return;
 			}
 
-			transaction.commit();
-		} catch (Exception e) {
-			transaction.abort();
-			fail("Error while storing cursor for '" + nid + "'", e);
+			Map<EUID, Long> flushedCursors = ImmutableMap.copyOf(this.dirtyCursors);
+			Transaction transaction = dbEnv.getEnvironment().beginTransaction(null, null);
+			try {
+				DatabaseEntry key = new DatabaseEntry();
+				DatabaseEntry value = new DatabaseEntry();
+				for (Map.Entry<EUID, Long> cursor : flushedCursors.entrySet()) {
+					key.setData(toPKey(cursor.getKey()));
+					value.setData(Longs.toByteArray(cursor.getValue()));
+					OperationStatus status = this.cursors.put(transaction, key, value);
+					if (status != OperationStatus.SUCCESS) {
+						fail("Database returned status " + status + " for put operation");
+					}
+				}
+
+				transaction.commit();
+			} catch (Exception e) {
+				transaction.abort();
+				fail("Error while storing " + flushedCursors.size() + " cursors", e);
+			}
+			// flushed cursors stay dirty if they could not be made durable
+			this.dbEnv.awaitDurable();
+
+			// cursors updated while flushing stay dirty for the next flush
+			flushedCursors.forEach(this.dirtyCursors::remove);
 		}
 	}
 
-	@Override
-	public OptionalLong get(EUID nid) {
+	private void flushQuietly() {
 		try {
-			DatabaseEntry key = new DatabaseEntry(toPKey(nid));
-			DatabaseEntry value = new DatabaseEntry();
-
-			OperationStatus status = this.cursors.get(null, key, value, LockMode.DEFAULT);
-			if (status == OperationStatus.NOTFOUND) {
-				return OptionalLong.empty();
-			} else if (status != OperationStatus.SUCCESS) {
-				fail("Database returned status " + status + " for get operation");
-			} else {
-				long cursor = Longs.fromByteArray(value.getData());
-				return OptionalLong.of(cursor);
-			}
+			flush();
 		} catch (Exception e) {
-			fail("Error while getting cursor for '" + nid + "'", e);
+			// must not throw, as that would cancel further executions, failed cursors are retried on the next flush
+			logger.error("Error while flushing cursors", e);
 		}
-
-		return OptionalLong.empty();
 	}
 
 	private byte[] toPKey(EUID nid) {
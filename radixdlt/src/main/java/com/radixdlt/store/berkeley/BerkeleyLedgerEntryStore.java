@@ -24,31 +24,40 @@ import com.google.common.primitives.UnsignedBytes;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.radixdlt.common.AID;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
 import com.radixdlt.store.SearchCursor;
+import com.radixdlt.store.SearchScan;
 import com.radixdlt.store.StoreIndex;
 import com.radixdlt.store.StoreIndex.LedgerIndexType;
 import com.radixdlt.store.LedgerSearchMode;
 import com.radixdlt.serialization.DsonOutput.Output;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.serialization.SerializationException;
+import com.radixdlt.store.IndexedLedgerEntry;
 import com.radixdlt.store.LedgerEntry;
 import com.radixdlt.consensus.tempo.TempoException;
 import com.radixdlt.store.LedgerEntryConflict;
 import com.radixdlt.store.LedgerEntryStoreResult;
 import com.radixdlt.store.LedgerEntryStatus;
 import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.snapshot.LedgerSnapshot;
+import com.radixdlt.store.snapshot.LedgerSnapshotWriter;
+import com.radixdlt.store.snapshot.SnapshotEntry;
 import com.radixdlt.utils.Longs;
 import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseNotFoundException;
+import com.sleepycat.je.Durability;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.SecondaryConfig;
 import com.sleepycat.je.SecondaryCursor;
 import com.sleepycat.je.SecondaryDatabase;
+import com.sleepycat.je.SecondaryKeyCreator;
 import com.sleepycat.je.SecondaryMultiKeyCreator;
 import com.sleepycat.je.Transaction;
 import com.sleepycat.je.TransactionConfig;
@@ -59,8 +68,12 @@ import org.radix.logging.Logger;
 import org.radix.logging.Logging;
 import org.radix.shards.ShardRange;
 import org.radix.shards.ShardSpace;
+import org.radix.utils.SystemMetaData;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -68,6 +81,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -82,14 +98,49 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 	private static final String ATOM_INDICES_DB_NAME = "tempo2.atom_indices";
 	private static final String DUPLICATE_INDICES_DB_NAME = "tempo2.duplicated_indices";
 	private static final String UNIQUE_INDICES_DB_NAME = "tempo2.unique_indices";
-	private static final String PENDING_DB_NAME = "tempo2.pending";
+	private static final String ATOM_STATUS_DB_NAME = "tempo2.atom_status";
+	private static final String PENDING_DB_NAME = "tempo2.atom_status.pending";
+	private static final String COMMITTED_DB_NAME = "tempo2.atom_status.committed";
 	private static final String ATOMS_DB_NAME = "tempo2.atoms";
 
-	private static final byte PREFIX_COMMITTED = 0b0000_0000;
-	private static final byte PREFIX_PENDING = 0b0000_0001;
+	// databases of the legacy layout, where the status of an atom was encoded in its primary key
+	private static final String LEGACY_PENDING_DB_NAME = "tempo2.pending";
+	private static final String LEGACY_ATOMS_DB_NAME = "tempo2.legacy.atoms";
+	private static final String LEGACY_ATOM_INDICES_DB_NAME = "tempo2.legacy.atom_indices";
+
+	private static final String STORE_VERSION_RESOURCE = "tempo2.store";
+	private static final String STORE_VERSION_KEY = "version";
+	private static final long STORE_VERSION = 2L;
+	private static final String BULK_LOAD_KEY = "bulk_load";
+	private static final int MIGRATION_BATCH_SIZE = 1000;
+	private static final int SNAPSHOT_IMPORT_BATCH_SIZE = 1000;
+
+	private static final long DEFAULT_ENTRY_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+	private static final long DEFAULT_ENTRY_CACHE_OFF_HEAP_MAX_BYTES = 0L;
+	private static final long DEFAULT_AID_FILTER_INITIAL_CAPACITY = 1L << 20;
+	private static final int DEFAULT_SCAN_PREFETCH_SIZE = 256;
+	private static final long DEFAULT_SCAN_IDLE_TIMEOUT_MILLIS = 10_000L;
+	private static final int DEFAULT_INDEX_BUILD_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	private static final int DEFAULT_INDEX_BUILD_BATCH_SIZE = 100_000;
+
+	// same values as the primary key prefixes of the legacy layout
+	private static final byte STATUS_COMMITTED = 0b0000_0000;
+	private static final byte STATUS_PENDING = 0b0000_0001;
 
 	private final Serialization serialization;
 	private final DatabaseEnvironment dbEnv;
+	private final LedgerEntryCache entryCache;
+	private final LedgerEntryFilter aidFilter; // null if disabled
+	private final PendingIndex pendingIndex = new PendingIndex();
+
+	private final int scanPrefetchSize;
+	private final long scanIdleTimeoutNanos;
+	private final Set<BerkeleySearchScan> openScans = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService scanReaper;
+
+	private final int indexBuildThreads;
+	private final int indexBuildBatchSize;
+	private volatile boolean bulkLoading = false;
 
 	private final AtomicLong pendingLogicalClock;
 	private final Map<AID, LedgerEntryIndices> currentIndices = new ConcurrentHashMap<>();
@@ -98,20 +149,48 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 	private SecondaryDatabase uniqueIndices; // TempoAtoms by secondary unique indices (with prefixes)
 	private SecondaryDatabase duplicatedIndices; // TempoAtoms by secondary duplicate indices (with prefixes)
 	private Database atomIndices; // TempoAtomIndices by same primary keys
-	private Database pending; // AIDs marked as 'pending'
+	private Database atomStatus; // Status and logical clock by AID bytes
+	private SecondaryDatabase pending; // AIDs marked as 'pending' by logical clock
+	private SecondaryDatabase committed; // AIDs marked as 'committed' by logical clock
 
-	@Inject
 	public BerkeleyLedgerEntryStore(
 		Serialization serialization,
 		DatabaseEnvironment dbEnv
+	) {
+		this(serialization, dbEnv, BerkeleyStoreConfiguration.defaults());
+	}
+
+	@Inject
+	public BerkeleyLedgerEntryStore(
+		Serialization serialization,
+		DatabaseEnvironment dbEnv,
+		BerkeleyStoreConfiguration configuration
 	) {
 		this.serialization = Objects.requireNonNull(serialization);
 		this.dbEnv = Objects.requireNonNull(dbEnv);
+		this.entryCache = new LedgerEntryCache(
+			configuration.entryCacheMaxBytes(DEFAULT_ENTRY_CACHE_MAX_BYTES),
+			configuration.entryCacheOffHeapMaxBytes(DEFAULT_ENTRY_CACHE_OFF_HEAP_MAX_BYTES)
+		);
+		long aidFilterInitialCapacity = configuration.aidFilterInitialCapacity(DEFAULT_AID_FILTER_INITIAL_CAPACITY);
+		this.aidFilter = aidFilterInitialCapacity > 0 ? new LedgerEntryFilter(aidFilterInitialCapacity) : null;
+		this.scanPrefetchSize = configuration.scanPrefetchSize(DEFAULT_SCAN_PREFETCH_SIZE);
+		this.scanIdleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(configuration.scanIdleTimeoutMillis(DEFAULT_SCAN_IDLE_TIMEOUT_MILLIS));
+		this.indexBuildThreads = configuration.indexBuildThreads(DEFAULT_INDEX_BUILD_THREADS);
+		this.indexBuildBatchSize = configuration.indexBuildBatchSize(DEFAULT_INDEX_BUILD_BATCH_SIZE);
+		this.scanReaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Ledger search scan reaper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long reapIntervalNanos = Math.max(this.scanIdleTimeoutNanos / 2, TimeUnit.MILLISECONDS.toNanos(100));
+		this.scanReaper.scheduleWithFixedDelay(this::releaseIdleScans, reapIntervalNanos, reapIntervalNanos, TimeUnit.NANOSECONDS);
 
 		this.open();
+		this.rebuildAidFilter();
+		this.loadPendingIndex();
 
-		// TODO is this LC persistence sufficient? might be reset if there are no pending at some point in time
-		this.pendingLogicalClock = new AtomicLong(getLastPendingCursor());
+		this.pendingLogicalClock = new AtomicLong(getLastLogicalClock());
 	}
 
 	private void open() {
@@ -119,48 +198,268 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		primaryConfig.setAllowCreate(true);
 		primaryConfig.setTransactional(true);
 		primaryConfig.setKeyPrefixing(true);
-		primaryConfig.setBtreeComparator(BerkeleyLedgerEntryStore.AtomStorePackedPrimaryKeyComparator.class);
-
-		SecondaryConfig uniqueIndicesConfig = new SecondaryConfig();
-		uniqueIndicesConfig.setAllowCreate(true);
-		uniqueIndicesConfig.setTransactional(true);
-		uniqueIndicesConfig.setMultiKeyCreator(AtomSecondaryCreator.from(this.currentIndices, LedgerEntryIndices::getUniqueIndices));
-
-		SecondaryConfig duplicateIndicesConfig = new SecondaryConfig();
-		duplicateIndicesConfig.setAllowCreate(true);
-		duplicateIndicesConfig.setTransactional(true);
-		duplicateIndicesConfig.setSortedDuplicates(true);
-		duplicateIndicesConfig.setMultiKeyCreator(AtomSecondaryCreator.from(this.currentIndices, LedgerEntryIndices::getDuplicateIndices));
+		primaryConfig.setBtreeComparator(BerkeleyLedgerEntryStore.LogicalClockPrimaryKeyComparator.class);
 
 		DatabaseConfig indicesConfig = new DatabaseConfig();
 		indicesConfig.setAllowCreate(true);
 		indicesConfig.setTransactional(true);
-		indicesConfig.setBtreeComparator(BerkeleyLedgerEntryStore.AtomStorePackedPrimaryKeyComparator.class);
+		indicesConfig.setBtreeComparator(BerkeleyLedgerEntryStore.LogicalClockPrimaryKeyComparator.class);
+
+		DatabaseConfig statusConfig = new DatabaseConfig();
+		statusConfig.setAllowCreate(true);
+		statusConfig.setTransactional(true);
 
-		DatabaseConfig pendingConfig = new DatabaseConfig();
+		SecondaryConfig pendingConfig = new SecondaryConfig();
 		pendingConfig.setAllowCreate(true);
 		pendingConfig.setTransactional(true);
-		pendingConfig.setBtreeComparator(BerkeleyLedgerEntryStore.AtomStorePackedPrimaryKeyComparator.class);
+		pendingConfig.setKeyCreator(new AtomStatusSecondaryCreator(STATUS_PENDING));
+
+		SecondaryConfig committedConfig = new SecondaryConfig();
+		committedConfig.setAllowCreate(true);
+		committedConfig.setTransactional(true);
+		committedConfig.setKeyCreator(new AtomStatusSecondaryCreator(STATUS_COMMITTED));
 
 		try {
 			// This SuppressWarnings here is valid, as ownership of the underlying
 			// resource is not changed here, the resource is just accessed.
 			@SuppressWarnings("resource")
 			Environment env = this.dbEnv.getEnvironment();
+			boolean migrateLegacy = prepareLegacyMigration(env);
+
 			this.atoms = env.openDatabase(null, ATOMS_DB_NAME, primaryConfig);
-			this.uniqueIndices = env.openSecondaryDatabase(null, UNIQUE_INDICES_DB_NAME, this.atoms, uniqueIndicesConfig);
-			this.duplicatedIndices = env.openSecondaryDatabase(null, DUPLICATE_INDICES_DB_NAME, this.atoms, duplicateIndicesConfig);
+			// the index databases are only complete once an interrupted bulk load has been finished
+			this.bulkLoading = isBulkLoadMarked();
+			if (!this.bulkLoading) {
+				openIndexDatabases(env);
+			}
 			this.atomIndices = env.openDatabase(null, ATOM_INDICES_DB_NAME, primaryConfig);
-			this.pending = env.openDatabase(null, PENDING_DB_NAME, pendingConfig);
+			this.atomStatus = env.openDatabase(null, ATOM_STATUS_DB_NAME, statusConfig);
+			this.pending = env.openSecondaryDatabase(null, PENDING_DB_NAME, this.atomStatus, pendingConfig);
+			this.committed = env.openSecondaryDatabase(null, COMMITTED_DB_NAME, this.atomStatus, committedConfig);
+
+			if (migrateLegacy) {
+				migrateLegacyDatabases(env);
+			} else if (this.dbEnv.get(STORE_VERSION_RESOURCE, STORE_VERSION_KEY) == null) {
+				this.dbEnv.put(null, STORE_VERSION_RESOURCE, STORE_VERSION_KEY, Longs.toByteArray(STORE_VERSION));
+			}
 		} catch (Exception e) {
 			throw new TempoException("Error while opening databases", e);
 		}
 
+		if (this.bulkLoading) {
+			log.warn("Previous bulk load of ledger store was interrupted, building secondary indices");
+			finishBulkLoad();
+		}
+
 		if (System.getProperty("db.check_integrity", "1").equals("1")) {
 			// TODO implement integrity check
 		}
 	}
 
+	private void openIndexDatabases(Environment env) {
+		SecondaryConfig uniqueIndicesConfig = new SecondaryConfig();
+		uniqueIndicesConfig.setAllowCreate(true);
+		uniqueIndicesConfig.setTransactional(true);
+		uniqueIndicesConfig.setMultiKeyCreator(AtomSecondaryCreator.from(this.currentIndices, LedgerEntryIndices::getUniqueIndices));
+
+		SecondaryConfig duplicateIndicesConfig = new SecondaryConfig();
+		duplicateIndicesConfig.setAllowCreate(true);
+		duplicateIndicesConfig.setTransactional(true);
+		duplicateIndicesConfig.setSortedDuplicates(true);
+		duplicateIndicesConfig.setMultiKeyCreator(AtomSecondaryCreator.from(this.currentIndices, LedgerEntryIndices::getDuplicateIndices));
+
+		this.uniqueIndices = env.openSecondaryDatabase(null, UNIQUE_INDICES_DB_NAME, this.atoms, uniqueIndicesConfig);
+		this.duplicatedIndices = env.openSecondaryDatabase(null, DUPLICATE_INDICES_DB_NAME, this.atoms, duplicateIndicesConfig);
+	}
+
+	private void closeIndexDatabases() {
+		if (this.uniqueIndices != null) {
+			this.uniqueIndices.close();
+			this.uniqueIndices = null;
+		}
+		if (this.duplicatedIndices != null) {
+			this.duplicatedIndices.close();
+			this.duplicatedIndices = null;
+		}
+	}
+
+	private void checkNotBulkLoading() {
+		if (this.bulkLoading) {
+			// conflicts between unique indices cannot be detected during a bulk load
+			fail("Ledger entries can only be stored with bulkLoad during a bulk load");
+		}
+	}
+
+	private SecondaryDatabase uniqueIndices() {
+		SecondaryDatabase database = this.uniqueIndices;
+		if (database == null) {
+			fail("Unique indices are not available during a bulk load");
+		}
+		return database;
+	}
+
+	private SecondaryDatabase duplicatedIndices() {
+		SecondaryDatabase database = this.duplicatedIndices;
+		if (database == null) {
+			fail("Duplicate indices are not available during a bulk load");
+		}
+		return database;
+	}
+
+	private void rebuildAidFilter() {
+		if (this.aidFilter == null) {
+			return;
+		}
+
+		this.aidFilter.clear();
+		try (com.sleepycat.je.Cursor cursor = this.atoms.openCursor(null, null)) {
+			DatabaseEntry pKey = new DatabaseEntry();
+			DatabaseEntry data = keyOnly();
+			OperationStatus status = cursor.getFirst(pKey, data, LockMode.READ_UNCOMMITTED);
+			while (status == OperationStatus.SUCCESS) {
+				this.aidFilter.add(getAidFromPKey(pKey));
+				status = cursor.getNext(pKey, data, LockMode.READ_UNCOMMITTED);
+			}
+		}
+	}
+
+	private void loadPendingIndex() {
+		this.pendingIndex.clear();
+		try (SecondaryCursor cursor = this.pending.openCursor(null, null)) {
+			DatabaseEntry key = new DatabaseEntry();
+			DatabaseEntry pKey = new DatabaseEntry();
+			DatabaseEntry data = keyOnly();
+			OperationStatus status = cursor.getFirst(key, pKey, data, LockMode.READ_UNCOMMITTED);
+			while (status == OperationStatus.SUCCESS) {
+				this.pendingIndex.load(AID.from(pKey.getData()), Longs.fromByteArray(key.getData()));
+				status = cursor.getNext(key, pKey, data, LockMode.READ_UNCOMMITTED);
+			}
+		}
+		log.info("Loaded " + this.pendingIndex.size() + " pending atoms");
+	}
+
+	/**
+	 * Moves the databases of the legacy layout out of the way if there are any.
+	 *
+	 * @param env The environment
+	 * @return Whether there are legacy databases which need to be migrated
+	 */
+	private boolean prepareLegacyMigration(Environment env) {
+		List<String> databaseNames = env.getDatabaseNames();
+		if (databaseNames.contains(LEGACY_ATOMS_DB_NAME)) {
+			// a previous migration was interrupted, discard its partial results and start over
+			log.warn("Found interrupted migration of legacy ledger store, restarting migration");
+			Transaction transaction = env.beginTransaction(null, null);
+			try {
+				for (String databaseName : ImmutableList.of(COMMITTED_DB_NAME, PENDING_DB_NAME, ATOM_STATUS_DB_NAME,
+					UNIQUE_INDICES_DB_NAME, DUPLICATE_INDICES_DB_NAME, ATOM_INDICES_DB_NAME, ATOMS_DB_NAME)) {
+					if (databaseNames.contains(databaseName)) {
+						env.removeDatabase(transaction, databaseName);
+					}
+				}
+				transaction.commit();
+			} catch (Exception e) {
+				transaction.abort();
+				throw new TempoException("Error while discarding interrupted migration", e);
+			}
+			return true;
+		}
+
+		if (databaseNames.contains(ATOMS_DB_NAME) && this.dbEnv.get(STORE_VERSION_RESOURCE, STORE_VERSION_KEY) == null) {
+			log.info("Found ledger store with legacy layout, migrating");
+			Transaction transaction = env.beginTransaction(null, null);
+			try {
+				env.renameDatabase(transaction, ATOMS_DB_NAME, LEGACY_ATOMS_DB_NAME);
+				env.renameDatabase(transaction, ATOM_INDICES_DB_NAME, LEGACY_ATOM_INDICES_DB_NAME);
+				// secondaries and pending markers are rebuilt from the legacy atoms and their indices
+				for (String databaseName : ImmutableList.of(UNIQUE_INDICES_DB_NAME, DUPLICATE_INDICES_DB_NAME, LEGACY_PENDING_DB_NAME)) {
+					if (databaseNames.contains(databaseName)) {
+						env.removeDatabase(transaction, databaseName);
+					}
+				}
+				transaction.commit();
+			} catch (Exception e) {
+				transaction.abort();
+				throw new TempoException("Error while preparing migration of legacy databases", e);
+			}
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Copies all atoms from the legacy layout into the current layout and removes the legacy databases.
+	 * In the legacy layout the primary key is prefixed by the status of the atom, which is moved to the status record.
+	 *
+	 * @param env The environment
+	 */
+	private void migrateLegacyDatabases(Environment env) throws SerializationException {
+		DatabaseConfig legacyConfig = new DatabaseConfig();
+		legacyConfig.setTransactional(true);
+		legacyConfig.setKeyPrefixing(true);
+		legacyConfig.setBtreeComparator(BerkeleyLedgerEntryStore.AtomStorePackedPrimaryKeyComparator.class);
+
+		Database legacyAtoms = env.openDatabase(null, LEGACY_ATOMS_DB_NAME, legacyConfig);
+		Database legacyAtomIndices = env.openDatabase(null, LEGACY_ATOM_INDICES_DB_NAME, legacyConfig);
+		long migrated = 0;
+		long lastLogicalClock = 0;
+		try (Cursor cursor = legacyAtoms.openCursor(null, null)) {
+			DatabaseEntry legacyKey = new DatabaseEntry();
+			DatabaseEntry value = new DatabaseEntry();
+			DatabaseEntry indicesValue = new DatabaseEntry();
+
+			Transaction transaction = env.beginTransaction(null, null);
+			try {
+				while (cursor.getNext(legacyKey, value, LockMode.READ_COMMITTED) == OperationStatus.SUCCESS) {
+					byte[] legacyKeyBytes = legacyKey.getData();
+					byte status = legacyKeyBytes[0];
+					AID aid = AID.from(legacyKeyBytes, 1 + Long.BYTES);
+					// committed atoms come first and keep their logical clocks, as peers may have synced up to them
+					// pending atoms may share logical clocks with committed ones in the legacy layout, so they are renumbered
+					long logicalClock = status == STATUS_COMMITTED
+						? Longs.fromByteArray(legacyKeyBytes, 1)
+						: lastLogicalClock + 1;
+					lastLogicalClock = Math.max(lastLogicalClock, logicalClock);
+
+					OperationStatus indicesStatus = legacyAtomIndices.get(null, legacyKey, indicesValue, LockMode.READ_COMMITTED);
+					if (indicesStatus != OperationStatus.SUCCESS) {
+						fail("Getting legacy indices of atom '" + aid + "' failed with status " + indicesStatus);
+					}
+					LedgerEntryIndices indices = serialization.fromDson(indicesValue.getData(), LedgerEntryIndices.class);
+					doWrite(status, logicalClock, aid, value.getData(), indices, transaction);
+
+					migrated += 1;
+					if (migrated % MIGRATION_BATCH_SIZE == 0) {
+						transaction.commit();
+						transaction = env.beginTransaction(null, null);
+						log.info("Migrated " + migrated + " atoms of legacy ledger store");
+					}
+				}
+				transaction.commit();
+			} catch (Exception e) {
+				transaction.abort();
+				throw e;
+			}
+		} finally {
+			legacyAtomIndices.close();
+			legacyAtoms.close();
+		}
+
+		// remove legacy databases and mark as migrated atomically, so an interrupted migration is always detected
+		Transaction transaction = env.beginTransaction(null, null);
+		try {
+			env.removeDatabase(transaction, LEGACY_ATOMS_DB_NAME);
+			env.removeDatabase(transaction, LEGACY_ATOM_INDICES_DB_NAME);
+			this.dbEnv.put(transaction, STORE_VERSION_RESOURCE, STORE_VERSION_KEY, Longs.toByteArray(STORE_VERSION));
+			transaction.commit();
+		} catch (Exception e) {
+			transaction.abort();
+			throw new TempoException("Error while removing legacy databases", e);
+		}
+		log.info("Migration of legacy ledger store completed, migrated " + migrated + " atoms");
+	}
+
 	@Override
 	public void reset() {
 		dbEnv.withLock(() -> {
@@ -175,8 +474,20 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 				env.truncateDatabase(transaction, UNIQUE_INDICES_DB_NAME, false);
 				env.truncateDatabase(transaction, DUPLICATE_INDICES_DB_NAME, false);
 				env.truncateDatabase(transaction, ATOM_INDICES_DB_NAME, false);
+				env.truncateDatabase(transaction, ATOM_STATUS_DB_NAME, false);
 				env.truncateDatabase(transaction, PENDING_DB_NAME, false);
+				env.truncateDatabase(transaction, COMMITTED_DB_NAME, false);
 				transaction.commit();
+				if (this.bulkLoading) {
+					openIndexDatabases(env);
+					setBulkLoadMarker(false);
+					this.bulkLoading = false;
+				}
+				this.entryCache.invalidateAll();
+				this.pendingIndex.clear();
+				if (this.aidFilter != null) {
+					this.aidFilter.clear();
+				}
 			} catch (DatabaseNotFoundException e) {
 				if (transaction != null) {
 					transaction.abort();
@@ -195,12 +506,11 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 
 	@Override
 	public void close() {
-		if (this.uniqueIndices != null) {
-			this.uniqueIndices.close();
-		}
-		if (this.duplicatedIndices != null) {
-			this.duplicatedIndices.close();
-		}
+		this.scanReaper.shutdownNow();
+		// copy as closing a scan removes it from the open scans
+		ImmutableList.copyOf(this.openScans).forEach(BerkeleySearchScan::close);
+
+		closeIndexDatabases();
 		if (this.atoms != null) {
 			this.atoms.close();
 		}
@@ -210,6 +520,284 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		if (this.pending != null) {
 			this.pending.close();
 		}
+		if (this.committed != null) {
+			this.committed.close();
+		}
+		if (this.atomStatus != null) {
+			this.atomStatus.close();
+		}
+	}
+
+	/**
+	 * Exports all committed ledger entries into a new snapshot in the given directory.
+	 * Entries which are committed while the export is running may or may not be part of the snapshot.
+	 *
+	 * @param directory The directory to write the snapshot to
+	 * @param chunkMaxBytes The uncompressed size after which a snapshot chunk is completed
+	 * @return The exported snapshot
+	 */
+	public LedgerSnapshot exportSnapshot(File directory, int chunkMaxBytes) {
+		try {
+			LedgerSnapshotWriter writer = new LedgerSnapshotWriter(directory, this.serialization, chunkMaxBytes);
+			try (com.sleepycat.je.Cursor cursor = this.atoms.openCursor(null, null)) {
+				DatabaseEntry pKey = new DatabaseEntry();
+				DatabaseEntry data = new DatabaseEntry();
+				DatabaseEntry statusData = new DatabaseEntry();
+				DatabaseEntry indicesData = new DatabaseEntry();
+				OperationStatus status = cursor.getFirst(pKey, data, LockMode.READ_COMMITTED);
+				while (status == OperationStatus.SUCCESS) {
+					AID aid = getAidFromPKey(pKey);
+					// entries which are pending or were deleted in the meantime are skipped
+					if (this.atomStatus.get(null, LedgerKeyCodec.aidKey(aid), statusData, LockMode.READ_COMMITTED) == OperationStatus.SUCCESS
+						&& statusData.getData()[0] == STATUS_COMMITTED
+						&& this.atomIndices.get(null, pKey, indicesData, LockMode.READ_COMMITTED) == OperationStatus.SUCCESS) {
+						writer.add(new SnapshotEntry(Longs.fromByteArray(pKey.getData()), aid, data.getData(), toBinaryIndices(indicesData.getData())));
+					}
+					status = cursor.getNext(pKey, data, LockMode.READ_COMMITTED);
+				}
+			}
+			LedgerSnapshot snapshot = writer.finish();
+			log.info("Exported ledger snapshot " + snapshot);
+			return snapshot;
+		} catch (IOException e) {
+			fail("Export of ledger snapshot to " + directory + " failed", e);
+		}
+		throw new IllegalStateException("Should never reach here");
+	}
+
+	private byte[] toBinaryIndices(byte[] indicesData) throws SerializationException {
+		if (LedgerKeyCodec.isBinaryIndices(indicesData)) {
+			return indicesData;
+		}
+		return LedgerKeyCodec.encodeIndices(decodeIndices(indicesData));
+	}
+
+	/**
+	 * Imports all ledger entries of the given snapshot as committed ledger entries.
+	 * Only an empty store can import a snapshot.  The entries are written in a bulk load, see
+	 * {@link #beginBulkLoad()}, in large batches without waiting for durability, which is instead
+	 * established once the secondary indices have been built at the end of the import.
+	 *
+	 * @param snapshot The snapshot to import
+	 */
+	public void importSnapshot(LedgerSnapshot snapshot) {
+		Objects.requireNonNull(snapshot, "snapshot is required");
+		try (com.sleepycat.je.Cursor cursor = this.atoms.openCursor(null, null)) {
+			if (cursor.getFirst(new DatabaseEntry(), keyOnly(), LockMode.READ_UNCOMMITTED) == OperationStatus.SUCCESS) {
+				fail("Cannot import ledger snapshot into a non-empty store");
+			}
+		}
+
+		beginBulkLoad();
+		SnapshotImporter importer = new SnapshotImporter(snapshot.getManifest().getEntries());
+		try {
+			snapshot.forEach(importer);
+			importer.commit();
+		} catch (Exception e) {
+			importer.abort();
+			fail("Import of ledger snapshot " + snapshot + " failed", e);
+		} finally {
+			this.pendingLogicalClock.accumulateAndGet(importer.lastLogicalClock, Math::max);
+		}
+		finishBulkLoad();
+		log.info("Imported " + importer.imported + " ledger entries from snapshot " + snapshot);
+	}
+
+	/**
+	 * Switches this store into a bulk load, in which ledger entries are written without maintaining
+	 * the unique and duplicate index databases.  Those are built in a single sorted pass by
+	 * {@link #finishBulkLoad()} instead, which also verifies that unique indices are unique.
+	 * <p>
+	 * Until the bulk load is finished, lookups and searches by index fail, and entries can only be
+	 * written with {@link #bulkLoad(List)}.  A bulk load interrupted by a shutdown or crash is
+	 * finished when the store is opened the next time.
+	 */
+	public void beginBulkLoad() {
+		this.dbEnv.withLock(() -> {
+			if (this.bulkLoading) {
+				fail("Bulk load of ledger store is already in progress");
+			}
+			// copy as closing a scan removes it from the open scans
+			ImmutableList.copyOf(this.openScans).forEach(BerkeleySearchScan::close);
+			// the marker must be persisted before any entry is written without its index records
+			setBulkLoadMarker(true);
+			closeIndexDatabases();
+			this.bulkLoading = true;
+			log.info("Started bulk load of ledger store");
+		});
+	}
+
+	/**
+	 * Writes a batch of ledger entries as committed entries during a bulk load, in a single transaction.
+	 * Conflicting unique indices are not detected until {@link #finishBulkLoad()}.
+	 *
+	 * @param ledgerEntries The ledger entries and their indices, in order
+	 */
+	public void bulkLoad(List<IndexedLedgerEntry> ledgerEntries) {
+		if (!this.bulkLoading) {
+			fail("Bulk load of ledger store is not in progress");
+		}
+		Transaction transaction = this.dbEnv.getEnvironment().beginTransaction(null, new TransactionConfig().setDurability(Durability.COMMIT_NO_SYNC));
+		try {
+			for (IndexedLedgerEntry indexedLedgerEntry : ledgerEntries) {
+				LedgerEntry ledgerEntry = indexedLedgerEntry.getLedgerEntry();
+				LedgerEntryIndices indices = LedgerEntryIndices.from(
+					ledgerEntry,
+					indexedLedgerEntry.getUniqueIndices(),
+					indexedLedgerEntry.getDuplicateIndices()
+				);
+				byte[] ledgerEntryData = serialization.toDson(ledgerEntry, Output.PERSIST);
+				doWrite(STATUS_COMMITTED, this.pendingLogicalClock.incrementAndGet(), ledgerEntry.getAID(), ledgerEntryData, indices, transaction);
+			}
+			transaction.commit();
+		} catch (Exception e) {
+			transaction.abort();
+			fail("Bulk load of " + ledgerEntries.size() + " ledger entries failed", e);
+		}
+	}
+
+	/**
+	 * Finishes a bulk load by building the unique and duplicate index databases from the stored
+	 * ledger entry indices.  Fails if two ledger entries share a unique index, in which case the
+	 * store stays in the bulk load.
+	 */
+	public void finishBulkLoad() {
+		this.dbEnv.withLock(() -> {
+			if (!this.bulkLoading) {
+				fail("Bulk load of ledger store is not in progress");
+			}
+
+			long start = System.nanoTime();
+			SecondaryIndexBuilder.Result result = buildIndexDatabases();
+			if (!result.getConflicts().isEmpty()) {
+				result.getConflicts().forEach(conflict -> log.error("Unique index " + conflict.getIndex()
+					+ " of ledger entry '" + conflict.getConflicting() + "' conflicts with '" + conflict.getExisting() + "'"));
+				fail("Bulk load of ledger store failed with " + result.getConflicts().size() + " unique index conflicts");
+			}
+
+			@SuppressWarnings("resource")
+			Environment env = this.dbEnv.getEnvironment();
+			env.flushLog(true);
+			openIndexDatabases(env);
+			setBulkLoadMarker(false);
+			this.bulkLoading = false;
+			this.entryCache.invalidateAll();
+			log.info(String.format("Finished bulk load of ledger store in %d ms: %s",
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result));
+		});
+	}
+
+	public boolean isBulkLoading() {
+		return this.bulkLoading;
+	}
+
+	/**
+	 * Rebuilds the unique and duplicate index databases from the stored ledger entry indices.
+	 */
+	public void rebuildIndices() {
+		beginBulkLoad();
+		finishBulkLoad();
+	}
+
+	private SecondaryIndexBuilder.Result buildIndexDatabases() {
+		// This SuppressWarnings here is valid, as ownership of the underlying
+		// resource is not changed here, the resource is just accessed.
+		@SuppressWarnings("resource")
+		Environment env = this.dbEnv.getEnvironment();
+		env.truncateDatabase(null, UNIQUE_INDICES_DB_NAME, false);
+		env.truncateDatabase(null, DUPLICATE_INDICES_DB_NAME, false);
+
+		SecondaryIndexBuilder builder = new SecondaryIndexBuilder(
+			env,
+			this.atomIndices,
+			indicesData -> {
+				try {
+					return decodeIndices(indicesData);
+				} catch (SerializationException e) {
+					throw new IllegalStateException("Unable to decode ledger entry indices", e);
+				}
+			},
+			this.indexBuildThreads,
+			this.indexBuildBatchSize,
+			this::onIndexBuildProgress
+		);
+		// the index databases are written as plain databases in the layout of a secondary database,
+		// secondary key to primary key, and associated with the ledger entries again once complete
+		try (Database uniqueTarget = env.openDatabase(null, UNIQUE_INDICES_DB_NAME, indexBuildConfig(false));
+			Database duplicateTarget = env.openDatabase(null, DUPLICATE_INDICES_DB_NAME, indexBuildConfig(true))) {
+			return builder.build(uniqueTarget, duplicateTarget);
+		}
+	}
+
+	private static DatabaseConfig indexBuildConfig(boolean sortedDuplicates) {
+		DatabaseConfig config = new DatabaseConfig();
+		config.setTransactional(true);
+		config.setSortedDuplicates(sortedDuplicates);
+		return config;
+	}
+
+	private void onIndexBuildProgress(long processed, long total) {
+		log.info("Built secondary indices of " + processed + " of " + total + " ledger entries");
+		SystemMetaData.ifPresent(a -> {
+			a.put("ledger.index_build.processed", processed);
+			a.put("ledger.index_build.total", total);
+		});
+	}
+
+	private boolean isBulkLoadMarked() {
+		byte[] marker = this.dbEnv.get(STORE_VERSION_RESOURCE, BULK_LOAD_KEY);
+		return marker != null && marker[0] != 0;
+	}
+
+	private void setBulkLoadMarker(boolean bulkLoading) {
+		this.dbEnv.put(null, STORE_VERSION_RESOURCE, BULK_LOAD_KEY, new byte[] { (byte) (bulkLoading ? 1 : 0) });
+		this.dbEnv.getEnvironment().flushLog(true);
+	}
+
+	/**
+	 * Writes the entries of a snapshot in batched transactions.
+	 */
+	private final class SnapshotImporter implements LedgerSnapshot.EntryVisitor {
+		private final TransactionConfig transactionConfig = new TransactionConfig().setDurability(Durability.COMMIT_NO_SYNC);
+		private final long total;
+		private Transaction transaction = null;
+		private long imported = 0L;
+		private long lastLogicalClock = 0L;
+
+		private SnapshotImporter(long total) {
+			this.total = total;
+		}
+
+		@Override
+		public void visit(SnapshotEntry entry) throws IOException {
+			if (this.transaction == null) {
+				this.transaction = dbEnv.getEnvironment().beginTransaction(null, this.transactionConfig);
+			}
+			LedgerEntryIndices indices = LedgerKeyCodec.decodeIndices(entry.getIndicesData());
+			doWrite(STATUS_COMMITTED, entry.getLogicalClock(), entry.getAID(), entry.getLedgerEntryData(), indices, this.transaction);
+			this.lastLogicalClock = Math.max(this.lastLogicalClock, entry.getLogicalClock());
+			this.imported += 1;
+			if (this.imported % SNAPSHOT_IMPORT_BATCH_SIZE == 0) {
+				commit();
+				if (this.imported % (SNAPSHOT_IMPORT_BATCH_SIZE * 100) == 0) {
+					log.info("Imported " + this.imported + " of " + this.total + " ledger entries from snapshot");
+				}
+			}
+		}
+
+		private void commit() {
+			if (this.transaction != null) {
+				this.transaction.commit();
+				this.transaction = null;
+			}
+		}
+
+		private void abort() {
+			if (this.transaction != null) {
+				this.transaction.abort();
+				this.transaction = null;
+			}
+		}
 	}
 
 	private void fail(String message) {
@@ -224,37 +812,70 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 
 	@Override
 	public boolean contains(AID aid) {
-		DatabaseEntry key = new DatabaseEntry(StoreIndex.from(ENTRY_INDEX_PREFIX, aid.getBytes()));
-		return OperationStatus.SUCCESS == this.uniqueIndices.get(null, key, null, LockMode.DEFAULT);
+		if (isDefinitelyAbsent(aid)) {
+			return false;
+		}
+
+		DatabaseEntry key = LedgerKeyCodec.indexKey(ENTRY_INDEX_PREFIX, aid.getBytes());
+		if (OperationStatus.SUCCESS == uniqueIndices().get(null, key, keyOnly(), LockMode.DEFAULT)) {
+			return true;
+		}
+		onAbsent();
+		return false;
 	}
 
 	@Override
 	public LedgerEntryStatus getStatus(AID aid) {
-		if (!contains(aid)) {
+		if (isDefinitelyAbsent(aid)) {
 			return LedgerEntryStatus.UNAVAILABLE;
 		}
+		if (this.pendingIndex.isPending(aid)) {
+			return LedgerEntryStatus.PENDING;
+		}
 
-		if (isPending(aid)) {
+		DatabaseEntry key = LedgerKeyCodec.aidKey(aid);
+		DatabaseEntry value = new DatabaseEntry();
+		if (this.atomStatus.get(null, key, value, LockMode.DEFAULT) != OperationStatus.SUCCESS) {
+			onAbsent();
+			return LedgerEntryStatus.UNAVAILABLE;
+		}
+
+		if (value.getData()[0] == STATUS_PENDING) {
 			return LedgerEntryStatus.PENDING;
 		} else {
 			return LedgerEntryStatus.COMMITTED;
 		}
 	}
 
-	private boolean isPending(AID aid) {
-			DatabaseEntry key = new DatabaseEntry(aid.getBytes());
-			return OperationStatus.SUCCESS == this.pending.get(null, key, null, LockMode.DEFAULT);
-	}
-
 	@Override
 	public Optional<LedgerEntry> get(AID aid) {
+		Optional<LedgerEntry> cachedLedgerEntry = this.entryCache.get(aid);
+		if (cachedLedgerEntry.isPresent()) {
+			return cachedLedgerEntry;
+		}
+
+		if (isDefinitelyAbsent(aid)) {
+			return Optional.empty();
+		}
+
+		long cacheGeneration = this.entryCache.generation();
 		try {
-			DatabaseEntry key = new DatabaseEntry(StoreIndex.from(ENTRY_INDEX_PREFIX, aid.getBytes()));
+			Optional<byte[]> cachedLedgerEntryData = this.entryCache.getSerialized(aid);
+			if (cachedLedgerEntryData.isPresent()) {
+				LedgerEntry ledgerEntry = serialization.fromDson(cachedLedgerEntryData.get(), LedgerEntry.class);
+				this.entryCache.put(cacheGeneration, ledgerEntry, null);
+				return Optional.of(ledgerEntry);
+			}
+
+			DatabaseEntry key = LedgerKeyCodec.indexKey(ENTRY_INDEX_PREFIX, aid.getBytes());
 			DatabaseEntry value = new DatabaseEntry();
 
-			if (this.uniqueIndices.get(null, key, value, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
-				return Optional.of(serialization.fromDson(value.getData(), LedgerEntry.class));
+			if (uniqueIndices().get(null, key, value, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				LedgerEntry ledgerEntry = serialization.fromDson(value.getData(), LedgerEntry.class);
+				this.entryCache.put(cacheGeneration, ledgerEntry, value.getData());
+				return Optional.of(ledgerEntry);
 			}
+			onAbsent();
 		} catch (Exception e) {
 			fail("Get of atom '" + aid + "' failed", e);
 		}
@@ -262,10 +883,20 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		return Optional.empty();
 	}
 
+	private boolean isDefinitelyAbsent(AID aid) {
+		return this.aidFilter != null && !this.aidFilter.mightContain(aid);
+	}
+
+	private void onAbsent() {
+		if (this.aidFilter != null) {
+			this.aidFilter.falsePositive();
+		}
+	}
+
 	@Override
 	public Set<StoreIndex> getUniqueIndices(AID aid) {
 		try {
-			return doGetIndices(null, aid, new DatabaseEntry()).getUniqueIndices();
+			return doGetIndices(null, aid, doGetPKey(null, aid)).getUniqueIndices();
 		} catch (SerializationException e) {
 			fail("Get unique indices of '" + aid + "' failed");
 		}
@@ -274,90 +905,205 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 
 	@Override
 	public void commit(AID aid) {
-		// delete from pending and move to committed
 		Transaction transaction = dbEnv.getEnvironment().beginTransaction(null, null);
 		try {
-			// TODO there must be a better way to change primary keys
-			DatabaseEntry pKey = new DatabaseEntry();
-			LedgerEntryIndices indices = doGetIndices(transaction, aid, pKey);
-			DatabaseEntry value = new DatabaseEntry();
-			OperationStatus status = atoms.get(transaction, pKey, value, LockMode.DEFAULT);
-			if (status != OperationStatus.SUCCESS) {
-				fail("Getting pending atom '" + aid + "' failed with status " + status);
-			}
-			if (!doDelete(aid, transaction, pKey, indices)) {
-				fail("Delete of pending atom '" + aid + "' failed");
-			}
-			doRemovePending(aid, transaction);
+			PendingIndex.Changes pendingChanges = this.pendingIndex.changes();
+			doCommit(aid, transaction, pendingChanges);
+			transaction.commit();
+			pendingChanges.apply();
+		} catch (Exception e) {
+			transaction.abort();
+			fail("Commit of pending atom '" + aid + "' failed", e);
+		} finally {
+			this.entryCache.invalidate(aid);
+		}
+		// outside of the try, as the transaction must not be aborted once it has been committed
+		this.dbEnv.awaitDurable();
+	}
 
-			long logicalClock = lcFromPKey(pKey.getData());
-			// transaction is aborted in doStore in case of conflict
-			LedgerEntryStoreResult result = doStore(PREFIX_COMMITTED, logicalClock, aid, value.getData(), indices, transaction);
-			if (result.isSuccess()) {
-				transaction.commit();
+	@Override
+	public void commitAll(List<AID> aids) {
+		Objects.requireNonNull(aids, "aids is required");
+		if (aids.isEmpty()) {
+			return;
+		}
+
+		Transaction transaction = dbEnv.getEnvironment().beginTransaction(null, null);
+		try {
+			PendingIndex.Changes pendingChanges = this.pendingIndex.changes();
+			for (AID aid : aids) {
+				doCommit(aid, transaction, pendingChanges);
 			}
+			transaction.commit();
+			pendingChanges.apply();
 		} catch (Exception e) {
 			transaction.abort();
-			fail("Commit of pending atom '" + aid + "' failed", e);
+			fail("Commit of pending atoms " + aids + " failed", e);
+		} finally {
+			aids.forEach(this.entryCache::invalidate);
 		}
+		this.dbEnv.awaitDurable();
+	}
+
+	private void doCommit(AID aid, Transaction transaction, PendingIndex.Changes pendingChanges) {
+		// only the status record changes, the atom and its indices stay where they are
+		DatabaseEntry key = LedgerKeyCodec.aidKey(aid);
+		DatabaseEntry value = new DatabaseEntry();
+		OperationStatus status = atomStatus.get(transaction, key, value, LockMode.RMW);
+		if (status != OperationStatus.SUCCESS) {
+			fail("Getting status of atom '" + aid + "' failed with status " + status);
+		}
+		if (value.getData()[0] != STATUS_PENDING) {
+			fail("Attempted to commit atom '" + aid + "' which is not pending");
+		}
+
+		long logicalClock = Longs.fromByteArray(value.getData(), 1);
+		status = atomStatus.put(transaction, key, toStatusData(STATUS_COMMITTED, logicalClock));
+		if (status != OperationStatus.SUCCESS) {
+			fail("Status write for '" + aid + "' failed with status " + status);
+		}
+		pendingChanges.removed(aid);
 	}
 
 	@Override
 	public LedgerEntryStoreResult store(LedgerEntry atom, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
+		checkNotBulkLoading();
 		Transaction transaction = dbEnv.getEnvironment().beginTransaction(null, null);
+		final LedgerEntryStoreResult result;
 		try {
+			PendingIndex.Changes pendingChanges = this.pendingIndex.changes();
 			// transaction is aborted in doStore in case of conflict
-			LedgerEntryStoreResult result = doStorePending(atom, uniqueIndices, duplicateIndices, transaction);
+			result = doStorePending(atom, uniqueIndices, duplicateIndices, transaction, pendingChanges);
 			if (result.isSuccess()) {
 				transaction.commit();
+				pendingChanges.apply();
 			}
-			return result;
 		} catch (Exception e) {
 			transaction.abort();
 			fail("Store of atom '" + atom.getAID() + "' failed", e);
+			throw new IllegalStateException("Should never reach here");
 		}
-		throw new IllegalStateException("Should never reach here");
+		if (result.isSuccess()) {
+			this.dbEnv.awaitDurable();
+		}
+		return result;
+	}
+
+	@Override
+	public List<LedgerEntryStoreResult> storeAll(List<IndexedLedgerEntry> ledgerEntries) {
+		Objects.requireNonNull(ledgerEntries, "ledgerEntries is required");
+		if (ledgerEntries.isEmpty()) {
+			return ImmutableList.of();
+		}
+		checkNotBulkLoading();
+
+		List<LedgerEntryStoreResult> results = new ArrayList<>(ledgerEntries.size());
+		PendingIndex.Changes pendingChanges = this.pendingIndex.changes();
+		Transaction transaction = dbEnv.getEnvironment().beginTransaction(null, null);
+		try {
+			for (IndexedLedgerEntry indexedEntry : ledgerEntries) {
+				LedgerEntry ledgerEntry = indexedEntry.getLedgerEntry();
+				LedgerEntryIndices indices = LedgerEntryIndices.from(
+					ledgerEntry,
+					indexedEntry.getUniqueIndices(),
+					indexedEntry.getDuplicateIndices()
+				);
+
+				// check for conflicts up front, as a unique constraint violation would invalidate the whole transaction
+				// note that this also catches conflicts with earlier entries of this batch as they are part of the transaction
+				ImmutableMap<StoreIndex, LedgerEntry> conflictingAtoms = doGetConflictingAtoms(indices.getUniqueIndices(), transaction);
+				if (!conflictingAtoms.isEmpty()) {
+					results.add(LedgerEntryStoreResult.conflict(new LedgerEntryConflict(ledgerEntry, conflictingAtoms)));
+					continue;
+				}
+
+				// transaction is aborted in doStore in case of conflict
+				LedgerEntryStoreResult result = doStorePending(ledgerEntry, indices, transaction, pendingChanges);
+				if (!result.isSuccess()) {
+					break;
+				}
+				results.add(result);
+			}
+		} catch (Exception e) {
+			transaction.abort();
+			fail("Batched store of " + ledgerEntries.size() + " atoms failed", e);
+		}
+
+		if (results.size() < ledgerEntries.size()) {
+			// should not happen as conflicts are checked up front, retry every entry in its own transaction
+			log.warn("Batched store of " + ledgerEntries.size() + " atoms failed due to an unexpected conflict, storing individually");
+			return ledgerEntries.stream()
+				.map(entry -> store(entry.getLedgerEntry(), entry.getUniqueIndices(), entry.getDuplicateIndices()))
+				.collect(ImmutableList.toImmutableList());
+		}
+
+		transaction.commit();
+		pendingChanges.apply();
+		this.dbEnv.awaitDurable();
+		return results;
 	}
 
 	@Override
 	public LedgerEntryStoreResult replace(Set<AID> aids, LedgerEntry atom, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
+		checkNotBulkLoading();
 		Transaction transaction = dbEnv.getEnvironment().beginTransaction(null, null);
+		final LedgerEntryStoreResult result;
 		try {
+			PendingIndex.Changes pendingChanges = this.pendingIndex.changes();
 			for (AID aid : aids) {
-				if (!doDelete(aid, transaction)) {
+				if (!doDelete(aid, transaction, pendingChanges)) {
 					transaction.abort();
 					fail("Could not delete '" + aid + "'");
 				}
 			}
 			// transaction is aborted in doStore in case of conflict
-			LedgerEntryStoreResult result = doStorePending(atom, uniqueIndices, duplicateIndices, transaction);
+			result = doStorePending(atom, uniqueIndices, duplicateIndices, transaction, pendingChanges);
 			if (result.isSuccess()) {
 				transaction.commit();
+				pendingChanges.apply();
 			}
-			return result;
 		} catch (Exception e) {
 			transaction.abort();
 			fail("Replace of atoms '" + aids + "' with atom '" + atom.getAID() + "' failed", e);
+			throw new IllegalStateException("Should never reach here");
+		} finally {
+			aids.forEach(this.entryCache::invalidate);
 		}
-		throw new IllegalStateException("Should never reach here");
+		if (result.isSuccess()) {
+			this.dbEnv.awaitDurable();
+		}
+		return result;
 	}
 
 	private LedgerEntryStoreResult doStorePending(
 		LedgerEntry atom,
 		Set<StoreIndex> uniqueIndices,
 		Set<StoreIndex> duplicateIndices,
-		Transaction transaction
+		Transaction transaction,
+		PendingIndex.Changes pendingChanges
 	) throws SerializationException {
-		byte[] atomData = serialization.toDson(atom, Output.PERSIST);
 		LedgerEntryIndices indices = LedgerEntryIndices.from(atom, uniqueIndices, duplicateIndices);
+		return doStorePending(atom, indices, transaction, pendingChanges);
+	}
+
+	private LedgerEntryStoreResult doStorePending(
+		LedgerEntry atom,
+		LedgerEntryIndices indices,
+		Transaction transaction,
+		PendingIndex.Changes pendingChanges
+	) throws SerializationException {
+		byte[] atomData = serialization.toDson(atom, Output.PERSIST);
 		// TODO should probably do some ordering on pending atoms
 		long pendingLC = pendingLogicalClock.incrementAndGet();
-		doAddPending(atom.getAID(), pendingLC, transaction);
-		return doStore(PREFIX_PENDING, pendingLC, atom.getAID(), atomData, indices, transaction);
+		LedgerEntryStoreResult result = doStore(STATUS_PENDING, pendingLC, atom.getAID(), atomData, indices, transaction);
+		if (result.isSuccess()) {
+			pendingChanges.added(atom.getAID(), pendingLC);
+		}
+		return result;
 	}
 
 	private LedgerEntryStoreResult doStore(
-		byte prefix,
+		byte status,
 		long logicalClock,
 		AID aid,
 		byte[] ledgerEntryData,
@@ -365,42 +1111,64 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		Transaction transaction
 	) throws SerializationException {
 		try {
-			DatabaseEntry pKey = toPKey(prefix, logicalClock, aid);
+			doWrite(status, logicalClock, aid, ledgerEntryData, indices, transaction);
+		} catch (UniqueConstraintException e) {
+			log.error("Unique indices of ledgerEntry '" + aid + "' are in conflict, aborting transaction");
+			transaction.abort();
+
+			LedgerEntry ledgerEntry = serialization.fromDson(ledgerEntryData, LedgerEntry.class);
+			ImmutableMap<StoreIndex, LedgerEntry> conflictingAtoms = doGetConflictingAtoms(indices.getUniqueIndices(), null);
+			return LedgerEntryStoreResult.conflict(new LedgerEntryConflict(ledgerEntry, conflictingAtoms));
+		}
+		return LedgerEntryStoreResult.success();
+	}
+
+	private void doWrite(
+		byte status,
+		long logicalClock,
+		AID aid,
+		byte[] ledgerEntryData,
+		LedgerEntryIndices indices,
+		Transaction transaction
+	) throws SerializationException {
+		try {
+			// must be added before the entry becomes visible, so that lookups never miss it
+			if (this.aidFilter != null) {
+				this.aidFilter.add(aid);
+			}
+
+			DatabaseEntry pKey = toPKey(logicalClock, aid);
 			DatabaseEntry pData = new DatabaseEntry(ledgerEntryData);
 
 			// put indices in temporary map for key creator to pick up
 			this.currentIndices.put(aid, indices);
-			OperationStatus status = this.atoms.putNoOverwrite(transaction, pKey, pData);
-			if (status != OperationStatus.SUCCESS) {
-				fail("Atom write for '" + aid + "' failed with status " + status);
+			OperationStatus operationStatus = this.atoms.putNoOverwrite(transaction, pKey, pData);
+			if (operationStatus != OperationStatus.SUCCESS) {
+				fail("Atom write for '" + aid + "' failed with status " + operationStatus);
 			}
 
-			DatabaseEntry indicesData = new DatabaseEntry(serialization.toDson(indices, Output.PERSIST));
-			status = this.atomIndices.putNoOverwrite(transaction, pKey, indicesData);
-			if (status != OperationStatus.SUCCESS) {
-				fail("LedgerEntry indices write for '" + aid + "' failed with status " + status);
+			DatabaseEntry indicesData = new DatabaseEntry(LedgerKeyCodec.encodeIndices(indices));
+			operationStatus = this.atomIndices.putNoOverwrite(transaction, pKey, indicesData);
+			if (operationStatus != OperationStatus.SUCCESS) {
+				fail("LedgerEntry indices write for '" + aid + "' failed with status " + operationStatus);
 			}
-		} catch (UniqueConstraintException e) {
-			log.error("Unique indices of ledgerEntry '" + aid + "' are in conflict, aborting transaction");
-			transaction.abort();
 
-			LedgerEntry ledgerEntry = serialization.fromDson(ledgerEntryData, LedgerEntry.class);
-			ImmutableMap<StoreIndex, LedgerEntry> conflictingAtoms = doGetConflictingAtoms(indices.getUniqueIndices(), null);
-			return LedgerEntryStoreResult.conflict(new LedgerEntryConflict(ledgerEntry, conflictingAtoms));
+			operationStatus = this.atomStatus.putNoOverwrite(transaction, LedgerKeyCodec.aidKey(aid), toStatusData(status, logicalClock));
+			if (operationStatus != OperationStatus.SUCCESS) {
+				fail("Status write for '" + aid + "' failed with status " + operationStatus);
+			}
 		} finally {
 			this.currentIndices.remove(aid);
 		}
-		return LedgerEntryStoreResult.success();
 	}
 
 	private ImmutableMap<StoreIndex, LedgerEntry> doGetConflictingAtoms(Set<StoreIndex> uniqueIndices, Transaction transaction) {
 		ImmutableMap.Builder<StoreIndex, LedgerEntry> conflictingAtoms = ImmutableMap.builder();
 		try {
-			DatabaseEntry key = new DatabaseEntry();
 			DatabaseEntry value = new DatabaseEntry();
 			for (StoreIndex uniqueIndex : uniqueIndices) {
-				key.setData(uniqueIndex.asKey());
-				if (this.uniqueIndices.get(transaction, key, value, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				DatabaseEntry key = LedgerKeyCodec.indexKey(uniqueIndex);
+				if (uniqueIndices().get(transaction, key, value, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					LedgerEntry conflictingAtom = serialization.fromDson(value.getData(), LedgerEntry.class);
 					conflictingAtoms.put(uniqueIndex, conflictingAtom);
 				}
@@ -416,13 +1184,20 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		return conflictingAtoms.build();
 	}
 
-	private boolean doDelete(AID aid, Transaction transaction) throws SerializationException {
-		if (!isPending(aid)) {
+	private boolean doDelete(AID aid, Transaction transaction, PendingIndex.Changes pendingChanges) throws SerializationException {
+		DatabaseEntry key = LedgerKeyCodec.aidKey(aid);
+		DatabaseEntry value = new DatabaseEntry();
+		OperationStatus status = atomStatus.get(transaction, key, value, LockMode.RMW);
+		if (status != OperationStatus.SUCCESS) {
+			fail("Getting status of atom '" + aid + "' failed with status " + status);
+		}
+		if (value.getData()[0] != STATUS_PENDING) {
 			fail("Attempted to delete committed atom '" + aid + "'");
 		}
 
-		DatabaseEntry pKey = new DatabaseEntry();
+		DatabaseEntry pKey = toPKey(Longs.fromByteArray(value.getData(), 1), aid);
 		LedgerEntryIndices indices = doGetIndices(transaction, aid, pKey);
+		pendingChanges.removed(aid);
 		return doDelete(aid, transaction, pKey, indices);
 	}
 
@@ -432,6 +1207,10 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 			if (status != OperationStatus.SUCCESS) {
 				fail("Deleting indices of atom '" + aid + "' failed with status " + status);
 			}
+			status = atomStatus.delete(transaction, LedgerKeyCodec.aidKey(aid));
+			if (status != OperationStatus.SUCCESS) {
+				fail("Deleting status of atom '" + aid + "' failed with status " + status);
+			}
 			currentIndices.put(aid, indices);
 			return atoms.delete(transaction, pKey) == OperationStatus.SUCCESS;
 		} finally {
@@ -439,60 +1218,109 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		}
 	}
 
-	private LedgerEntryIndices doGetIndices(Transaction transaction, AID aid, DatabaseEntry pKey) throws SerializationException {
-		DatabaseEntry key = new DatabaseEntry(StoreIndex.from(ENTRY_INDEX_PREFIX, aid.getBytes()));
+	private DatabaseEntry doGetPKey(Transaction transaction, AID aid) {
+		DatabaseEntry key = LedgerKeyCodec.aidKey(aid);
 		DatabaseEntry value = new DatabaseEntry();
 
-		OperationStatus status = uniqueIndices.get(transaction, key, pKey, value, LockMode.DEFAULT);
+		OperationStatus status = atomStatus.get(transaction, key, value, LockMode.DEFAULT);
 		if (status != OperationStatus.SUCCESS) {
 			fail("Getting primary key of atom '" + aid + "' failed with status " + status);
 		}
 
-		status = atomIndices.get(transaction, pKey, value, LockMode.DEFAULT);
+		return toPKey(Longs.fromByteArray(value.getData(), 1), aid);
+	}
+
+	private LedgerEntryIndices doGetIndices(Transaction transaction, AID aid, DatabaseEntry pKey) throws SerializationException {
+		DatabaseEntry value = new DatabaseEntry();
+		OperationStatus status = atomIndices.get(transaction, pKey, value, LockMode.DEFAULT);
 		if (status != OperationStatus.SUCCESS) {
 			fail("Getting indices of atom '" + aid + "' failed with status " + status);
 		}
 
-		return serialization.fromDson(value.getData(), LedgerEntryIndices.class);
-	}
-
-	private void doAddPending(AID aid, long pendingLC, Transaction transaction) {
-		DatabaseEntry key = new DatabaseEntry(aid.getBytes());
-		// TODO anything more useful that could be used as value for pending markers?
-		DatabaseEntry value = new DatabaseEntry(Longs.toByteArray(pendingLC));
-		pending.putNoOverwrite(transaction, key, value);
+		return decodeIndices(value.getData());
 	}
 
-	private void doRemovePending(AID aid, Transaction transaction) {
-		OperationStatus status = pending.delete(transaction, new DatabaseEntry(aid.getBytes()));
-		if (status != OperationStatus.SUCCESS) {
-			fail("Removing atom '" + aid + "' from pending failed with status " + status);
+	private LedgerEntryIndices decodeIndices(byte[] indicesData) throws SerializationException {
+		if (LedgerKeyCodec.isBinaryIndices(indicesData)) {
+			return LedgerKeyCodec.decodeIndices(indicesData);
 		}
+		// written before indices were stored in the binary layout
+		return serialization.fromDson(indicesData, LedgerEntryIndices.class);
 	}
 
 	// TODO missing shardspace check, should be added?
 	@Override
-	public ImmutableList<AID> getNextCommitted(long logicalClock, int limit) {
-		try (Cursor cursor = this.atoms.openCursor(null, null)) {
+	public CommittedAidsPage getNextCommitted(ContinuationToken continuation, int limit) {
+		Objects.requireNonNull(continuation, "continuation is required");
+		try (SecondaryCursor cursor = this.committed.openCursor(null, null)) {
 			ImmutableList.Builder<AID> aids = ImmutableList.builder();
-			DatabaseEntry search = toPKey(PREFIX_COMMITTED, logicalClock + 1);
-			OperationStatus status = cursor.getSearchKeyRange(search, null, LockMode.DEFAULT);
+			long[] logicalClocks = new long[Math.min(limit, 1024)];
+			// the transport form of a token is the logical clock of the last entry it was issued for
+			long lastLogicalClock = continuation.toTransportForm();
+			DatabaseEntry search = new DatabaseEntry(Longs.toByteArray(lastLogicalClock + 1));
+			DatabaseEntry aidKey = new DatabaseEntry();
+			DatabaseEntry data = keyOnly();
+			OperationStatus status = cursor.getSearchKeyRange(search, aidKey, data, LockMode.DEFAULT);
 
 			int size = 0;
 			while (status == OperationStatus.SUCCESS && size < limit) {
-				if (search.getData()[0] != PREFIX_COMMITTED) {
-					// if we've gone behind committed keys, abort, as this is only for committed atoms
-					break;
+				lastLogicalClock = Longs.fromByteArray(search.getData());
+				aids.add(AID.from(aidKey.getData()));
+				if (size == logicalClocks.length) {
+					logicalClocks = Arrays.copyOf(logicalClocks, Math.min(limit, size * 2));
 				}
+				logicalClocks[size] = lastLogicalClock;
+				size++;
+				if (size < limit) {
+					status = cursor.getNext(search, aidKey, data, LockMode.DEFAULT);
+				}
+			}
+
+			return new CommittedAidsPage(
+				aids.build(),
+				Arrays.copyOf(logicalClocks, size),
+				ContinuationToken.fromTransportForm(lastLogicalClock)
+			);
+		}
+	}
+
+	@Override
+	public CommittedAidsPage getNextByIndex(StoreIndex index, ContinuationToken continuation, int limit) {
+		Objects.requireNonNull(index, "index is required");
+		Objects.requireNonNull(continuation, "continuation is required");
+		try (SecondaryCursor cursor = duplicatedIndices().openCursor(null, null)) {
+			ImmutableList.Builder<AID> aids = ImmutableList.builder();
+			long[] logicalClocks = new long[Math.max(0, Math.min(limit, 1024))];
+			long lastLogicalClock = continuation.toTransportForm();
+			// duplicates are sorted by primary key, which starts with the logical clock, so every
+			// duplicate index doubles as an (index, logical clock) index we can seek into directly
+			DatabaseEntry key = LedgerKeyCodec.indexKey(index);
+			DatabaseEntry pKey = new DatabaseEntry(Longs.toByteArray(lastLogicalClock + 1));
+			DatabaseEntry data = keyOnly();
+			OperationStatus status = cursor.getSearchBothRange(key, pKey, data, LockMode.DEFAULT);
 
-				aids.add(getAidFromPKey(search));
-				status = cursor.getNext(search, null, LockMode.DEFAULT);
+			int size = 0;
+			while (status == OperationStatus.SUCCESS && size < limit) {
+				lastLogicalClock = Longs.fromByteArray(pKey.getData());
+				aids.add(getAidFromPKey(pKey));
+				if (size == logicalClocks.length) {
+					logicalClocks = Arrays.copyOf(logicalClocks, Math.min(limit, size * 2));
+				}
+				logicalClocks[size] = lastLogicalClock;
 				size++;
+				if (size < limit) {
+					status = cursor.getNextDup(key, pKey, data, LockMode.DEFAULT);
+				}
 			}
 
-			return aids.build();
+			return new CommittedAidsPage(
+				aids.build(),
+				Arrays.copyOf(logicalClocks, size),
+				ContinuationToken.fromTransportForm(lastLogicalClock)
+			);
 		}
 	}
+
 	@Override
 	public SearchCursor search(LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
 		Objects.requireNonNull(type, "type is required");
@@ -501,12 +1329,13 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		try (SecondaryCursor databaseCursor = toSecondaryCursor(type)) {
 			DatabaseEntry pKey = new DatabaseEntry();
 			DatabaseEntry key = new DatabaseEntry(index.asKey());
+			DatabaseEntry data = keyOnly();
 			if (mode == LedgerSearchMode.EXACT) {
-				if (databaseCursor.getSearchKey(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (databaseCursor.getSearchKey(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					return new BerkeleySearchCursor(this, type, pKey.getData(), key.getData());
 				}
 			} else if (mode == LedgerSearchMode.RANGE) {
-				if (databaseCursor.getSearchKeyRange(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (databaseCursor.getSearchKeyRange(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					return new BerkeleySearchCursor(this, type, pKey.getData(), key.getData());
 				}
 			}
@@ -515,6 +1344,31 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		}
 	}
 
+	@Override
+	public SearchScan scan(LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		Objects.requireNonNull(type, "type is required");
+		Objects.requireNonNull(index, "index is required");
+		Objects.requireNonNull(mode, "mode is required");
+		return new BerkeleySearchScan(
+			() -> toSecondaryCursor(type),
+			this.openScans::add,
+			this.openScans::remove,
+			index,
+			mode,
+			this.scanPrefetchSize
+		);
+	}
+
+	private void releaseIdleScans() {
+		try {
+			long now = System.nanoTime();
+			this.openScans.forEach(scan -> scan.releaseIfIdle(now, this.scanIdleTimeoutNanos));
+		} catch (Exception e) {
+			// must not throw, as that would cancel further executions
+			log.error("Error while releasing idle search scans", e);
+		}
+	}
+
 	@Override
 	public boolean contains(LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
 		Objects.requireNonNull(type, "type is required");
@@ -522,13 +1376,14 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		Objects.requireNonNull(mode, "mode is required");
 		try (SecondaryCursor databaseCursor = toSecondaryCursor(type)) {
 			DatabaseEntry pKey = new DatabaseEntry();
-			DatabaseEntry key = new DatabaseEntry(index.asKey());
+			DatabaseEntry key = LedgerKeyCodec.indexKey(index);
+			DatabaseEntry data = keyOnly();
 			if (mode == LedgerSearchMode.EXACT) {
-				if (databaseCursor.getSearchKey(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (databaseCursor.getSearchKey(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					return true;
 				}
 			} else if (mode == LedgerSearchMode.RANGE) {
-				if (databaseCursor.getSearchKeyRange(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (databaseCursor.getSearchKeyRange(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					return true;
 				}
 			}
@@ -539,26 +1394,16 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 
 	@Override
 	public Set<AID> getPending() {
-		ImmutableSet.Builder<AID> pendingAids = ImmutableSet.builder();
-		try (com.sleepycat.je.Cursor cursor = this.pending.openCursor(null, null)) {
-			DatabaseEntry pKey = new DatabaseEntry();
-			OperationStatus status = cursor.getFirst(pKey, null, LockMode.DEFAULT);
-			while (status == OperationStatus.SUCCESS) {
-				AID aid = AID.from(pKey.getData());
-				pendingAids.add(aid);
-				status = cursor.getNext(pKey, null, LockMode.DEFAULT);
-			}
-		}
-		return pendingAids.build();
+		return this.pendingIndex.getPending();
 	}
 
-	private long getLastPendingCursor() {
-		try (com.sleepycat.je.Cursor cursor = this.pending.openCursor(null, null)) {
+	private long getLastLogicalClock() {
+		// atoms are never re-keyed, so the last primary key holds the highest logical clock handed out so far
+		try (com.sleepycat.je.Cursor cursor = this.atoms.openCursor(null, null)) {
 			DatabaseEntry pKey = new DatabaseEntry();
-			DatabaseEntry value = new DatabaseEntry();
-			OperationStatus status = cursor.getLast(pKey, value, LockMode.DEFAULT);
+			OperationStatus status = cursor.getLast(pKey, keyOnly(), LockMode.DEFAULT);
 			if (status == OperationStatus.SUCCESS) {
-				return Longs.fromByteArray(value.getData());
+				return Longs.fromByteArray(pKey.getData());
 			} else {
 				return 0L;
 			}
@@ -569,11 +1414,12 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		ImmutableSet.Builder<AID> pendingAids = ImmutableSet.builder();
 		try (com.sleepycat.je.Cursor cursor = this.atoms.openCursor(null, null)) {
 			DatabaseEntry pKey = new DatabaseEntry();
-			OperationStatus status = cursor.getFirst(pKey, null, LockMode.DEFAULT);
+			DatabaseEntry data = keyOnly();
+			OperationStatus status = cursor.getFirst(pKey, data, LockMode.DEFAULT);
 			while (status == OperationStatus.SUCCESS) {
 				AID aid = getAidFromPKey(pKey);
 				pendingAids.add(aid);
-				status = cursor.getNext(pKey, null, LockMode.DEFAULT);
+				status = cursor.getNext(pKey, data, LockMode.DEFAULT);
 			}
 		}
 		return pendingAids.build();
@@ -593,13 +1439,13 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 
 	// not used yet
 	private List<AID> getByShardRange(long from, long to) throws DatabaseException {
-		try (SecondaryCursor cursor = this.duplicatedIndices.openCursor(null, null)) {
+		try (SecondaryCursor cursor = duplicatedIndices().openCursor(null, null)) {
 			List<AID> aids = new ArrayList<>();
 			DatabaseEntry key = new DatabaseEntry(StoreIndex.from(SHARD_INDEX_PREFIX, Longs.toByteArray(from)));
 			DatabaseEntry pKey = new DatabaseEntry();
-			DatabaseEntry value = new DatabaseEntry();
+			DatabaseEntry data = keyOnly();
 
-			OperationStatus status = cursor.getSearchKeyRange(key, value, pKey, LockMode.DEFAULT);
+			OperationStatus status = cursor.getSearchKeyRange(key, pKey, data, LockMode.DEFAULT);
 			while (status == OperationStatus.SUCCESS) {
 				long shard = Longs.fromByteArray(key.getData(), 1);
 				if (shard < from || shard > to) {
@@ -609,9 +1455,9 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 				AID aid = getAidFromPKey(pKey);
 				aids.add(aid);
 
-				status = cursor.getNextDup(key, value, pKey, LockMode.DEFAULT);
+				status = cursor.getNextDup(key, pKey, data, LockMode.DEFAULT);
 				if (status == OperationStatus.NOTFOUND) {
-					status = cursor.getNext(key, value, pKey, LockMode.DEFAULT);
+					status = cursor.getNext(key, pKey, data, LockMode.DEFAULT);
 				}
 			}
 
@@ -623,18 +1469,18 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 
 	// not used yet
 	private List<AID> getByShard(long shard) throws DatabaseException {
-		try (SecondaryCursor cursor = this.duplicatedIndices.openCursor(null, null)) {
+		try (SecondaryCursor cursor = duplicatedIndices().openCursor(null, null)) {
 			List<AID> aids = new ArrayList<>();
 
 			DatabaseEntry key = new DatabaseEntry(StoreIndex.from(SHARD_INDEX_PREFIX, Longs.toByteArray(shard)));
 			DatabaseEntry pKey = new DatabaseEntry();
-			DatabaseEntry value = new DatabaseEntry();
+			DatabaseEntry data = keyOnly();
 
-			OperationStatus status = cursor.getSearchKeyRange(key, value, pKey, LockMode.DEFAULT);
+			OperationStatus status = cursor.getSearchKeyRange(key, pKey, data, LockMode.DEFAULT);
 			while (status == OperationStatus.SUCCESS) {
 				AID aid = getAidFromPKey(pKey);
 				aids.add(aid);
-				status = cursor.getNextDup(key, value, pKey, LockMode.DEFAULT);
+				status = cursor.getNextDup(key, pKey, data, LockMode.DEFAULT);
 			}
 
 			return aids;
@@ -646,8 +1492,9 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		try (SecondaryCursor databaseCursor = toSecondaryCursor(cursor.getType())) {
 			DatabaseEntry pKey = new DatabaseEntry(cursor.getPrimary());
 			DatabaseEntry key = new DatabaseEntry(cursor.getIndex());
-			if (databaseCursor.getSearchBothRange(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
-				if (databaseCursor.getNextDup(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+			DatabaseEntry data = keyOnly();
+			if (databaseCursor.getSearchBothRange(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (databaseCursor.getNextDup(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					return new BerkeleySearchCursor(this, cursor.getType(), pKey.getData(), key.getData());
 				}
 			}
@@ -662,8 +1509,9 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		try (SecondaryCursor databaseCursor = toSecondaryCursor(cursor.getType())) {
 			DatabaseEntry pKey = new DatabaseEntry(cursor.getPrimary());
 			DatabaseEntry key = new DatabaseEntry(cursor.getIndex());
-			if (databaseCursor.getSearchBothRange(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
-				if (databaseCursor.getPrevDup(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+			DatabaseEntry data = keyOnly();
+			if (databaseCursor.getSearchBothRange(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (databaseCursor.getPrevDup(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					return new BerkeleySearchCursor(this, cursor.getType(), pKey.getData(), key.getData());
 				}
 			}
@@ -678,12 +1526,13 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		try (SecondaryCursor databaseCursor = toSecondaryCursor(cursor.getType())) {
 			DatabaseEntry pKey = new DatabaseEntry(cursor.getPrimary());
 			DatabaseEntry key = new DatabaseEntry(cursor.getIndex());
-			if (databaseCursor.getSearchBothRange(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
-				if (databaseCursor.getPrevNoDup(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
-					if (databaseCursor.getNext(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+			DatabaseEntry data = keyOnly();
+			if (databaseCursor.getSearchBothRange(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (databaseCursor.getPrevNoDup(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+					if (databaseCursor.getNext(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 						return new BerkeleySearchCursor(this, cursor.getType(), pKey.getData(), key.getData());
 					}
-				} else if (databaseCursor.getFirst(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				} else if (databaseCursor.getFirst(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					return new BerkeleySearchCursor(this, cursor.getType(), pKey.getData(), key.getData());
 				}
 			}
@@ -698,13 +1547,14 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		try (SecondaryCursor databaseCursor = toSecondaryCursor(cursor.getType())) {
 			DatabaseEntry pKey = new DatabaseEntry(cursor.getPrimary());
 			DatabaseEntry key = new DatabaseEntry(cursor.getIndex());
+			DatabaseEntry data = keyOnly();
 
-			if (databaseCursor.getSearchBothRange(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
-				if (databaseCursor.getNextNoDup(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
-					if (databaseCursor.getPrev(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+			if (databaseCursor.getSearchBothRange(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				if (databaseCursor.getNextNoDup(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+					if (databaseCursor.getPrev(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 						return new BerkeleySearchCursor(this, cursor.getType(), pKey.getData(), key.getData());
 					}
-				} else if (databaseCursor.getLast(key, pKey, null, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
+				} else if (databaseCursor.getLast(key, pKey, data, LockMode.DEFAULT) == OperationStatus.SUCCESS) {
 					return new BerkeleySearchCursor(this, cursor.getType(), pKey.getData(), key.getData());
 				}
 			}
@@ -717,37 +1567,58 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 
 	private SecondaryCursor toSecondaryCursor(LedgerIndexType type) {
 		if (type.equals(StoreIndex.LedgerIndexType.UNIQUE)) {
-			return this.uniqueIndices.openCursor(null, null);
+			return uniqueIndices().openCursor(null, null);
 		} else if (type.equals(StoreIndex.LedgerIndexType.DUPLICATE)) {
-			return this.duplicatedIndices.openCursor(null, null);
+			return duplicatedIndices().openCursor(null, null);
 		} else {
 			throw new IllegalStateException("Cursor type " + type + " not supported");
 		}
 	}
 
+	/**
+	 * Creates a data entry which reads no data, such that reads which only need keys or existence do not
+	 * have to fetch the (primary) record from disk or pollute the cache with it.
+	 */
+	static DatabaseEntry keyOnly() {
+		DatabaseEntry data = new DatabaseEntry();
+		data.setPartial(0, 0, true);
+		return data;
+	}
+
 	private static AID getAidFromPKey(DatabaseEntry pKey) {
-		return AID.from(pKey.getData(), Long.BYTES + 1); // prefix + LC
+		return AID.from(pKey.getData(), Long.BYTES); // LC
 	}
 
-	private static DatabaseEntry toPKey(byte prefix, long logicalClock) {
-		byte[] pKey = new byte[1 + Long.BYTES];
-		pKey[0] = prefix;
-		Longs.copyTo(logicalClock, pKey, 1);
+	private static DatabaseEntry toPKey(long logicalClock, AID aid) {
+		byte[] pKey = new byte[Long.BYTES + AID.BYTES];
+		Longs.copyTo(logicalClock, pKey, 0);
+		System.arraycopy(aid.getBytes(), 0, pKey, Long.BYTES, AID.BYTES);
 		return new DatabaseEntry(pKey);
 	}
 
-	private static DatabaseEntry toPKey(byte prefix, long logicalClock, AID aid) {
-		byte[] pKey = new byte[1 + Long.BYTES + AID.BYTES];
-		pKey[0] = prefix;
-		Longs.copyTo(logicalClock, pKey, 1);
-		System.arraycopy(aid.getBytes(), 0, pKey, Long.BYTES + 1, AID.BYTES);
-		return new DatabaseEntry(pKey);
+	private static DatabaseEntry toStatusData(byte status, long logicalClock) {
+		byte[] data = new byte[1 + Long.BYTES];
+		data[0] = status;
+		Longs.copyTo(logicalClock, data, 1);
+		return new DatabaseEntry(data);
 	}
 
-	private static long lcFromPKey(byte[] pKey) {
-		return Longs.fromByteArray(pKey, 1);
+	public static class LogicalClockPrimaryKeyComparator implements Comparator<byte[]> {
+		@Override
+		public int compare(byte[] primary1, byte[] primary2) {
+			for (int i = 0; i < Long.BYTES; i++) {
+				int compare = UnsignedBytes.compare(primary1[i], primary2[i]);
+				if (compare != 0) {
+					return compare;
+				}
+			}
+			return 0;
+		}
 	}
 
+	/**
+	 * Comparator of the legacy layout (prefix + logical clock), only used to open legacy databases for migration.
+	 */
 	public static class AtomStorePackedPrimaryKeyComparator implements Comparator<byte[]> {
 		private static final int RELEVANT_PREFIX_LENGTH = 1 + Long.BYTES;
 		@Override
@@ -762,6 +1633,25 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore {
 		}
 	}
 
+	private static class AtomStatusSecondaryCreator implements SecondaryKeyCreator {
+		private final byte status;
+
+		private AtomStatusSecondaryCreator(byte status) {
+			this.status = status;
+		}
+
+		@Override
+		public boolean createSecondaryKey(SecondaryDatabase database, DatabaseEntry key, DatabaseEntry value, DatabaseEntry result) {
+			// value is the status byte followed by the logical clock, only index records with the given status
+			byte[] data = value.getData();
+			if (data[value.getOffset()] != status) {
+				return false;
+			}
+			result.setData(data, value.getOffset() + 1, Long.BYTES);
+			return true;
+		}
+	}
+
 	private static class AtomSecondaryCreator implements SecondaryMultiKeyCreator {
 		private final Function<DatabaseEntry, Set<StoreIndex>> indexer;
 
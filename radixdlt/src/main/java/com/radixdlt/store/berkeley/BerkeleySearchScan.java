@@ -0,0 +1,170 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.radixdlt.common.AID;
+import com.radixdlt.store.LedgerSearchMode;
+import com.radixdlt.store.SearchScan;
+import com.radixdlt.store.StoreIndex;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.LockMode;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.SecondaryCursor;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SearchScan} over the duplicates of a secondary index key, which keeps a single JE cursor
+ * open while iterating and prefetches aids in batches.
+ * <p>
+ * The cursor is released when the scan is exhausted, closed or has been idle for too long
+ * (see {@link #releaseIfIdle(long, long)}), so an abandoned scan cannot pin JE locks.
+ * A scan whose cursor was released for being idle transparently resumes after the last aid it returned.
+ */
+final class BerkeleySearchScan implements SearchScan {
+	private final Supplier<SecondaryCursor> cursorOpener;
+	private final Consumer<BerkeleySearchScan> onAcquire;
+	private final Consumer<BerkeleySearchScan> onRelease;
+	private final StoreIndex index;
+	private final LedgerSearchMode mode;
+	private final int prefetchSize;
+	private final ArrayDeque<AID> prefetched;
+
+	private SecondaryCursor cursor;
+	private byte[] key;
+	private byte[] lastPrimary;
+	private boolean exhausted;
+	private long lastAccessNanos;
+
+	BerkeleySearchScan(
+		Supplier<SecondaryCursor> cursorOpener,
+		Consumer<BerkeleySearchScan> onAcquire,
+		Consumer<BerkeleySearchScan> onRelease,
+		StoreIndex index,
+		LedgerSearchMode mode,
+		int prefetchSize
+	) {
+		if (prefetchSize < 1) {
+			throw new IllegalArgumentException("prefetchSize must be positive but was " + prefetchSize);
+		}
+		this.cursorOpener = Objects.requireNonNull(cursorOpener, "cursorOpener is required");
+		this.onAcquire = Objects.requireNonNull(onAcquire, "onAcquire is required");
+		this.onRelease = Objects.requireNonNull(onRelease, "onRelease is required");
+		this.index = Objects.requireNonNull(index, "index is required");
+		this.mode = Objects.requireNonNull(mode, "mode is required");
+		this.prefetchSize = prefetchSize;
+		this.prefetched = new ArrayDeque<>(prefetchSize);
+		this.lastAccessNanos = System.nanoTime();
+	}
+
+	@Override
+	public synchronized boolean hasNext() {
+		if (prefetched.isEmpty() && !exhausted) {
+			prefetch();
+		}
+		return !prefetched.isEmpty();
+	}
+
+	@Override
+	public synchronized AID next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return prefetched.poll();
+	}
+
+	@Override
+	public synchronized void close() {
+		exhausted = true;
+		prefetched.clear();
+		releaseCursor();
+	}
+
+	/**
+	 * Releases the cursor of this scan if it has not been accessed for longer than a certain timeout.
+	 *
+	 * @param nowNanos The current time in nanos
+	 * @param timeoutNanos The timeout in nanos
+	 */
+	synchronized void releaseIfIdle(long nowNanos, long timeoutNanos) {
+		if (cursor != null && nowNanos - lastAccessNanos > timeoutNanos) {
+			releaseCursor();
+		}
+	}
+
+	private void prefetch() {
+		lastAccessNanos = System.nanoTime();
+		DatabaseEntry searchKey = new DatabaseEntry();
+		DatabaseEntry pKey = new DatabaseEntry();
+		// only the primary keys are needed, so avoid fetching the primary records
+		DatabaseEntry data = BerkeleyLedgerEntryStore.keyOnly();
+
+		OperationStatus status;
+		if (cursor == null) {
+			cursor = cursorOpener.get();
+			onAcquire.accept(this);
+			if (lastPrimary == null) {
+				searchKey.setData(index.asKey());
+				if (mode == LedgerSearchMode.EXACT) {
+					status = cursor.getSearchKey(searchKey, pKey, data, LockMode.READ_COMMITTED);
+				} else {
+					status = cursor.getSearchKeyRange(searchKey, pKey, data, LockMode.READ_COMMITTED);
+				}
+				key = searchKey.getData();
+			} else {
+				// resume after the last returned entry, or at the entry following it if it has been deleted meanwhile
+				searchKey.setData(key);
+				pKey.setData(lastPrimary);
+				status = cursor.getSearchBoth(searchKey, pKey, data, LockMode.READ_COMMITTED);
+				if (status == OperationStatus.SUCCESS) {
+					status = cursor.getNextDup(searchKey, pKey, data, LockMode.READ_COMMITTED);
+				} else {
+					searchKey.setData(key);
+					pKey.setData(lastPrimary);
+					status = cursor.getSearchBothRange(searchKey, pKey, data, LockMode.READ_COMMITTED);
+				}
+			}
+		} else {
+			status = cursor.getNextDup(searchKey, pKey, data, LockMode.READ_COMMITTED);
+		}
+
+		while (status == OperationStatus.SUCCESS) {
+			lastPrimary = pKey.getData();
+			prefetched.add(AID.from(lastPrimary, Long.BYTES));
+			if (prefetched.size() >= prefetchSize) {
+				return;
+			}
+			status = cursor.getNextDup(searchKey, pKey, data, LockMode.READ_COMMITTED);
+		}
+
+		exhausted = true;
+		releaseCursor();
+	}
+
+	private void releaseCursor() {
+		if (cursor != null) {
+			cursor.close();
+			cursor = null;
+			onRelease.accept(this);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.google.inject.Provides;
+import com.radixdlt.properties.RuntimeProperties;
+
+/**
+ * Static configuration for the {@link BerkeleyLedgerEntryStore} and {@link BerkeleyCursorStore}
+ */
+public interface BerkeleyStoreConfiguration {
+	/**
+	 * Byte budget of the on-heap cache of deserialized ledger entries, 0 to disable the cache.
+	 */
+	long entryCacheMaxBytes(long defaultValue);
+
+	/**
+	 * Byte budget of the off-heap cache of serialized ledger entries, 0 to disable the off-heap tier.
+	 */
+	long entryCacheOffHeapMaxBytes(long defaultValue);
+
+	/**
+	 * Number of aids the filter of stored aids is initially sized for, or 0 to disable the filter.
+	 */
+	long aidFilterInitialCapacity(long defaultValue);
+
+	/**
+	 * Interval in which updated sync cursors are written to the database.
+	 */
+	long cursorFlushIntervalMillis(long defaultValue);
+
+	/**
+	 * Number of aids a search scan reads ahead at a time.
+	 */
+	int scanPrefetchSize(int defaultValue);
+
+	/**
+	 * Time after which an idle search scan releases its cursor.
+	 */
+	long scanIdleTimeoutMillis(long defaultValue);
+
+	/**
+	 * Number of threads decoding and sorting index records when the secondary indices are built after a bulk load.
+	 */
+	int indexBuildThreads(int defaultValue);
+
+	/**
+	 * Number of ledger entries whose index records are sorted and written together when building secondary indices.
+	 */
+	int indexBuildBatchSize(int defaultValue);
+
+	@Provides
+	static BerkeleyStoreConfiguration fromRuntimeProperties(RuntimeProperties properties) {
+		return new BerkeleyStoreConfiguration() {
+			@Override
+			public long entryCacheMaxBytes(long defaultValue) {
+				return properties.get("db.ledger.cache.max_bytes", defaultValue);
+			}
+
+			@Override
+			public long entryCacheOffHeapMaxBytes(long defaultValue) {
+				return properties.get("db.ledger.cache.off_heap_max_bytes", defaultValue);
+			}
+
+			@Override
+			public long aidFilterInitialCapacity(long defaultValue) {
+				return properties.get("db.ledger.filter.initial_capacity", defaultValue);
+			}
+
+			@Override
+			public long cursorFlushIntervalMillis(long defaultValue) {
+				return properties.get("db.sync.cursors.flush_interval_ms", defaultValue);
+			}
+
+			@Override
+			public int scanPrefetchSize(int defaultValue) {
+				return properties.get("db.ledger.scan.prefetch_size", defaultValue);
+			}
+
+			@Override
+			public long scanIdleTimeoutMillis(long defaultValue) {
+				return properties.get("db.ledger.scan.idle_timeout_ms", defaultValue);
+			}
+
+			@Override
+			public int indexBuildThreads(int defaultValue) {
+				return properties.get("db.ledger.index_build.threads", defaultValue);
+			}
+
+			@Override
+			public int indexBuildBatchSize(int defaultValue) {
+				return properties.get("db.ledger.index_build.batch_size", defaultValue);
+			}
+		};
+	}
+
+	/**
+	 * A configuration which uses the given default values for everything.
+	 */
+	static BerkeleyStoreConfiguration defaults() {
+		return new BerkeleyStoreConfiguration() {
+			@Override
+			public long entryCacheMaxBytes(long defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public long entryCacheOffHeapMaxBytes(long defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public long aidFilterInitialCapacity(long defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public long cursorFlushIntervalMillis(long defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int scanPrefetchSize(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public long scanIdleTimeoutMillis(long defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int indexBuildThreads(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int indexBuildBatchSize(int defaultValue) {
+				return defaultValue;
+			}
+		};
+	}
+}
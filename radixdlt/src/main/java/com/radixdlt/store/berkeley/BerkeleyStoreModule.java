@@ -18,15 +18,45 @@
 package com.radixdlt.store.berkeley;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.radixdlt.properties.RuntimeProperties;
 import com.radixdlt.store.CursorStore;
 import com.radixdlt.store.LedgerEntryStore;
 import com.radixdlt.store.LedgerEntryStoreView;
+import com.radixdlt.store.metrics.MeteredLedgerEntryStore;
+import com.radixdlt.store.metrics.StoreMetrics;
+import com.sleepycat.je.StatsConfig;
+import org.radix.database.DatabaseEnvironment;
 
 public class BerkeleyStoreModule extends AbstractModule {
+	private final BerkeleyStoreConfiguration configuration;
+
+	public BerkeleyStoreModule(RuntimeProperties properties) {
+		this(BerkeleyStoreConfiguration.fromRuntimeProperties(properties));
+	}
+
+	public BerkeleyStoreModule(BerkeleyStoreConfiguration configuration) {
+		this.configuration = configuration;
+	}
+
 	@Override
 	protected void configure() {
-		bind(LedgerEntryStore.class).to(BerkeleyLedgerEntryStore.class);
-		bind(LedgerEntryStoreView.class).to(BerkeleyLedgerEntryStore.class);
+		bind(BerkeleyStoreConfiguration.class).toInstance(configuration);
+		bind(LedgerEntryStoreView.class).to(LedgerEntryStore.class);
 		bind(CursorStore.class).to(BerkeleyCursorStore.class);
 	}
+
+	@Provides
+	@Singleton
+	StoreMetrics storeMetrics(DatabaseEnvironment dbEnv) {
+		StatsConfig statsConfig = new StatsConfig().setFast(true);
+		return new StoreMetrics(() -> dbEnv.getEnvironment().getStats(statsConfig).getNWaits());
+	}
+
+	@Provides
+	@Singleton
+	LedgerEntryStore ledgerEntryStore(BerkeleyLedgerEntryStore store, StoreMetrics metrics) {
+		return new MeteredLedgerEntryStore(store, metrics);
+	}
 }
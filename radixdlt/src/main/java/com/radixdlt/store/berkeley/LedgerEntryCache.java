@@ -0,0 +1,200 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.radixdlt.common.AID;
+import com.radixdlt.store.LedgerEntry;
+import org.radix.utils.SystemMetaData;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of {@link LedgerEntry}s by {@link AID}, consisting of an on-heap tier of
+ * deserialized entries and an optional off-heap tier of serialized (DSON) entries.
+ * <p>
+ * Loads racing with an invalidation are detected through a generation counter and not cached,
+ * so a deleted entry can never be resurrected by a concurrent read.
+ */
+final class LedgerEntryCache {
+	// rough per-entry overhead of the key, the entry object and the cache bookkeeping
+	private static final int ENTRY_OVERHEAD_BYTES = AID.BYTES + 64;
+
+	private final Cache<AID, LedgerEntry> entries;
+	private final OffHeapTier offHeapEntries;
+	private final AtomicLong generation = new AtomicLong();
+
+	LedgerEntryCache(long maxBytes, long offHeapMaxBytes) {
+		this.entries = maxBytes > 0
+			? CacheBuilder.newBuilder()
+				.maximumWeight(maxBytes)
+				.<AID, LedgerEntry>weigher((aid, ledgerEntry) -> ledgerEntry.getContent().length + ENTRY_OVERHEAD_BYTES)
+				.<AID, LedgerEntry>removalListener(notification -> {
+					if (notification.wasEvicted()) {
+						SystemMetaData.ifPresent(a -> a.increment("ledger.cache.evictions"));
+					}
+				})
+				.build()
+			: null;
+		this.offHeapEntries = offHeapMaxBytes > 0 ? new OffHeapTier(offHeapMaxBytes) : null;
+	}
+
+	/**
+	 * Gets the deserialized ledger entry with the given {@link AID} if it is cached on-heap.
+	 */
+	Optional<LedgerEntry> get(AID aid) {
+		if (this.entries == null) {
+			return Optional.empty();
+		}
+
+		LedgerEntry ledgerEntry = this.entries.getIfPresent(aid);
+		if (ledgerEntry != null) {
+			SystemMetaData.ifPresent(a -> a.increment("ledger.cache.hits"));
+			return Optional.of(ledgerEntry);
+		}
+		SystemMetaData.ifPresent(a -> a.increment("ledger.cache.misses"));
+		return Optional.empty();
+	}
+
+	/**
+	 * Gets the serialized ledger entry with the given {@link AID} if it is cached off-heap.
+	 */
+	Optional<byte[]> getSerialized(AID aid) {
+		if (this.offHeapEntries == null) {
+			return Optional.empty();
+		}
+
+		byte[] ledgerEntryData = this.offHeapEntries.get(aid);
+		if (ledgerEntryData != null) {
+			SystemMetaData.ifPresent(a -> a.increment("ledger.cache.off_heap.hits"));
+			return Optional.of(ledgerEntryData);
+		}
+		SystemMetaData.ifPresent(a -> a.increment("ledger.cache.off_heap.misses"));
+		return Optional.empty();
+	}
+
+	/**
+	 * Gets the current generation, to be passed to {@link #put(long, LedgerEntry, byte[])} after loading.
+	 */
+	long generation() {
+		return this.generation.get();
+	}
+
+	/**
+	 * Caches a loaded ledger entry unless the cache was invalidated since the given generation.
+	 *
+	 * @param generation The generation before the entry was loaded
+	 * @param ledgerEntry The deserialized ledger entry
+	 * @param ledgerEntryData The serialized ledger entry, or {@code null} if already cached off-heap
+	 */
+	void put(long generation, LedgerEntry ledgerEntry, byte[] ledgerEntryData) {
+		if (this.entries != null) {
+			this.entries.put(ledgerEntry.getAID(), ledgerEntry);
+		}
+		if (this.offHeapEntries != null && ledgerEntryData != null) {
+			this.offHeapEntries.put(ledgerEntry.getAID(), ledgerEntryData);
+		}
+		// an invalidation may have happened while loading or putting, in which case the entry may be stale
+		if (this.generation.get() != generation) {
+			invalidate(ledgerEntry.getAID());
+		}
+	}
+
+	void invalidate(AID aid) {
+		this.generation.incrementAndGet();
+		if (this.entries != null) {
+			this.entries.invalidate(aid);
+		}
+		if (this.offHeapEntries != null) {
+			this.offHeapEntries.invalidate(aid);
+		}
+	}
+
+	void invalidateAll() {
+		this.generation.incrementAndGet();
+		if (this.entries != null) {
+			this.entries.invalidateAll();
+		}
+		if (this.offHeapEntries != null) {
+			this.offHeapEntries.invalidateAll();
+		}
+	}
+
+	/**
+	 * A byte-bounded LRU map of serialized entries held in direct buffers.
+	 */
+	private static final class OffHeapTier {
+		private final long maxBytes;
+		private final LinkedHashMap<AID, ByteBuffer> buffers = new LinkedHashMap<>(16, 0.75f, true);
+		private long usedBytes;
+
+		private OffHeapTier(long maxBytes) {
+			this.maxBytes = maxBytes;
+		}
+
+		synchronized byte[] get(AID aid) {
+			ByteBuffer buffer = this.buffers.get(aid);
+			if (buffer == null) {
+				return null;
+			}
+			byte[] data = new byte[buffer.remaining()];
+			buffer.duplicate().get(data);
+			return data;
+		}
+
+		synchronized void put(AID aid, byte[] data) {
+			if (data.length > this.maxBytes) {
+				return;
+			}
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+			buffer.put(data);
+			buffer.flip();
+			ByteBuffer previous = this.buffers.put(aid, buffer);
+			if (previous != null) {
+				this.usedBytes -= previous.capacity();
+			}
+			this.usedBytes += data.length;
+
+			Iterator<Map.Entry<AID, ByteBuffer>> eldest = this.buffers.entrySet().iterator();
+			while (this.usedBytes > this.maxBytes && eldest.hasNext()) {
+				this.usedBytes -= eldest.next().getValue().capacity();
+				eldest.remove();
+				SystemMetaData.ifPresent(a -> a.increment("ledger.cache.off_heap.evictions"));
+			}
+		}
+
+		synchronized void invalidate(AID aid) {
+			ByteBuffer previous = this.buffers.remove(aid);
+			if (previous != null) {
+				this.usedBytes -= previous.capacity();
+			}
+		}
+
+		synchronized void invalidateAll() {
+			this.buffers.clear();
+			this.usedBytes = 0;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.berkeley;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.radixdlt.common.AID;
+import org.radix.utils.SystemMetaData;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A scalable Bloom filter of the {@link AID}s in a ledger, used to answer lookups of
+ * absent aids without touching the database.
+ * <p>
+ * The filter never yields false negatives for aids added to it, but may yield false positives,
+ * including for aids which were added and since deleted. Once the current filter reaches its
+ * capacity a new filter of twice the capacity and half the false positive probability is added,
+ * which bounds the overall false positive probability by {@value #FALSE_POSITIVE_PROBABILITY}.
+ */
+final class LedgerEntryFilter {
+	private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+	private static final Funnel<AID> AID_FUNNEL = (aid, into) -> into.putBytes(aid.getBytes());
+
+	private final long initialCapacity;
+	private final AtomicLong negatives = new AtomicLong();
+	private final AtomicLong falsePositives = new AtomicLong();
+
+	private volatile ImmutableList<BloomFilter<AID>> filters;
+	private long currentSize;
+	private long currentCapacity;
+	private double currentFalsePositiveProbability;
+
+	LedgerEntryFilter(long initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("initialCapacity must be positive but was " + initialCapacity);
+		}
+		this.initialCapacity = initialCapacity;
+		clear();
+	}
+
+	/**
+	 * Adds an aid to this filter. Must be called before the aid becomes visible in the database.
+	 */
+	synchronized void add(AID aid) {
+		if (this.currentSize >= this.currentCapacity) {
+			this.currentCapacity *= 2;
+			this.currentFalsePositiveProbability /= 2;
+			this.filters = ImmutableList.<BloomFilter<AID>>builder()
+				.addAll(this.filters)
+				.add(BloomFilter.create(AID_FUNNEL, this.currentCapacity, this.currentFalsePositiveProbability))
+				.build();
+			this.currentSize = 0;
+			SystemMetaData.ifPresent(a -> a.put("ledger.filter.segments", this.filters.size()));
+		}
+		this.filters.get(this.filters.size() - 1).put(aid);
+		this.currentSize++;
+	}
+
+	/**
+	 * Checks whether an aid might have been added to this filter.
+	 * A {@code false} result means the aid was definitely never added.
+	 */
+	boolean mightContain(AID aid) {
+		for (BloomFilter<AID> filter : this.filters) {
+			if (filter.mightContain(aid)) {
+				return true;
+			}
+		}
+		this.negatives.incrementAndGet();
+		SystemMetaData.ifPresent(a -> a.increment("ledger.filter.negatives"));
+		return false;
+	}
+
+	/**
+	 * Records that an aid for which {@link #mightContain(AID)} returned {@code true} was not found.
+	 */
+	void falsePositive() {
+		long currentFalsePositives = this.falsePositives.incrementAndGet();
+		// observed rate of false positives amongst all lookups of absent aids, in parts per million
+		long falsePositivePpm = currentFalsePositives * 1_000_000L / (currentFalsePositives + this.negatives.get());
+		SystemMetaData.ifPresent(a -> {
+			a.increment("ledger.filter.false_positives");
+			a.put("ledger.filter.false_positive_ppm", falsePositivePpm);
+		});
+	}
+
+	/**
+	 * Removes all aids from this filter.
+	 */
+	synchronized void clear() {
+		this.currentCapacity = this.initialCapacity;
+		// halved for every new filter, such that the sum over all filters stays below the target
+		this.currentFalsePositiveProbability = FALSE_POSITIVE_PROBABILITY / 2;
+		this.filters = ImmutableList.of(BloomFilter.create(AID_FUNNEL, this.currentCapacity, this.currentFalsePositiveProbability));
+		this.currentSize = 0;
+	}
+}
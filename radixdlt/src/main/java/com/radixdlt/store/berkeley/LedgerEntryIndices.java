@@ -61,15 +61,19 @@ public final class LedgerEntryIndices {
 		this.duplicateIndices = duplicateIndices;
 	}
 
-	Set<StoreIndex> getUniqueIndices() {
+	static LedgerEntryIndices of(ImmutableSet<StoreIndex> uniqueIndices, ImmutableSet<StoreIndex> duplicateIndices) {
+		return new LedgerEntryIndices(uniqueIndices, duplicateIndices);
+	}
+
+	public Set<StoreIndex> getUniqueIndices() {
 		return this.uniqueIndices;
 	}
 
-	Set<StoreIndex> getDuplicateIndices() {
+	public Set<StoreIndex> getDuplicateIndices() {
 		return this.duplicateIndices;
 	}
 
-	static LedgerEntryIndices from(LedgerEntry ledgerEntry, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
+	public static LedgerEntryIndices from(LedgerEntry ledgerEntry, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
 		List<StoreIndex> offendingIndices = Stream.concat(uniqueIndices.stream(), duplicateIndices.stream())
 			.filter(index -> index.getPrefix() == ENTRY_INDEX_PREFIX || index.getPrefix() == SHARD_INDEX_PREFIX)
 			.collect(Collectors.toList());
@@ -0,0 +1,199 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.common.AID;
+import com.radixdlt.store.StoreIndex;
+import com.radixdlt.utils.Ints;
+import com.sleepycat.je.DatabaseEntry;
+
+import java.util.Set;
+
+/**
+ * Binary encoding of the keys and index records of a {@link BerkeleyLedgerEntryStore}.
+ * <p>
+ * Keys for point lookups are written into per-thread buffers instead of freshly allocated arrays.
+ * A {@link DatabaseEntry} returned by {@link #indexKey(StoreIndex)} and friends is only valid until
+ * the next call of the same method on the same thread and must therefore never be retained, e.g. in
+ * a cursor or a search result.
+ * <p>
+ * {@link LedgerEntryIndices} are stored in a fixed binary layout:
+ * <pre>
+ *   [format:1][unique count:4][duplicate count:4] followed by, for every index,
+ *   [prefix:1][identifier length:4][identifier:n]
+ * </pre>
+ * The leading format byte can never start a DSON map, which allows records written in the
+ * previous DSON format to still be read.
+ */
+public final class LedgerKeyCodec {
+	static final byte INDICES_FORMAT_BINARY = 1;
+
+	private static final int INDICES_HEADER_BYTES = 1 + Integer.BYTES + Integer.BYTES;
+	private static final int INDEX_HEADER_BYTES = 1 + Integer.BYTES;
+
+	private static final ThreadLocal<KeyBuffer> INDEX_KEY = ThreadLocal.withInitial(() -> new KeyBuffer(64));
+	private static final ThreadLocal<KeyBuffer> AID_KEY = ThreadLocal.withInitial(() -> new KeyBuffer(AID.BYTES));
+
+	private LedgerKeyCodec() {
+		throw new IllegalStateException("Cannot instantiate.");
+	}
+
+	/**
+	 * Reusable key buffer and the entry which wraps it.
+	 */
+	private static final class KeyBuffer {
+		private final DatabaseEntry entry = new DatabaseEntry();
+		private byte[] buffer;
+
+		private KeyBuffer(int initialCapacity) {
+			this.buffer = new byte[initialCapacity];
+		}
+
+		private byte[] ensureCapacity(int length) {
+			if (this.buffer.length < length) {
+				this.buffer = new byte[Math.max(length, this.buffer.length * 2)];
+			}
+			return this.buffer;
+		}
+
+		private DatabaseEntry wrap(int length) {
+			// always reset, the database may have replaced the data of the entry in a previous lookup
+			this.entry.setData(this.buffer, 0, length);
+			return this.entry;
+		}
+	}
+
+	/**
+	 * Gets the key of the given index in a per-thread buffer.
+	 */
+	public static DatabaseEntry indexKey(StoreIndex index) {
+		return indexKey((byte) index.getPrefix(), index.getIdentifier());
+	}
+
+	/**
+	 * Gets the key of the index with the given prefix and identifier in a per-thread buffer.
+	 */
+	public static DatabaseEntry indexKey(byte prefix, byte[] identifier) {
+		KeyBuffer keyBuffer = INDEX_KEY.get();
+		int length = 1 + identifier.length;
+		byte[] buffer = keyBuffer.ensureCapacity(length);
+		buffer[0] = prefix;
+		System.arraycopy(identifier, 0, buffer, 1, identifier.length);
+		return keyBuffer.wrap(length);
+	}
+
+	/**
+	 * Gets the status key of the given aid in a per-thread buffer.
+	 */
+	public static DatabaseEntry aidKey(AID aid) {
+		KeyBuffer keyBuffer = AID_KEY.get();
+		System.arraycopy(aid.getBytes(), 0, keyBuffer.buffer, 0, AID.BYTES);
+		return keyBuffer.wrap(AID.BYTES);
+	}
+
+	/**
+	 * Encodes the given indices in the binary layout.
+	 */
+	public static byte[] encodeIndices(LedgerEntryIndices indices) {
+		Set<StoreIndex> uniqueIndices = indices.getUniqueIndices();
+		Set<StoreIndex> duplicateIndices = indices.getDuplicateIndices();
+
+		int length = INDICES_HEADER_BYTES;
+		for (StoreIndex index : uniqueIndices) {
+			length += INDEX_HEADER_BYTES + index.getIdentifier().length;
+		}
+		for (StoreIndex index : duplicateIndices) {
+			length += INDEX_HEADER_BYTES + index.getIdentifier().length;
+		}
+
+		byte[] data = new byte[length];
+		data[0] = INDICES_FORMAT_BINARY;
+		Ints.copyTo(uniqueIndices.size(), data, 1);
+		Ints.copyTo(duplicateIndices.size(), data, 1 + Integer.BYTES);
+		int offset = INDICES_HEADER_BYTES;
+		for (StoreIndex index : uniqueIndices) {
+			offset = encodeIndex(index, data, offset);
+		}
+		for (StoreIndex index : duplicateIndices) {
+			offset = encodeIndex(index, data, offset);
+		}
+		return data;
+	}
+
+	private static int encodeIndex(StoreIndex index, byte[] data, int offset) {
+		byte[] identifier = index.getIdentifier();
+		data[offset] = (byte) index.getPrefix();
+		Ints.copyTo(identifier.length, data, offset + 1);
+		System.arraycopy(identifier, 0, data, offset + INDEX_HEADER_BYTES, identifier.length);
+		return offset + INDEX_HEADER_BYTES + identifier.length;
+	}
+
+	/**
+	 * Whether the given record was written in the binary layout rather than the legacy DSON format.
+	 */
+	public static boolean isBinaryIndices(byte[] data) {
+		return data.length >= INDICES_HEADER_BYTES && data[0] == INDICES_FORMAT_BINARY;
+	}
+
+	/**
+	 * Decodes indices in the binary layout.
+	 *
+	 * @throws IllegalArgumentException if the data is not in the binary layout or truncated
+	 */
+	public static LedgerEntryIndices decodeIndices(byte[] data) {
+		if (!isBinaryIndices(data)) {
+			throw new IllegalArgumentException("Not a binary indices record");
+		}
+
+		int uniqueCount = Ints.fromByteArray(data, 1);
+		int duplicateCount = Ints.fromByteArray(data, 1 + Integer.BYTES);
+		int[] offset = { INDICES_HEADER_BYTES };
+		ImmutableSet<StoreIndex> uniqueIndices = decodeIndices(data, offset, uniqueCount);
+		ImmutableSet<StoreIndex> duplicateIndices = decodeIndices(data, offset, duplicateCount);
+		if (offset[0] != data.length) {
+			throw new IllegalArgumentException("Unexpected trailing " + (data.length - offset[0]) + " bytes in indices record");
+		}
+		return LedgerEntryIndices.of(uniqueIndices, duplicateIndices);
+	}
+
+	private static ImmutableSet<StoreIndex> decodeIndices(byte[] data, int[] offset, int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Invalid index count " + count);
+		}
+		ImmutableSet.Builder<StoreIndex> indices = ImmutableSet.builderWithExpectedSize(count);
+		int position = offset[0];
+		for (int i = 0; i < count; i++) {
+			if (position + INDEX_HEADER_BYTES > data.length) {
+				throw new IllegalArgumentException("Truncated indices record");
+			}
+			byte prefix = data[position];
+			int identifierLength = Ints.fromByteArray(data, position + 1);
+			position += INDEX_HEADER_BYTES;
+			if (identifierLength < 0 || position + identifierLength > data.length) {
+				throw new IllegalArgumentException("Truncated indices record");
+			}
+			byte[] identifier = new byte[identifierLength];
+			System.arraycopy(data, position, identifier, 0, identifierLength);
+			position += identifierLength;
+			indices.add(new StoreIndex(prefix, identifier));
+		}
+		offset[0] = position;
+		return indices.build();
+	}
+}
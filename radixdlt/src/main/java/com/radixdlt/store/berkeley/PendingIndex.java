@@ -0,0 +1,97 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.berkeley;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.common.AID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory index of the pending {@link AID}s in a ledger and their logical clocks,
+ * mirroring the pending status records of the database.
+ * <p>
+ * Changes made within a database transaction are collected in {@link Changes} and only
+ * applied once the transaction committed, so the index never contains uncommitted state.
+ */
+final class PendingIndex {
+	private final Map<AID, Long> pendingLogicalClocks = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds a pending aid which is already durable, e.g. when loading the index.
+	 */
+	void load(AID aid, long logicalClock) {
+		this.pendingLogicalClocks.put(aid, logicalClock);
+	}
+
+	boolean isPending(AID aid) {
+		return this.pendingLogicalClocks.containsKey(aid);
+	}
+
+	ImmutableSet<AID> getPending() {
+		return ImmutableSet.copyOf(this.pendingLogicalClocks.keySet());
+	}
+
+	int size() {
+		return this.pendingLogicalClocks.size();
+	}
+
+	void clear() {
+		this.pendingLogicalClocks.clear();
+	}
+
+	/**
+	 * Starts collecting the changes of a new database transaction.
+	 */
+	Changes changes() {
+		return new Changes();
+	}
+
+	/**
+	 * The changes to the pending index made by a single database transaction.
+	 */
+	final class Changes {
+		private final List<AID> added = new ArrayList<>();
+		private final List<Long> addedLogicalClocks = new ArrayList<>();
+		private final List<AID> removed = new ArrayList<>();
+
+		private Changes() {
+		}
+
+		void added(AID aid, long logicalClock) {
+			this.added.add(aid);
+			this.addedLogicalClocks.add(logicalClock);
+		}
+
+		void removed(AID aid) {
+			this.removed.add(aid);
+		}
+
+		/**
+		 * Applies these changes to the index, to be called after the transaction committed.
+		 */
+		void apply() {
+			this.removed.forEach(pendingLogicalClocks::remove);
+			for (int i = 0; i < this.added.size(); i++) {
+				pendingLogicalClocks.put(this.added.get(i), this.addedLogicalClocks.get(i));
+			}
+		}
+	}
+}
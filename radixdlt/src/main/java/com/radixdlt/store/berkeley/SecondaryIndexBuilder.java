@@ -0,0 +1,316 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedBytes;
+import com.radixdlt.common.AID;
+import com.radixdlt.store.StoreIndex;
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Durability;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.LockMode;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
+import com.sleepycat.je.TransactionConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Builds the records of the unique and duplicate index databases from the stored ledger entry indices.
+ * <p>
+ * The indices are read in batches in primary key order.  The index records of a batch are decoded
+ * and sorted on several threads and then written in secondary key order, which keeps the inserts
+ * local to few btree nodes.  Uniqueness of the unique indices is verified as their records are
+ * written, a unique index which is already taken is reported as a conflict and not written.
+ * <p>
+ * The target databases are written to directly, they must not be associated with the ledger
+ * entries as secondary databases while they are built.
+ */
+final class SecondaryIndexBuilder {
+	/**
+	 * Listener to the progress of a build.
+	 */
+	interface ProgressListener {
+		void onProgress(long processed, long total);
+	}
+
+	/**
+	 * A unique index shared by two ledger entries.
+	 */
+	static final class UniqueConflict {
+		private final byte[] indexKey;
+		private final AID existing;
+		private final AID conflicting;
+
+		UniqueConflict(byte[] indexKey, AID existing, AID conflicting) {
+			this.indexKey = indexKey;
+			this.existing = existing;
+			this.conflicting = conflicting;
+		}
+
+		StoreIndex getIndex() {
+			return StoreIndex.from(this.indexKey);
+		}
+
+		AID getExisting() {
+			return this.existing;
+		}
+
+		AID getConflicting() {
+			return this.conflicting;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s[%s, %s, %s]", getClass().getSimpleName(), getIndex(), this.existing, this.conflicting);
+		}
+	}
+
+	/**
+	 * Outcome of a build.
+	 */
+	static final class Result {
+		private final long entries;
+		private final long uniqueRecords;
+		private final long duplicateRecords;
+		private final ImmutableList<UniqueConflict> conflicts;
+
+		private Result(long entries, long uniqueRecords, long duplicateRecords, ImmutableList<UniqueConflict> conflicts) {
+			this.entries = entries;
+			this.uniqueRecords = uniqueRecords;
+			this.duplicateRecords = duplicateRecords;
+			this.conflicts = conflicts;
+		}
+
+		long getEntries() {
+			return this.entries;
+		}
+
+		long getUniqueRecords() {
+			return this.uniqueRecords;
+		}
+
+		long getDuplicateRecords() {
+			return this.duplicateRecords;
+		}
+
+		ImmutableList<UniqueConflict> getConflicts() {
+			return this.conflicts;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s[entries=%s, unique=%s, duplicate=%s, conflicts=%s]",
+				getClass().getSimpleName(), this.entries, this.uniqueRecords, this.duplicateRecords, this.conflicts.size());
+		}
+	}
+
+	private static final Comparator<byte[]> BYTES_ORDER = UnsignedBytes.lexicographicalComparator();
+	private static final Comparator<IndexRecord> RECORD_ORDER = (r1, r2) -> {
+		int compare = BYTES_ORDER.compare(r1.key, r2.key);
+		return compare != 0 ? compare : BYTES_ORDER.compare(r1.pKey, r2.pKey);
+	};
+
+	private final Environment environment;
+	private final Database atomIndices;
+	private final Function<byte[], LedgerEntryIndices> indicesDecoder;
+	private final int threads;
+	private final int batchSize;
+	private final ProgressListener progressListener;
+	private final TransactionConfig transactionConfig = new TransactionConfig().setDurability(Durability.COMMIT_NO_SYNC);
+
+	SecondaryIndexBuilder(
+		Environment environment,
+		Database atomIndices,
+		Function<byte[], LedgerEntryIndices> indicesDecoder,
+		int threads,
+		int batchSize,
+		ProgressListener progressListener
+	) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("threads must be positive: " + threads);
+		}
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+		}
+		this.environment = Objects.requireNonNull(environment);
+		this.atomIndices = Objects.requireNonNull(atomIndices);
+		this.indicesDecoder = Objects.requireNonNull(indicesDecoder);
+		this.threads = threads;
+		this.batchSize = batchSize;
+		this.progressListener = Objects.requireNonNull(progressListener);
+	}
+
+	/**
+	 * Builds the index records of all stored ledger entries into the given, empty databases.
+	 * No ledger entries may be written while the build is running.
+	 *
+	 * @param uniqueTarget The database to write the unique index records to
+	 * @param duplicateTarget The database to write the duplicate index records to
+	 * @return The outcome of the build
+	 */
+	Result build(Database uniqueTarget, Database duplicateTarget) {
+		long total = this.atomIndices.count();
+		long processed = 0L;
+		long uniqueRecords = 0L;
+		long duplicateRecords = 0L;
+		List<UniqueConflict> conflicts = new ArrayList<>();
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+			Thread thread = new Thread(runnable, "Ledger index build");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try (Cursor cursor = this.atomIndices.openCursor(null, null)) {
+			List<byte[][]> batch = new ArrayList<>(this.batchSize);
+			DatabaseEntry pKey = new DatabaseEntry();
+			DatabaseEntry data = new DatabaseEntry();
+			OperationStatus status = cursor.getFirst(pKey, data, LockMode.READ_UNCOMMITTED);
+			while (status == OperationStatus.SUCCESS || !batch.isEmpty()) {
+				if (status == OperationStatus.SUCCESS) {
+					batch.add(new byte[][] { pKey.getData(), data.getData() });
+					status = cursor.getNext(pKey, data, LockMode.READ_UNCOMMITTED);
+				}
+				if (batch.size() >= this.batchSize || (status != OperationStatus.SUCCESS && !batch.isEmpty())) {
+					SortedRecords records = decodeAndSort(batch, executor);
+					Future<List<UniqueConflict>> uniqueWrite = executor.submit(() -> writeUnique(uniqueTarget, records.unique));
+					Future<?> duplicateWrite = executor.submit(() -> writeDuplicates(duplicateTarget, records.duplicate));
+					conflicts.addAll(uniqueWrite.get());
+					duplicateWrite.get();
+
+					processed += batch.size();
+					uniqueRecords += records.unique.size();
+					duplicateRecords += records.duplicate.size();
+					batch.clear();
+					this.progressListener.onProgress(processed, total);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while building secondary indices", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Error while building secondary indices", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return new Result(processed, uniqueRecords - conflicts.size(), duplicateRecords, ImmutableList.copyOf(conflicts));
+	}
+
+	/**
+	 * Decodes the index records of a batch in slices on the executor and merges the sorted slices.
+	 */
+	private SortedRecords decodeAndSort(List<byte[][]> batch, ExecutorService executor) throws InterruptedException, ExecutionException {
+		int sliceSize = (batch.size() + this.threads - 1) / this.threads;
+		List<Future<SortedRecords>> slices = new ArrayList<>(this.threads);
+		for (int from = 0; from < batch.size(); from += sliceSize) {
+			List<byte[][]> slice = batch.subList(from, Math.min(from + sliceSize, batch.size()));
+			slices.add(executor.submit(() -> decodeSlice(slice)));
+		}
+
+		SortedRecords merged = new SortedRecords();
+		for (Future<SortedRecords> slice : slices) {
+			SortedRecords records = slice.get();
+			merged.unique.addAll(records.unique);
+			merged.duplicate.addAll(records.duplicate);
+		}
+		// the merged lists consist of sorted runs, which the merge sort of List.sort merges in linear time
+		merged.unique.sort(RECORD_ORDER);
+		merged.duplicate.sort(RECORD_ORDER);
+		return merged;
+	}
+
+	private SortedRecords decodeSlice(List<byte[][]> slice) {
+		SortedRecords records = new SortedRecords();
+		for (byte[][] entry : slice) {
+			byte[] pKey = entry[0];
+			LedgerEntryIndices indices = this.indicesDecoder.apply(entry[1]);
+			for (StoreIndex index : indices.getUniqueIndices()) {
+				records.unique.add(new IndexRecord(index.asKey(), pKey));
+			}
+			for (StoreIndex index : indices.getDuplicateIndices()) {
+				records.duplicate.add(new IndexRecord(index.asKey(), pKey));
+			}
+		}
+		records.unique.sort(RECORD_ORDER);
+		records.duplicate.sort(RECORD_ORDER);
+		return records;
+	}
+
+	private List<UniqueConflict> writeUnique(Database target, List<IndexRecord> records) {
+		List<UniqueConflict> conflicts = new ArrayList<>();
+		Transaction transaction = this.environment.beginTransaction(null, this.transactionConfig);
+		try {
+			DatabaseEntry existing = new DatabaseEntry();
+			for (IndexRecord record : records) {
+				DatabaseEntry key = new DatabaseEntry(record.key);
+				if (target.putNoOverwrite(transaction, key, new DatabaseEntry(record.pKey)) == OperationStatus.KEYEXIST) {
+					target.get(transaction, key, existing, LockMode.DEFAULT);
+					conflicts.add(new UniqueConflict(record.key, toAid(existing.getData()), toAid(record.pKey)));
+				}
+			}
+			transaction.commit();
+		} finally {
+			// no-op if already committed
+			transaction.abort();
+		}
+		return conflicts;
+	}
+
+	private void writeDuplicates(Database target, List<IndexRecord> records) {
+		Transaction transaction = this.environment.beginTransaction(null, this.transactionConfig);
+		try {
+			for (IndexRecord record : records) {
+				target.put(transaction, new DatabaseEntry(record.key), new DatabaseEntry(record.pKey));
+			}
+			transaction.commit();
+		} finally {
+			// no-op if already committed
+			transaction.abort();
+		}
+	}
+
+	private static AID toAid(byte[] pKey) {
+		return AID.from(pKey, Long.BYTES);
+	}
+
+	private static final class IndexRecord {
+		private final byte[] key;
+		private final byte[] pKey;
+
+		private IndexRecord(byte[] key, byte[] pKey) {
+			this.key = key;
+			this.pKey = pKey;
+		}
+	}
+
+	private static final class SortedRecords {
+		private final List<IndexRecord> unique = new ArrayList<>();
+		private final List<IndexRecord> duplicate = new ArrayList<>();
+	}
+}
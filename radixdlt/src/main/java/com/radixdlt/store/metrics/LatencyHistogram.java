@@ -0,0 +1,144 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, such as latencies in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets in the style of HdrHistogram: every power of two is
+ * split into {@value #SUB_BUCKETS} equally sized buckets, so that reported percentiles are within
+ * 12.5% of the recorded values at every magnitude while the histogram stays a fixed size.
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// values below SUB_BUCKETS are counted exactly, every further power of two has SUB_BUCKETS buckets
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a value, negative values are recorded as 0.
+	 *
+	 * @param value The value to record
+	 */
+	public void record(long value) {
+		long recorded = Math.max(0L, value);
+		this.counts.incrementAndGet(bucketOf(recorded));
+		this.count.increment();
+		this.sum.add(recorded);
+		if (recorded > this.max.get()) {
+			this.max.accumulateAndGet(recorded, Math::max);
+		}
+	}
+
+	/**
+	 * Takes a snapshot of this histogram.  Values recorded concurrently may or may not be included.
+	 */
+	public Snapshot snapshot() {
+		long[] snapshotCounts = new long[BUCKETS];
+		long total = 0L;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshotCounts[i] = this.counts.get(i);
+			total += snapshotCounts[i];
+		}
+		return new Snapshot(snapshotCounts, total, this.sum.sum(), this.max.get());
+	}
+
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * The highest value counted in the given bucket.
+	 */
+	static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int subBucket = bucket % SUB_BUCKETS;
+		long lowest = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+		return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * An immutable copy of the counts of a histogram.
+	 */
+	public static final class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+		public long getMax() {
+			return this.max;
+		}
+
+		public double getMean() {
+			return this.count == 0 ? 0.0 : (double) this.sum / this.count;
+		}
+
+		/**
+		 * Gets the value at the given percentile, as the highest value of the bucket the percentile falls into.
+		 *
+		 * @param percentile The percentile, between 0 and 100
+		 * @return The value at the given percentile, or 0 if nothing was recorded
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (percentile < 0.0 || percentile > 100.0) {
+				throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+			}
+			if (this.count == 0) {
+				return 0L;
+			}
+			long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * this.count));
+			long seen = 0L;
+			for (int i = 0; i < this.counts.length; i++) {
+				seen += this.counts[i];
+				if (seen >= rank) {
+					return Math.min(highestValueOf(i), this.max);
+				}
+			}
+			return this.max;
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.metrics;
+
+import com.radixdlt.common.AID;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
+import com.radixdlt.store.IndexedLedgerEntry;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryStatus;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.LedgerEntryStoreResult;
+import com.radixdlt.store.LedgerSearchMode;
+import com.radixdlt.store.SearchCursor;
+import com.radixdlt.store.SearchScan;
+import com.radixdlt.store.StoreIndex;
+import com.radixdlt.store.metrics.StoreMetrics.Operation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link LedgerEntryStore} which records the latency, payload bytes and failures of every
+ * operation of the store it decorates in {@link StoreMetrics}.
+ */
+public final class MeteredLedgerEntryStore implements LedgerEntryStore {
+	private final LedgerEntryStore delegate;
+	private final StoreMetrics metrics;
+
+	public MeteredLedgerEntryStore(LedgerEntryStore delegate, StoreMetrics metrics) {
+		this.delegate = Objects.requireNonNull(delegate, "delegate is required");
+		this.metrics = Objects.requireNonNull(metrics, "metrics is required");
+	}
+
+	public LedgerEntryStore getDelegate() {
+		return this.delegate;
+	}
+
+	@Override
+	public boolean contains(AID aid) {
+		return measure(Operation.CONTAINS, () -> delegate.contains(aid), result -> 0L, 0L);
+	}
+
+	@Override
+	public LedgerEntryStatus getStatus(AID aid) {
+		return measure(Operation.GET_STATUS, () -> delegate.getStatus(aid), result -> 0L, 0L);
+	}
+
+	@Override
+	public Set<AID> getPending() {
+		return measure(Operation.GET_PENDING, delegate::getPending, result -> (long) result.size() * AID.BYTES, 0L);
+	}
+
+	@Override
+	public Optional<LedgerEntry> get(AID aid) {
+		return measure(Operation.GET, () -> delegate.get(aid), result -> result.map(entry -> (long) entry.getContent().length).orElse(0L), 0L);
+	}
+
+	@Override
+	public Set<StoreIndex> getUniqueIndices(AID aid) {
+		return measure(Operation.GET_UNIQUE_INDICES, () -> delegate.getUniqueIndices(aid), result -> 0L, 0L);
+	}
+
+	@Override
+	public SearchCursor search(StoreIndex.LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		return measure(Operation.SEARCH, () -> delegate.search(type, index, mode), result -> 0L, 0L);
+	}
+
+	@Override
+	public SearchScan scan(StoreIndex.LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		return measure(Operation.SCAN, () -> delegate.scan(type, index, mode), result -> 0L, 0L);
+	}
+
+	@Override
+	public boolean contains(StoreIndex.LedgerIndexType type, StoreIndex index, LedgerSearchMode mode) {
+		return measure(Operation.CONTAINS_INDEX, () -> delegate.contains(type, index, mode), result -> 0L, 0L);
+	}
+
+	@Override
+	public CommittedAidsPage getNextCommitted(ContinuationToken continuation, int limit) {
+		return measure(
+			Operation.GET_NEXT_COMMITTED,
+			() -> delegate.getNextCommitted(continuation, limit),
+			result -> (long) result.getAids().size() * AID.BYTES,
+			0L
+		);
+	}
+
+	@Override
+	public CommittedAidsPage getNextByIndex(StoreIndex index, ContinuationToken continuation, int limit) {
+		return measure(
+			Operation.GET_NEXT_BY_INDEX,
+			() -> delegate.getNextByIndex(index, continuation, limit),
+			result -> (long) result.getAids().size() * AID.BYTES,
+			0L
+		);
+	}
+
+	@Override
+	public void commit(AID aid) {
+		measure(Operation.COMMIT, () -> {
+			delegate.commit(aid);
+			return null;
+		}, result -> 0L, 0L);
+	}
+
+	@Override
+	public void commitAll(List<AID> aids) {
+		measure(Operation.COMMIT_ALL, () -> {
+			delegate.commitAll(aids);
+			return null;
+		}, result -> 0L, 0L);
+	}
+
+	@Override
+	public LedgerEntryStoreResult store(LedgerEntry ledgerEntry, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
+		return measure(
+			Operation.STORE,
+			() -> delegate.store(ledgerEntry, uniqueIndices, duplicateIndices),
+			result -> 0L,
+			ledgerEntry.getContent().length
+		);
+	}
+
+	@Override
+	public List<LedgerEntryStoreResult> storeAll(List<IndexedLedgerEntry> ledgerEntries) {
+		long bytesWritten = 0L;
+		for (IndexedLedgerEntry indexedLedgerEntry : ledgerEntries) {
+			bytesWritten += indexedLedgerEntry.getLedgerEntry().getContent().length;
+		}
+		return measure(Operation.STORE_ALL, () -> delegate.storeAll(ledgerEntries), result -> 0L, bytesWritten);
+	}
+
+	@Override
+	public LedgerEntryStoreResult replace(Set<AID> aids, LedgerEntry ledgerEntry, Set<StoreIndex> uniqueIndices, Set<StoreIndex> duplicateIndices) {
+		return measure(
+			Operation.REPLACE,
+			() -> delegate.replace(aids, ledgerEntry, uniqueIndices, duplicateIndices),
+			result -> 0L,
+			ledgerEntry.getContent().length
+		);
+	}
+
+	@Override
+	public void reset() {
+		delegate.reset();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	private <T> T measure(Operation operation, Supplier<T> action, ToLongFunction<? super T> bytesRead, long bytesWritten) {
+		long start = System.nanoTime();
+		T result = null;
+		boolean failed = true;
+		try {
+			result = action.get();
+			failed = false;
+			return result;
+		} finally {
+			long latency = System.nanoTime() - start;
+			this.metrics.record(operation, latency, failed ? 0L : bytesRead.applyAsLong(result), bytesWritten, failed);
+		}
+	}
+}
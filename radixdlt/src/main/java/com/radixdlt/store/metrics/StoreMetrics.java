@@ -0,0 +1,200 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import org.radix.utils.SystemMetaData;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency distributions, bytes read and written and failures of the operations of a ledger store.
+ * A summary is published to {@link SystemMetaData} at most once per {@link #PUBLISH_INTERVAL_MILLIS}.
+ */
+public final class StoreMetrics {
+	static final long PUBLISH_INTERVAL_MILLIS = 1000L;
+
+	/**
+	 * The measured operations of a {@link com.radixdlt.store.LedgerEntryStore}.
+	 */
+	public enum Operation {
+		CONTAINS,
+		GET_STATUS,
+		GET_PENDING,
+		GET,
+		GET_UNIQUE_INDICES,
+		SEARCH,
+		SCAN,
+		CONTAINS_INDEX,
+		GET_NEXT_COMMITTED,
+		GET_NEXT_BY_INDEX,
+		COMMIT,
+		COMMIT_ALL,
+		STORE,
+		STORE_ALL,
+		REPLACE;
+
+		String metricName() {
+			return "ledger.store." + name().toLowerCase();
+		}
+	}
+
+	private final Map<Operation, OperationMetrics> operations = new EnumMap<>(Operation.class);
+	private final LongSupplier lockWaits;
+	private final long publishIntervalNanos = TimeUnit.MILLISECONDS.toNanos(PUBLISH_INTERVAL_MILLIS);
+	private final AtomicLong lastPublishNanos = new AtomicLong(System.nanoTime());
+
+	/**
+	 * Creates metrics for a store without a source of lock waits.
+	 */
+	public StoreMetrics() {
+		this(() -> 0L);
+	}
+
+	/**
+	 * Creates metrics for a store.
+	 *
+	 * @param lockWaits The number of times a lock of the underlying database was waited for since it was opened
+	 */
+	public StoreMetrics(LongSupplier lockWaits) {
+		this.lockWaits = Objects.requireNonNull(lockWaits);
+		for (Operation operation : Operation.values()) {
+			this.operations.put(operation, new OperationMetrics());
+		}
+	}
+
+	/**
+	 * Records a completed operation.
+	 *
+	 * @param operation The operation
+	 * @param latencyNanos The time the operation took
+	 * @param bytesRead The payload bytes the operation returned
+	 * @param bytesWritten The payload bytes the operation wrote
+	 * @param failed Whether the operation failed with an exception
+	 */
+	public void record(Operation operation, long latencyNanos, long bytesRead, long bytesWritten, boolean failed) {
+		OperationMetrics metrics = this.operations.get(operation);
+		metrics.latency.record(latencyNanos);
+		if (bytesRead > 0) {
+			metrics.bytesRead.add(bytesRead);
+		}
+		if (bytesWritten > 0) {
+			metrics.bytesWritten.add(bytesWritten);
+		}
+		if (failed) {
+			metrics.failures.increment();
+		}
+
+		long now = System.nanoTime();
+		long lastPublish = this.lastPublishNanos.get();
+		if (now - lastPublish >= this.publishIntervalNanos && this.lastPublishNanos.compareAndSet(lastPublish, now)) {
+			publish();
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the metrics of every operation.
+	 */
+	public ImmutableMap<Operation, OperationSnapshot> snapshot() {
+		ImmutableMap.Builder<Operation, OperationSnapshot> snapshots = ImmutableMap.builder();
+		this.operations.forEach((operation, metrics) -> snapshots.put(operation, metrics.snapshot()));
+		return snapshots.build();
+	}
+
+	public long getLockWaits() {
+		return this.lockWaits.getAsLong();
+	}
+
+	/**
+	 * Publishes a summary of the metrics of every operation which was executed at least once.
+	 */
+	public void publish() {
+		ImmutableMap<Operation, OperationSnapshot> snapshots = snapshot();
+		long waits = getLockWaits();
+		SystemMetaData.ifPresent(a -> {
+			snapshots.forEach((operation, snapshot) -> {
+				LatencyHistogram.Snapshot latency = snapshot.getLatency();
+				if (latency.getCount() == 0) {
+					return;
+				}
+				String name = operation.metricName();
+				a.put(name + ".count", latency.getCount());
+				a.put(name + ".latency.p50_us", TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(50.0)));
+				a.put(name + ".latency.p99_us", TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(99.0)));
+				a.put(name + ".latency.max_us", TimeUnit.NANOSECONDS.toMicros(latency.getMax()));
+				a.put(name + ".bytes_read", snapshot.getBytesRead());
+				a.put(name + ".bytes_written", snapshot.getBytesWritten());
+				a.put(name + ".failures", snapshot.getFailures());
+			});
+			a.put("ledger.store.lock_waits", waits);
+		});
+	}
+
+	private static final class OperationMetrics {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder bytesRead = new LongAdder();
+		private final LongAdder bytesWritten = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+
+		private OperationSnapshot snapshot() {
+			return new OperationSnapshot(this.latency.snapshot(), this.bytesRead.sum(), this.bytesWritten.sum(), this.failures.sum());
+		}
+	}
+
+	/**
+	 * The metrics of a single operation at some point in time.
+	 */
+	public static final class OperationSnapshot {
+		private final LatencyHistogram.Snapshot latency;
+		private final long bytesRead;
+		private final long bytesWritten;
+		private final long failures;
+
+		private OperationSnapshot(LatencyHistogram.Snapshot latency, long bytesRead, long bytesWritten, long failures) {
+			this.latency = latency;
+			this.bytesRead = bytesRead;
+			this.bytesWritten = bytesWritten;
+			this.failures = failures;
+		}
+
+		/**
+		 * The latencies of the operation in nanoseconds.
+		 */
+		public LatencyHistogram.Snapshot getLatency() {
+			return this.latency;
+		}
+
+		public long getBytesRead() {
+			return this.bytesRead;
+		}
+
+		public long getBytesWritten() {
+			return this.bytesWritten;
+		}
+
+		public long getFailures() {
+			return this.failures;
+		}
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.snapshot;
+
+import com.radixdlt.common.AID;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A snapshot of the committed ledger, stored in a directory as a manifest and a number of
+ * compressed, checksummed chunks.
+ * <p>
+ * Every chunk is an independently deflated sequence of entries in ascending logical clock order:
+ * <pre>
+ *   [logical clock:8][aid:32][ledger entry length:4][ledger entry][indices length:4][indices]
+ * </pre>
+ * Chunks are kept small enough to be sent to peers in a single message.
+ */
+public final class LedgerSnapshot {
+	static final int ENTRY_HEADER_BYTES = Long.BYTES + AID.BYTES + Integer.BYTES + Integer.BYTES;
+
+	private static final String MANIFEST_FILE_NAME = "manifest";
+	private static final String CHUNK_FILE_FORMAT = "chunk-%08d.bin";
+
+	private final File directory;
+	private final SnapshotManifest manifest;
+
+	LedgerSnapshot(File directory, SnapshotManifest manifest) {
+		this.directory = Objects.requireNonNull(directory, "directory is required");
+		this.manifest = Objects.requireNonNull(manifest, "manifest is required");
+	}
+
+	/**
+	 * Opens the complete snapshot in the given directory.
+	 *
+	 * @param directory The directory of the snapshot
+	 * @param serialization The serialization to read the manifest with
+	 * @return The snapshot
+	 * @throws IOException if there is no complete snapshot in the directory or its manifest is invalid
+	 */
+	public static LedgerSnapshot open(File directory, Serialization serialization) throws IOException {
+		File manifestFile = manifestFile(directory);
+		if (!manifestFile.isFile()) {
+			throw new IOException("No snapshot manifest in " + directory);
+		}
+		SnapshotManifest manifest = serialization.fromDson(Files.readAllBytes(manifestFile.toPath()), SnapshotManifest.class);
+		if (!manifest.isConsistent()) {
+			throw new IOException("Inconsistent snapshot manifest in " + directory + ": " + manifest);
+		}
+		return new LedgerSnapshot(directory, manifest);
+	}
+
+	/**
+	 * Checks whether the given directory contains a complete snapshot.
+	 *
+	 * @param directory The directory to check
+	 * @return Whether there is a snapshot manifest in the directory
+	 */
+	public static boolean exists(File directory) {
+		return manifestFile(directory).isFile();
+	}
+
+	/**
+	 * Stores a chunk received for the given manifest, see {@link #complete(File, SnapshotManifest, Serialization)}.
+	 *
+	 * @param directory The directory of the snapshot under construction
+	 * @param chunkInfo The description of the chunk
+	 * @param chunk The compressed chunk
+	 * @throws IOException if the chunk does not match its description or cannot be written
+	 */
+	public static void writeChunk(File directory, SnapshotChunkInfo chunkInfo, byte[] chunk) throws IOException {
+		if (!chunkInfo.verify(chunk)) {
+			throw new IOException("Chunk " + chunkInfo.getIndex() + " does not match " + chunkInfo);
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create snapshot directory " + directory);
+		}
+		writeAtomically(chunkFile(directory, chunkInfo.getIndex()), chunk);
+	}
+
+	/**
+	 * Completes a snapshot which was assembled chunk by chunk by writing its manifest.
+	 *
+	 * @param directory The directory of the snapshot under construction
+	 * @param manifest The manifest of the snapshot
+	 * @param serialization The serialization to write the manifest with
+	 * @return The completed snapshot
+	 * @throws IOException if a chunk is missing or the manifest cannot be written
+	 */
+	public static LedgerSnapshot complete(File directory, SnapshotManifest manifest, Serialization serialization) throws IOException {
+		for (SnapshotChunkInfo chunkInfo : manifest.getChunks()) {
+			File chunkFile = chunkFile(directory, chunkInfo.getIndex());
+			if (!chunkFile.isFile() || chunkFile.length() != chunkInfo.getSize()) {
+				throw new IOException("Chunk " + chunkInfo.getIndex() + " of snapshot in " + directory + " is missing");
+			}
+		}
+		writeAtomically(manifestFile(directory), serialization.toDson(manifest, Output.PERSIST));
+		return new LedgerSnapshot(directory, manifest);
+	}
+
+	public File getDirectory() {
+		return this.directory;
+	}
+
+	public SnapshotManifest getManifest() {
+		return this.manifest;
+	}
+
+	/**
+	 * Reads and verifies a compressed chunk of this snapshot.
+	 *
+	 * @param index The index of the chunk
+	 * @return The compressed chunk
+	 * @throws IOException if the chunk cannot be read or does not match the manifest
+	 */
+	public byte[] readChunk(int index) throws IOException {
+		if (index < 0 || index >= this.manifest.getChunks().size()) {
+			throw new IllegalArgumentException("No chunk " + index + " in " + this.manifest);
+		}
+		SnapshotChunkInfo chunkInfo = this.manifest.getChunks().get(index);
+		byte[] chunk = Files.readAllBytes(chunkFile(this.directory, index).toPath());
+		if (!chunkInfo.verify(chunk)) {
+			throw new IOException("Chunk " + index + " of snapshot in " + this.directory + " is corrupt");
+		}
+		return chunk;
+	}
+
+	/**
+	 * Visitor of the entries of a snapshot.
+	 */
+	@FunctionalInterface
+	public interface EntryVisitor {
+		void visit(SnapshotEntry entry) throws IOException;
+	}
+
+	/**
+	 * Reads, verifies and decodes every chunk of this snapshot in order.
+	 *
+	 * @param visitor The visitor to pass every entry to
+	 * @throws IOException if a chunk cannot be read, is corrupt or the visitor fails
+	 */
+	public void forEach(EntryVisitor visitor) throws IOException {
+		for (SnapshotChunkInfo chunkInfo : this.manifest.getChunks()) {
+			decodeChunk(readChunk(chunkInfo.getIndex()), chunkInfo.getEntries(), visitor);
+		}
+	}
+
+	static void decodeChunk(byte[] chunk, int entries, EntryVisitor visitor) throws IOException {
+		try (DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(chunk)))) {
+			byte[] aidBytes = new byte[AID.BYTES];
+			for (int i = 0; i < entries; i++) {
+				long logicalClock = input.readLong();
+				input.readFully(aidBytes);
+				byte[] ledgerEntryData = readSizedBytes(input);
+				byte[] indicesData = readSizedBytes(input);
+				visitor.visit(new SnapshotEntry(logicalClock, AID.from(aidBytes), ledgerEntryData, indicesData));
+			}
+			if (input.read() != -1) {
+				throw new IOException("Unexpected trailing data in snapshot chunk");
+			}
+		} catch (EOFException e) {
+			throw new IOException("Truncated snapshot chunk", e);
+		}
+	}
+
+	private static byte[] readSizedBytes(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0) {
+			throw new IOException("Invalid length " + length + " in snapshot chunk");
+		}
+		byte[] data = new byte[length];
+		input.readFully(data);
+		return data;
+	}
+
+	static File manifestFile(File directory) {
+		return new File(directory, MANIFEST_FILE_NAME);
+	}
+
+	static File chunkFile(File directory, int index) {
+		return new File(directory, String.format(CHUNK_FILE_FORMAT, index));
+	}
+
+	static void writeAtomically(File file, byte[] data) throws IOException {
+		File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+		try (FileOutputStream output = new FileOutputStream(temporary)) {
+			output.write(data);
+			output.getFD().sync();
+		}
+		Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s, %s]", getClass().getSimpleName(), this.directory, this.manifest);
+	}
+}
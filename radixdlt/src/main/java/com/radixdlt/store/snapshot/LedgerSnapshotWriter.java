@@ -0,0 +1,140 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.snapshot;
+
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a {@link LedgerSnapshot} into a directory, one compressed chunk at a time.
+ * The manifest is written last, so that an incomplete snapshot is never mistaken for a complete one.
+ */
+public final class LedgerSnapshotWriter {
+	private final File directory;
+	private final Serialization serialization;
+	private final int chunkMaxBytes;
+
+	private final List<SnapshotChunkInfo> chunks = new ArrayList<>();
+	private long lastLogicalClock = 0L;
+
+	private ByteArrayOutputStream chunkBytes;
+	private Deflater deflater;
+	private DataOutputStream chunkOutput;
+	private int chunkEntries;
+	private int chunkUncompressedBytes;
+
+	/**
+	 * Creates a writer for a new snapshot in the given directory.
+	 *
+	 * @param directory The directory to write to, which must not already contain a snapshot
+	 * @param serialization The serialization to write the manifest with
+	 * @param chunkMaxBytes The uncompressed size after which a chunk is completed
+	 * @throws IOException if the directory cannot be created or already contains a snapshot
+	 */
+	public LedgerSnapshotWriter(File directory, Serialization serialization, int chunkMaxBytes) throws IOException {
+		if (chunkMaxBytes <= 0) {
+			throw new IllegalArgumentException("chunkMaxBytes must be positive: " + chunkMaxBytes);
+		}
+		this.directory = Objects.requireNonNull(directory, "directory is required");
+		this.serialization = Objects.requireNonNull(serialization, "serialization is required");
+		this.chunkMaxBytes = chunkMaxBytes;
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create snapshot directory " + directory);
+		}
+		if (LedgerSnapshot.manifestFile(directory).exists()) {
+			throw new IOException("Snapshot directory " + directory + " already contains a snapshot");
+		}
+	}
+
+	/**
+	 * Adds an entry to the snapshot.  Entries are expected in ascending logical clock order.
+	 *
+	 * @param entry The entry to add
+	 * @throws IOException if the current chunk cannot be written
+	 */
+	public void add(SnapshotEntry entry) throws IOException {
+		if (this.chunkOutput == null) {
+			this.chunkBytes = new ByteArrayOutputStream(this.chunkMaxBytes / 2);
+			this.deflater = new Deflater(Deflater.BEST_SPEED);
+			this.chunkOutput = new DataOutputStream(new DeflaterOutputStream(this.chunkBytes, this.deflater));
+			this.chunkEntries = 0;
+			this.chunkUncompressedBytes = 0;
+		}
+
+		byte[] ledgerEntryData = entry.getLedgerEntryData();
+		byte[] indicesData = entry.getIndicesData();
+		this.chunkOutput.writeLong(entry.getLogicalClock());
+		this.chunkOutput.write(entry.getAID().getBytes());
+		this.chunkOutput.writeInt(ledgerEntryData.length);
+		this.chunkOutput.write(ledgerEntryData);
+		this.chunkOutput.writeInt(indicesData.length);
+		this.chunkOutput.write(indicesData);
+
+		this.chunkEntries += 1;
+		this.chunkUncompressedBytes += LedgerSnapshot.ENTRY_HEADER_BYTES + ledgerEntryData.length + indicesData.length;
+		this.lastLogicalClock = Math.max(this.lastLogicalClock, entry.getLogicalClock());
+
+		if (this.chunkUncompressedBytes >= this.chunkMaxBytes) {
+			completeChunk();
+		}
+	}
+
+	private void completeChunk() throws IOException {
+		if (this.chunkOutput == null) {
+			return;
+		}
+
+		try {
+			this.chunkOutput.close();
+		} finally {
+			this.deflater.end();
+		}
+		byte[] chunk = this.chunkBytes.toByteArray();
+		SnapshotChunkInfo chunkInfo = SnapshotChunkInfo.of(this.chunks.size(), this.chunkEntries, chunk);
+		LedgerSnapshot.writeAtomically(LedgerSnapshot.chunkFile(this.directory, chunkInfo.getIndex()), chunk);
+		this.chunks.add(chunkInfo);
+
+		this.chunkOutput = null;
+		this.chunkBytes = null;
+		this.deflater = null;
+	}
+
+	/**
+	 * Completes the last chunk and writes the manifest.
+	 *
+	 * @return The completed snapshot
+	 * @throws IOException if the last chunk or manifest cannot be written
+	 */
+	public LedgerSnapshot finish() throws IOException {
+		completeChunk();
+		SnapshotManifest manifest = new SnapshotManifest(this.lastLogicalClock, this.chunks);
+		LedgerSnapshot.writeAtomically(LedgerSnapshot.manifestFile(this.directory), this.serialization.toDson(manifest, Output.PERSIST));
+		return new LedgerSnapshot(this.directory, manifest);
+	}
+}
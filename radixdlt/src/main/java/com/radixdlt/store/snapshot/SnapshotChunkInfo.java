@@ -0,0 +1,143 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.SerializerConstants;
+import com.radixdlt.serialization.SerializerDummy;
+import com.radixdlt.serialization.SerializerId2;
+import com.radixdlt.utils.Bytes;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Description of a single chunk of a {@link LedgerSnapshot}.
+ */
+@SerializerId2("ledger.snapshot.chunk")
+public final class SnapshotChunkInfo {
+	// Placeholder for the serializer ID
+	@JsonProperty(SerializerConstants.SERIALIZER_NAME)
+	@DsonOutput(DsonOutput.Output.ALL)
+	private SerializerDummy serializer = SerializerDummy.DUMMY;
+
+	@JsonProperty("index")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private int index;
+
+	@JsonProperty("entries")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private int entries;
+
+	@JsonProperty("size")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private int size;
+
+	@JsonProperty("hash")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private byte[] hash;
+
+	SnapshotChunkInfo() {
+		// For serializer
+		this.hash = Bytes.EMPTY_BYTES;
+	}
+
+	SnapshotChunkInfo(int index, int entries, int size, byte[] hash) {
+		this.index = index;
+		this.entries = entries;
+		this.size = size;
+		this.hash = Objects.requireNonNull(hash, "hash is required");
+	}
+
+	static SnapshotChunkInfo of(int index, int entries, byte[] chunk) {
+		return new SnapshotChunkInfo(index, entries, chunk.length, sha256(chunk));
+	}
+
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * @return The number of ledger entries in this chunk
+	 */
+	public int getEntries() {
+		return this.entries;
+	}
+
+	/**
+	 * @return The size of the compressed chunk in bytes
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * @return The SHA-256 hash of the compressed chunk
+	 */
+	public byte[] getHash() {
+		return this.hash.clone();
+	}
+
+	/**
+	 * Checks whether the given compressed chunk matches this description.
+	 *
+	 * @param chunk The compressed chunk
+	 * @return Whether size and hash of the chunk match
+	 */
+	public boolean verify(byte[] chunk) {
+		return chunk != null && chunk.length == this.size && MessageDigest.isEqual(sha256(chunk), this.hash);
+	}
+
+	static byte[] sha256(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		SnapshotChunkInfo that = (SnapshotChunkInfo) o;
+		return this.index == that.index
+			&& this.entries == that.entries
+			&& this.size == that.size
+			&& Arrays.equals(this.hash, that.hash);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Objects.hash(this.index, this.entries, this.size) + Arrays.hashCode(this.hash);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[index=%d, entries=%d, size=%d, hash=%s]",
+			getClass().getSimpleName(), this.index, this.entries, this.size, Hex.toHexString(this.hash));
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.snapshot;
+
+import com.radixdlt.common.AID;
+
+import java.util.Objects;
+
+/**
+ * A single ledger entry of a {@link LedgerSnapshot}, in its stored form.
+ */
+public final class SnapshotEntry {
+	private final long logicalClock;
+	private final AID aid;
+	private final byte[] ledgerEntryData;
+	private final byte[] indicesData;
+
+	public SnapshotEntry(long logicalClock, AID aid, byte[] ledgerEntryData, byte[] indicesData) {
+		this.logicalClock = logicalClock;
+		this.aid = Objects.requireNonNull(aid, "aid is required");
+		this.ledgerEntryData = Objects.requireNonNull(ledgerEntryData, "ledgerEntryData is required");
+		this.indicesData = Objects.requireNonNull(indicesData, "indicesData is required");
+	}
+
+	public long getLogicalClock() {
+		return this.logicalClock;
+	}
+
+	public AID getAID() {
+		return this.aid;
+	}
+
+	/**
+	 * @return The serialized ledger entry, exactly as stored
+	 */
+	public byte[] getLedgerEntryData() {
+		return this.ledgerEntryData;
+	}
+
+	/**
+	 * @return The serialized indices of the ledger entry, exactly as stored
+	 */
+	public byte[] getIndicesData() {
+		return this.indicesData;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[lc=%d, aid=%s]", getClass().getSimpleName(), this.logicalClock, this.aid);
+	}
+}
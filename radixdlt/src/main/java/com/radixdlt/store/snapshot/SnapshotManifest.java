@@ -0,0 +1,164 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.SerializerConstants;
+import com.radixdlt.serialization.SerializerDummy;
+import com.radixdlt.serialization.SerializerId2;
+import com.radixdlt.utils.Bytes;
+import com.radixdlt.utils.Longs;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Manifest of a {@link LedgerSnapshot}, describing every chunk of the snapshot.
+ * <p>
+ * The id of a snapshot is derived from the hashes of its chunks, so a manifest obtained
+ * from one peer can be used to verify chunks obtained from any other peer.
+ */
+@SerializerId2("ledger.snapshot.manifest")
+public final class SnapshotManifest {
+	public static final int FORMAT_VERSION = 1;
+
+	// Placeholder for the serializer ID
+	@JsonProperty(SerializerConstants.SERIALIZER_NAME)
+	@DsonOutput(DsonOutput.Output.ALL)
+	private SerializerDummy serializer = SerializerDummy.DUMMY;
+
+	@JsonProperty("format")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private int formatVersion;
+
+	@JsonProperty("id")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private byte[] id;
+
+	@JsonProperty("last_logical_clock")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private long lastLogicalClock;
+
+	@JsonProperty("entries")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private long entries;
+
+	@JsonProperty("chunks")
+	@DsonOutput(DsonOutput.Output.ALL)
+	private ImmutableList<SnapshotChunkInfo> chunks;
+
+	SnapshotManifest() {
+		// For serializer
+		this.id = Bytes.EMPTY_BYTES;
+		this.chunks = ImmutableList.of();
+	}
+
+	SnapshotManifest(long lastLogicalClock, List<SnapshotChunkInfo> chunks) {
+		this.formatVersion = FORMAT_VERSION;
+		this.lastLogicalClock = lastLogicalClock;
+		this.chunks = ImmutableList.copyOf(chunks);
+		this.entries = this.chunks.stream().mapToLong(SnapshotChunkInfo::getEntries).sum();
+		this.id = computeId(lastLogicalClock, this.chunks);
+	}
+
+	private static byte[] computeId(long lastLogicalClock, List<SnapshotChunkInfo> chunks) {
+		ByteArrayOutputStream idData = new ByteArrayOutputStream();
+		idData.write(Longs.toByteArray(lastLogicalClock), 0, Long.BYTES);
+		for (SnapshotChunkInfo chunk : chunks) {
+			byte[] hash = chunk.getHash();
+			idData.write(hash, 0, hash.length);
+		}
+		return SnapshotChunkInfo.sha256(idData.toByteArray());
+	}
+
+	/**
+	 * Checks whether this manifest is internally consistent, i.e. whether it is of a supported
+	 * format, its chunks are numbered consecutively and its id matches its chunks.
+	 *
+	 * @return Whether this manifest is consistent
+	 */
+	public boolean isConsistent() {
+		if (this.formatVersion != FORMAT_VERSION) {
+			return false;
+		}
+		for (int i = 0; i < this.chunks.size(); i++) {
+			if (this.chunks.get(i).getIndex() != i) {
+				return false;
+			}
+		}
+		return Arrays.equals(this.id, computeId(this.lastLogicalClock, this.chunks));
+	}
+
+	public int getFormatVersion() {
+		return this.formatVersion;
+	}
+
+	public byte[] getId() {
+		return this.id.clone();
+	}
+
+	public boolean hasId(byte[] id) {
+		return Arrays.equals(this.id, id);
+	}
+
+	/**
+	 * @return The highest logical clock of the ledger entries contained in the snapshot
+	 */
+	public long getLastLogicalClock() {
+		return this.lastLogicalClock;
+	}
+
+	public long getEntries() {
+		return this.entries;
+	}
+
+	public List<SnapshotChunkInfo> getChunks() {
+		return this.chunks;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		SnapshotManifest that = (SnapshotManifest) o;
+		return this.formatVersion == that.formatVersion
+			&& this.lastLogicalClock == that.lastLogicalClock
+			&& Arrays.equals(this.id, that.id)
+			&& Objects.equals(this.chunks, that.chunks);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.id);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[id=%s, lastLogicalClock=%d, entries=%d, chunks=%d]",
+			getClass().getSimpleName(), Hex.toHexString(this.id), this.lastLogicalClock, this.entries, this.chunks.size());
+	}
+}
@@ -34,6 +34,8 @@ import com.radixdlt.middleware2.MiddlewareModule;
 import com.radixdlt.network.NetworkModule;
 import com.radixdlt.properties.RuntimeProperties;
 import com.radixdlt.serialization.Serialization;
+import com.radixdlt.snapshot.SnapshotDelivererModule;
+import com.radixdlt.store.async.AsyncLedgerEntryStoreModule;
 import com.radixdlt.store.berkeley.BerkeleyStoreModule;
 import com.radixdlt.universe.Universe;
 import org.radix.database.DatabaseEnvironment;
@@ -51,8 +53,10 @@ public class GlobalInjector {
 
 	public GlobalInjector(RuntimeProperties properties, DatabaseEnvironment dbEnv, LocalSystem localSystem, Universe universe) {
 		Module lazyRequestDelivererModule = new LazyRequestDelivererModule(properties);
+		Module snapshotDelivererModule = new SnapshotDelivererModule(properties);
 		Module iterativeDiscovererModule = new IterativeDiscovererModule(properties);
-		Module berkeleyStoreModule = new BerkeleyStoreModule();
+		Module berkeleyStoreModule = new BerkeleyStoreModule(properties);
+		Module asyncStoreModule = new AsyncLedgerEntryStoreModule(properties);
 		Module tempoModule = new CerberusModule(properties);
 		Module middlewareModule = new MiddlewareModule();
 		Module messageCentralModule = new MessageCentralModule(properties);
@@ -82,8 +86,10 @@ public class GlobalInjector {
 
 		injector = Guice.createInjector(
 				lazyRequestDelivererModule,
+				snapshotDelivererModule,
 				iterativeDiscovererModule,
 				berkeleyStoreModule,
+				asyncStoreModule,
 				tempoModule,
 				middlewareModule,
 				messageCentralModule,
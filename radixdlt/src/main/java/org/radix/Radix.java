@@ -24,7 +24,10 @@ import com.radixdlt.middleware2.converters.AtomToBinaryConverter;
 import com.radixdlt.properties.RuntimeProperties;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.serialization.SerializationException;
+import com.radixdlt.snapshot.SnapshotBootstrap;
+import com.radixdlt.store.CursorStore;
 import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.metrics.StoreMetrics;
 import com.radixdlt.universe.Universe;
 import com.radixdlt.utils.Bytes;
 import org.apache.commons.cli.ParseException;
@@ -138,11 +141,18 @@ public final class Radix
 		GlobalInjector globalInjector = new GlobalInjector(properties, dbEnv, localSystem, universe);
 		// TODO use consensus for application construction (in our case, the engine middleware)
 
+		// sync cursors are written behind, so flush them to the database on exit
+		CursorStore cursorStore = globalInjector.getInjector().getInstance(CursorStore.class);
+		Runtime.getRuntime().addShutdownHook(new Thread(cursorStore::close, "Cursor store shutdown"));
+
 		// setup networking
 		AddressBook addressBook = globalInjector.getInjector().getInstance(AddressBook.class);
 		PeerManager peerManager = globalInjector.getInjector().getInstance(PeerManager.class);
 		peerManager.start();
 
+		// bootstrap an empty ledger from a trusted snapshot and export the snapshot to serve
+		globalInjector.getInjector().getInstance(SnapshotBootstrap.class).start();
+
 		// Start mempool receiver
 		globalInjector.getInjector().getInstance(MempoolReceiver.class).start();
 
@@ -161,7 +171,8 @@ public final class Radix
 		SubmissionControl submissionControl = globalInjector.getInjector().getInstance(SubmissionControl.class);
 		AtomToBinaryConverter atomToBinaryConverter = globalInjector.getInjector().getInstance(AtomToBinaryConverter.class);
 		LedgerEntryStore store = globalInjector.getInjector().getInstance(LedgerEntryStore.class);
-		RadixHttpServer httpServer = new RadixHttpServer(store, submissionControl, atomToBinaryConverter, universe, serialization, properties, localSystem, addressBook);
+		StoreMetrics storeMetrics = globalInjector.getInjector().getInstance(StoreMetrics.class);
+		RadixHttpServer httpServer = new RadixHttpServer(store, submissionControl, atomToBinaryConverter, universe, serialization, properties, localSystem, addressBook, storeMetrics);
 		httpServer.start(properties);
 
 		log.info("Node '" + localSystem.getNID() + "' started successfully");
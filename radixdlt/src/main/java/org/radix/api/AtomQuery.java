@@ -18,27 +18,44 @@
 package org.radix.api;
 
 import com.radixdlt.common.EUID;
+import com.radixdlt.store.ContinuationToken;
 
+import java.util.Objects;
 import java.util.Set;
 
 public final class AtomQuery {
 	private final EUID destination;
+	private final ContinuationToken since;
 
 	public AtomQuery(EUID destination) {
+		this(destination, ContinuationToken.initial());
+	}
+
+	/**
+	 * Creates a query for the atoms of a destination after a continuation previously handed out
+	 * to the client, so that a resumed subscription does not deliver all atoms again.
+	 */
+	public AtomQuery(EUID destination, ContinuationToken since) {
 		this.destination = destination;
+		this.since = Objects.requireNonNull(since);
 	}
 
 	public AtomQuery() {
 		this.destination = null;
+		this.since = ContinuationToken.initial();
 	}
 
 	public EUID getDestination() {
 		return this.destination;
 	}
 
+	public ContinuationToken getSince() {
+		return this.since;
+	}
+
 	@Override
 	public String toString() {
-		return "AtomQuery: destination(" + this.destination + ")";
+		return "AtomQuery: destination(" + this.destination + ") since(" + this.since + ")";
 	}
 
 	public boolean filter(Set<EUID> destinations) {
@@ -23,6 +23,7 @@ import com.radixdlt.properties.RuntimeProperties;
 import com.radixdlt.serialization.DsonOutput;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.metrics.StoreMetrics;
 import com.radixdlt.universe.Universe;
 import com.stijndewitt.undertow.cors.AllowAll;
 import com.stijndewitt.undertow.cors.Filter;
@@ -43,6 +44,7 @@ import org.radix.api.jsonrpc.RadixJsonRpcServer;
 import org.radix.api.services.AtomsService;
 import org.radix.api.services.InternalService;
 import org.radix.api.services.NetworkService;
+import org.radix.api.services.StoreMetricsService;
 import org.radix.logging.Logger;
 import org.radix.logging.Logging;
 import org.radix.network2.addressbook.AddressBook;
@@ -71,6 +73,7 @@ public final class RadixHttpServer {
 	private final RadixJsonRpcServer jsonRpcServer;
 	private final InternalService internalService;
 	private final NetworkService networkService;
+	private final StoreMetricsService storeMetricsService;
 	private final Universe universe;
 	private final JSONObject apiSerializedUniverse;
 	private final LocalSystem localSystem;
@@ -84,7 +87,8 @@ public final class RadixHttpServer {
 		Serialization serialization,
 		RuntimeProperties properties,
 		LocalSystem localSystem,
-		AddressBook addressBook
+		AddressBook addressBook,
+		StoreMetrics storeMetrics
 	) {
 		this.universe = Objects.requireNonNull(universe);
 		this.serialization = Objects.requireNonNull(serialization);
@@ -103,6 +107,7 @@ public final class RadixHttpServer {
 		);
 		this.internalService = new InternalService(submissionControl, properties, universe);
 		this.networkService = new NetworkService(serialization, localSystem, addressBook);
+		this.storeMetricsService = new StoreMetricsService(storeMetrics);
 	}
 
     private Undertow server;
@@ -277,6 +282,8 @@ public final class RadixHttpServer {
     private void addRestSystemRoutesTo(RoutingHandler handler) {
         addGetRoute("/api/system", exchange
                 -> respond(this.serialization.toJsonObject(this.localSystem, DsonOutput.Output.API), exchange), handler);
+        addGetRoute("/api/system/modules/ledger/metrics", exchange
+                -> respond(this.storeMetricsService.getMetrics(), exchange), handler);
     }
 
     // helper methods for responding to an exchange with various objects for readability
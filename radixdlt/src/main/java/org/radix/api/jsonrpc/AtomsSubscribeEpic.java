@@ -17,6 +17,7 @@
 
 package org.radix.api.jsonrpc;
 
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -27,6 +28,7 @@ import org.radix.api.observable.Disposable;
 import org.radix.api.services.AtomsService;
 import com.radixdlt.serialization.DsonOutput.Output;
 import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.ContinuationToken;
 
 /**
  * Epic responsible for converting JSON RPC atom subscribe request to JSON RPC notifications
@@ -78,7 +80,7 @@ public class AtomsSubscribeEpic {
 		observers.forEachKey(100, subscriberId -> observers.remove(subscriberId).dispose());
 	}
 
-	private void onAtomUpdate(String subscriberId, JSONArray atoms, boolean isHead) {
+	private void onAtomUpdate(String subscriberId, JSONArray atoms, boolean isHead, Optional<ContinuationToken> continuation) {
 		JSONObject notification = new JSONObject();
 		notification.put("jsonrpc", "2.0");
 		notification.put("method", "Atoms.subscribeUpdate");
@@ -86,6 +88,8 @@ public class AtomsSubscribeEpic {
 		params.put("atomEvents", atoms);
 		params.put("subscriberId", subscriberId);
 		params.put("isHead", isHead);
+		// clients resume a subscription after the last continuation they received with "since"
+		continuation.ifPresent(token -> params.put("continuation", token.toTransportForm()));
 		notification.put("params", params);
 		callback.accept(notification);
 	}
@@ -120,7 +124,7 @@ public class AtomsSubscribeEpic {
 						.map(event -> serialization.toJsonObject(event, Output.WIRE))
 						.forEach(atomEventsJson::put);
 
-					onAtomUpdate(subscriberId, atomEventsJson, observedAtoms.isHead());
+					onAtomUpdate(subscriberId, atomEventsJson, observedAtoms.isHead(), observedAtoms.getContinuation());
 				}));
 		} else if (jsonRequest.getString("method").equals("Atoms.cancel")) {
 			Disposable disposable = observers.remove(subscriberId);
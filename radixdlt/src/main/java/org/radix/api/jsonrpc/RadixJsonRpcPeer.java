@@ -29,6 +29,7 @@ import org.radix.logging.Logger;
 import org.radix.logging.Logging;
 
 import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.ContinuationToken;
 
 /**
  * A Stateful JSON RPC 2.0 Server and Client for duplex communication
@@ -66,7 +67,11 @@ public class RadixJsonRpcPeer {
 		this.submitAtomAndSubscribeEpic = new SubmitAtomAndSubscribeEpic(atomsService, atomSchema,
 			atomJson -> callback.accept(this, atomJson.toString()));
 		this.atomsSubscribeEpic = new AtomsSubscribeEpic(atomsService, serialization,
-			queryJson -> new AtomQuery(RadixAddress.from(queryJson.getString("address")).getUID()), atomJson -> callback.accept(this, atomJson.toString()));
+			queryJson -> new AtomQuery(
+				RadixAddress.from(queryJson.getString("address")).getUID(),
+				ContinuationToken.fromTransportForm(queryJson.optLong("since", ContinuationToken.initial().toTransportForm()))
+			),
+			atomJson -> callback.accept(this, atomJson.toString()));
 
 		callback.accept(this, JsonRpcUtil.notification("Radix.welcome", new JSONObject().put("message", "Hello!")).toString());
 	}
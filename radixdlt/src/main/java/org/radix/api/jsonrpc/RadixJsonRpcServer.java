@@ -19,7 +19,9 @@ package org.radix.api.jsonrpc;
 
 import com.google.common.io.CharStreams;
 import com.radixdlt.atomos.RadixAddress;
-import com.radixdlt.store.SearchCursor;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
+import com.radixdlt.store.SearchScan;
 import com.radixdlt.store.StoreIndex;
 import com.radixdlt.store.LedgerSearchMode;
 import com.radixdlt.middleware2.store.EngineAtomIndices;
@@ -53,6 +55,7 @@ import java.util.stream.Collectors;
  */
 public final class RadixJsonRpcServer {
 	private static final long DEFAULT_MAX_REQUEST_SIZE = 1024L * 1024L;
+	private static final int MAX_ATOMS_PAGE_SIZE = 1000;
 
 	/**
 	 * Maximum request size in bytes
@@ -188,13 +191,26 @@ public final class RadixJsonRpcServer {
 						final RadixAddress address = RadixAddress.from(addressString);
 
 						StoreIndex index = new StoreIndex(EngineAtomIndices.IndexType.DESTINATION.getValue(), address.getUID().toByteArray());
-						List<AID> collectedAids = new ArrayList<>();
-						SearchCursor cursor = ledger.search(StoreIndex.LedgerIndexType.DUPLICATE, index, LedgerSearchMode.EXACT);
-						while (cursor != null) {
-							collectedAids.add(cursor.get());
-							cursor = cursor.next();
+						if (params.has("since") || params.has("limit")) {
+							// a page of the atoms since a logical clock, such that clients can catch up incrementally
+							ContinuationToken since = ContinuationToken.fromTransportForm(params.optLong("since", ContinuationToken.initial().toTransportForm()));
+							int limit = Math.min(params.optInt("limit", MAX_ATOMS_PAGE_SIZE), MAX_ATOMS_PAGE_SIZE);
+							if (limit <= 0) {
+								return JsonRpcUtil.errorResponse(id, -32000, "limit must be positive", new JSONObject());
+							}
+							CommittedAidsPage page = ledger.getNextByIndex(index, since, limit);
+							JSONArray aids = new JSONArray();
+							page.getAids().forEach(aid -> aids.put(serialization.toJsonObject(aid, Output.API)));
+							result = new JSONObject()
+								.put("aids", aids)
+								.put("continuation", page.getContinuation().toTransportForm());
+						} else {
+							List<AID> collectedAids = new ArrayList<>();
+							try (SearchScan scan = ledger.scan(StoreIndex.LedgerIndexType.DUPLICATE, index, LedgerSearchMode.EXACT)) {
+								scan.forEachRemaining(collectedAids::add);
+							}
+							result = collectedAids;
 						}
-						result = collectedAids;
 					}
 
 					break;
@@ -21,9 +21,9 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.radixdlt.common.AID;
 import com.radixdlt.common.Atom;
-import com.radixdlt.store.SearchCursor;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
 import com.radixdlt.store.StoreIndex;
-import com.radixdlt.store.LedgerSearchMode;
 import com.radixdlt.middleware2.converters.AtomToBinaryConverter;
 import com.radixdlt.middleware2.store.EngineAtomIndices;
 
@@ -66,6 +66,10 @@ public class AtomEventObserver {
 	private boolean synced = false;
 	private final List<AtomEventDto> waitingQueue = Lists.newArrayList();
 
+	// only accessed by the chain of sync runnables
+	private final Set<AID> processedAids = Sets.newHashSet();
+	private ContinuationToken continuation;
+
 	public AtomEventObserver(
 		AtomQuery atomQuery,
 		Consumer<ObservedAtomEvents> onNext,
@@ -78,6 +82,7 @@ public class AtomEventObserver {
 		this.executorService = executorService;
 		this.store = store;
 		this.atomToBinaryConverter = atomToBinaryConverter;
+		this.continuation = atomQuery.getSince();
 	}
 
 	public boolean isDone() {
@@ -124,11 +129,9 @@ public class AtomEventObserver {
 		}
 
 		try {
+			StoreIndex index = new StoreIndex(EngineAtomIndices.IndexType.DESTINATION.getValue(), atomQuery.getDestination().toByteArray());
 			long count = 0;
-			StoreIndex destinationIndex = new StoreIndex(EngineAtomIndices.IndexType.DESTINATION.getValue(), atomQuery.getDestination().toByteArray());
-			SearchCursor cursor = store.search(StoreIndex.LedgerIndexType.DUPLICATE, destinationIndex, LedgerSearchMode.EXACT);
-			Set<AID> processedAids = Sets.newHashSet();
-			while (cursor != null) {
+			while (true) {
 				if (count >= 200) {
 					synchronized(this) {
 						this.currentRunnable = currentRunnable.thenRunAsync(() -> {
@@ -140,15 +143,17 @@ public class AtomEventObserver {
 								// Re-interrupt and continue
 								Thread.currentThread().interrupt();
 							}
+							// resumes after the last page sent
 							this.sync();
 						}, executorService);
 					}
 					return;
 				}
 
+				// the destination index is ordered by logical clock, so each page continues where the last one ended
+				CommittedAidsPage page = store.getNextByIndex(index, this.continuation, BATCH_SIZE);
 				List<Atom> atoms = new ArrayList<>();
-				while (cursor != null && atoms.size() < BATCH_SIZE) {
-					AID aid = cursor.get();
+				for (AID aid : page.getAids()) {
 					processedAids.add(aid);
 					Optional<LedgerEntry> ledgerEntry = store.get(aid);
 					ledgerEntry.ifPresent(
@@ -157,14 +162,17 @@ public class AtomEventObserver {
 							atoms.add(atom);
 						}
 					);
-					cursor = cursor.next();
 				}
+				this.continuation = page.getContinuation();
 				if (!atoms.isEmpty()) {
 					final Stream<AtomEventDto> atomEvents = atoms.stream()
 						.map(atom -> new AtomEventDto(AtomEventType.STORE, atom));
-					onNext.accept(new ObservedAtomEvents(false, atomEvents));
+					onNext.accept(new ObservedAtomEvents(false, atomEvents, this.continuation));
 					count += atoms.size();
 				}
+				if (page.size() < BATCH_SIZE) {
+					break;
+				}
 			}
 
 			// Send received and queued events
@@ -180,7 +188,7 @@ public class AtomEventObserver {
 			this.onNext.accept(new ObservedAtomEvents(false, atomEvents.stream()));
 
 			// Send HEAD flag once we've read through all atoms
-			onNext.accept(new ObservedAtomEvents(true, Stream.empty()));
+			onNext.accept(new ObservedAtomEvents(true, Stream.empty(), this.continuation));
 		} catch (Exception e) {
 			log.error("While handling atom event update", e);
 		}
@@ -17,6 +17,9 @@
 
 package org.radix.api.observable;
 
+import com.radixdlt.store.ContinuationToken;
+
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -25,16 +28,30 @@ import java.util.stream.Stream;
 public class ObservedAtomEvents {
 	private final Stream<AtomEventDto> atomEvents;
 	private final boolean isHead;
+	private final ContinuationToken continuation;
 
 	ObservedAtomEvents(boolean isHead, Stream<AtomEventDto> atomEvents) {
+		this(isHead, atomEvents, null);
+	}
+
+	ObservedAtomEvents(boolean isHead, Stream<AtomEventDto> atomEvents, ContinuationToken continuation) {
 		this.isHead = isHead;
 		this.atomEvents = atomEvents;
+		this.continuation = continuation;
 	}
 
 	public boolean isHead() {
 		return isHead;
 	}
 
+	/**
+	 * Gets the continuation to resume a subscription after these events, if known.
+	 * Only events read from the store carry a continuation, live events do not.
+	 */
+	public Optional<ContinuationToken> getContinuation() {
+		return Optional.ofNullable(continuation);
+	}
+
 	public Stream<AtomEventDto> atomEvents() {
 		return atomEvents;
 	}
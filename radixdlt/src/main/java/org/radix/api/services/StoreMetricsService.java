@@ -0,0 +1,77 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.api.services;
+
+import com.radixdlt.store.metrics.LatencyHistogram;
+import com.radixdlt.store.metrics.StoreMetrics;
+import com.radixdlt.store.metrics.StoreMetrics.Operation;
+import com.radixdlt.store.metrics.StoreMetrics.OperationSnapshot;
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public class StoreMetricsService {
+	private static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+
+	private final StoreMetrics storeMetrics;
+
+	public StoreMetricsService(StoreMetrics storeMetrics) {
+		this.storeMetrics = Objects.requireNonNull(storeMetrics);
+	}
+
+	/**
+	 * Gets the latency distribution in microseconds, payload bytes and failures of every ledger store operation.
+	 */
+	public JSONObject getMetrics() {
+		JSONObject operations = new JSONObject();
+		for (Map.Entry<Operation, OperationSnapshot> e : this.storeMetrics.snapshot().entrySet()) {
+			OperationSnapshot snapshot = e.getValue();
+			LatencyHistogram.Snapshot latency = snapshot.getLatency();
+
+			JSONObject latencyMicros = new JSONObject();
+			for (double percentile : PERCENTILES) {
+				latencyMicros.put("p" + formatPercentile(percentile), toMicros(latency.getValueAtPercentile(percentile)));
+			}
+			latencyMicros.put("mean", latency.getMean() / 1000.0);
+			latencyMicros.put("max", toMicros(latency.getMax()));
+
+			JSONObject operation = new JSONObject();
+			operation.put("count", latency.getCount());
+			operation.put("latencyMicros", latencyMicros);
+			operation.put("bytesRead", snapshot.getBytesRead());
+			operation.put("bytesWritten", snapshot.getBytesWritten());
+			operation.put("failures", snapshot.getFailures());
+			operations.put(e.getKey().name().toLowerCase(), operation);
+		}
+
+		JSONObject result = new JSONObject();
+		result.put("operations", operations);
+		result.put("lockWaits", this.storeMetrics.getLockWaits());
+		return result;
+	}
+
+	private static String formatPercentile(double percentile) {
+		return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile).replace('.', '_');
+	}
+
+	private static long toMicros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
@@ -21,7 +21,6 @@ import com.google.inject.Inject;
 import com.radixdlt.properties.RuntimeProperties;
 import com.radixdlt.utils.RadixConstants;
 import com.sleepycat.je.CacheMode;
-import com.sleepycat.je.CheckpointConfig;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
@@ -36,59 +35,49 @@ import org.radix.logging.Logger;
 import org.radix.logging.Logging;
 
 import java.io.File;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 public final class DatabaseEnvironment
 {
 	private static final Logger log = Logging.getLogger();
-	private class CheckpointerTask implements Runnable {
-
-		private volatile boolean interrupted = false;
-		void interrupt() {
-			// It appears that berkeley behaves quite badly when checkpoint thread
-			// is interrupted.  We use special magic here to make sure we exit in
-			// a timely fashion.
-			this.interrupted = true;
+	private static final long LOG_FILE_MAX_BYTES = 100000000L;
+
+	/**
+	 * How transactions are made durable, configured with {@code db.durability}.
+	 */
+	public enum DurabilityMode {
+		/**
+		 * Transactions are written to the log buffer only and may be lost on a crash.
+		 */
+		NO_SYNC(Durability.COMMIT_NO_SYNC),
+		/**
+		 * Every transaction is fsynced as it commits.
+		 */
+		SYNC(Durability.COMMIT_SYNC),
+		/**
+		 * Transactions are written to the file system on commit and fsynced in groups,
+		 * see {@link DatabaseEnvironment#awaitDurable()}.
+		 */
+		GROUP(Durability.COMMIT_WRITE_NO_SYNC);
+
+		private final Durability durability;
+
+		DurabilityMode(Durability durability) {
+			this.durability = durability;
 		}
-
-		@Override
-		public void run()
-		{
-			CheckpointConfig checkpointConfig = new CheckpointConfig();
-			checkpointConfig.setForce(true);
-
-			while (!interrupted) {
-				try {
-					long start = System.currentTimeMillis();
-
-					while (DatabaseEnvironment.this.environment.cleanLogFile() && System.currentTimeMillis() - start < TimeUnit.MINUTES.toMillis(10)) {
-						TimeUnit.SECONDS.sleep(10);
-					}
-
-					DatabaseEnvironment.this.environment.checkpoint(checkpointConfig);
-					DatabaseEnvironment.this.environment.evictMemory();
-
-					while (!interrupted && (System.currentTimeMillis() - start < TimeUnit.MINUTES.toMillis(10))) {
-						Thread.sleep(100);
-					}
-				} catch (InterruptedException ex) {
-					interrupted = true;
-					Thread.currentThread().interrupt();
-				} catch (Exception ex) {
-					log.error("Checkpointing of environment failed!", ex);
-				}
-			}
-		}
-
 	}
 
 	private final ReentrantLock lock = new ReentrantLock(true);
 	private Database metaDatabase;
 
 	private Environment						environment = null;
-	private CheckpointerTask checkpointTask;
-	private Thread 							checkpointThread = null;
+	private EnvironmentMaintenanceTask maintenanceTask;
+	private Thread 							maintenanceThread = null;
+	private final DurabilityMode durabilityMode;
+	private GroupCommitter groupCommitter = null;
+	private Thread groupCommitThread = null;
 
 	@Inject
 	public DatabaseEnvironment(RuntimeProperties properties) {
@@ -101,8 +90,9 @@ public final class DatabaseEnvironment
 	    environmentConfig.setTransactional(true);
 	    environmentConfig.setAllowCreate(true);
 	    environmentConfig.setLockTimeout(30, TimeUnit.SECONDS);
-	    environmentConfig.setDurability(Durability.COMMIT_NO_SYNC);
-	    environmentConfig.setConfigParam(EnvironmentConfig.LOG_FILE_MAX, "100000000");
+	    this.durabilityMode = DurabilityMode.valueOf(properties.get("db.durability", DurabilityMode.NO_SYNC.name()).toUpperCase());
+	    environmentConfig.setDurability(this.durabilityMode.durability);
+	    environmentConfig.setConfigParam(EnvironmentConfig.LOG_FILE_MAX, Long.toString(LOG_FILE_MAX_BYTES));
 	    environmentConfig.setConfigParam(EnvironmentConfig.LOG_FILE_CACHE_SIZE, "256");
 	    environmentConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER, "false");
 	    environmentConfig.setConfigParam(EnvironmentConfig.ENV_RUN_CLEANER, "false");
@@ -134,21 +124,44 @@ public final class DatabaseEnvironment
 		    throw new RuntimeException("while opening database", ex);
 	    }
 
-	    this.checkpointTask = new CheckpointerTask();
-	    this.checkpointThread = new Thread(this.checkpointTask);
-	    this.checkpointThread.setDaemon(true);
-	    this.checkpointThread.setName("Checkpointer");
-	    this.checkpointThread.start();
+	    // JE's own daemons are disabled, maintenance is paced by the environment statistics instead
+	    this.maintenanceTask = new EnvironmentMaintenanceTask(this.environment, properties, LOG_FILE_MAX_BYTES);
+	    this.maintenanceThread = new Thread(this.maintenanceTask);
+	    this.maintenanceThread.setDaemon(true);
+	    this.maintenanceThread.setName("Database maintenance");
+	    this.maintenanceThread.start();
+
+	    if (this.durabilityMode == DurabilityMode.GROUP) {
+		    this.groupCommitter = new GroupCommitter(
+			    this.environment,
+			    properties.get("db.group_commit.interval_ms", 5L),
+			    properties.get("db.group_commit.max_commits", 64)
+		    );
+		    this.groupCommitThread = new Thread(this.groupCommitter);
+		    this.groupCommitThread.setDaemon(true);
+		    this.groupCommitThread.setName("Group commit flusher");
+		    this.groupCommitThread.start();
+	    }
     }
 
 	public void stop()
 	{
+		if (this.groupCommitter != null) {
+			this.groupCommitter.stop();
+			try {
+				this.groupCommitThread.join();
+			} catch (InterruptedException ex) {
+				// Ignore and continue
+				Thread.currentThread().interrupt();
+			}
+		}
+
         this.metaDatabase.close();
 		this.metaDatabase = null;
 
-		this.checkpointTask.interrupt();
+		this.maintenanceTask.interrupt();
 		try {
-			this.checkpointThread.join();
+			this.maintenanceThread.join();
 		} catch (InterruptedException ex) {
 			// Ignore and continue
 			Thread.currentThread().interrupt();
@@ -167,6 +180,33 @@ public final class DatabaseEnvironment
 		}
 	}
 
+	public DurabilityMode getDurabilityMode() {
+		return this.durabilityMode;
+	}
+
+	/**
+	 * Requests that all transactions committed so far are made durable.
+	 * Unless the environment uses {@link DurabilityMode#GROUP} the returned future is already complete,
+	 * as transactions are then either synced as they commit or never explicitly synced.
+	 *
+	 * @return A future which completes once previously committed transactions are durable
+	 */
+	public CompletableFuture<Void> requestDurable() {
+		if (this.groupCommitter == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return this.groupCommitter.requestSync();
+	}
+
+	/**
+	 * Waits until all transactions committed so far are durable, see {@link #requestDurable()}.
+	 */
+	public void awaitDurable() {
+		if (this.groupCommitter != null) {
+			this.groupCommitter.requestSync().join();
+		}
+	}
+
 	public Environment getEnvironment()
 	{
 		if (this.environment == null) {
@@ -0,0 +1,191 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.database;
+
+import com.radixdlt.properties.RuntimeProperties;
+import com.sleepycat.je.CheckpointConfig;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentStats;
+import com.sleepycat.je.StatsConfig;
+import org.radix.logging.Logger;
+import org.radix.logging.Logging;
+import org.radix.utils.SystemMetaData;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background maintenance of a JE {@link Environment} whose own checkpointer, cleaner
+ * and evictor daemons are disabled.
+ * <p>
+ * Rather than running all maintenance in one large burst, the environment statistics
+ * are sampled every tick and cleaning, checkpointing and eviction are each triggered
+ * in small increments only when the statistics call for them.  The sampled statistics
+ * are published to {@link SystemMetaData}.
+ */
+final class EnvironmentMaintenanceTask implements Runnable {
+	private static final Logger log = Logging.getLogger();
+
+	private final Environment environment;
+
+	private final long tickIntervalMillis;
+	private final int cleanMinUtilization;
+	private final int cleanFilesPerTick;
+	private final long checkpointBytes;
+	private final long checkpointIntervalNanos;
+	private final int evictHighWaterPercent;
+	private final long logFileMaxBytes;
+
+	private final StatsConfig statsConfig = new StatsConfig();
+	private final CheckpointConfig checkpointConfig = new CheckpointConfig();
+
+	private long lastCheckpointNanos;
+
+	private volatile boolean interrupted = false;
+
+	EnvironmentMaintenanceTask(Environment environment, RuntimeProperties properties, long logFileMaxBytes) {
+		this(
+			environment,
+			properties.get("db.maintenance.interval_ms", 1000L),
+			properties.get("db.maintenance.clean.min_utilization", 50),
+			properties.get("db.maintenance.clean.files_per_tick", 1),
+			properties.get("db.maintenance.checkpoint.bytes", 64L * 1024L * 1024L),
+			properties.get("db.maintenance.checkpoint.interval_ms", TimeUnit.MINUTES.toMillis(10)),
+			properties.get("db.maintenance.evict.high_water_percent", 90),
+			logFileMaxBytes
+		);
+	}
+
+	EnvironmentMaintenanceTask(Environment environment, long tickIntervalMillis, int cleanMinUtilization, int cleanFilesPerTick,
+		long checkpointBytes, long checkpointIntervalMillis, int evictHighWaterPercent, long logFileMaxBytes) {
+		this.environment = environment;
+		this.tickIntervalMillis = tickIntervalMillis;
+		this.cleanMinUtilization = cleanMinUtilization;
+		this.cleanFilesPerTick = cleanFilesPerTick;
+		this.checkpointBytes = checkpointBytes;
+		this.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMillis);
+		this.evictHighWaterPercent = evictHighWaterPercent;
+		this.logFileMaxBytes = logFileMaxBytes;
+
+		this.statsConfig.setClear(false);
+		this.checkpointConfig.setForce(true);
+		this.lastCheckpointNanos = System.nanoTime();
+	}
+
+	void interrupt() {
+		// It appears that berkeley behaves quite badly when checkpoint thread
+		// is interrupted.  We use special magic here to make sure we exit in
+		// a timely fashion.
+		this.interrupted = true;
+	}
+
+	@Override
+	public void run() {
+		while (!interrupted) {
+			try {
+				long start = System.nanoTime();
+
+				tick();
+
+				long tickNanos = TimeUnit.MILLISECONDS.toNanos(this.tickIntervalMillis);
+				while (!interrupted && System.nanoTime() - start < tickNanos) {
+					Thread.sleep(Math.min(100L, this.tickIntervalMillis));
+				}
+			} catch (InterruptedException ex) {
+				interrupted = true;
+				Thread.currentThread().interrupt();
+			} catch (Exception ex) {
+				log.error("Maintenance of environment failed!", ex);
+			}
+		}
+	}
+
+	/**
+	 * Performs a single round of maintenance, driven by the current environment statistics.
+	 */
+	void tick() {
+		EnvironmentStats stats = this.environment.getStats(this.statsConfig);
+
+		long cacheBytes = stats.getCacheTotalBytes();
+		long cacheMaxBytes = this.environment.getMutableConfig().getCacheSize();
+		@SuppressWarnings("deprecation")
+		int cleanerBacklog = stats.getCleanerBacklog();
+		int minUtilization = stats.getCurrentMinUtilization();
+		long bytesSinceCheckpoint = logDistance(stats.getLastCheckpointStart(), stats.getEndOfLog(), this.logFileMaxBytes);
+
+		SystemMetaData.ifPresent(a -> {
+			a.put("db.cache.bytes", cacheBytes);
+			a.put("db.cache.max_bytes", cacheMaxBytes);
+			a.put("db.cleaner.backlog", cleanerBacklog);
+			a.put("db.log.min_utilization", minUtilization);
+			a.put("db.log.total_bytes", stats.getTotalLogSize());
+			a.put("db.log.bytes_since_checkpoint", bytesSinceCheckpoint);
+		});
+
+		if (shouldClean(cleanerBacklog, minUtilization, this.cleanMinUtilization)) {
+			int cleaned = 0;
+			while (!interrupted && cleaned < this.cleanFilesPerTick && this.environment.cleanLogFile()) {
+				cleaned += 1;
+			}
+			if (cleaned > 0) {
+				long cleanedFiles = cleaned;
+				SystemMetaData.ifPresent(a -> a.increment("db.maintenance.cleaned_files", cleanedFiles));
+			}
+		}
+
+		long now = System.nanoTime();
+		if (shouldCheckpoint(bytesSinceCheckpoint, this.checkpointBytes, now - this.lastCheckpointNanos, this.checkpointIntervalNanos)) {
+			// Cleaned log files are only deleted once a checkpoint has completed, so they
+			// wait for the next checkpoint rather than forcing one on every cleaning tick
+			this.environment.checkpoint(this.checkpointConfig);
+			this.lastCheckpointNanos = now;
+			SystemMetaData.ifPresent(a -> a.increment("db.maintenance.checkpoints"));
+		}
+
+		if (shouldEvict(cacheBytes, cacheMaxBytes, this.evictHighWaterPercent)) {
+			this.environment.evictMemory();
+			SystemMetaData.ifPresent(a -> a.increment("db.maintenance.evictions"));
+		}
+	}
+
+	static boolean shouldClean(int cleanerBacklog, int minUtilization, int targetUtilization) {
+		return cleanerBacklog > 0 || minUtilization < targetUtilization;
+	}
+
+	static boolean shouldCheckpoint(long bytesSinceCheckpoint, long checkpointBytes, long nanosSinceCheckpoint, long checkpointIntervalNanos) {
+		return bytesSinceCheckpoint >= checkpointBytes || nanosSinceCheckpoint >= checkpointIntervalNanos;
+	}
+
+	static boolean shouldEvict(long cacheBytes, long cacheMaxBytes, int highWaterPercent) {
+		return cacheMaxBytes > 0 && cacheBytes * 100L >= cacheMaxBytes * highWaterPercent;
+	}
+
+	/**
+	 * Approximates the number of log bytes between two JE log sequence numbers.
+	 * An LSN holds the log file number in its upper 32 bits and the offset within that file
+	 * in its lower 32 bits.
+	 */
+	static long logDistance(long fromLsn, long toLsn, long logFileMaxBytes) {
+		if (fromLsn < 0 || toLsn < 0) {
+			// No checkpoint yet (or LSN unavailable), treat as everything written
+			return toLsn < 0 ? 0L : (toLsn >>> 32) * logFileMaxBytes + (toLsn & 0xFFFFFFFFL);
+		}
+		long files = (toLsn >>> 32) - (fromLsn >>> 32);
+		long offset = (toLsn & 0xFFFFFFFFL) - (fromLsn & 0xFFFFFFFFL);
+		return Math.max(0L, files * logFileMaxBytes + offset);
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.database;
+
+import com.sleepycat.je.Environment;
+import org.radix.logging.Logger;
+import org.radix.logging.Logging;
+import org.radix.utils.SystemMetaData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Makes transactions committed with {@code WRITE_NO_SYNC} durable in groups.
+ * <p>
+ * Writers request a sync after committing and wait for the returned future.  A single
+ * flusher thread fsyncs the log once every {@code intervalMillis}, or as soon as
+ * {@code maxCommits} requests are waiting, and completes all futures covered by that fsync.
+ */
+final class GroupCommitter implements Runnable {
+	private static final Logger log = Logging.getLogger();
+
+	private final Environment environment;
+	private final long intervalMillis;
+	private final int maxCommits;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition wakeup = this.lock.newCondition();
+	private List<CompletableFuture<Void>> waiting = new ArrayList<>();
+	private boolean stopped = false;
+
+	GroupCommitter(Environment environment, long intervalMillis, int maxCommits) {
+		if (intervalMillis <= 0) {
+			throw new IllegalArgumentException("intervalMillis must be positive: " + intervalMillis);
+		}
+		if (maxCommits <= 0) {
+			throw new IllegalArgumentException("maxCommits must be positive: " + maxCommits);
+		}
+		this.environment = environment;
+		this.intervalMillis = intervalMillis;
+		this.maxCommits = maxCommits;
+	}
+
+	/**
+	 * Requests that everything written to the log so far is made durable.
+	 *
+	 * @return A future which completes once the log has been synced
+	 */
+	CompletableFuture<Void> requestSync() {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		this.lock.lock();
+		try {
+			if (!this.stopped) {
+				this.waiting.add(future);
+				if (this.waiting.size() >= this.maxCommits) {
+					this.wakeup.signal();
+				}
+				return future;
+			}
+		} finally {
+			this.lock.unlock();
+		}
+
+		// flusher has stopped, sync in the caller's thread instead
+		sync(Collections.singletonList(future));
+		return future;
+	}
+
+	/**
+	 * Stops the flusher after syncing any outstanding requests.
+	 */
+	void stop() {
+		this.lock.lock();
+		try {
+			this.stopped = true;
+			this.wakeup.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void run() {
+		boolean running = true;
+		while (running) {
+			List<CompletableFuture<Void>> batch;
+			this.lock.lock();
+			try {
+				if (!this.stopped && this.waiting.size() < this.maxCommits) {
+					this.wakeup.await(this.intervalMillis, TimeUnit.MILLISECONDS);
+				}
+				running = !this.stopped;
+				batch = this.waiting;
+				this.waiting = new ArrayList<>();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.stopped = true;
+				running = false;
+				batch = this.waiting;
+				this.waiting = new ArrayList<>();
+			} finally {
+				this.lock.unlock();
+			}
+
+			sync(batch);
+		}
+	}
+
+	private void sync(List<CompletableFuture<Void>> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		try {
+			this.environment.flushLog(true);
+		} catch (Exception e) {
+			log.error("Group commit of " + batch.size() + " transactions failed", e);
+			batch.forEach(future -> future.completeExceptionally(e));
+			return;
+		}
+
+		batch.forEach(future -> future.complete(null));
+		SystemMetaData.ifPresent(a -> {
+			a.increment("db.group_commit.syncs");
+			a.increment("db.group_commit.commits", batch.size());
+		});
+	}
+}
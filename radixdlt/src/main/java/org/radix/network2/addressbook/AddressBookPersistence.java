@@ -102,7 +102,11 @@ public class AddressBookPersistence implements PeerPersistence {
 				DatabaseEntry key = new DatabaseEntry(peer.getNID().toByteArray());
 				byte[] bytes = serialization.toDson(peer, Output.PERSIST);
 				DatabaseEntry value = new DatabaseEntry(bytes);
-				return (peersByNidDB.put(null, key, value) == OperationStatus.SUCCESS);
+				if (peersByNidDB.put(null, key, value) == OperationStatus.SUCCESS) {
+					// peers are not worth blocking for, just make sure they are part of the next group commit
+					this.dbEnv.requestDurable();
+					return true;
+				}
 			} catch (SerializationException e) {
 				log.error("Failure updating " + peer);
 			}
@@ -113,7 +117,11 @@ public class AddressBookPersistence implements PeerPersistence {
 	@Override
 	public boolean deletePeer(EUID nid) {
 		DatabaseEntry key = new DatabaseEntry(nid.toByteArray());
-		return (peersByNidDB.delete(null, key) == OperationStatus.SUCCESS);
+		if (peersByNidDB.delete(null, key) == OperationStatus.SUCCESS) {
+			this.dbEnv.requestDurable();
+			return true;
+		}
+		return false;
 	}
 
 	@Override
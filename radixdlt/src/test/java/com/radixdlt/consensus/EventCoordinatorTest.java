@@ -17,6 +17,7 @@
 
 package com.radixdlt.consensus;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.radixdlt.common.AID;
 import com.radixdlt.common.Atom;
@@ -29,15 +30,19 @@ import com.radixdlt.consensus.validators.ValidatorSet;
 import com.radixdlt.constraintmachine.DataPointer;
 import com.radixdlt.crypto.CryptoException;
 import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.ECPublicKey;
 import com.radixdlt.crypto.Hash;
 import com.radixdlt.engine.RadixEngineErrorCode;
 import com.radixdlt.engine.RadixEngineException;
 import com.radixdlt.mempool.Mempool;
 import com.radixdlt.utils.Ints;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
@@ -183,14 +188,38 @@ public class EventCoordinatorTest {
 	}
 
 	@Test
-	public void when_processing_invalid_proposal__then_atom_is_rejected() throws Exception {
+	public void when_processing_proposal_with_invalid_atom__then_only_that_atom_is_rejected() throws Exception {
+		View currentView = View.of(123);
+
+		when(proposerElection.getProposer(any())).thenReturn(makeKeyPair().getPublicKey());
+
+		Vertex proposedVertex = mock(Vertex.class);
+		Atom validAtom = mock(Atom.class);
+		AID validAid = makeAID(6);
+		when(validAtom.getAID()).thenReturn(validAid);
+		Atom invalidAtom = mock(Atom.class);
+		AID invalidAid = makeAID(7); // no special significance
+		when(invalidAtom.getAID()).thenReturn(invalidAid);
+		when(proposedVertex.getAtoms()).thenReturn(ImmutableList.of(validAtom, invalidAtom));
+		when(proposedVertex.getQC()).thenReturn(mock(QuorumCertificate.class));
+		when(proposedVertex.getView()).thenReturn(currentView);
+		Vote vote = mock(Vote.class);
+		doReturn(vote).when(safetyRules).voteFor(eq(proposedVertex));
+
+		doReturn(ImmutableList.of(invalidAtom)).when(vertexStore).insertVertex(any());
+		when(pacemaker.processQC(any())).thenReturn(Optional.empty());
+		when(pacemaker.getCurrentView()).thenReturn(currentView);
+		eventCoordinator.processProposal(proposedVertex);
+		verify(mempool, times(1)).removeRejectedAtom(eq(invalidAid));
+		verify(mempool, never()).removeRejectedAtom(eq(validAid));
+		verify(networkSender, times(1)).sendVote(eq(vote), any());
+	}
+
+	@Test
+	public void when_processing_proposal_which_fails_insertion__then_it_is_not_voted_on() throws Exception {
 		View currentView = View.of(123);
 
 		Vertex proposedVertex = mock(Vertex.class);
-		Atom proposedAtom = mock(Atom.class);
-		AID aid = makeAID(7); // no special significance
-		when(proposedAtom.getAID()).thenReturn(aid);
-		when(proposedVertex.getAtom()).thenReturn(proposedAtom);
 		when(proposedVertex.getQC()).thenReturn(mock(QuorumCertificate.class));
 		when(proposedVertex.getView()).thenReturn(currentView);
 
@@ -199,7 +228,7 @@ public class EventCoordinatorTest {
 		when(pacemaker.processQC(any())).thenReturn(Optional.empty());
 		when(pacemaker.getCurrentView()).thenReturn(currentView);
 		eventCoordinator.processProposal(proposedVertex);
-		verify(mempool, times(1)).removeRejectedAtom(eq(aid));
+		verify(networkSender, never()).sendVote(any(), any());
 	}
 
 	@Test
@@ -213,7 +242,7 @@ public class EventCoordinatorTest {
 		Atom proposedAtom = mock(Atom.class);
 		AID aid = makeAID(7); // no special significance
 		when(proposedAtom.getAID()).thenReturn(aid);
-		when(proposedVertex.getAtom()).thenReturn(proposedAtom);
+		when(proposedVertex.getAtoms()).thenReturn(ImmutableList.of(proposedAtom));
 		when(proposedVertex.getQC()).thenReturn(mock(QuorumCertificate.class));
 		when(proposedVertex.getView()).thenReturn(currentView);
 		when(pacemaker.getCurrentView()).thenReturn(currentView);
@@ -227,7 +256,7 @@ public class EventCoordinatorTest {
 	}
 
 	@Test
-	public void when_processing_valid_stored_proposal_and_there_exists_a_new_commit__the_new_commit_atom_is_removed_from_mempool() throws Exception {
+	public void when_processing_valid_stored_proposal_and_there_exists_a_new_commit__the_new_commit_atoms_are_removed_from_mempool() throws Exception {
 		View currentView = View.of(123);
 
 		when(pacemaker.processQC(any())).thenReturn(Optional.empty());
@@ -246,7 +275,10 @@ public class EventCoordinatorTest {
 		Atom atom = mock(Atom.class);
 		AID aid = mock(AID.class);
 		when(atom.getAID()).thenReturn(aid);
-		when(committedVertex.getAtom()).thenReturn(atom);
+		Atom otherAtom = mock(Atom.class);
+		AID otherAid = mock(AID.class);
+		when(otherAtom.getAID()).thenReturn(otherAid);
+		when(committedVertex.getAtoms()).thenReturn(ImmutableList.of(atom, otherAtom));
 
 		when(safetyRules.process(eq(qc))).thenReturn(Optional.of(committedVertexId));
 		when(vertexStore.commitVertex(eq(committedVertexId))).thenReturn(committedVertex);
@@ -254,5 +286,135 @@ public class EventCoordinatorTest {
 
 		eventCoordinator.processProposal(proposalVertex);
 		verify(mempool, times(1)).removeCommittedAtom(eq(aid));
+		verify(mempool, times(1)).removeCommittedAtom(eq(otherAid));
+	}
+
+	@Test
+	public void when_processing_proposal_in_pipelined_mode__then_vote_is_sent_to_next_leader_before_execution() throws Exception {
+		View currentView = View.of(123);
+		ECPublicKey currentLeader = makeKeyPair().getPublicKey();
+		ECPublicKey nextLeader = makeKeyPair().getPublicKey();
+		when(proposerElection.getProposer(eq(currentView))).thenReturn(currentLeader);
+		when(proposerElection.getProposer(eq(currentView.next()))).thenReturn(nextLeader);
+
+		Vertex proposedVertex = mock(Vertex.class);
+		Atom invalidAtom = mock(Atom.class);
+		AID invalidAid = makeAID(7); // no special significance
+		when(invalidAtom.getAID()).thenReturn(invalidAid);
+		when(proposedVertex.getQC()).thenReturn(mock(QuorumCertificate.class));
+		when(proposedVertex.getView()).thenReturn(currentView);
+		Vote vote = mock(Vote.class);
+		doReturn(vote).when(safetyRules).voteFor(eq(proposedVertex));
+
+		CompletableFuture<List<Atom>> execution = new CompletableFuture<>();
+		when(vertexStore.isPipelined()).thenReturn(true);
+		when(vertexStore.prepareVertex(any())).thenReturn(execution);
+		when(pacemaker.processQC(any())).thenReturn(Optional.empty());
+		when(pacemaker.getCurrentView()).thenReturn(currentView);
+		eventCoordinator.processProposal(proposedVertex);
+
+		verify(vertexStore, never()).insertVertex(any());
+		verify(networkSender, times(1)).sendVote(eq(vote), eq(nextLeader.getUID()));
+		verify(mempool, never()).removeRejectedAtom(any());
+
+		execution.complete(ImmutableList.of(invalidAtom));
+		verify(mempool, times(1)).removeRejectedAtom(eq(invalidAid));
+	}
+
+	@Test
+	public void when_pipelined_execution_fails__then_no_atoms_are_removed_from_mempool() throws Exception {
+		View currentView = View.of(123);
+		when(proposerElection.getProposer(any())).thenReturn(makeKeyPair().getPublicKey());
+
+		Vertex proposedVertex = mock(Vertex.class);
+		when(proposedVertex.getQC()).thenReturn(mock(QuorumCertificate.class));
+		when(proposedVertex.getView()).thenReturn(currentView);
+
+		CompletableFuture<List<Atom>> execution = new CompletableFuture<>();
+		when(vertexStore.isPipelined()).thenReturn(true);
+		when(vertexStore.prepareVertex(any())).thenReturn(execution);
+		when(pacemaker.processQC(any())).thenReturn(Optional.empty());
+		when(pacemaker.getCurrentView()).thenReturn(currentView);
+		eventCoordinator.processProposal(proposedVertex);
+
+		execution.completeExceptionally(new IllegalStateException("Engine failure"));
+		verify(mempool, never()).removeRejectedAtom(any());
+	}
+
+	@Test
+	public void when_committing_vertex_whose_execution_failed__then_consensus_stops_without_removing_atoms() throws Exception {
+		View currentView = View.of(123);
+		when(pacemaker.processQC(any())).thenReturn(Optional.empty());
+		when(pacemaker.getCurrentView()).thenReturn(currentView);
+
+		Vertex proposalVertex = mock(Vertex.class);
+		QuorumCertificate qc = mock(QuorumCertificate.class);
+		when(qc.getView()).thenReturn(mock(View.class));
+		when(proposalVertex.getQC()).thenReturn(qc);
+		when(proposalVertex.getView()).thenReturn(currentView);
+
+		Hash committedVertexId = mock(Hash.class);
+		when(safetyRules.process(eq(qc))).thenReturn(Optional.of(committedVertexId));
+		when(vertexStore.commitVertex(eq(committedVertexId)))
+			.thenThrow(new VertexExecutionException(committedVertexId, new IllegalStateException("Engine failure")));
+		when(proposerElection.getProposer(any())).thenReturn(makeKeyPair().getPublicKey());
+
+		assertThatThrownBy(() -> eventCoordinator.processProposal(proposalVertex))
+			.isInstanceOf(IllegalStateException.class)
+			.hasCauseInstanceOf(VertexExecutionException.class);
+		verify(mempool, never()).removeCommittedAtom(any());
+		verify(networkSender, never()).sendVote(any(), any());
+	}
+
+	@Test
+	public void when_proposal_descends_from_failed_execution__then_it_is_not_voted_on_and_consensus_stops() throws Exception {
+		View currentView = View.of(123);
+		when(proposerElection.getProposer(any())).thenReturn(makeKeyPair().getPublicKey());
+
+		Vertex proposedVertex = mock(Vertex.class);
+		when(proposedVertex.getQC()).thenReturn(mock(QuorumCertificate.class));
+		when(proposedVertex.getView()).thenReturn(currentView);
+
+		when(vertexStore.isPipelined()).thenReturn(true);
+		when(vertexStore.prepareVertex(any()))
+			.thenThrow(new VertexExecutionException(mock(Hash.class), new IllegalStateException("Engine failure")));
+		when(pacemaker.processQC(any())).thenReturn(Optional.empty());
+		when(pacemaker.getCurrentView()).thenReturn(currentView);
+
+		assertThatThrownBy(() -> eventCoordinator.processProposal(proposedVertex))
+			.isInstanceOf(IllegalStateException.class)
+			.hasCauseInstanceOf(VertexExecutionException.class);
+		verify(safetyRules, never()).voteFor(any());
+		verify(networkSender, never()).sendVote(any(), any());
+	}
+
+	@Test
+	public void when_forming_qc_in_pipelined_mode__then_next_proposal_is_broadcast_once() {
+		when(vertexStore.isPipelined()).thenReturn(true);
+		when(proposerElection.getProposer(any())).thenReturn(SELF_KEY.getPublicKey());
+
+		Vote vote = mock(Vote.class);
+		VertexMetadata vertexMetadata = mock(VertexMetadata.class);
+		when(vote.getVertexMetadata()).thenReturn(vertexMetadata);
+		when(vertexMetadata.getView()).thenReturn(View.of(1L));
+
+		QuorumCertificate qc = mock(QuorumCertificate.class);
+		when(qc.getView()).thenReturn(View.of(1L));
+		when(pendingVotes.insertVote(eq(vote), any())).thenReturn(Optional.of(qc));
+		when(pacemaker.processQC(eq(View.of(1L)))).thenReturn(Optional.of(View.of(2L)));
+		when(pacemaker.getCurrentView()).thenReturn(View.of(2L));
+		Vertex proposal = mock(Vertex.class);
+		when(proposalGenerator.generateProposal(eq(View.of(2L)))).thenReturn(proposal);
+
+		eventCoordinator.processVote(vote);
+		verify(networkSender, times(1)).broadcastProposal(eq(proposal));
+
+		// a quorum of new-views for the same view must not lead to a second proposal
+		NewView newView = mock(NewView.class);
+		when(newView.getQC()).thenReturn(qc);
+		when(newView.getView()).thenReturn(View.of(2L));
+		when(pacemaker.processNewView(any(), any())).thenReturn(Optional.of(View.of(2L)));
+		eventCoordinator.processNewView(newView);
+		verify(networkSender, times(1)).broadcastProposal(any());
 	}
 }
@@ -18,7 +18,6 @@
 package com.radixdlt.consensus;
 
 import com.google.common.collect.ImmutableList;
-import com.radixdlt.consensus.validators.ValidationResult;
 import com.radixdlt.consensus.validators.Validator;
 import com.radixdlt.consensus.validators.ValidatorSet;
 import com.radixdlt.crypto.CryptoException;
@@ -32,7 +31,6 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -58,13 +56,38 @@ public class PendingVotesTest {
 	}
 
 	@Test
-	public void when_inserting_valid_and_accepted_votes__then_qc_is_formed() {
+	public void when_inserting_valid_and_accepted_votes__then_qc_is_formed() throws Exception {
 		Hash vertexId = Hash.random();
-		Vote vote1 = makeVoteFor(vertexId);
-		ValidatorSet validatorSet = mock(ValidatorSet.class);
-		when(validatorSet.validate(any(), any())).thenReturn(ValidationResult.passed(ImmutableList.of(mock(Validator.class))));
+		ECKeyPair key1 = new ECKeyPair();
+		ECKeyPair key2 = new ECKeyPair();
+		Vote vote1 = makeSignedVoteFor(vertexId, key1);
+		Vote vote2 = makeSignedVoteFor(vertexId, key2);
+		ValidatorSet validatorSet = ValidatorSet.from(ImmutableList.of(Validator.from(key1.getPublicKey()), Validator.from(key2.getPublicKey())));
 		PendingVotes pendingVotes = new PendingVotes();
-		assertThat(pendingVotes.insertVote(vote1, validatorSet)).isPresent();
+		assertThat(pendingVotes.insertVote(vote1, validatorSet)).isEmpty();
+		assertThat(pendingVotes.insertVote(vote2, validatorSet)).isPresent();
+	}
+
+	@Test
+	public void when_inserting_duplicate_votes__then_they_are_counted_once() throws Exception {
+		Hash vertexId = Hash.random();
+		ECKeyPair key1 = new ECKeyPair();
+		ECKeyPair key2 = new ECKeyPair();
+		Vote vote1 = makeSignedVoteFor(vertexId, key1);
+		ValidatorSet validatorSet = ValidatorSet.from(ImmutableList.of(Validator.from(key1.getPublicKey()), Validator.from(key2.getPublicKey())));
+		PendingVotes pendingVotes = new PendingVotes();
+		assertThat(pendingVotes.insertVote(vote1, validatorSet)).isEmpty();
+		assertThat(pendingVotes.insertVote(vote1, validatorSet)).isEmpty();
+	}
+
+	private Vote makeSignedVoteFor(Hash vertexId, ECKeyPair key) throws CryptoException {
+		Vote vote = mock(Vote.class);
+		VertexMetadata vertexMetadata = mock(VertexMetadata.class);
+		when(vertexMetadata.getId()).thenReturn(vertexId);
+		when(vote.getVertexMetadata()).thenReturn(vertexMetadata);
+		when(vote.getSignature()).thenReturn(Optional.of(key.sign(vertexId)));
+		when(vote.getAuthor()).thenReturn(key.getPublicKey());
+		return vote;
 	}
 
 	private Vote makeVoteFor(Hash vertexId) {
@@ -80,4 +103,20 @@ public class PendingVotesTest {
 		}
 		return vote;
 	}
+
+	@Test
+	public void when_removing_stale_votes__then_only_votes_for_later_views_are_kept() {
+		Vote oldVote = makeVoteFor(Hash.random());
+		when(oldVote.getVertexMetadata().getView()).thenReturn(View.of(1L));
+		Vote newVote = makeVoteFor(Hash.random());
+		when(newVote.getVertexMetadata().getView()).thenReturn(View.of(2L));
+		ValidatorSet validatorSet = ValidatorSet.from(Collections.emptySet());
+		PendingVotes pendingVotes = new PendingVotes();
+		pendingVotes.insertVote(oldVote, validatorSet);
+		pendingVotes.insertVote(newVote, validatorSet);
+		assertThat(pendingVotes.size()).isEqualTo(2);
+
+		pendingVotes.removeStaleVotes(View.of(1L));
+		assertThat(pendingVotes.size()).isEqualTo(1);
+	}
 }
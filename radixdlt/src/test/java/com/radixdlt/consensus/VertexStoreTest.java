@@ -19,18 +19,27 @@ package com.radixdlt.consensus;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.when;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.common.Atom;
 import com.radixdlt.crypto.ECDSASignatures;
 import com.radixdlt.crypto.Hash;
 import com.radixdlt.engine.RadixEngine;
 import com.radixdlt.engine.RadixEngineException;
 import io.reactivex.rxjava3.observers.TestObserver;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -68,18 +77,21 @@ public class VertexStoreTest {
 			View.genesis(), Hash.ZERO_HASH, null, null
 		);
 		QuorumCertificate qc = new QuorumCertificate(vertexMetadata, new ECDSASignatures());
-		Vertex nextVertex = Vertex.createVertex(qc, View.of(1), mock(Atom.class));
+		Vertex nextVertex = Vertex.createVertex(qc, View.of(1), ImmutableList.of(mock(Atom.class)));
 		assertThatThrownBy(() -> vertexStore.insertVertex(nextVertex))
 			.isInstanceOf(MissingParentException.class);
 	}
 
 	@Test
-	public void when_inserting_vertex_which_fails_to_pass_re__then_vertex_insertion_exception_is_thrown() throws Exception {
-		doThrow(mock(RadixEngineException.class)).when(radixEngine).store(any());
+	public void when_inserting_vertex_with_atom_which_fails_to_pass_re__then_only_that_atom_is_rejected() throws Exception {
+		Atom validAtom = mock(Atom.class);
+		Atom invalidAtom = mock(Atom.class);
+		doThrow(mock(RadixEngineException.class)).when(radixEngine).store(same(invalidAtom));
 
-		Vertex nextVertex = Vertex.createVertex(rootQC, View.of(1), mock(Atom.class));
-		assertThatThrownBy(() -> vertexStore.insertVertex(nextVertex))
-			.isInstanceOf(VertexInsertionException.class);
+		Vertex nextVertex = Vertex.createVertex(rootQC, View.of(1), ImmutableList.of(invalidAtom, validAtom));
+		assertThat(vertexStore.insertVertex(nextVertex)).isEqualTo(ImmutableList.of(invalidAtom));
+		verify(radixEngine, times(1)).store(same(validAtom));
+		assertThat(vertexStore.getVertex(nextVertex.getId())).isEqualTo(nextVertex);
 	}
 
 	@Test
@@ -90,10 +102,10 @@ public class VertexStoreTest {
 
 	@Test
 	public void when_insert_two_vertices__then_get_path_from_root_should_return_the_two_vertices() throws Exception {
-		Vertex nextVertex0 = Vertex.createVertex(rootQC, View.of(1), null);
+		Vertex nextVertex0 = Vertex.createVertex(rootQC, View.of(1), ImmutableList.of());
 		VertexMetadata vertexMetadata = new VertexMetadata(View.of(1), nextVertex0.getId(), View.genesis(), genesisVertex.getId());
 		QuorumCertificate qc = new QuorumCertificate(vertexMetadata, new ECDSASignatures());
-		Vertex nextVertex1 = Vertex.createVertex(qc, View.of(2), null);
+		Vertex nextVertex1 = Vertex.createVertex(qc, View.of(2), ImmutableList.of());
 		vertexStore.insertVertex(nextVertex0);
 		vertexStore.insertVertex(nextVertex1);
 		assertThat(vertexStore.getPathFromRoot(nextVertex1.getId()))
@@ -102,7 +114,7 @@ public class VertexStoreTest {
 
 	@Test
 	public void when_insert_and_commit_vertex__then_committed_vertex_should_emit() throws Exception {
-		Vertex nextVertex = Vertex.createVertex(rootQC, View.of(1), null);
+		Vertex nextVertex = Vertex.createVertex(rootQC, View.of(1), ImmutableList.of());
 		vertexStore.insertVertex(nextVertex);
 
 		TestObserver<Vertex> testObserver = TestObserver.create();
@@ -113,4 +125,124 @@ public class VertexStoreTest {
 		testObserver.awaitCount(2);
 		testObserver.assertValues(genesisVertex, nextVertex);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void when_pipelined_vertex_is_prepared__then_it_is_available_before_it_is_executed() throws Exception {
+		List<Runnable> executions = new ArrayList<>();
+		VertexStore pipelinedStore = new VertexStore(genesisVertex, rootQC, radixEngine, executions::add);
+		Atom atom = mock(Atom.class);
+		Vertex nextVertex = Vertex.createVertex(rootQC, View.of(1), ImmutableList.of(atom));
+
+		CompletableFuture<List<Atom>> execution = pipelinedStore.prepareVertex(nextVertex);
+		assertThat(pipelinedStore.isPipelined()).isTrue();
+		assertThat(pipelinedStore.getVertex(nextVertex.getId())).isEqualTo(nextVertex);
+		assertThat(execution.isDone()).isFalse();
+		verify(radixEngine, never()).store(same(atom));
+
+		executions.forEach(Runnable::run);
+		assertThat(execution.get()).isEqualTo(ImmutableList.of());
+		verify(radixEngine, times(1)).store(same(atom));
+	}
+
+	@Test
+	public void when_committing_pipelined_vertex__then_it_is_executed_first() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			VertexStore pipelinedStore = new VertexStore(genesisVertex, rootQC, radixEngine, executor);
+			Atom atom = mock(Atom.class);
+			Vertex nextVertex = Vertex.createVertex(rootQC, View.of(1), ImmutableList.of(atom));
+			pipelinedStore.prepareVertex(nextVertex);
+
+			assertThat(pipelinedStore.commitVertex(nextVertex.getId())).isEqualTo(nextVertex);
+			verify(radixEngine, times(1)).store(same(atom));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void when_pipelined_execution_fails__then_its_descendants_are_neither_executed_nor_committed() throws Exception {
+		List<Runnable> executions = new ArrayList<>();
+		VertexStore pipelinedStore = new VertexStore(genesisVertex, rootQC, radixEngine, executions::add);
+		Atom failingAtom = mock(Atom.class);
+		doThrow(new IllegalStateException("Engine failure")).when(radixEngine).store(same(failingAtom));
+
+		Vertex nextVertex0 = Vertex.createVertex(rootQC, View.of(1), ImmutableList.of());
+		QuorumCertificate qc0 = new QuorumCertificate(
+			new VertexMetadata(View.of(1), nextVertex0.getId(), View.genesis(), genesisVertex.getId()),
+			new ECDSASignatures()
+		);
+		Vertex failedVertex = Vertex.createVertex(qc0, View.of(2), ImmutableList.of(failingAtom));
+		QuorumCertificate qc1 = new QuorumCertificate(
+			new VertexMetadata(View.of(2), failedVertex.getId(), View.of(1), nextVertex0.getId()),
+			new ECDSASignatures()
+		);
+		Atom descendantAtom = mock(Atom.class);
+		Vertex nextVertex2 = Vertex.createVertex(qc1, View.of(3), ImmutableList.of(descendantAtom));
+		QuorumCertificate qc2 = new QuorumCertificate(
+			new VertexMetadata(View.of(3), nextVertex2.getId(), View.of(2), failedVertex.getId()),
+			new ECDSASignatures()
+		);
+		Vertex nextVertex3 = Vertex.createVertex(qc2, View.of(4), ImmutableList.of());
+		pipelinedStore.prepareVertex(nextVertex0);
+		CompletableFuture<List<Atom>> failedExecution = pipelinedStore.prepareVertex(failedVertex);
+		// prepared before the failure is known, so its execution is already queued
+		CompletableFuture<List<Atom>> descendantExecution = pipelinedStore.prepareVertex(nextVertex2);
+		executions.forEach(Runnable::run);
+
+		assertThat(failedExecution.isCompletedExceptionally()).isTrue();
+		assertThat(descendantExecution.isCompletedExceptionally()).isTrue();
+		verify(radixEngine, never()).store(same(descendantAtom));
+		assertThatThrownBy(() -> pipelinedStore.prepareVertex(nextVertex3))
+			.isInstanceOf(VertexExecutionException.class)
+			.hasMessageContaining(failedVertex.getId().toString());
+		assertThat(pipelinedStore.getVertex(nextVertex3.getId())).isNull();
+
+		assertThatThrownBy(() -> pipelinedStore.commitVertex(nextVertex2.getId()))
+			.isInstanceOf(VertexExecutionException.class)
+			.hasMessageContaining(failedVertex.getId().toString());
+		assertThat(pipelinedStore.getPathFromRoot(nextVertex0.getId())).isEqualTo(ImmutableList.of());
+		assertThat(pipelinedStore.getPathFromRoot(failedVertex.getId())).isEqualTo(ImmutableList.of(failedVertex));
+	}
+
+	@Test
+	public void when_committing_vertex__then_all_its_ancestors_are_committed() throws Exception {
+		Vertex nextVertex0 = Vertex.createVertex(rootQC, View.of(1), ImmutableList.of());
+		VertexMetadata vertexMetadata = new VertexMetadata(View.of(1), nextVertex0.getId(), View.genesis(), genesisVertex.getId());
+		QuorumCertificate qc = new QuorumCertificate(vertexMetadata, new ECDSASignatures());
+		Vertex nextVertex1 = Vertex.createVertex(qc, View.of(2), ImmutableList.of());
+		vertexStore.insertVertex(nextVertex0);
+		vertexStore.insertVertex(nextVertex1);
+
+		vertexStore.commitVertex(nextVertex1.getId());
+		assertThat(vertexStore.getPathFromRoot(nextVertex0.getId())).isEqualTo(ImmutableList.of());
+		assertThat(vertexStore.getPathFromRoot(nextVertex1.getId())).isEqualTo(ImmutableList.of());
+	}
+
+	@Test
+	public void when_committing_vertex__then_abandoned_forks_and_vertices_outside_window_are_pruned() throws Exception {
+		VertexStore prunedStore = new VertexStore(genesisVertex, rootQC, radixEngine, null, 2);
+		Vertex nextVertex0 = Vertex.createVertex(rootQC, View.of(1), ImmutableList.of());
+		Vertex forkVertex = Vertex.createVertex(rootQC, View.of(2), ImmutableList.of());
+		VertexMetadata vertexMetadata = new VertexMetadata(View.of(1), nextVertex0.getId(), View.genesis(), genesisVertex.getId());
+		QuorumCertificate qc = new QuorumCertificate(vertexMetadata, new ECDSASignatures());
+		Vertex nextVertex1 = Vertex.createVertex(qc, View.of(3), ImmutableList.of());
+		prunedStore.insertVertex(nextVertex0);
+		prunedStore.insertVertex(forkVertex);
+		prunedStore.insertVertex(nextVertex1);
+		assertThat(prunedStore.getVertexCount()).isEqualTo(4);
+
+		prunedStore.commitVertex(nextVertex1.getId());
+		assertThat(prunedStore.getVertex(forkVertex.getId())).isNull();
+		assertThat(prunedStore.getVertex(genesisVertex.getId())).isNull();
+		assertThat(prunedStore.getVertex(nextVertex0.getId())).isEqualTo(nextVertex0);
+		assertThat(prunedStore.getVertex(nextVertex1.getId())).isEqualTo(nextVertex1);
+		assertThat(prunedStore.getVertexCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void when_creating_store_with_empty_window__then_exception_is_thrown() {
+		assertThatThrownBy(() -> new VertexStore(genesisVertex, rootQC, radixEngine, null, 0))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+}
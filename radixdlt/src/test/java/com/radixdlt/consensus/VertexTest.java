@@ -17,6 +17,7 @@
 
 package com.radixdlt.consensus;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.common.Atom;
 import com.radixdlt.crypto.ECDSASignatures;
 import com.radixdlt.crypto.Hash;
@@ -49,7 +50,7 @@ public class VertexTest {
 
 		this.atom = new Atom();
 
-		this.testObject = Vertex.createVertex(this.qc, view, this.atom);
+		this.testObject = Vertex.createVertex(this.qc, view, ImmutableList.of(this.atom));
 	}
 
 	@Test
@@ -60,7 +61,7 @@ public class VertexTest {
 
 	@Test
 	public void testGetters() {
-		assertEquals(this.atom, this.testObject.getAtom());
+		assertEquals(ImmutableList.of(this.atom), this.testObject.getAtoms());
 		assertEquals(this.qc, this.testObject.getQC());
 		assertEquals(View.of(1234567891L), this.testObject.getView());
 	}
@@ -0,0 +1,80 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus.liveness;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AdaptivePacemakerTimeoutCalculatorTest {
+	@Test
+	public void when_no_latency_was_observed__then_initial_timeout_is_used() {
+		AdaptivePacemakerTimeoutCalculator calculator = new AdaptivePacemakerTimeoutCalculator(1000L, 100L, 60_000L);
+		assertThat(calculator.timeoutMillis()).isEqualTo(1000L);
+	}
+
+	@Test
+	public void when_latency_is_stable__then_timeout_converges_to_a_small_multiple_of_latency() {
+		AdaptivePacemakerTimeoutCalculator calculator = new AdaptivePacemakerTimeoutCalculator(1000L, 10L, 60_000L);
+		for (int i = 0; i < 100; i++) {
+			calculator.progress(TimeUnit.MILLISECONDS.toNanos(50L));
+		}
+		assertThat(calculator.smoothedLatencyMillis()).isBetween(49.0, 51.0);
+		assertThat(calculator.timeoutMillis()).isBetween(50L, 60L);
+	}
+
+	@Test
+	public void when_latency_is_tiny__then_timeout_is_clamped_to_minimum() {
+		AdaptivePacemakerTimeoutCalculator calculator = new AdaptivePacemakerTimeoutCalculator(1000L, 100L, 60_000L);
+		calculator.progress(TimeUnit.MILLISECONDS.toNanos(1L));
+		assertThat(calculator.timeoutMillis()).isEqualTo(100L);
+	}
+
+	@Test
+	public void when_views_time_out_consecutively__then_timeout_backs_off_exponentially_up_to_maximum() {
+		AdaptivePacemakerTimeoutCalculator calculator = new AdaptivePacemakerTimeoutCalculator(1000L, 100L, 5_000L);
+		calculator.timeout();
+		assertThat(calculator.timeoutMillis()).isEqualTo(2000L);
+		calculator.timeout();
+		assertThat(calculator.timeoutMillis()).isEqualTo(4000L);
+		calculator.timeout();
+		assertThat(calculator.timeoutMillis()).isEqualTo(5000L);
+		for (int i = 0; i < 100; i++) {
+			calculator.timeout();
+		}
+		assertThat(calculator.timeoutMillis()).isEqualTo(5000L);
+	}
+
+	@Test
+	public void when_view_makes_progress_after_timeouts__then_backoff_is_reset() {
+		AdaptivePacemakerTimeoutCalculator calculator = new AdaptivePacemakerTimeoutCalculator(1000L, 100L, 60_000L);
+		calculator.timeout();
+		calculator.timeout();
+		calculator.progress(TimeUnit.MILLISECONDS.toNanos(200L));
+		assertThat(calculator.consecutiveTimeouts()).isZero();
+		assertThat(calculator.timeoutMillis()).isEqualTo(calculator.baseTimeoutMillis());
+	}
+
+	@Test
+	public void when_creating_with_invalid_bounds__then_exception_is_thrown() {
+		assertThatThrownBy(() -> new AdaptivePacemakerTimeoutCalculator(1000L, 500L, 100L))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -21,12 +21,13 @@ import com.google.common.collect.ImmutableList;
 import com.radixdlt.consensus.NewView;
 import com.radixdlt.consensus.QuorumCertificate;
 import com.radixdlt.consensus.View;
-import com.radixdlt.consensus.validators.ValidationResult;
 import com.radixdlt.consensus.validators.Validator;
 import com.radixdlt.consensus.validators.ValidatorSet;
 import com.radixdlt.crypto.CryptoException;
 import com.radixdlt.crypto.ECDSASignature;
 import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.Hash;
+import com.radixdlt.utils.Longs;
 import io.reactivex.rxjava3.observers.TestObserver;
 import java.util.Collections;
 import java.util.concurrent.ExecutorService;
@@ -35,11 +36,13 @@ import org.junit.Test;
 
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -91,6 +94,24 @@ public class PacemakerImplTest {
 		verify(executorService, times(2)).schedule(any(Runnable.class), anyLong(), any());
 	}
 
+	@Test
+	public void when_views_change__then_timeout_calculator_is_informed_and_its_timeout_is_scheduled() {
+		ScheduledExecutorService executorService = getMockedExecutorService();
+		PacemakerTimeoutCalculator timeoutCalculator = mock(PacemakerTimeoutCalculator.class);
+		when(timeoutCalculator.timeoutMillis()).thenReturn(1234L);
+		PacemakerImpl pacemaker = new PacemakerImpl(executorService, timeoutCalculator);
+
+		pacemaker.processLocalTimeout(View.of(0L));
+		verify(timeoutCalculator, times(1)).timeout();
+		pacemaker.processQC(View.of(1L));
+		verify(timeoutCalculator, times(1)).progress(anyLong());
+
+		verify(executorService, times(2)).schedule(any(Runnable.class), eq(1234L), eq(TimeUnit.MILLISECONDS));
+		assertThat(pacemaker.getCurrentTimeoutMillis()).isEqualTo(1234L);
+		assertThat(pacemaker.getViewChanges()).isEqualTo(2L);
+		assertThat(pacemaker.getLocalTimeouts()).isEqualTo(1L);
+	}
+
 	@Test
 	public void when_timeout_event_occurs_and_no_process__then_no_scheduled_timeout_occurs() {
 		ScheduledExecutorService executorService = getMockedExecutorService();
@@ -166,18 +187,31 @@ public class PacemakerImplTest {
 	}
 
 	@Test
-	public void when_inserting_valid_and_accepted_new_views__then_qc_is_formed() {
+	public void when_inserting_valid_and_accepted_new_views__then_qc_is_formed() throws Exception {
 		View view = View.of(2);
-		NewView newView = makeNewViewFor(view);
-		ValidatorSet validatorSet = mock(ValidatorSet.class);
-		ValidationResult result = mock(ValidationResult.class);
-		when(result.valid()).thenReturn(true);
-		when(validatorSet.validate(any(), any())).thenReturn(result);
+		ECKeyPair keyPair = new ECKeyPair();
+		NewView newView = new NewView(keyPair.getPublicKey(), view, mock(QuorumCertificate.class), signNewView(keyPair, view));
+		ValidatorSet validatorSet = ValidatorSet.from(Collections.singleton(Validator.from(keyPair.getPublicKey())));
 		ScheduledExecutorService executorService = getMockedExecutorService();
 		PacemakerImpl pacemaker = new PacemakerImpl(executorService);
 		assertThat(pacemaker.processNewView(newView, validatorSet)).isPresent();
 	}
 
+	@Test
+	public void when_inserting_new_view_with_invalid_signature__then_no_new_view_is_returned() throws Exception {
+		View view = View.of(2);
+		ECKeyPair keyPair = new ECKeyPair();
+		NewView newView = new NewView(keyPair.getPublicKey(), view, mock(QuorumCertificate.class), signNewView(keyPair, view.next()));
+		ValidatorSet validatorSet = ValidatorSet.from(Collections.singleton(Validator.from(keyPair.getPublicKey())));
+		ScheduledExecutorService executorService = getMockedExecutorService();
+		PacemakerImpl pacemaker = new PacemakerImpl(executorService);
+		assertThat(pacemaker.processNewView(newView, validatorSet)).isEmpty();
+	}
+
+	private static ECDSASignature signNewView(ECKeyPair keyPair, View view) throws CryptoException {
+		return keyPair.sign(new Hash(Hash.hash256(Longs.toByteArray(view.number()))));
+	}
+
 	private NewView makeNewViewFor(View view) {
 		NewView newView = mock(NewView.class);
 		when(newView.getView()).thenReturn(view);
@@ -193,15 +227,28 @@ public class PacemakerImplTest {
 	@Test
 	public void when_process_new_view_and_is_a_quorum__should_return_new_view() throws Exception {
 		ScheduledExecutorService executorService = getMockedExecutorService();
-		ValidatorSet validatorSet = mock(ValidatorSet.class);
-		when(validatorSet.validate(any(), any())).thenReturn(ValidationResult.passed(ImmutableList.of(mock(Validator.class))));
+		ECKeyPair keyPair = new ECKeyPair();
+		ValidatorSet validatorSet = ValidatorSet.from(ImmutableList.of(Validator.from(keyPair.getPublicKey())));
 		PacemakerImpl pacemaker = new PacemakerImpl(executorService);
 
-		View view = mock(View.class);
-		ECKeyPair keyPair = new ECKeyPair();
-		NewView newView = new NewView(keyPair.getPublicKey(), view, mock(QuorumCertificate.class), mock(ECDSASignature.class));
+		View view = View.of(3L);
+		NewView newView = new NewView(keyPair.getPublicKey(), view, mock(QuorumCertificate.class), signNewView(keyPair, view));
 		assertThat(pacemaker.processNewView(newView, validatorSet))
 			.get()
 			.isEqualTo(view);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void when_view_changes__then_pending_new_views_for_earlier_views_are_discarded() {
+		ScheduledExecutorService executorService = getMockedExecutorService();
+		PacemakerImpl pacemaker = new PacemakerImpl(executorService);
+		ValidatorSet validatorSet = ValidatorSet.from(Collections.emptySet());
+		pacemaker.processNewView(makeNewViewFor(View.of(1L)), validatorSet);
+		pacemaker.processNewView(makeNewViewFor(View.of(3L)), validatorSet);
+		assertThat(pacemaker.getPendingNewViewCount()).isEqualTo(2);
+
+		pacemaker.processQC(View.of(1L));
+		assertThat(pacemaker.getCurrentView()).isEqualTo(View.of(2L));
+		assertThat(pacemaker.getPendingNewViewCount()).isEqualTo(1);
+	}
+}
@@ -17,13 +17,17 @@
 
 package com.radixdlt.consensus.liveness;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.when;
 
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.common.AID;
 import com.radixdlt.common.Atom;
 import com.radixdlt.consensus.QuorumCertificate;
 import com.radixdlt.consensus.Vertex;
@@ -32,25 +36,72 @@ import com.radixdlt.consensus.VertexStore;
 import com.radixdlt.consensus.View;
 import com.radixdlt.mempool.Mempool;
 import java.util.Collections;
+import org.junit.Before;
 import org.junit.Test;
 
 public class ProposalGeneratorTest {
+	private Mempool mempool;
+	private VertexStore vertexStore;
+
+	@Before
+	public void setUp() {
+		this.mempool = mock(Mempool.class);
+		this.vertexStore = mock(VertexStore.class);
+		QuorumCertificate qc = mock(QuorumCertificate.class);
+		when(qc.getVertexMetadata()).thenReturn(mock(VertexMetadata.class));
+		when(vertexStore.getHighestQC()).thenReturn(qc);
+	}
+
 	@Test
 	public void when_vertex_store_contains_vertices_with_no_atom__then_generate_proposal_should_still_work() {
-		Mempool mempool = mock(Mempool.class);
 		Atom atom = mock(Atom.class);
 		when(mempool.getAtoms(anyInt(), anySet())).thenReturn(Collections.singletonList(atom));
 
-		VertexStore vertexStore = mock(VertexStore.class);
-		QuorumCertificate qc = mock(QuorumCertificate.class);
-		when(qc.getVertexMetadata()).thenReturn(mock(VertexMetadata.class));
-		when(vertexStore.getHighestQC()).thenReturn(qc);
 		Vertex vertex = mock(Vertex.class);
-		when(vertex.getAtom()).thenReturn(null);
+		when(vertex.getAtoms()).thenReturn(ImmutableList.of());
 		when(vertexStore.getPathFromRoot(any())).thenReturn(Collections.singletonList(vertex));
 
-		ProposalGenerator proposalGenerator = new ProposalGenerator(vertexStore, mempool);
+		ProposalGenerator proposalGenerator = new ProposalGenerator(vertexStore, mempool, 1, Long.MAX_VALUE, a -> 0);
+		Vertex proposal = proposalGenerator.generateProposal(View.of(1));
+		assertThat(proposal.getAtoms()).containsExactly(atom);
+	}
+
+	@Test
+	public void when_generating_proposal__then_atoms_of_prepared_vertices_are_excluded_and_batch_size_is_requested() {
+		AID preparedAid = AID.ZERO;
+		Atom preparedAtom = mock(Atom.class);
+		when(preparedAtom.getAID()).thenReturn(preparedAid);
+		Vertex vertex = mock(Vertex.class);
+		when(vertex.getAtoms()).thenReturn(ImmutableList.of(preparedAtom));
+		when(vertexStore.getPathFromRoot(any())).thenReturn(Collections.singletonList(vertex));
+
+		ProposalGenerator proposalGenerator = new ProposalGenerator(vertexStore, mempool, 16, Long.MAX_VALUE, a -> 0);
+		proposalGenerator.generateProposal(View.of(1));
+		verify(mempool).getAtoms(eq(16), eq(Collections.singleton(preparedAid)));
+	}
+
+	@Test
+	public void when_mempool_atoms_exceed_byte_budget__then_proposal_contains_only_atoms_within_budget() {
+		Atom atom1 = mock(Atom.class);
+		Atom atom2 = mock(Atom.class);
+		Atom atom3 = mock(Atom.class);
+		when(mempool.getAtoms(anyInt(), anySet())).thenReturn(ImmutableList.of(atom1, atom2, atom3));
+		when(vertexStore.getPathFromRoot(any())).thenReturn(Collections.emptyList());
+
+		ProposalGenerator proposalGenerator = new ProposalGenerator(vertexStore, mempool, 3, 250L, a -> 100);
+		Vertex proposal = proposalGenerator.generateProposal(View.of(1));
+		assertThat(proposal.getAtoms()).containsExactly(atom1, atom2);
+	}
+
+	@Test
+	public void when_single_atom_exceeds_byte_budget__then_it_is_proposed_on_its_own() {
+		Atom atom1 = mock(Atom.class);
+		Atom atom2 = mock(Atom.class);
+		when(mempool.getAtoms(anyInt(), anySet())).thenReturn(ImmutableList.of(atom1, atom2));
+		when(vertexStore.getPathFromRoot(any())).thenReturn(Collections.emptyList());
+
+		ProposalGenerator proposalGenerator = new ProposalGenerator(vertexStore, mempool, 2, 50L, a -> 100);
 		Vertex proposal = proposalGenerator.generateProposal(View.of(1));
-		assertThat(proposal.getAtom()).isEqualTo(atom);
+		assertThat(proposal.getAtoms()).containsExactly(atom1);
 	}
-}
\ No newline at end of file
+}
@@ -17,10 +17,12 @@
 
 package com.radixdlt.consensus.safety;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.atomos.RadixAddress;
 import com.radixdlt.common.EUID;
 import com.radixdlt.consensus.QuorumCertificate;
 import com.radixdlt.consensus.Vertex;
+import com.radixdlt.consensus.VertexExecutionException;
 import com.radixdlt.consensus.VertexInsertionException;
 import com.radixdlt.consensus.VertexMetadata;
 import com.radixdlt.consensus.VertexStore;
@@ -199,10 +201,10 @@ public class SafetyRulesTest {
 			parent.getParentId()
 		);
 		QuorumCertificate qc = new QuorumCertificate(parentMetadata, new ECDSASignatures());
-		Vertex vertex = Vertex.createVertex(qc, view, null);
+		Vertex vertex = Vertex.createVertex(qc, view, ImmutableList.of());
 		try {
 			vertexStore.insertVertex(vertex);
-		} catch (VertexInsertionException e) {
+		} catch (VertexInsertionException | VertexExecutionException e) {
 			throw new RuntimeException("Failed to setup vertex " + vertex, e);
 		}
 		return vertex;
@@ -0,0 +1,87 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.consensus.validators;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.crypto.CryptoException;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.Hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationStateTest {
+
+	@Test
+	public void testIncrementalQuorum() throws CryptoException {
+		ECKeyPair k1 = new ECKeyPair();
+		ECKeyPair k2 = new ECKeyPair();
+		ECKeyPair k3 = new ECKeyPair();
+		ECKeyPair k4 = new ECKeyPair();
+
+		ValidatorSet vs = ValidatorSet.from(ImmutableSet.of(
+			Validator.from(k1.getPublicKey()),
+			Validator.from(k2.getPublicKey()),
+			Validator.from(k3.getPublicKey()),
+			Validator.from(k4.getPublicKey())
+		));
+
+		Hash message = Hash.random();
+		ValidationState state = vs.newValidationState(message);
+
+		assertTrue(state.addSignature(k1.getPublicKey(), k1.sign(message)));
+		assertTrue(state.addSignature(k2.getPublicKey(), k2.sign(message)));
+		assertFalse(state.complete());
+		assertFalse(state.result().valid());
+
+		assertTrue(state.addSignature(k3.getPublicKey(), k3.sign(message)));
+		assertTrue(state.complete());
+		assertEquals(3, state.signedPower());
+		assertEquals(3, state.result().validators().size());
+		assertTrue(vs.validate(message, state.signatures()).valid());
+	}
+
+	@Test
+	public void testIgnoredSignatures() throws CryptoException {
+		ECKeyPair k1 = new ECKeyPair();
+		ECKeyPair k2 = new ECKeyPair();
+		ECKeyPair k3 = new ECKeyPair(); // Rogue signature
+
+		ValidatorSet vs = ValidatorSet.from(ImmutableSet.of(
+			Validator.from(k1.getPublicKey()),
+			Validator.from(k2.getPublicKey())
+		));
+
+		Hash message = Hash.random();
+		ValidationState state = vs.newValidationState(message);
+
+		// duplicate signature
+		assertTrue(state.addSignature(k1.getPublicKey(), k1.sign(message)));
+		assertFalse(state.addSignature(k1.getPublicKey(), k1.sign(message)));
+		// signature over another message
+		assertFalse(state.addSignature(k2.getPublicKey(), k2.sign(Hash.random())));
+		// key not in validator set
+		assertFalse(state.addSignature(k3.getPublicKey(), k3.sign(message)));
+
+		assertEquals(1, state.signedPower());
+		assertFalse(state.complete());
+	}
+}
@@ -17,7 +17,12 @@
 
 package com.radixdlt.mempool;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -109,6 +114,36 @@ public class LocalMempoolTest {
 		assertEquals(0, this.mempool.atomCount());
 	}
 
+	@Test
+	public void when_atoms_are_rejected_concurrently_with_consensus__then_only_rejected_atoms_are_removed()
+		throws Exception {
+		// with pipelined consensus, rejected atoms are removed on the execution thread
+		final int count = 1000;
+		LocalMempool largeMempool = new LocalMempool(2 * count);
+		List<Atom> rejected = new ArrayList<>();
+		List<Atom> accepted = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			rejected.add(makeAtom(i));
+			accepted.add(makeAtom(count + i));
+			largeMempool.addAtom(rejected.get(i));
+		}
+
+		ExecutorService executionThread = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> removals = executionThread.submit(() -> rejected.forEach(atom -> largeMempool.removeRejectedAtom(atom.getAID())));
+			for (Atom atom : accepted) {
+				largeMempool.addAtom(atom);
+				largeMempool.getAtoms(count, Sets.newHashSet());
+			}
+			removals.get(10, TimeUnit.SECONDS);
+		} finally {
+			executionThread.shutdownNow();
+		}
+
+		assertEquals(count, largeMempool.atomCount());
+		assertEquals(accepted, largeMempool.getAtoms(count, Sets.newHashSet()));
+	}
+
 	@Test
 	public void when_an_atom_is_requested__then_mempool_returns_and_retains_atoms()
 		throws MempoolFullException, MempoolDuplicateException {
@@ -0,0 +1,164 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.snapshot;
+
+import com.radixdlt.common.AID;
+import com.radixdlt.common.EUID;
+import com.radixdlt.consensus.tempo.Scheduler;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.snapshot.messages.SnapshotChunkRequestMessage;
+import com.radixdlt.snapshot.messages.SnapshotChunkResponseMessage;
+import com.radixdlt.snapshot.messages.SnapshotManifestRequestMessage;
+import com.radixdlt.snapshot.messages.SnapshotManifestResponseMessage;
+import com.radixdlt.store.snapshot.LedgerSnapshot;
+import com.radixdlt.store.snapshot.LedgerSnapshotWriter;
+import com.radixdlt.store.snapshot.SnapshotEntry;
+import com.radixdlt.universe.Universe;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.radix.network.messaging.Message;
+import org.radix.network2.addressbook.Peer;
+import org.radix.network2.messaging.MessageCentral;
+import org.radix.network2.messaging.MessageListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SnapshotDelivererTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Serialization serialization = Serialization.getDefault();
+	private final Map<Class<?>, MessageListener<Message>> listeners = new HashMap<>();
+	private final Map<EUID, LedgerSnapshot> offered = new HashMap<>();
+	private MessageCentral messageCentral;
+	private SnapshotDeliverer deliverer;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		SnapshotDelivererConfiguration configuration = mock(SnapshotDelivererConfiguration.class);
+		when(configuration.serveDirectory(anyString())).then(returnsFirstArg());
+		when(configuration.requestQueueCapacity(anyInt())).then(returnsFirstArg());
+		when(configuration.requestProcessorThreads(anyInt())).then(returnsFirstArg());
+		when(configuration.requestTimeoutSeconds(anyInt())).then(returnsFirstArg());
+		when(configuration.maxChunksInFlightPerPeer(anyInt())).then(returnsFirstArg());
+
+		messageCentral = mock(MessageCentral.class);
+		doAnswer(invocation -> listeners.put(invocation.getArgument(0), invocation.getArgument(1)))
+			.when(messageCentral).addListener(any(), any());
+		// every peer answers with the snapshot it offers
+		doAnswer(invocation -> {
+			Peer peer = invocation.getArgument(0);
+			Message message = invocation.getArgument(1);
+			LedgerSnapshot snapshot = offered.get(peer.getNID());
+			if (message instanceof SnapshotManifestRequestMessage) {
+				receive(peer, new SnapshotManifestResponseMessage(snapshot == null ? null : snapshot.getManifest(), 0));
+			} else if (message instanceof SnapshotChunkRequestMessage) {
+				SnapshotChunkRequestMessage request = (SnapshotChunkRequestMessage) message;
+				byte[] chunk = snapshot.readChunk(request.getIndex());
+				receive(peer, new SnapshotChunkResponseMessage(request.getSnapshotId(), request.getIndex(), chunk, 0));
+			}
+			return null;
+		}).when(messageCentral).send(any(), any());
+
+		deliverer = new SnapshotDeliverer(mock(Scheduler.class), messageCentral, serialization, configuration, mock(Universe.class));
+	}
+
+	@After
+	public void tearDown() {
+		deliverer.close();
+	}
+
+	private void receive(Peer peer, Message message) {
+		listeners.get(message.getClass()).handleMessage(peer, message);
+	}
+
+	private static Peer peer(int nid) {
+		Peer peer = mock(Peer.class);
+		when(peer.getNID()).thenReturn(new EUID(nid));
+		return peer;
+	}
+
+	private LedgerSnapshot write(int entries, int seed) throws IOException {
+		LedgerSnapshotWriter writer = new LedgerSnapshotWriter(folder.newFolder(), serialization, 256);
+		for (int i = 0; i < entries; i++) {
+			byte[] aidBytes = new byte[AID.BYTES];
+			aidBytes[0] = (byte) i;
+			aidBytes[1] = (byte) seed;
+			writer.add(new SnapshotEntry(i + 1L, AID.from(aidBytes), new byte[] { (byte) i, (byte) seed }, new byte[] { 1, (byte) i }));
+		}
+		return writer.finish();
+	}
+
+	@Test
+	public void when_fetching_a_trusted_snapshot__then_only_peers_offering_it_are_asked_for_chunks() throws Exception {
+		LedgerSnapshot trusted = write(50, 1);
+		LedgerSnapshot forged = write(50, 2);
+		Peer honest = peer(1);
+		Peer malicious = peer(2);
+		offered.put(honest.getNID(), trusted);
+		offered.put(malicious.getNID(), forged);
+
+		File directory = folder.newFolder();
+		CompletableFuture<LedgerSnapshot> fetch = deliverer.fetch(Arrays.asList(malicious, honest), trusted.getManifest().getId(), directory);
+		LedgerSnapshot fetched = fetch.get(10, TimeUnit.SECONDS);
+
+		assertThat(fetched.getManifest()).isEqualTo(trusted.getManifest());
+		assertThat(LedgerSnapshot.exists(directory)).isTrue();
+		verify(messageCentral, never()).send(eq(malicious), any(SnapshotChunkRequestMessage.class));
+	}
+
+	@Test
+	public void when_no_peer_offers_the_trusted_snapshot__then_the_fetch_fails_without_requesting_chunks() throws IOException {
+		LedgerSnapshot trusted = write(50, 1);
+		LedgerSnapshot forged = write(50, 2);
+		Peer malicious = peer(2);
+		offered.put(malicious.getNID(), forged);
+
+		File directory = folder.newFolder();
+		CompletableFuture<LedgerSnapshot> fetch = deliverer.fetch(Collections.singletonList(malicious), trusted.getManifest().getId(), directory);
+
+		assertThatThrownBy(() -> fetch.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+		assertThat(LedgerSnapshot.exists(directory)).isFalse();
+		verify(messageCentral, never()).send(any(), any(SnapshotChunkRequestMessage.class));
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.async;
+
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.common.AID;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.StoreIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncLedgerEntryStoreTest {
+	private LedgerEntryStore delegate;
+	private AsyncLedgerEntryStore store;
+
+	@Before
+	public void setUp() {
+		this.delegate = mock(LedgerEntryStore.class);
+		AsyncLedgerEntryStoreConfiguration configuration = mock(AsyncLedgerEntryStoreConfiguration.class);
+		when(configuration.readThreads(anyInt())).thenReturn(1);
+		when(configuration.readQueueCapacity(anyInt())).thenReturn(16);
+		this.store = new AsyncLedgerEntryStore(this.delegate, configuration);
+	}
+
+	@After
+	public void tearDown() {
+		this.store.close();
+	}
+
+	private static AID aid(int value) {
+		byte[] bytes = new byte[AID.BYTES];
+		bytes[0] = (byte) value;
+		return AID.from(bytes);
+	}
+
+	private static LedgerEntry ledgerEntry(int value) {
+		return new LedgerEntry(new byte[] { (byte) value }, aid(value));
+	}
+
+	/**
+	 * Occupies the single read thread until the returned latch is released.
+	 */
+	private CountDownLatch blockReads() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(delegate.contains(aid(0))).thenAnswer(invocation -> {
+			started.countDown();
+			return release.await(5, TimeUnit.SECONDS);
+		});
+		store.contains(aid(0));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		return release;
+	}
+
+	@Test
+	public void when_the_same_entry_is_read_while_waiting__then_it_is_read_once() throws Exception {
+		LedgerEntry ledgerEntry = ledgerEntry(1);
+		when(delegate.get(ledgerEntry.getAID())).thenReturn(Optional.of(ledgerEntry));
+		CountDownLatch release = blockReads();
+
+		CompletableFuture<Optional<LedgerEntry>> first = store.get(ledgerEntry.getAID());
+		CompletableFuture<Optional<LedgerEntry>> second = store.get(ledgerEntry.getAID());
+		release.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).contains(ledgerEntry);
+		assertThat(second.get(5, TimeUnit.SECONDS)).contains(ledgerEntry);
+		verify(delegate, times(1)).get(ledgerEntry.getAID());
+	}
+
+	@Test
+	public void when_an_entry_is_read_after_a_completed_read__then_it_is_read_again() throws Exception {
+		LedgerEntry ledgerEntry = ledgerEntry(1);
+		when(delegate.get(ledgerEntry.getAID())).thenReturn(Optional.of(ledgerEntry));
+
+		store.get(ledgerEntry.getAID()).get(5, TimeUnit.SECONDS);
+		store.get(ledgerEntry.getAID()).get(5, TimeUnit.SECONDS);
+
+		verify(delegate, times(2)).get(ledgerEntry.getAID());
+	}
+
+	@Test
+	public void when_pages_from_the_same_position_are_read_while_waiting__then_they_are_read_in_one_scan() throws Exception {
+		CommittedAidsPage page = new CommittedAidsPage(ImmutableList.of(aid(1), aid(2), aid(3)), new long[] { 4L, 7L, 9L }, ContinuationToken.fromTransportForm(9L));
+		when(delegate.getNextCommitted(ContinuationToken.initial(), 3)).thenReturn(page);
+		CountDownLatch release = blockReads();
+
+		CompletableFuture<CommittedAidsPage> small = store.getNextCommitted(ContinuationToken.initial(), 2);
+		CompletableFuture<CommittedAidsPage> large = store.getNextCommitted(ContinuationToken.initial(), 3);
+		release.countDown();
+
+		assertThat(large.get(5, TimeUnit.SECONDS)).isEqualTo(page);
+		CommittedAidsPage prefix = small.get(5, TimeUnit.SECONDS);
+		assertThat(prefix.getAids()).containsExactly(aid(1), aid(2));
+		assertThat(prefix.getLogicalClock(1)).isEqualTo(7L);
+		assertThat(prefix.getContinuation()).isEqualTo(ContinuationToken.fromTransportForm(7L));
+		verify(delegate, times(1)).getNextCommitted(any(ContinuationToken.class), anyInt());
+	}
+
+	@Test
+	public void when_pages_of_different_indices_are_read_while_waiting__then_they_are_scanned_separately() throws Exception {
+		StoreIndex first = new StoreIndex((byte) 1, new byte[] { 1 });
+		StoreIndex second = new StoreIndex((byte) 1, new byte[] { 2 });
+		CommittedAidsPage empty = new CommittedAidsPage(ImmutableList.of(), new long[0], ContinuationToken.initial());
+		when(delegate.getNextByIndex(any(), any(), anyInt())).thenReturn(empty);
+		CountDownLatch release = blockReads();
+
+		CompletableFuture<CommittedAidsPage> firstPage = store.getNextByIndex(first, ContinuationToken.initial(), 10);
+		CompletableFuture<CommittedAidsPage> secondPage = store.getNextByIndex(second, ContinuationToken.initial(), 10);
+		release.countDown();
+
+		assertThat(firstPage.get(5, TimeUnit.SECONDS)).isEqualTo(empty);
+		assertThat(secondPage.get(5, TimeUnit.SECONDS)).isEqualTo(empty);
+		verify(delegate, times(1)).getNextByIndex(first, ContinuationToken.initial(), 10);
+		verify(delegate, times(1)).getNextByIndex(second, ContinuationToken.initial(), 10);
+	}
+
+	@Test
+	public void when_a_read_fails__then_its_future_fails() {
+		when(delegate.get(any())).thenThrow(new IllegalStateException("failed"));
+
+		assertThatThrownBy(() -> store.get(aid(1)).get(5, TimeUnit.SECONDS))
+			.isInstanceOf(ExecutionException.class)
+			.hasCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void when_the_store_is_closed__then_reads_are_rejected() {
+		store.close();
+
+		assertThatThrownBy(() -> store.get(aid(1)).get(5, TimeUnit.SECONDS))
+			.isInstanceOf(ExecutionException.class)
+			.hasCauseInstanceOf(RejectedExecutionException.class);
+		assertThatThrownBy(() -> store.getNextCommitted(ContinuationToken.initial(), 10).get(5, TimeUnit.SECONDS))
+			.isInstanceOf(ExecutionException.class)
+			.hasCauseInstanceOf(RejectedExecutionException.class);
+	}
+}
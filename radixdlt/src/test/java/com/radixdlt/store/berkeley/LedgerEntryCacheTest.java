@@ -0,0 +1,84 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.radixdlt.common.AID;
+import com.radixdlt.store.LedgerEntry;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LedgerEntryCacheTest {
+	private static LedgerEntry ledgerEntry(int seed, int size) {
+		byte[] aidBytes = new byte[AID.BYTES];
+		aidBytes[0] = (byte) seed;
+		return new LedgerEntry(new byte[size], AID.from(aidBytes));
+	}
+
+	@Test
+	public void when_entry_is_put__then_it_is_returned_until_invalidated() {
+		LedgerEntryCache cache = new LedgerEntryCache(1024 * 1024, 1024 * 1024);
+		LedgerEntry ledgerEntry = ledgerEntry(1, 16);
+		byte[] ledgerEntryData = new byte[] {1, 2, 3};
+
+		cache.put(cache.generation(), ledgerEntry, ledgerEntryData);
+		assertThat(cache.get(ledgerEntry.getAID())).contains(ledgerEntry);
+		assertThat(cache.getSerialized(ledgerEntry.getAID())).hasValueSatisfying(data -> assertThat(data).isEqualTo(ledgerEntryData));
+
+		cache.invalidate(ledgerEntry.getAID());
+		assertThat(cache.get(ledgerEntry.getAID())).isEmpty();
+		assertThat(cache.getSerialized(ledgerEntry.getAID())).isEmpty();
+	}
+
+	@Test
+	public void when_cache_is_invalidated_while_loading__then_loaded_entry_is_not_cached() {
+		LedgerEntryCache cache = new LedgerEntryCache(1024 * 1024, 1024 * 1024);
+		LedgerEntry ledgerEntry = ledgerEntry(1, 16);
+
+		long generation = cache.generation();
+		cache.invalidate(ledgerEntry.getAID());
+		cache.put(generation, ledgerEntry, new byte[] {1, 2, 3});
+
+		assertThat(cache.get(ledgerEntry.getAID())).isEmpty();
+		assertThat(cache.getSerialized(ledgerEntry.getAID())).isEmpty();
+	}
+
+	@Test
+	public void when_off_heap_budget_is_exceeded__then_eldest_entries_are_evicted() {
+		LedgerEntryCache cache = new LedgerEntryCache(0, 10);
+		LedgerEntry first = ledgerEntry(1, 1);
+		LedgerEntry second = ledgerEntry(2, 1);
+
+		cache.put(cache.generation(), first, new byte[6]);
+		cache.put(cache.generation(), second, new byte[6]);
+
+		assertThat(cache.getSerialized(first.getAID())).isEmpty();
+		assertThat(cache.getSerialized(second.getAID())).isPresent();
+	}
+
+	@Test
+	public void when_cache_is_disabled__then_nothing_is_cached() {
+		LedgerEntryCache cache = new LedgerEntryCache(0, 0);
+		LedgerEntry ledgerEntry = ledgerEntry(1, 16);
+
+		cache.put(cache.generation(), ledgerEntry, new byte[] {1, 2, 3});
+
+		assertThat(cache.get(ledgerEntry.getAID())).isEmpty();
+		assertThat(cache.getSerialized(ledgerEntry.getAID())).isEmpty();
+	}
+}
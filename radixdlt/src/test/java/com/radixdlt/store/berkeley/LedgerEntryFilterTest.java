@@ -0,0 +1,79 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.berkeley;
+
+import com.radixdlt.common.AID;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LedgerEntryFilterTest {
+	private static AID randomAid(Random random) {
+		byte[] aidBytes = new byte[AID.BYTES];
+		random.nextBytes(aidBytes);
+		return AID.from(aidBytes);
+	}
+
+	@Test
+	public void when_filter_grows_beyond_initial_capacity__then_all_added_aids_might_be_contained() {
+		Random random = new Random(1234L);
+		LedgerEntryFilter filter = new LedgerEntryFilter(16);
+		List<AID> aids = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			AID aid = randomAid(random);
+			filter.add(aid);
+			aids.add(aid);
+		}
+
+		assertThat(aids).allMatch(filter::mightContain);
+	}
+
+	@Test
+	public void when_filter_grows_beyond_initial_capacity__then_false_positive_rate_stays_bounded() {
+		Random random = new Random(1234L);
+		LedgerEntryFilter filter = new LedgerEntryFilter(1024);
+		for (int i = 0; i < 16 * 1024; i++) {
+			filter.add(randomAid(random));
+		}
+
+		int falsePositives = 0;
+		int lookups = 100_000;
+		for (int i = 0; i < lookups; i++) {
+			if (filter.mightContain(randomAid(random))) {
+				falsePositives++;
+			}
+		}
+		// configured bound is 1%, allow for some variance
+		assertThat(falsePositives).isLessThan(lookups * 2 / 100);
+	}
+
+	@Test
+	public void when_filter_is_cleared__then_added_aids_are_no_longer_contained() {
+		Random random = new Random(1234L);
+		LedgerEntryFilter filter = new LedgerEntryFilter(16);
+		AID aid = randomAid(random);
+		filter.add(aid);
+
+		filter.clear();
+
+		assertThat(filter.mightContain(aid)).isFalse();
+	}
+}
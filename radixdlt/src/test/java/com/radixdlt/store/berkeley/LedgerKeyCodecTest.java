@@ -0,0 +1,96 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.common.AID;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.StoreIndex;
+import com.sleepycat.je.DatabaseEntry;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LedgerKeyCodecTest {
+	private static LedgerEntryIndices indices() {
+		byte[] aidBytes = new byte[AID.BYTES];
+		aidBytes[0] = 1;
+		LedgerEntry ledgerEntry = new LedgerEntry(new byte[] { 1, 2, 3 }, AID.from(aidBytes));
+		return LedgerEntryIndices.from(
+			ledgerEntry,
+			ImmutableSet.of(new StoreIndex((byte) 100, new byte[] { 1, 2 })),
+			ImmutableSet.of(new StoreIndex((byte) 101, new byte[] { 3 }), new StoreIndex((byte) 102, new byte[0]))
+		);
+	}
+
+	private static byte[] copyOf(DatabaseEntry entry) {
+		return Arrays.copyOfRange(entry.getData(), entry.getOffset(), entry.getOffset() + entry.getSize());
+	}
+
+	@Test
+	public void when_indices_are_encoded__then_they_decode_to_the_same_indices() {
+		LedgerEntryIndices indices = indices();
+
+		byte[] encoded = LedgerKeyCodec.encodeIndices(indices);
+		LedgerEntryIndices decoded = LedgerKeyCodec.decodeIndices(encoded);
+
+		assertThat(LedgerKeyCodec.isBinaryIndices(encoded)).isTrue();
+		assertThat(decoded.getUniqueIndices()).isEqualTo(indices.getUniqueIndices());
+		assertThat(decoded.getDuplicateIndices()).isEqualTo(indices.getDuplicateIndices());
+	}
+
+	@Test
+	public void when_indices_are_dson__then_they_are_not_mistaken_for_binary() throws Exception {
+		byte[] dson = Serialization.getDefault().toDson(indices(), Output.PERSIST);
+
+		assertThat(LedgerKeyCodec.isBinaryIndices(dson)).isFalse();
+	}
+
+	@Test
+	public void when_indices_are_truncated__then_decoding_fails() {
+		byte[] encoded = LedgerKeyCodec.encodeIndices(indices());
+
+		assertThatThrownBy(() -> LedgerKeyCodec.decodeIndices(Arrays.copyOf(encoded, encoded.length - 1)))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void when_index_key_is_encoded__then_it_matches_the_store_index_key() {
+		StoreIndex small = new StoreIndex((byte) 100, new byte[] { 1, 2 });
+		StoreIndex large = new StoreIndex((byte) 101, new byte[200]);
+
+		assertThat(copyOf(LedgerKeyCodec.indexKey(small))).isEqualTo(small.asKey());
+		// buffer grows as required and is reset for shorter keys
+		assertThat(copyOf(LedgerKeyCodec.indexKey(large))).isEqualTo(large.asKey());
+		assertThat(copyOf(LedgerKeyCodec.indexKey(small))).isEqualTo(small.asKey());
+	}
+
+	@Test
+	public void when_aid_key_is_encoded__then_it_matches_the_aid_bytes() {
+		byte[] aidBytes = new byte[AID.BYTES];
+		aidBytes[AID.BYTES - 1] = 7;
+		AID aid = AID.from(aidBytes);
+
+		assertThat(copyOf(LedgerKeyCodec.aidKey(aid))).isEqualTo(aid.getBytes());
+	}
+}
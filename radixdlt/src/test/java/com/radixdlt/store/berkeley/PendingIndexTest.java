@@ -0,0 +1,58 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.store.berkeley;
+
+import com.radixdlt.common.AID;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PendingIndexTest {
+	private static AID aid(int seed) {
+		byte[] aidBytes = new byte[AID.BYTES];
+		aidBytes[0] = (byte) seed;
+		return AID.from(aidBytes);
+	}
+
+	@Test
+	public void when_changes_are_not_applied__then_index_is_unchanged() {
+		PendingIndex index = new PendingIndex();
+		index.load(aid(1), 1L);
+
+		PendingIndex.Changes changes = index.changes();
+		changes.removed(aid(1));
+		changes.added(aid(2), 2L);
+
+		assertThat(index.getPending()).containsExactly(aid(1));
+		assertThat(index.isPending(aid(2))).isFalse();
+	}
+
+	@Test
+	public void when_changes_are_applied__then_index_reflects_them() {
+		PendingIndex index = new PendingIndex();
+		index.load(aid(1), 1L);
+
+		PendingIndex.Changes changes = index.changes();
+		changes.removed(aid(1));
+		changes.added(aid(2), 2L);
+		changes.apply();
+
+		assertThat(index.getPending()).containsExactly(aid(2));
+		assertThat(index.isPending(aid(1))).isFalse();
+		assertThat(index.isPending(aid(2))).isTrue();
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+	@Test
+	public void when_values_are_bucketed__then_every_value_lies_within_its_bucket() {
+		long[] values = { 0L, 1L, 7L, 8L, 15L, 16L, 17L, 1_000L, 123_456_789L, Long.MAX_VALUE };
+		for (long value : values) {
+			int bucket = LatencyHistogram.bucketOf(value);
+			long lowest = bucket == 0 ? 0L : LatencyHistogram.highestValueOf(bucket - 1) + 1;
+			assertThat(value).isBetween(lowest, LatencyHistogram.highestValueOf(bucket));
+		}
+	}
+
+	@Test
+	public void when_values_are_recorded__then_percentiles_are_within_the_bucket_precision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i);
+		}
+
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+		assertThat(snapshot.getCount()).isEqualTo(1000L);
+		assertThat(snapshot.getMax()).isEqualTo(1000L);
+		assertThat(snapshot.getMean()).isCloseTo(500.5, within(0.001));
+		assertThat(snapshot.getValueAtPercentile(50.0)).isBetween(500L, 563L);
+		assertThat(snapshot.getValueAtPercentile(99.0)).isBetween(990L, 1000L);
+		assertThat(snapshot.getValueAtPercentile(100.0)).isEqualTo(1000L);
+	}
+
+	@Test
+	public void when_nothing_is_recorded__then_percentiles_are_zero() {
+		LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+		assertThat(snapshot.getCount()).isZero();
+		assertThat(snapshot.getValueAtPercentile(99.0)).isZero();
+		assertThat(snapshot.getMean()).isZero();
+	}
+
+	@Test
+	public void when_a_negative_value_is_recorded__then_it_is_counted_as_zero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5L);
+
+		assertThat(histogram.snapshot().getValueAtPercentile(100.0)).isZero();
+	}
+
+	@Test
+	public void when_an_invalid_percentile_is_requested__then_an_exception_is_thrown() {
+		LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+		assertThatThrownBy(() -> snapshot.getValueAtPercentile(101.0)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
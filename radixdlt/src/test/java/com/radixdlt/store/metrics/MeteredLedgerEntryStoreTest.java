@@ -0,0 +1,99 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.metrics;
+
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.common.AID;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.LedgerEntryStoreResult;
+import com.radixdlt.store.metrics.StoreMetrics.Operation;
+import com.radixdlt.store.metrics.StoreMetrics.OperationSnapshot;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MeteredLedgerEntryStoreTest {
+	private LedgerEntryStore delegate;
+	private StoreMetrics metrics;
+	private MeteredLedgerEntryStore store;
+
+	@Before
+	public void setUp() {
+		this.delegate = mock(LedgerEntryStore.class);
+		this.metrics = new StoreMetrics(() -> 7L);
+		this.store = new MeteredLedgerEntryStore(this.delegate, this.metrics);
+	}
+
+	private static LedgerEntry ledgerEntry(int contentSize) {
+		return new LedgerEntry(new byte[contentSize], AID.from(new byte[AID.BYTES]));
+	}
+
+	@Test
+	public void when_an_entry_is_read__then_the_get_and_its_bytes_are_recorded() {
+		LedgerEntry ledgerEntry = ledgerEntry(100);
+		when(delegate.get(ledgerEntry.getAID())).thenReturn(Optional.of(ledgerEntry));
+
+		assertThat(store.get(ledgerEntry.getAID())).contains(ledgerEntry);
+
+		OperationSnapshot snapshot = metrics.snapshot().get(Operation.GET);
+		assertThat(snapshot.getLatency().getCount()).isEqualTo(1L);
+		assertThat(snapshot.getBytesRead()).isEqualTo(100L);
+		assertThat(snapshot.getFailures()).isZero();
+	}
+
+	@Test
+	public void when_an_entry_is_stored__then_the_store_and_its_bytes_are_recorded() {
+		LedgerEntry ledgerEntry = ledgerEntry(50);
+		when(delegate.store(any(), any(), any())).thenReturn(LedgerEntryStoreResult.success());
+
+		store.store(ledgerEntry, ImmutableSet.of(), ImmutableSet.of());
+
+		verify(delegate).store(ledgerEntry, ImmutableSet.of(), ImmutableSet.of());
+		OperationSnapshot snapshot = metrics.snapshot().get(Operation.STORE);
+		assertThat(snapshot.getLatency().getCount()).isEqualTo(1L);
+		assertThat(snapshot.getBytesWritten()).isEqualTo(50L);
+	}
+
+	@Test
+	public void when_an_operation_fails__then_the_failure_is_recorded_and_rethrown() {
+		AID aid = AID.from(new byte[AID.BYTES]);
+		when(delegate.contains(aid)).thenThrow(new IllegalStateException("failed"));
+
+		assertThatThrownBy(() -> store.contains(aid)).isInstanceOf(IllegalStateException.class);
+
+		OperationSnapshot snapshot = metrics.snapshot().get(Operation.CONTAINS);
+		assertThat(snapshot.getLatency().getCount()).isEqualTo(1L);
+		assertThat(snapshot.getFailures()).isEqualTo(1L);
+	}
+
+	@Test
+	public void when_nothing_was_executed__then_every_operation_has_empty_metrics() {
+		assertThat(metrics.snapshot()).hasSize(Operation.values().length);
+		assertThat(metrics.snapshot().values()).allSatisfy(snapshot -> assertThat(snapshot.getLatency().getCount()).isZero());
+		assertThat(metrics.getLockWaits()).isEqualTo(7L);
+	}
+}
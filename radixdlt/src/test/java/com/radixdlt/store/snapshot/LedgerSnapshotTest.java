@@ -0,0 +1,142 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.snapshot;
+
+import com.radixdlt.common.AID;
+import com.radixdlt.serialization.Serialization;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LedgerSnapshotTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Serialization serialization = Serialization.getDefault();
+
+	private static SnapshotEntry entry(int i) {
+		byte[] aidBytes = new byte[AID.BYTES];
+		aidBytes[0] = (byte) i;
+		aidBytes[1] = (byte) (i >> 8);
+		return new SnapshotEntry(i + 1L, AID.from(aidBytes), new byte[] { (byte) i, 1, 2, 3 }, new byte[] { 1, (byte) i });
+	}
+
+	private LedgerSnapshot write(File directory, int entries, int chunkMaxBytes) throws IOException {
+		LedgerSnapshotWriter writer = new LedgerSnapshotWriter(directory, serialization, chunkMaxBytes);
+		for (int i = 0; i < entries; i++) {
+			writer.add(entry(i));
+		}
+		return writer.finish();
+	}
+
+	private static List<SnapshotEntry> read(LedgerSnapshot snapshot) throws IOException {
+		List<SnapshotEntry> entries = new ArrayList<>();
+		snapshot.forEach(entries::add);
+		return entries;
+	}
+
+	@Test
+	public void when_a_snapshot_is_written_and_opened__then_all_entries_are_read_back_in_order() throws IOException {
+		File directory = folder.newFolder();
+		LedgerSnapshot written = write(directory, 100, 256);
+
+		LedgerSnapshot opened = LedgerSnapshot.open(directory, serialization);
+		List<SnapshotEntry> entries = read(opened);
+
+		assertThat(opened.getManifest()).isEqualTo(written.getManifest());
+		assertThat(opened.getManifest().isConsistent()).isTrue();
+		assertThat(opened.getManifest().getChunks().size()).isGreaterThan(1);
+		assertThat(opened.getManifest().getEntries()).isEqualTo(100L);
+		assertThat(opened.getManifest().getLastLogicalClock()).isEqualTo(100L);
+		assertThat(entries).hasSize(100);
+		for (int i = 0; i < entries.size(); i++) {
+			SnapshotEntry expected = entry(i);
+			assertThat(entries.get(i).getLogicalClock()).isEqualTo(expected.getLogicalClock());
+			assertThat(entries.get(i).getAID()).isEqualTo(expected.getAID());
+			assertThat(entries.get(i).getLedgerEntryData()).isEqualTo(expected.getLedgerEntryData());
+			assertThat(entries.get(i).getIndicesData()).isEqualTo(expected.getIndicesData());
+		}
+	}
+
+	@Test
+	public void when_an_empty_snapshot_is_written__then_it_has_no_chunks() throws IOException {
+		LedgerSnapshot snapshot = write(folder.newFolder(), 0, 256);
+
+		assertThat(snapshot.getManifest().getChunks()).isEmpty();
+		assertThat(read(snapshot)).isEmpty();
+	}
+
+	@Test
+	public void when_a_chunk_is_corrupted__then_reading_it_fails() throws IOException {
+		File directory = folder.newFolder();
+		LedgerSnapshot snapshot = write(directory, 10, 1 << 20);
+		File chunkFile = LedgerSnapshot.chunkFile(directory, 0);
+		byte[] chunk = Files.readAllBytes(chunkFile.toPath());
+		chunk[chunk.length / 2] ^= 0x55;
+		Files.write(chunkFile.toPath(), chunk);
+
+		assertThatThrownBy(() -> snapshot.readChunk(0)).isInstanceOf(IOException.class);
+		assertThatThrownBy(() -> read(snapshot)).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	public void when_fetched_chunks_are_written__then_the_completed_snapshot_matches_the_source() throws IOException {
+		LedgerSnapshot source = write(folder.newFolder(), 50, 256);
+		File target = folder.newFolder();
+		SnapshotManifest manifest = source.getManifest();
+
+		for (SnapshotChunkInfo chunkInfo : manifest.getChunks()) {
+			LedgerSnapshot.writeChunk(target, chunkInfo, source.readChunk(chunkInfo.getIndex()));
+		}
+		assertThat(LedgerSnapshot.exists(target)).isFalse();
+		LedgerSnapshot completed = LedgerSnapshot.complete(target, manifest, serialization);
+
+		assertThat(LedgerSnapshot.exists(target)).isTrue();
+		assertThat(read(completed)).hasSize(50);
+	}
+
+	@Test
+	public void when_a_fetched_chunk_does_not_match_the_manifest__then_it_is_rejected() throws IOException {
+		LedgerSnapshot source = write(folder.newFolder(), 50, 256);
+		File target = folder.newFolder();
+		SnapshotChunkInfo chunkInfo = source.getManifest().getChunks().get(0);
+
+		byte[] wrongChunk = source.readChunk(1);
+
+		assertThatThrownBy(() -> LedgerSnapshot.writeChunk(target, chunkInfo, wrongChunk)).isInstanceOf(IOException.class);
+		assertThat(LedgerSnapshot.chunkFile(target, 0)).doesNotExist();
+	}
+
+	@Test
+	public void when_a_manifest_is_missing_chunks__then_completing_it_fails() throws IOException {
+		LedgerSnapshot source = write(folder.newFolder(), 50, 256);
+		File target = folder.newFolder();
+
+		assertThatThrownBy(() -> LedgerSnapshot.complete(target, source.getManifest(), serialization))
+			.isInstanceOf(IOException.class);
+	}
+}
@@ -19,9 +19,14 @@ package org.radix.api.jsonrpc;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
 
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.common.AID;
+import com.radixdlt.store.CommittedAidsPage;
+import com.radixdlt.store.ContinuationToken;
 import com.radixdlt.store.LedgerEntryStore;
 import com.radixdlt.universe.Universe;
 import org.everit.json.schema.Schema;
@@ -107,4 +112,36 @@ public class RadixJsonRpcServerTest {
 		assertThat(response.getJSONObject("error").get("code")).isEqualTo(JsonRpcUtil.OVERSIZED_REQUEST);
 		assertThat(response.getJSONObject("error").getString("message")).isNotEmpty();
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void when_send_json_rpc_request_get_atoms_since__return_page_and_continuation() {
+		JSONObject request = new JSONObject()
+			.put("id", 0)
+			.put("method", "Ledger.getAtoms")
+			.put("params", new JSONObject()
+				.put("address", "JH1P8f3znbyrDj8F4RWpix7hRkgxqHjdW2fNnKpR3v6ufXnknor")
+				.put("since", 7L)
+				.put("limit", 2));
+
+		Serialization serializer = mock(Serialization.class);
+		when(serializer.toJsonObject(any(), any())).thenAnswer(i -> i.getArguments()[0] instanceof AID
+			? new JSONObject().put("aid", i.getArguments()[0].toString())
+			: i.getArguments()[0]);
+		LedgerEntryStore ledger = mock(LedgerEntryStore.class);
+		when(ledger.getNextByIndex(any(), eq(ContinuationToken.fromTransportForm(7L)), eq(2)))
+			.thenReturn(new CommittedAidsPage(ImmutableList.of(AID.ZERO), new long[] {9L}, ContinuationToken.fromTransportForm(9L)));
+
+		RadixJsonRpcServer server = new RadixJsonRpcServer(
+			serializer,
+			ledger,
+			mock(AtomsService.class),
+			mock(Schema.class),
+			mock(LocalSystem.class),
+			mock(AddressBook.class),
+			mock(Universe.class));
+
+		JSONObject response = new JSONObject(server.handleChecked(request.toString()));
+		assertThat(response.getJSONObject("result").getJSONArray("aids").length()).isEqualTo(1);
+		assertThat(response.getJSONObject("result").getLong("continuation")).isEqualTo(9L);
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.database;
+
+import com.sleepycat.je.CheckpointConfig;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentMutableConfig;
+import com.sleepycat.je.EnvironmentStats;
+import com.sleepycat.je.StatsConfig;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EnvironmentMaintenanceTaskTest {
+	private static final long FILE_MAX = 100_000_000L;
+
+	private static long lsn(long file, long offset) {
+		return (file << 32) | offset;
+	}
+
+	@Test
+	public void when_backlog_or_low_utilization__then_clean() {
+		assertThat(EnvironmentMaintenanceTask.shouldClean(1, 90, 50)).isTrue();
+		assertThat(EnvironmentMaintenanceTask.shouldClean(0, 40, 50)).isTrue();
+		assertThat(EnvironmentMaintenanceTask.shouldClean(0, 50, 50)).isFalse();
+	}
+
+	@Test
+	public void when_bytes_or_interval_exceeded__then_checkpoint() {
+		assertThat(EnvironmentMaintenanceTask.shouldCheckpoint(64, 64, 0, 100)).isTrue();
+		assertThat(EnvironmentMaintenanceTask.shouldCheckpoint(0, 64, 100, 100)).isTrue();
+		assertThat(EnvironmentMaintenanceTask.shouldCheckpoint(63, 64, 99, 100)).isFalse();
+	}
+
+	@Test
+	public void when_cache_above_high_water__then_evict() {
+		assertThat(EnvironmentMaintenanceTask.shouldEvict(90, 100, 90)).isTrue();
+		assertThat(EnvironmentMaintenanceTask.shouldEvict(89, 100, 90)).isFalse();
+		assertThat(EnvironmentMaintenanceTask.shouldEvict(10, 0, 90)).isFalse();
+	}
+
+	@Test
+	public void when_lsns_span_files__then_distance_accounts_for_file_size() {
+		assertThat(EnvironmentMaintenanceTask.logDistance(lsn(2, 100), lsn(2, 500), FILE_MAX)).isEqualTo(400L);
+		assertThat(EnvironmentMaintenanceTask.logDistance(lsn(2, 100), lsn(3, 50), FILE_MAX)).isEqualTo(FILE_MAX - 50L);
+		assertThat(EnvironmentMaintenanceTask.logDistance(-1L, lsn(1, 10), FILE_MAX)).isEqualTo(FILE_MAX + 10L);
+		assertThat(EnvironmentMaintenanceTask.logDistance(-1L, -1L, FILE_MAX)).isEqualTo(0L);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void when_files_are_cleaned_over_several_ticks__then_they_wait_for_the_next_checkpoint() {
+		Environment environment = mock(Environment.class);
+		EnvironmentStats stats = mock(EnvironmentStats.class);
+		EnvironmentMutableConfig mutableConfig = mock(EnvironmentMutableConfig.class);
+		when(environment.getStats(any(StatsConfig.class))).thenReturn(stats);
+		when(environment.getMutableConfig()).thenReturn(mutableConfig);
+		when(environment.cleanLogFile()).thenReturn(true);
+		when(stats.getCleanerBacklog()).thenReturn(1);
+		when(stats.getCurrentMinUtilization()).thenReturn(40);
+		when(stats.getLastCheckpointStart()).thenReturn(lsn(1, 0));
+		when(stats.getEndOfLog()).thenReturn(lsn(1, 1_000));
+
+		EnvironmentMaintenanceTask task = new EnvironmentMaintenanceTask(
+			environment, 1_000L, 50, 1, 64_000L, TimeUnit.HOURS.toMillis(1L), 90, FILE_MAX
+		);
+
+		task.tick();
+		task.tick();
+		task.tick();
+
+		verify(environment, times(3)).cleanLogFile();
+		verify(environment, never()).checkpoint(any(CheckpointConfig.class));
+
+		when(stats.getEndOfLog()).thenReturn(lsn(1, 64_000));
+		task.tick();
+
+		verify(environment, times(4)).cleanLogFile();
+		verify(environment, times(1)).checkpoint(any(CheckpointConfig.class));
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.database;
+
+import com.sleepycat.je.Environment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class GroupCommitterTest {
+	private Environment environment;
+	private GroupCommitter groupCommitter;
+	private Thread flusher;
+
+	@Before
+	public void setUp() {
+		this.environment = mock(Environment.class);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (this.flusher != null) {
+			this.groupCommitter.stop();
+			this.flusher.join();
+		}
+	}
+
+	private void start(long intervalMillis, int maxCommits) {
+		this.groupCommitter = new GroupCommitter(this.environment, intervalMillis, maxCommits);
+		this.flusher = new Thread(this.groupCommitter);
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+
+	@Test
+	public void when_max_commits_waiting__then_synced_without_waiting_for_interval() throws Exception {
+		start(TimeUnit.MINUTES.toMillis(10), 2);
+
+		CompletableFuture<Void> first = this.groupCommitter.requestSync();
+		CompletableFuture<Void> second = this.groupCommitter.requestSync();
+
+		second.get(10, TimeUnit.SECONDS);
+		first.get(10, TimeUnit.SECONDS);
+		verify(this.environment, atLeastOnce()).flushLog(true);
+	}
+
+	@Test
+	public void when_interval_elapses__then_waiting_commits_are_synced() throws Exception {
+		start(10, 1000);
+
+		this.groupCommitter.requestSync().get(10, TimeUnit.SECONDS);
+		verify(this.environment, atLeastOnce()).flushLog(true);
+	}
+
+	@Test
+	public void when_nothing_is_waiting__then_log_is_not_synced() throws Exception {
+		start(10, 1000);
+
+		Thread.sleep(100);
+		verify(this.environment, never()).flushLog(anyBoolean());
+	}
+
+	@Test
+	public void when_sync_fails__then_futures_complete_exceptionally() {
+		doThrow(new IllegalStateException("test")).when(this.environment).flushLog(true);
+		start(10, 1);
+
+		CompletableFuture<Void> future = this.groupCommitter.requestSync();
+		assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+	}
+
+	@Test
+	public void when_stopped__then_outstanding_and_later_requests_are_synced() throws Exception {
+		start(TimeUnit.MINUTES.toMillis(10), 1000);
+
+		CompletableFuture<Void> outstanding = this.groupCommitter.requestSync();
+		this.groupCommitter.stop();
+		this.flusher.join();
+
+		assertThat(outstanding).isCompleted();
+		assertThat(this.groupCommitter.requestSync()).isCompleted();
+		verify(this.environment, times(2)).flushLog(true);
+	}
+}
@@ -17,6 +17,7 @@
 
 package org.radix.serialization;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.common.Atom;
 import com.radixdlt.consensus.QuorumCertificate;
 import com.radixdlt.consensus.View;
@@ -40,7 +41,7 @@ public class VertexMessageSerializeTest extends SerializeMessageObject<VertexMes
 
 		VertexMetadata vertexMetadata = new VertexMetadata(view, id, parentView, parentId);
 		QuorumCertificate qc = new QuorumCertificate(vertexMetadata, new ECDSASignatures());
-		Vertex vertex = new Vertex(qc, view, atom);
+		Vertex vertex = new Vertex(qc, view, ImmutableList.of(atom));
 		return new VertexMessage(1, vertex);
 	}
 }
@@ -17,6 +17,7 @@
 
 package org.radix.serialization;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.atommodel.message.MessageParticle;
 import com.radixdlt.atomos.RadixAddress;
 import com.radixdlt.common.Atom;
@@ -48,6 +49,6 @@ public class VertexSerializeTest extends SerializeObject<Vertex> {
 		// add a particle to ensure atom is valid and has at least one shard
 		atom.addParticleGroupWith(new MessageParticle(address, address, "Hello".getBytes()), Spin.UP);
 
-		return Vertex.createVertex(qc, view, atom);
+		return Vertex.createVertex(qc, view, ImmutableList.of(atom));
 	}
 }